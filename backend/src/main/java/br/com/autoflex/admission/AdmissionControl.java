@@ -0,0 +1,102 @@
+package br.com.autoflex.admission;
+
+import io.agroal.api.AgroalDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent admitted requests at the datasource pool size. With virtual threads nothing
+ * else bounds concurrency, so without this every burst would pile up inside the pool and time
+ * out there; instead requests wait in a fair queue here and are turned away with 503 once they
+ * have waited {@code autoflex.admission.timeout}.
+ */
+@Singleton
+public class AdmissionControl implements MeterBinder {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "autoflex.admission.enabled", defaultValue = "true")
+    boolean enabled;
+
+    /** Defaults to the datasource pool's max size. */
+    @ConfigProperty(name = "autoflex.admission.permits")
+    Optional<Integer> permits;
+
+    @ConfigProperty(name = "autoflex.admission.timeout", defaultValue = "2s")
+    Duration timeout;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private int size;
+    private Semaphore semaphore;
+
+    @PostConstruct
+    void init() {
+        size = permits.orElseGet(() -> dataSource.getConfiguration().connectionPoolConfiguration().maxSize());
+        semaphore = new Semaphore(size, true);
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Waits up to the configured timeout for a permit; false means the caller was rejected. */
+    public boolean tryAcquire() throws InterruptedException {
+        if (semaphore.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) return true;
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    static ServiceUnavailableException rejection() {
+        return new ServiceUnavailableException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header("Retry-After", 1)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(Map.of("details", "Too many concurrent requests, retry later"))
+                .build());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("autoflex.admission.in-use", this, a -> a.size - a.semaphore.availablePermits())
+                .description("Admitted requests currently running")
+                .register(registry);
+        Gauge.builder("autoflex.admission.waiting", this, a -> a.semaphore.getQueueLength())
+                .description("Requests waiting for admission")
+                .register(registry);
+        FunctionCounter.builder("autoflex.admission.rejected", this, AdmissionControl::rejected)
+                .description("Requests turned away with 503 after waiting for admission")
+                .register(registry);
+    }
+}
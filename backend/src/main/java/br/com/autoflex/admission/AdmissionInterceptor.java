@@ -0,0 +1,54 @@
+package br.com.autoflex.admission;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs outside {@code @Transactional}, so a waiting request does not hold a connection yet. A
+ * streamed body is written after the method returns, so its permit is handed to the body and given
+ * back once the body is written.
+ */
+@Admitted
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class AdmissionInterceptor {
+
+    @Inject
+    AdmissionControl admission;
+
+    @AroundInvoke
+    Object admit(InvocationContext ctx) throws Exception {
+        if (!admission.enabled()) return ctx.proceed();
+        if (!admission.tryAcquire()) throw AdmissionControl.rejection();
+
+        boolean handedOff = false;
+        try {
+            Object result = ctx.proceed();
+            if (result instanceof Response r && r.getEntity() instanceof StreamingOutput body) {
+                result = Response.fromResponse(r).entity(holding(body)).build();
+                handedOff = true;
+            }
+            return result;
+        } finally {
+            if (!handedOff) admission.release();
+        }
+    }
+
+    private StreamingOutput holding(StreamingOutput body) {
+        AtomicBoolean released = new AtomicBoolean();
+        return out -> {
+            try {
+                body.write(out);
+            } finally {
+                if (released.compareAndSet(false, true)) admission.release();
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.autoflex.bom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BomDelta {
+
+    public record ProductUpsert(long id, String code, String name, long unitPrice,
+                                long[] lineFeedstockIds, long[] lineQuantities) {
+        public boolean replacesLines() {
+            return lineFeedstockIds != null;
+        }
+    }
+
+    /** A null {@code stock} keeps the feedstock's current stock. */
+    public record FeedstockUpsert(long id, String code, String name, String unitOfMeasure, Long stock) {}
+
+    public record StockAdjustment(long feedstockId, long delta) {}
+
+    final List<ProductUpsert> productUpserts = new ArrayList<>();
+    final List<Long> productDeletes = new ArrayList<>();
+    final List<FeedstockUpsert> feedstockUpserts = new ArrayList<>();
+    final List<Long> feedstockDeletes = new ArrayList<>();
+    final List<StockAdjustment> stockAdjustments = new ArrayList<>();
+
+    public BomDelta upsertProduct(ProductUpsert upsert) {
+        productUpserts.add(upsert);
+        return this;
+    }
+
+    public BomDelta deleteProduct(long id) {
+        productDeletes.add(id);
+        return this;
+    }
+
+    public BomDelta upsertFeedstock(FeedstockUpsert upsert) {
+        feedstockUpserts.add(upsert);
+        return this;
+    }
+
+    public BomDelta deleteFeedstock(long id) {
+        feedstockDeletes.add(id);
+        return this;
+    }
+
+    /** Adds {@code delta} micro-units to the feedstock's stock; applied after the upserts. */
+    public BomDelta adjustStock(long feedstockId, long delta) {
+        stockAdjustments.add(new StockAdjustment(feedstockId, delta));
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return productUpserts.isEmpty() && productDeletes.isEmpty()
+                && feedstockUpserts.isEmpty() && feedstockDeletes.isEmpty()
+                && stockAdjustments.isEmpty();
+    }
+
+    boolean onlyAdjustsStock() {
+        return productUpserts.isEmpty() && productDeletes.isEmpty()
+                && feedstockUpserts.isEmpty() && feedstockDeletes.isEmpty();
+    }
+}
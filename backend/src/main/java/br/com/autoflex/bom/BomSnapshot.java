@@ -0,0 +1,522 @@
+package br.com.autoflex.bom;
+
+import java.util.Arrays;
+
+/**
+ * Immutable bill of materials held in primitive arrays. Products and feedstocks are addressed by
+ * dense int indexes that never move; deleted rows are kept as tombstones ({@code alive == false})
+ * with no lines. Prices are in cents and stock/quantities in micro-units (scale 6), so every
+ * computation over the snapshot is exact integer arithmetic.
+ *
+ * <p>Lines are stored in compressed sparse row form in both directions: the lines of product
+ * {@code p} are {@code lineFeedstocks/lineQuantities[lineOffsets[p] .. lineOffsets[p + 1])} and
+ * the products using feedstock {@code f} are
+ * {@code usageProducts/usageQuantities[usageOffsets[f] .. usageOffsets[f + 1])}.
+ *
+ * <p>A new version is derived with {@link #apply(BomDelta)}; the receiver is never modified, so
+ * readers holding a reference always see a consistent version.
+ */
+public final class BomSnapshot {
+
+    public final long version;
+
+    public final int productCount;
+    public final long[] productIds;
+    public final String[] productCodes;
+    public final String[] productNames;
+    public final long[] unitPrices;
+    public final boolean[] productAlive;
+
+    public final int feedstockCount;
+    public final long[] feedstockIds;
+    public final String[] feedstockCodes;
+    public final String[] feedstockNames;
+    public final String[] unitsOfMeasure;
+    public final long[] stocks;
+    public final boolean[] feedstockAlive;
+
+    public final int[] lineOffsets;
+    public final int[] lineFeedstocks;
+    public final long[] lineQuantities;
+
+    public final int[] usageOffsets;
+    public final int[] usageProducts;
+    public final long[] usageQuantities;
+
+    public final int[] priceOrder;
+
+    private final LongIntMap productIndex;
+    private final LongIntMap feedstockIndex;
+
+    private BomSnapshot(long version,
+                        Products products, LongIntMap productIndex,
+                        Feedstocks feedstocks, LongIntMap feedstockIndex,
+                        int[] lineOffsets, int[] lineFeedstocks, long[] lineQuantities,
+                        int[] priceOrder) {
+        this.version = version;
+
+        this.productCount = products.count;
+        this.productIds = products.ids;
+        this.productCodes = products.codes;
+        this.productNames = products.names;
+        this.unitPrices = products.prices;
+        this.productAlive = products.alive;
+        this.productIndex = productIndex;
+
+        this.feedstockCount = feedstocks.count;
+        this.feedstockIds = feedstocks.ids;
+        this.feedstockCodes = feedstocks.codes;
+        this.feedstockNames = feedstocks.names;
+        this.unitsOfMeasure = feedstocks.units;
+        this.stocks = feedstocks.stocks;
+        this.feedstockAlive = feedstocks.alive;
+        this.feedstockIndex = feedstockIndex;
+
+        this.lineOffsets = lineOffsets;
+        this.lineFeedstocks = lineFeedstocks;
+        this.lineQuantities = lineQuantities;
+
+        this.usageOffsets = new int[feedstockCount + 1];
+        this.usageProducts = new int[lineFeedstocks.length];
+        this.usageQuantities = new long[lineFeedstocks.length];
+        transpose();
+
+        this.priceOrder = priceOrder != null
+                ? priceOrder
+                : priceOrder(unitPrices, productIds, productAlive, productCount);
+    }
+
+    private BomSnapshot(BomSnapshot base, long[] stocks) {
+        this.version = base.version + 1;
+
+        this.productCount = base.productCount;
+        this.productIds = base.productIds;
+        this.productCodes = base.productCodes;
+        this.productNames = base.productNames;
+        this.unitPrices = base.unitPrices;
+        this.productAlive = base.productAlive;
+        this.productIndex = base.productIndex;
+
+        this.feedstockCount = base.feedstockCount;
+        this.feedstockIds = base.feedstockIds;
+        this.feedstockCodes = base.feedstockCodes;
+        this.feedstockNames = base.feedstockNames;
+        this.unitsOfMeasure = base.unitsOfMeasure;
+        this.stocks = stocks;
+        this.feedstockAlive = base.feedstockAlive;
+        this.feedstockIndex = base.feedstockIndex;
+
+        this.lineOffsets = base.lineOffsets;
+        this.lineFeedstocks = base.lineFeedstocks;
+        this.lineQuantities = base.lineQuantities;
+
+        this.usageOffsets = base.usageOffsets;
+        this.usageProducts = base.usageProducts;
+        this.usageQuantities = base.usageQuantities;
+
+        this.priceOrder = base.priceOrder;
+    }
+
+    public int productIndexOf(long productId) {
+        int p = productIndex.get(productId);
+        return p >= 0 && productAlive[p] ? p : -1;
+    }
+
+    public int feedstockIndexOf(long feedstockId) {
+        int f = feedstockIndex.get(feedstockId);
+        return f >= 0 && feedstockAlive[f] ? f : -1;
+    }
+
+    public int lineCount() {
+        return lineOffsets[productCount];
+    }
+
+    public int liveProductCount() {
+        return priceOrder.length;
+    }
+
+    public int liveFeedstockCount() {
+        int n = 0;
+        for (int f = 0; f < feedstockCount; f++) {
+            if (feedstockAlive[f]) n++;
+        }
+        return n;
+    }
+
+    public BomSnapshot apply(BomDelta delta) {
+        if (delta.isEmpty()) return this;
+        if (delta.onlyAdjustsStock()) return withStocks(adjusted(stocks, feedstockIndex, delta));
+
+        Feedstocks feedstocks = new Feedstocks(this, delta.feedstockUpserts.size());
+        LongIntMap feedstockIdx = feedstockIndex;
+        for (BomDelta.FeedstockUpsert u : delta.feedstockUpserts) {
+            int f = feedstockIdx.get(u.id());
+            if (f < 0) {
+                if (feedstockIdx == feedstockIndex) feedstockIdx = feedstockIndex.copy();
+                f = feedstocks.count++;
+                feedstockIdx.put(u.id(), f);
+            }
+            feedstocks.set(f, u);
+        }
+
+        Products products = new Products(this, delta.productUpserts.size());
+        LongIntMap productIdx = productIndex;
+        boolean reorder = !delta.productDeletes.isEmpty();
+
+        int[][] replacedFeedstocks = new int[productCount + delta.productUpserts.size()][];
+        long[][] replacedQuantities = new long[replacedFeedstocks.length][];
+
+        for (BomDelta.ProductUpsert u : delta.productUpserts) {
+            int p = productIdx.get(u.id());
+            if (p < 0) {
+                if (productIdx == productIndex) productIdx = productIndex.copy();
+                p = products.count++;
+                productIdx.put(u.id(), p);
+                replacedFeedstocks[p] = new int[0];
+                replacedQuantities[p] = new long[0];
+                reorder = true;
+            } else if (!products.alive[p] || products.prices[p] != u.unitPrice()) {
+                reorder = true;
+            }
+            products.set(p, u);
+
+            if (u.replacesLines()) {
+                resolveLines(u, feedstockIdx, feedstocks.alive, p, replacedFeedstocks, replacedQuantities);
+            }
+        }
+
+        for (long id : delta.productDeletes) {
+            int p = productIdx.get(id);
+            if (p < 0) continue;
+            products.alive[p] = false;
+            replacedFeedstocks[p] = new int[0];
+            replacedQuantities[p] = new long[0];
+        }
+
+        for (long id : delta.feedstockDeletes) {
+            int f = feedstockIdx.get(id);
+            if (f >= 0) feedstocks.alive[f] = false;
+        }
+
+        if (!delta.stockAdjustments.isEmpty()) feedstocks.stocks = adjusted(feedstocks.stocks, feedstockIdx, delta);
+
+        int n = products.count;
+        int[] offsets = new int[n + 1];
+        for (int p = 0; p < n; p++) {
+            int len = replacedFeedstocks[p] != null
+                    ? replacedFeedstocks[p].length
+                    : lineOffsets[p + 1] - lineOffsets[p];
+            offsets[p + 1] = offsets[p] + len;
+        }
+
+        int[] lf = new int[offsets[n]];
+        long[] lq = new long[offsets[n]];
+        for (int p = 0; p < n; p++) {
+            if (replacedFeedstocks[p] != null) {
+                System.arraycopy(replacedFeedstocks[p], 0, lf, offsets[p], replacedFeedstocks[p].length);
+                System.arraycopy(replacedQuantities[p], 0, lq, offsets[p], replacedQuantities[p].length);
+            } else {
+                int from = lineOffsets[p];
+                System.arraycopy(lineFeedstocks, from, lf, offsets[p], lineOffsets[p + 1] - from);
+                System.arraycopy(lineQuantities, from, lq, offsets[p], lineOffsets[p + 1] - from);
+            }
+        }
+
+        return new BomSnapshot(version + 1,
+                products.trim(), productIdx,
+                feedstocks.trim(), feedstockIdx,
+                offsets, lf, lq,
+                reorder ? null : priceOrder);
+    }
+
+    private static long[] adjusted(long[] stocks, LongIntMap feedstockIdx, BomDelta delta) {
+        long[] out = stocks.clone();
+        for (BomDelta.StockAdjustment a : delta.stockAdjustments) {
+            int f = feedstockIdx.get(a.feedstockId());
+            if (f >= 0) out[f] += a.delta();
+        }
+        return out;
+    }
+
+    // Stock is not part of the line or price structure, so everything but the stock array is shared.
+    private BomSnapshot withStocks(long[] newStocks) {
+        return new BomSnapshot(this, newStocks);
+    }
+
+    private static void resolveLines(BomDelta.ProductUpsert u, LongIntMap feedstockIdx, boolean[] feedstockAlive,
+                                     int p, int[][] replacedFeedstocks, long[][] replacedQuantities) {
+        long[] ids = u.lineFeedstockIds();
+        int[] fs = new int[ids.length];
+        long[] qs = new long[ids.length];
+        int len = 0;
+        for (int i = 0; i < ids.length; i++) {
+            int f = feedstockIdx.get(ids[i]);
+            if (f < 0 || !feedstockAlive[f] || u.lineQuantities()[i] <= 0) continue;
+            fs[len] = f;
+            qs[len] = u.lineQuantities()[i];
+            len++;
+        }
+        replacedFeedstocks[p] = Arrays.copyOf(fs, len);
+        replacedQuantities[p] = Arrays.copyOf(qs, len);
+    }
+
+    private void transpose() {
+        int lines = lineFeedstocks.length;
+        for (int i = 0; i < lines; i++) usageOffsets[lineFeedstocks[i] + 1]++;
+        for (int f = 0; f < feedstockCount; f++) usageOffsets[f + 1] += usageOffsets[f];
+
+        int[] cursor = Arrays.copyOf(usageOffsets, feedstockCount);
+        for (int p = 0; p < productCount; p++) {
+            for (int i = lineOffsets[p]; i < lineOffsets[p + 1]; i++) {
+                int at = cursor[lineFeedstocks[i]]++;
+                usageProducts[at] = p;
+                usageQuantities[at] = lineQuantities[i];
+            }
+        }
+    }
+
+    static int[] priceOrder(long[] prices, long[] ids, boolean[] alive, int n) {
+        int live = 0;
+        for (int i = 0; i < n; i++) {
+            if (alive[i]) live++;
+        }
+
+        int[] order = new int[live];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (alive[i]) order[k++] = i;
+        }
+
+        int[] tmp = new int[live];
+        for (int width = 1; width < live; width *= 2) {
+            for (int lo = 0; lo < live - width; lo += 2 * width) {
+                int mid = lo + width;
+                int hi = Math.min(lo + 2 * width, live);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    tmp[k++] = before(order[j], order[i], prices, ids) ? order[j++] : order[i++];
+                }
+                while (i < mid) tmp[k++] = order[i++];
+                while (j < hi) tmp[k++] = order[j++];
+                System.arraycopy(tmp, lo, order, lo, hi - lo);
+            }
+        }
+        return order;
+    }
+
+    private static boolean before(int a, int b, long[] prices, long[] ids) {
+        if (prices[a] != prices[b]) return prices[a] > prices[b];
+        return ids[a] < ids[b];
+    }
+
+    public static Builder builder(int expectedProducts, int expectedFeedstocks, int expectedLines) {
+        return new Builder(expectedProducts, expectedFeedstocks, expectedLines);
+    }
+
+    private static final class Products {
+        int count;
+        long[] ids;
+        String[] codes;
+        String[] names;
+        long[] prices;
+        boolean[] alive;
+
+        Products(int capacity) {
+            ids = new long[capacity];
+            codes = new String[capacity];
+            names = new String[capacity];
+            prices = new long[capacity];
+            alive = new boolean[capacity];
+        }
+
+        Products(BomSnapshot s, int extra) {
+            int n = s.productCount + extra;
+            count = s.productCount;
+            ids = Arrays.copyOf(s.productIds, n);
+            codes = Arrays.copyOf(s.productCodes, n);
+            names = Arrays.copyOf(s.productNames, n);
+            prices = Arrays.copyOf(s.unitPrices, n);
+            alive = Arrays.copyOf(s.productAlive, n);
+        }
+
+        void ensureCapacity() {
+            if (count < ids.length) return;
+            int n = Math.max(16, count * 2);
+            ids = Arrays.copyOf(ids, n);
+            codes = Arrays.copyOf(codes, n);
+            names = Arrays.copyOf(names, n);
+            prices = Arrays.copyOf(prices, n);
+            alive = Arrays.copyOf(alive, n);
+        }
+
+        void set(int p, BomDelta.ProductUpsert u) {
+            ids[p] = u.id();
+            codes[p] = u.code();
+            names[p] = u.name();
+            prices[p] = u.unitPrice();
+            alive[p] = true;
+        }
+
+        Products trim() {
+            if (count == ids.length) return this;
+            ids = Arrays.copyOf(ids, count);
+            codes = Arrays.copyOf(codes, count);
+            names = Arrays.copyOf(names, count);
+            prices = Arrays.copyOf(prices, count);
+            alive = Arrays.copyOf(alive, count);
+            return this;
+        }
+    }
+
+    private static final class Feedstocks {
+        int count;
+        long[] ids;
+        String[] codes;
+        String[] names;
+        String[] units;
+        long[] stocks;
+        boolean[] alive;
+
+        Feedstocks(int capacity) {
+            ids = new long[capacity];
+            codes = new String[capacity];
+            names = new String[capacity];
+            units = new String[capacity];
+            stocks = new long[capacity];
+            alive = new boolean[capacity];
+        }
+
+        Feedstocks(BomSnapshot s, int extra) {
+            int n = s.feedstockCount + extra;
+            count = s.feedstockCount;
+            ids = Arrays.copyOf(s.feedstockIds, n);
+            codes = Arrays.copyOf(s.feedstockCodes, n);
+            names = Arrays.copyOf(s.feedstockNames, n);
+            units = Arrays.copyOf(s.unitsOfMeasure, n);
+            stocks = Arrays.copyOf(s.stocks, n);
+            alive = Arrays.copyOf(s.feedstockAlive, n);
+        }
+
+        void ensureCapacity() {
+            if (count < ids.length) return;
+            int n = Math.max(16, count * 2);
+            ids = Arrays.copyOf(ids, n);
+            codes = Arrays.copyOf(codes, n);
+            names = Arrays.copyOf(names, n);
+            units = Arrays.copyOf(units, n);
+            stocks = Arrays.copyOf(stocks, n);
+            alive = Arrays.copyOf(alive, n);
+        }
+
+        void set(int f, BomDelta.FeedstockUpsert u) {
+            ids[f] = u.id();
+            codes[f] = u.code();
+            names[f] = u.name();
+            units[f] = u.unitOfMeasure();
+            if (u.stock() != null) stocks[f] = u.stock();
+            alive[f] = true;
+        }
+
+        Feedstocks trim() {
+            if (count == ids.length) return this;
+            ids = Arrays.copyOf(ids, count);
+            codes = Arrays.copyOf(codes, count);
+            names = Arrays.copyOf(names, count);
+            units = Arrays.copyOf(units, count);
+            stocks = Arrays.copyOf(stocks, count);
+            alive = Arrays.copyOf(alive, count);
+            return this;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Products products;
+        private final LongIntMap productIndex;
+
+        private final Feedstocks feedstocks;
+        private final LongIntMap feedstockIndex;
+
+        private int lineCount;
+        private int[] lineProducts;
+        private long[] lineFeedstockIds;
+        private long[] lineQuantities;
+
+        private Builder(int expectedProducts, int expectedFeedstocks, int expectedLines) {
+            int p = Math.max(16, expectedProducts);
+            int f = Math.max(16, expectedFeedstocks);
+            int l = Math.max(16, expectedLines);
+
+            products = new Products(p);
+            productIndex = new LongIntMap(p);
+
+            feedstocks = new Feedstocks(f);
+            feedstockIndex = new LongIntMap(f);
+
+            lineProducts = new int[l];
+            lineFeedstockIds = new long[l];
+            lineQuantities = new long[l];
+        }
+
+        public Builder addProduct(long id, String code, String name, long unitPriceCents) {
+            products.ensureCapacity();
+            int p = products.count++;
+            products.set(p, new BomDelta.ProductUpsert(id, code, name, unitPriceCents, null, null));
+            productIndex.put(id, p);
+            return this;
+        }
+
+        public Builder addFeedstock(long id, String code, String name, String unitOfMeasure, long stockMicros) {
+            feedstocks.ensureCapacity();
+            int f = feedstocks.count++;
+            feedstocks.set(f, new BomDelta.FeedstockUpsert(id, code, name, unitOfMeasure, stockMicros));
+            feedstockIndex.put(id, f);
+            return this;
+        }
+
+        /** The feedstock may be added later; a line whose feedstock never is gets dropped by {@link #build()}. */
+        public boolean addLine(long productId, long feedstockId, long quantityMicros) {
+            int p = productIndex.get(productId);
+            if (p < 0 || quantityMicros <= 0) return false;
+
+            if (lineCount == lineProducts.length) {
+                int n = lineCount * 2;
+                lineProducts = Arrays.copyOf(lineProducts, n);
+                lineFeedstockIds = Arrays.copyOf(lineFeedstockIds, n);
+                lineQuantities = Arrays.copyOf(lineQuantities, n);
+            }
+            lineProducts[lineCount] = p;
+            lineFeedstockIds[lineCount] = feedstockId;
+            lineQuantities[lineCount] = quantityMicros;
+            lineCount++;
+            return true;
+        }
+
+        public BomSnapshot build() {
+            int[] lineFeedstocks = new int[lineCount];
+            for (int i = 0; i < lineCount; i++) lineFeedstocks[i] = feedstockIndex.get(lineFeedstockIds[i]);
+
+            int n = products.count;
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < lineCount; i++) {
+                if (lineFeedstocks[i] >= 0) offsets[lineProducts[i] + 1]++;
+            }
+            for (int p = 0; p < n; p++) offsets[p + 1] += offsets[p];
+
+            int[] cursor = Arrays.copyOf(offsets, n);
+            int[] lf = new int[offsets[n]];
+            long[] lq = new long[offsets[n]];
+            for (int i = 0; i < lineCount; i++) {
+                if (lineFeedstocks[i] < 0) continue;
+                int at = cursor[lineProducts[i]]++;
+                lf[at] = lineFeedstocks[i];
+                lq[at] = lineQuantities[i];
+            }
+
+            return new BomSnapshot(0L,
+                    products.trim(), productIndex,
+                    feedstocks.trim(), feedstockIndex,
+                    offsets, lf, lq,
+                    null);
+        }
+    }
+}
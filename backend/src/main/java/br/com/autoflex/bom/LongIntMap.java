@@ -0,0 +1,77 @@
+package br.com.autoflex.bom;
+
+import java.util.Arrays;
+
+public final class LongIntMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private LongIntMap(LongIntMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    public LongIntMap copy() {
+        return new LongIntMap(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (true) {
+            long k = keys[i];
+            if (k == key) return values[i];
+            if (k == EMPTY) return -1;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Unsupported key: " + key);
+        if ((size + 1) * 2 > keys.length) grow();
+
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == EMPTY) size++;
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.autoflex.bom;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public final class Quantities {
+    private Quantities() {}
+
+    public static final int QUANTITY_SCALE = 6;
+    public static final int PRICE_SCALE = 2;
+
+    public static long toMicros(BigDecimal value) {
+        if (value == null) return 0L;
+        return value.setScale(QUANTITY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMicros(long micros) {
+        return BigDecimal.valueOf(micros, QUANTITY_SCALE);
+    }
+
+    public static long toCents(BigDecimal value) {
+        if (value == null) return 0L;
+        return value.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, PRICE_SCALE);
+    }
+
+    public static BigDecimal revenue(long cents, long units) {
+        return BigDecimal.valueOf(cents, PRICE_SCALE).multiply(BigDecimal.valueOf(units));
+    }
+}
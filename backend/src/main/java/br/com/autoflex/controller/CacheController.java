@@ -0,0 +1,24 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.service.CacheStatsService;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/cache")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheController {
+
+    @Inject
+    CacheStatsService service;
+
+    @GET
+    @Path("/stats")
+    public Response stats() {
+        return Response.ok(service.stats()).build();
+    }
+}
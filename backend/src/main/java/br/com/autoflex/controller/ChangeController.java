@@ -0,0 +1,109 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.admission.Admitted;
+import br.com.autoflex.dto.ChangeDtos;
+import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.dto.FieldSelection;
+import br.com.autoflex.service.ChangeFeedService;
+import br.com.autoflex.service.RevisionClock;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Path("/changes")
+@Produces(MediaType.APPLICATION_JSON)
+public class ChangeController {
+
+    static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+    static final int MAX_BATCHES_PER_POLL = 10;
+
+    /** Feedstocks in a batch are flat; the products that use them come with their own lines. */
+    private static final FieldSelection FEEDSTOCK_FIELDS = FieldSelection.parse(
+            null, "", FeedstockDtos.Response.PROPERTIES, FeedstockDtos.Response.ASSOCIATION);
+
+    @Inject
+    ChangeFeedService feed;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    ProductController products;
+
+    @Inject
+    FeedstockController feedstocks;
+
+    @GET
+    @RunOnVirtualThread
+    @Admitted
+    public Response changes(@Valid @BeanParam ChangeDtos.Request req) {
+        return Response.ok(toDto(feed.changes(since(req)))).build();
+    }
+
+    /**
+     * Server-sent events, one per non-empty batch. Each subscriber checks the clock once per
+     * {@link #POLL_INTERVAL} and only queries when something was committed past its cursor, so
+     * whatever changed in between arrives coalesced and an idle catalog costs nothing. A slow
+     * client skips ticks rather than queueing them.
+     */
+    @GET
+    @Path("/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<ChangeDtos.Batch> stream(@Valid @BeanParam ChangeDtos.Request req) {
+        AtomicLong cursor = new AtomicLong(since(req));
+
+        return Multi.createFrom().ticks().every(POLL_INTERVAL)
+                .onOverflow().drop()
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+                .onItem().transformToIterable(tick -> poll(cursor));
+    }
+
+    List<ChangeDtos.Batch> poll(AtomicLong cursor) {
+        List<ChangeDtos.Batch> batches = new ArrayList<>();
+        for (int i = 0; i < MAX_BATCHES_PER_POLL && clock.stable() > cursor.get(); i++) {
+            ChangeFeedService.Batch batch = feed.changes(cursor.get());
+            cursor.set(batch.revision());
+            if (!batch.isEmpty()) batches.add(toDto(batch));
+            if (!batch.hasMore()) break;
+        }
+        return batches;
+    }
+
+    ChangeDtos.Batch toDto(ChangeFeedService.Batch batch) {
+        ChangeDtos.Batch dto = new ChangeDtos.Batch();
+        dto.since = batch.since();
+        dto.revision = batch.revision();
+        dto.hasMore = batch.hasMore();
+        dto.products = batch.products().values().stream()
+                .map(r -> products.toDto(r, batch.lines().getOrDefault(r.id, List.of())))
+                .toList();
+        dto.feedstocks = batch.feedstocks().values().stream()
+                .map(r -> feedstocks.toDto(r, List.of(), FEEDSTOCK_FIELDS))
+                .toList();
+        dto.deletedProducts = batch.deletedProducts();
+        dto.deletedFeedstocks = batch.deletedFeedstocks();
+        return dto;
+    }
+
+    private static long since(ChangeDtos.Request req) {
+        return req.since != null ? req.since : 0L;
+    }
+}
@@ -1,13 +1,30 @@
 package br.com.autoflex.controller;
 
+import br.com.autoflex.admission.Admitted;
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.dto.BatchGetDtos;
+import br.com.autoflex.dto.BulkDtos;
+import br.com.autoflex.dto.FieldSelection;
 import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.dto.FeedstockMovementDtos;
 import br.com.autoflex.dto.PagedResponse;
 import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.planning.FeedstockImpact;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.FeedstockRow;
+import br.com.autoflex.service.BulkImportService;
+import br.com.autoflex.service.CountService;
+import br.com.autoflex.service.ExportService;
+import br.com.autoflex.service.FeedstockMovementService;
 import br.com.autoflex.service.FeedstockService;
+import br.com.autoflex.service.ProductionPlanService;
 
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.BeanParam;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -17,54 +34,168 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Path("/feedstocks")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class FeedstockController {
 
     @Inject
     FeedstockService service;
 
+    @Inject
+    BulkImportService bulkImport;
+
+    @Inject
+    ExportService exporter;
+
+    @Inject
+    CountService counts;
+
+    @Inject
+    FeedstockMovementService movements;
+
+    @Inject
+    ProductionPlanService planning;
+
     @GET
     @Transactional
+    @Admitted
     public Response list(@BeanParam FeedstockDtos.PaginateRequest req) {
+        FieldSelection fields = select(req.fields, req.expand);
+
+        String q = CountService.normalize(req.q);
+        CountService.Mode countMode = CountService.Mode.parse(req.countMode);
+
+        boolean keyset = req.cursor != null;
+        PanacheQuery<Feedstock> query = keyset
+                ? service.listAfter(q, req.cursor, req.size)
+                : service.list(q, req.page, req.size);
 
-        PanacheQuery<Feedstock> query = service.list(req.q, req.page, req.size);
+        boolean lookahead = countMode == CountService.Mode.NONE;
+        int size = query.page().size;
+
+        List<FeedstockRow> rows = lookahead ? service.rowsWithLookahead(query) : service.rows(query);
+        Boolean hasMore = null;
+        if (lookahead) {
+            hasMore = rows.size() > size;
+            if (hasMore) rows = rows.subList(0, size);
+        }
+
+        Map<Long, List<BomLineRow>> lines = fields.expanded()
+                ? service.linesByFeedstock(rows.stream().map(r -> r.id).toList())
+                : Map.of();
 
         List<FeedstockDtos.Response> items =
-                query.list().stream()
-                        .map(this::toDto)
+                rows.stream()
+                        .map(r -> toDto(r, lines.getOrDefault(r.id, List.of()), fields))
                         .toList();
 
+        Long total = counts.count(
+                CountService.Scope.FEEDSTOCKS,
+                countMode,
+                q,
+                null,
+                () -> keyset ? service.list(q, 0, req.size).count() : query.count()
+        );
+
+        FeedstockRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        boolean full = lookahead ? hasMore : rows.size() == size;
+        // The compacted stock, which is what pages are ordered by; see FeedstockRepository.findPage.
+        String nextCursor = full
+                ? PageCursor.encode(last.stock, last.id)
+                : null;
+
         return Response.ok(
                 new PagedResponse<>(
                         items,
-                        query.count(),
+                        total,
                         query.page().index,
-                        query.page().size
+                        size,
+                        nextCursor,
+                        hasMore
                 )
         ).build();
     }
 
+    @GET
+    @Path("/export")
+    @Produces({BulkImportService.NDJSON, BulkImportService.CSV})
+    @Admitted
+    public Response export(@QueryParam("format") String format) {
+        ExportService.Format f = ExportService.Format.parse(format);
+
+        return Response.ok(exporter.exportFeedstocks(f), f.mediaType)
+                .header("Content-Disposition", "attachment; filename=\"feedstocks." + f.extension + "\"")
+                .build();
+    }
+
     @GET
     @Path("/{id}")
     @Transactional
-    public Response getOne(@PathParam("id") Long id) {
+    @Admitted
+    public Response getOne(@PathParam("id") Long id,
+                           @QueryParam("fields") String fields,
+                           @QueryParam("expand") String expand) {
+        FieldSelection selection = select(fields, expand);
         Feedstock f = service.getById(id);
 
         return f != null
-                ? Response.ok(toDto(f)).build()
+                ? Response.ok(toDto(f, selection)).build()
+                : Response.status(Response.Status.NOT_FOUND).build();
+    }
+
+    @GET
+    @Path("/{id}/stock")
+    @Admitted
+    public Response stock(@PathParam("id") Long id, @QueryParam("asOf") String asOf) {
+        Instant at;
+        try {
+            at = asOf == null || asOf.isBlank() ? Instant.now() : Instant.parse(asOf);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid asOf: " + asOf);
+        }
+
+        BigDecimal stock = movements.stockAsOf(id, at);
+        if (stock == null) return Response.status(Response.Status.NOT_FOUND).build();
+
+        FeedstockMovementDtos.StockResponse dto = new FeedstockMovementDtos.StockResponse();
+        dto.feedstockId = id;
+        dto.asOf = at;
+        dto.stock = stock;
+        return Response.ok(dto).build();
+    }
+
+    @GET
+    @Path("/{id}/impact")
+    public Response impact(@PathParam("id") Long id, @Valid @BeanParam FeedstockDtos.ImpactRequest req) {
+        FeedstockImpact impact = planning.impact(id, req.stock);
+
+        return impact != null
+                ? Response.ok(toDto(impact, req.limit != null ? req.limit : 100)).build()
                 : Response.status(Response.Status.NOT_FOUND).build();
     }
 
     @POST
+    @Admitted
     public Response create(@Valid FeedstockDtos.CreateRequest req) {
         Feedstock f = service.create(req);
 
@@ -73,8 +204,32 @@ public class FeedstockController {
                 .build();
     }
 
+    @POST
+    @Path("/batch-get")
+    @Transactional
+    @Admitted
+    public Response batchGet(@Valid BatchGetDtos.Request req) {
+        Map<Long, FeedstockRow> rows = service.rowsByIds(req.ids);
+        Map<Long, List<BomLineRow>> lines = service.linesByFeedstock(List.copyOf(rows.keySet()));
+
+        Map<Long, FeedstockDtos.Response> found = new HashMap<>();
+        rows.forEach((id, r) -> found.put(id, toDto(r, lines.getOrDefault(id, List.of()))));
+
+        return Response.ok(BatchGetDtos.Response.of(req.ids, found)).build();
+    }
+
+    @POST
+    @Path("/bulk")
+    @Consumes({BulkImportService.NDJSON, BulkImportService.CSV})
+    @Admitted
+    public Response bulkImport(InputStream body, @Context HttpHeaders headers) {
+        BulkDtos.Report report = bulkImport.importFeedstocks(body, headers.getMediaType());
+        return Response.ok(report).build();
+    }
+
     @PUT
     @Path("/{id}")
+    @Admitted
     public Response update(@PathParam("id") Long id, @Valid FeedstockDtos.UpdateRequest req) {
         Feedstock updated = service.update(id, req);
 
@@ -85,19 +240,26 @@ public class FeedstockController {
 
     @DELETE
     @Path("/{id}")
+    @Admitted
     public Response delete(@PathParam("id") Long id) {
         return service.delete(id)
                 ? Response.noContent().build()
                 : Response.status(Response.Status.NOT_FOUND).build();
     }
 
-    private FeedstockDtos.Response toDto(Feedstock f) {
+    FeedstockDtos.Response toDto(Feedstock f) {
+        return toDto(f, FieldSelection.ALL);
+    }
+
+    /** Leaves {@code f.products} uninitialised unless the selection expands it. */
+    FeedstockDtos.Response toDto(Feedstock f, FieldSelection fields) {
         FeedstockDtos.Response dto = new FeedstockDtos.Response();
-        dto.id = f.id;
-        dto.feedstockCode = f.feedstockCode;
-        dto.name = f.name;
-        dto.stock = f.stock;
-        dto.unitOfMeasure = f.unitOfMeasure;
+        if (fields.includes("id")) dto.id = f.id;
+        if (fields.includes("feedstockCode")) dto.feedstockCode = f.feedstockCode;
+        if (fields.includes("name")) dto.name = f.name;
+        if (fields.includes("stock")) dto.stock = f.stock.add(f.pendingStock);
+        if (fields.includes("unitOfMeasure")) dto.unitOfMeasure = f.unitOfMeasure;
+        if (!fields.expanded()) return dto;
 
         dto.products = f.products.stream().map(pf -> {
             FeedstockDtos.ProductItem item = new FeedstockDtos.ProductItem();
@@ -111,4 +273,70 @@ public class FeedstockController {
 
         return dto;
     }
+
+    private static FieldSelection select(String fields, String expand) {
+        return FieldSelection.parse(fields, expand,
+                FeedstockDtos.Response.PROPERTIES, FeedstockDtos.Response.ASSOCIATION);
+    }
+
+    FeedstockDtos.ImpactResponse toDto(FeedstockImpact impact, int limit) {
+        BomSnapshot bom = impact.bom;
+        int f = impact.feedstock;
+
+        FeedstockDtos.ImpactResponse dto = new FeedstockDtos.ImpactResponse();
+        dto.feedstockId = bom.feedstockIds[f];
+        dto.feedstockCode = bom.feedstockCodes[f];
+        dto.name = bom.feedstockNames[f];
+        dto.unitOfMeasure = bom.unitsOfMeasure[f];
+        dto.stock = Quantities.fromMicros(bom.stocks[f]);
+        dto.simulatedStock = Quantities.fromMicros(impact.stock);
+        dto.affectedProducts = impact.size();
+        dto.revenueBefore = Quantities.fromCents(impact.revenueBefore());
+        dto.revenueAfter = Quantities.fromCents(impact.revenueAfter());
+        dto.revenueDelta = dto.revenueAfter.subtract(dto.revenueBefore);
+
+        dto.items = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, impact.size()); i++) {
+            int p = impact.products[i];
+
+            FeedstockDtos.ImpactItem item = new FeedstockDtos.ImpactItem();
+            item.productId = bom.productIds[p];
+            item.productCode = bom.productCodes[p];
+            item.name = bom.productNames[p];
+            item.unitPrice = Quantities.fromCents(bom.unitPrices[p]);
+            item.quantity = Quantities.fromMicros(impact.quantities[i]);
+            item.unitsBefore = impact.unitsBefore[i];
+            item.unitsAfter = impact.unitsAfter[i];
+            item.revenueDelta = Quantities.fromCents(impact.revenueDelta(i));
+            item.bottleneck = impact.bottleneck[i];
+            dto.items.add(item);
+        }
+        return dto;
+    }
+
+    FeedstockDtos.Response toDto(FeedstockRow row, List<BomLineRow> lines) {
+        return toDto(row, lines, FieldSelection.ALL);
+    }
+
+    FeedstockDtos.Response toDto(FeedstockRow row, List<BomLineRow> lines, FieldSelection fields) {
+        FeedstockDtos.Response dto = new FeedstockDtos.Response();
+        if (fields.includes("id")) dto.id = row.id;
+        if (fields.includes("feedstockCode")) dto.feedstockCode = row.feedstockCode;
+        if (fields.includes("name")) dto.name = row.name;
+        if (fields.includes("stock")) dto.stock = row.stock.add(row.pendingStock);
+        if (fields.includes("unitOfMeasure")) dto.unitOfMeasure = row.unitOfMeasure;
+        if (!fields.expanded()) return dto;
+
+        dto.products = lines.stream().map(l -> {
+            FeedstockDtos.ProductItem item = new FeedstockDtos.ProductItem();
+            item.id = l.productId;
+            item.productCode = l.productCode;
+            item.name = l.productName;
+            item.unitPrice = l.unitPrice;
+            item.quantity = l.quantity;
+            return item;
+        }).toList();
+
+        return dto;
+    }
 }
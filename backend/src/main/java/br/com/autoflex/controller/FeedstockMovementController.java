@@ -0,0 +1,29 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.dto.FeedstockMovementDtos;
+import br.com.autoflex.service.FeedstockMovementService;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/feedstock-movements")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class FeedstockMovementController {
+
+    @Inject
+    FeedstockMovementService service;
+
+    @POST
+    public Response record(@Valid FeedstockMovementDtos.CreateRequest req) {
+        return Response.status(Response.Status.CREATED)
+                .entity(service.record(req))
+                .build();
+    }
+}
@@ -1,8 +1,19 @@
 package br.com.autoflex.controller;
 
+import br.com.autoflex.admission.Admitted;
 import br.com.autoflex.dto.PagedResponse;
+import br.com.autoflex.dto.BatchGetDtos;
+import br.com.autoflex.dto.BulkDtos;
+import br.com.autoflex.dto.FieldSelection;
 import br.com.autoflex.dto.ProductDtos;
 import br.com.autoflex.entity.Product;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.ProductRepository.Listing;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.ProductRow;
+import br.com.autoflex.service.BulkImportService;
+import br.com.autoflex.service.CountService;
+import br.com.autoflex.service.ExportService;
 import br.com.autoflex.service.ProductService;
 
 import jakarta.inject.Inject;
@@ -17,31 +28,48 @@ import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Path("/products")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class ProductController {
 
-    private ProductDtos.Response toDto(Product p) {
+    ProductDtos.Response toDto(Product p) {
+        return toDto(p, FieldSelection.ALL);
+    }
+
+    /** Leaves {@code p.feedstocks} uninitialised unless the selection expands it. */
+    ProductDtos.Response toDto(Product p, FieldSelection fields) {
         ProductDtos.Response dto = new ProductDtos.Response();
-        dto.id = p.id;
-        dto.productCode = p.productCode;
-        dto.name = p.name;
-        dto.unitPrice = p.unitPrice;
+        if (fields.includes("id")) dto.id = p.id;
+        if (fields.includes("productCode")) dto.productCode = p.productCode;
+        if (fields.includes("name")) dto.name = p.name;
+        if (fields.includes("unitPrice")) dto.unitPrice = p.unitPrice;
+        if (fields.includes("maxProducibleUnits")) dto.maxProducibleUnits = p.maxProducibleUnits;
+        if (fields.includes("bottleneckFeedstockId")) dto.bottleneckFeedstockId = p.bottleneckFeedstockId;
+        if (!fields.expanded()) return dto;
 
         dto.feedstocks = p.feedstocks.stream().map(pf -> {
             ProductDtos.FeedstockItem item = new ProductDtos.FeedstockItem();
             item.id = pf.feedstock.id;
             item.feedstockCode = pf.feedstock.feedstockCode;
             item.name = pf.feedstock.name;
-            item.stock = pf.feedstock.stock;
+            item.stock = pf.feedstock.stock.add(pf.feedstock.pendingStock);
             item.quantity = pf.quantity;
             return item;
         }).toList();
@@ -49,41 +77,138 @@ public class ProductController {
         return dto;
     }
 
+    ProductDtos.Response toDto(ProductRow row, List<BomLineRow> lines) {
+        return toDto(row, lines, FieldSelection.ALL);
+    }
+
+    ProductDtos.Response toDto(ProductRow row, List<BomLineRow> lines, FieldSelection fields) {
+        ProductDtos.Response dto = new ProductDtos.Response();
+        if (fields.includes("id")) dto.id = row.id;
+        if (fields.includes("productCode")) dto.productCode = row.productCode;
+        if (fields.includes("name")) dto.name = row.name;
+        if (fields.includes("unitPrice")) dto.unitPrice = row.unitPrice;
+        if (fields.includes("maxProducibleUnits")) dto.maxProducibleUnits = row.maxProducibleUnits;
+        if (fields.includes("bottleneckFeedstockId")) dto.bottleneckFeedstockId = row.bottleneckFeedstockId;
+        if (!fields.expanded()) return dto;
+
+        dto.feedstocks = lines.stream().map(l -> {
+            ProductDtos.FeedstockItem item = new ProductDtos.FeedstockItem();
+            item.id = l.feedstockId;
+            item.feedstockCode = l.feedstockCode;
+            item.name = l.feedstockName;
+            item.stock = l.stock;
+            item.quantity = l.quantity;
+            return item;
+        }).toList();
+
+        return dto;
+    }
+
     @Inject
     ProductService service;
 
+    @Inject
+    BulkImportService bulkImport;
+
+    @Inject
+    ExportService exporter;
+
+    @Inject
+    CountService counts;
+
     @GET
     @Transactional
+    @Admitted
     public Response list(@BeanParam ProductDtos.PaginateRequest req) {
+        FieldSelection fields = select(req.fields, req.expand);
+        Listing listing = Listing.parse(req.producible, req.sort);
+
+        String q = CountService.normalize(req.q);
+        CountService.Mode countMode = CountService.Mode.parse(req.countMode);
+        // Cached counts are keyed by search term only and the refresh job moves the producible set.
+        if (listing.producibleOnly() && countMode != CountService.Mode.NONE) countMode = CountService.Mode.EXACT;
+
+        boolean keyset = req.cursor != null;
+        PanacheQuery<Product> query = keyset
+                ? service.listAfter(q, req.searchType, req.cursor, req.size, listing)
+                : service.list(q, req.searchType, req.page, req.size, listing);
+
+        boolean lookahead = countMode == CountService.Mode.NONE;
+        int size = query.page().size;
+
+        List<ProductRow> rows = lookahead ? service.rowsWithLookahead(query) : service.rows(query);
+        Boolean hasMore = null;
+        if (lookahead) {
+            hasMore = rows.size() > size;
+            if (hasMore) rows = rows.subList(0, size);
+        }
+
+        Map<Long, List<BomLineRow>> lines = fields.expanded()
+                ? service.linesByProduct(rows.stream().map(r -> r.id).toList())
+                : Map.of();
 
-        PanacheQuery<Product> query = service.list(req.q, req.searchType, req.page, req.size);
         List<ProductDtos.Response> items =
-                query.list().stream()
-                        .map(this::toDto)
+                rows.stream()
+                        .map(r -> toDto(r, lines.getOrDefault(r.id, List.of()), fields))
                         .toList();
 
+        Long total = counts.count(
+                CountService.Scope.PRODUCTS,
+                countMode,
+                q,
+                req.searchType,
+                () -> keyset ? service.list(q, req.searchType, 0, req.size, listing).count() : query.count()
+        );
+
+        ProductRow last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+        boolean full = lookahead ? hasMore : rows.size() == size;
+        String nextCursor = full
+                ? PageCursor.encode(listing.order() == Listing.Order.MAX_UNITS
+                        ? BigDecimal.valueOf(last.maxProducibleUnits)
+                        : last.unitPrice, last.id)
+                : null;
+
         return Response.ok(
                 new PagedResponse<>(
                         items,
-                        query.count(),
+                        total,
                         query.page().index,
-                        query.page().size
+                        size,
+                        nextCursor,
+                        hasMore
                 )
         ).build();
     }
 
+    @GET
+    @Path("/export")
+    @Produces({BulkImportService.NDJSON, BulkImportService.CSV})
+    @Admitted
+    public Response export(@QueryParam("format") String format) {
+        ExportService.Format f = ExportService.Format.parse(format);
+
+        return Response.ok(exporter.exportProducts(f), f.mediaType)
+                .header("Content-Disposition", "attachment; filename=\"products." + f.extension + "\"")
+                .build();
+    }
+
     @GET
     @Path("/{id}")
     @Transactional
-    public Response getOne(@PathParam("id") Long id) {
+    @Admitted
+    public Response getOne(@PathParam("id") Long id,
+                           @QueryParam("fields") String fields,
+                           @QueryParam("expand") String expand) {
+        FieldSelection selection = select(fields, expand);
         Product p = service.getById(id);
 
         return p != null
-                ? Response.ok(toDto(p)).build()
+                ? Response.ok(toDto(p, selection)).build()
                 : Response.status(Response.Status.NOT_FOUND).build();
     }
 
     @POST
+    @Admitted
     public Response create(@Valid ProductDtos.CreateRequest req) {
         Product p = service.create(req);
 
@@ -92,8 +217,33 @@ public class ProductController {
                 .build();
     }
 
+    @POST
+    @Path("/batch-get")
+    @Transactional
+    @Admitted
+    public Response batchGet(@Valid BatchGetDtos.Request req) {
+        Map<Long, ProductRow> rows = service.rowsByIds(req.ids);
+        Map<Long, List<BomLineRow>> lines = service.linesByProduct(List.copyOf(rows.keySet()));
+
+        Map<Long, ProductDtos.Response> found = new HashMap<>();
+        rows.forEach((id, r) -> found.put(id, toDto(r, lines.getOrDefault(id, List.of()))));
+
+        return Response.ok(BatchGetDtos.Response.of(req.ids, found)).build();
+    }
+
+    @POST
+    @Path("/bulk")
+    @Consumes({BulkImportService.NDJSON, BulkImportService.CSV})
+    @Admitted
+    public Response bulkImport(InputStream body, @Context HttpHeaders headers) {
+        BulkDtos.Report report = bulkImport.importProducts(body, headers.getMediaType());
+        return Response.ok(report).build();
+    }
+
     @PUT
     @Path("/{id}")
+    @Transactional
+    @Admitted
     public Response update(@PathParam("id") Long id, @Valid ProductDtos.UpdateRequest req) {
         Product updated = service.update(id, req);
 
@@ -104,10 +254,15 @@ public class ProductController {
 
     @DELETE
     @Path("/{id}")
+    @Admitted
     public Response delete(@PathParam("id") Long id) {
         return service.delete(id)
                 ? Response.noContent().build()
                 : Response.status(Response.Status.NOT_FOUND).build();
     }
 
+    private static FieldSelection select(String fields, String expand) {
+        return FieldSelection.parse(fields, expand, ProductDtos.Response.PROPERTIES, ProductDtos.Response.ASSOCIATION);
+    }
+
 }
\ No newline at end of file
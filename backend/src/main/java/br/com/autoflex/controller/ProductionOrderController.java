@@ -0,0 +1,29 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.dto.ProductionOrderDtos;
+import br.com.autoflex.service.ProductionOrderService;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/production-orders")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class ProductionOrderController {
+
+    @Inject
+    ProductionOrderService service;
+
+    @POST
+    public Response create(@Valid ProductionOrderDtos.CreateRequest req) {
+        return Response.status(Response.Status.CREATED)
+                .entity(service.create(req))
+                .build();
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.dto.ProductionPlanDtos;
+import br.com.autoflex.planning.OptimalPlan;
+import br.com.autoflex.planning.ProductionPlan;
+import br.com.autoflex.service.ProductionPlanService;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Path("/production-plan")
+@Produces(MediaType.APPLICATION_JSON)
+public class ProductionPlanController {
+
+    static final Duration DEFAULT_TIME_BUDGET = Duration.ofSeconds(2);
+
+    @Inject
+    ProductionPlanService service;
+
+    @GET
+    public Response plan(@Valid @BeanParam ProductionPlanDtos.PlanRequest req) {
+        if (ProductionPlanService.Mode.parse(req.mode) == ProductionPlanService.Mode.GREEDY) {
+            return Response.ok(toDto(service.plan())).build();
+        }
+
+        Duration budget = req.timeBudgetMs != null ? Duration.ofMillis(req.timeBudgetMs) : DEFAULT_TIME_BUDGET;
+        return Response.ok(toDto(service.optimize(budget))).build();
+    }
+
+    @POST
+    @Path("/simulate")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response simulate(@Valid ProductionPlanDtos.SimulateRequest req) {
+        return Response.ok(toDto(service.simulate(req.scenarios), req.scenarios)).build();
+    }
+
+    private ProductionPlanDtos.Response toDto(OptimalPlan optimal) {
+        ProductionPlanDtos.Response dto = toDto(optimal.plan);
+        dto.optimal = optimal.optimal;
+        dto.upperBound = Quantities.fromCents(optimal.upperBound);
+        dto.gap = BigDecimal.valueOf(optimal.gap()).setScale(6, RoundingMode.HALF_UP);
+        return dto;
+    }
+
+    private ProductionPlanDtos.Response toDto(ProductionPlan plan) {
+        BomSnapshot bom = plan.bom;
+        List<ProductionPlanDtos.Item> items = new ArrayList<>();
+        BigDecimal totalValue = BigDecimal.ZERO;
+
+        for (int p : bom.priceOrder) {
+            long units = plan.units[p];
+            if (units == 0) continue;
+
+            ProductionPlanDtos.Item item = new ProductionPlanDtos.Item();
+            item.productId = bom.productIds[p];
+            item.productCode = bom.productCodes[p];
+            item.name = bom.productNames[p];
+            item.unitPrice = Quantities.fromCents(bom.unitPrices[p]);
+            item.units = units;
+            item.totalValue = Quantities.revenue(bom.unitPrices[p], units);
+
+            items.add(item);
+            totalValue = totalValue.add(item.totalValue);
+        }
+
+        ProductionPlanDtos.Response dto = new ProductionPlanDtos.Response();
+        dto.items = items;
+        dto.totalUnits = plan.totalUnits();
+        dto.totalValue = totalValue;
+        return dto;
+    }
+
+    private ProductionPlanDtos.SimulateResponse toDto(ProductionPlanService.Simulation simulation,
+                                                      List<ProductionPlanDtos.Scenario> requests) {
+        ProductionPlan baseline = simulation.baseline();
+        BomSnapshot bom = baseline.bom;
+        BigDecimal baselineValue = baseline.value();
+
+        List<ProductionPlanDtos.ScenarioResult> results = new ArrayList<>();
+        for (int i = 0; i < simulation.plans().length; i++) {
+            ProductionPlan plan = simulation.plans()[i];
+
+            List<ProductionPlanDtos.ScenarioItem> changes = new ArrayList<>();
+            for (int p : bom.priceOrder) {
+                if (plan.units[p] == baseline.units[p]) continue;
+
+                ProductionPlanDtos.ScenarioItem item = new ProductionPlanDtos.ScenarioItem();
+                item.productId = bom.productIds[p];
+                item.productCode = bom.productCodes[p];
+                item.name = bom.productNames[p];
+                item.unitPrice = Quantities.fromCents(plan.unitPrices[p]);
+                item.units = plan.units[p];
+                item.baselineUnits = baseline.units[p];
+                changes.add(item);
+            }
+
+            BigDecimal value = plan.value();
+            ProductionPlanDtos.ScenarioResult result = new ProductionPlanDtos.ScenarioResult();
+            result.name = requests.get(i).name;
+            result.totalUnits = plan.totalUnits();
+            result.totalValue = value;
+            result.valueDelta = value.subtract(baselineValue);
+            result.changes = changes;
+            results.add(result);
+        }
+
+        ProductionPlanDtos.SimulateResponse dto = new ProductionPlanDtos.SimulateResponse();
+        dto.baselineUnits = baseline.totalUnits();
+        dto.baselineValue = baselineValue;
+        dto.scenarios = results;
+        return dto;
+    }
+}
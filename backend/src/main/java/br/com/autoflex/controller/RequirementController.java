@@ -0,0 +1,53 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.dto.RequirementDtos;
+import br.com.autoflex.planning.Shortfall;
+import br.com.autoflex.service.ProductionPlanService;
+
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.ArrayList;
+
+@Path("/requirements")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class RequirementController {
+
+    @Inject
+    ProductionPlanService service;
+
+    @POST
+    public Response explode(@Valid RequirementDtos.Request req) {
+        return Response.ok(toDto(service.requirements(req.demand))).build();
+    }
+
+    private RequirementDtos.Response toDto(Shortfall shortfall) {
+        BomSnapshot bom = shortfall.bom;
+
+        RequirementDtos.Response dto = new RequirementDtos.Response();
+        dto.items = new ArrayList<>(shortfall.size());
+        for (int i = 0; i < shortfall.size(); i++) {
+            int f = shortfall.feedstocks[i];
+
+            RequirementDtos.Item item = new RequirementDtos.Item();
+            item.feedstockId = bom.feedstockIds[f];
+            item.feedstockCode = bom.feedstockCodes[f];
+            item.name = bom.feedstockNames[f];
+            item.unitOfMeasure = bom.unitsOfMeasure[f];
+            item.stock = Quantities.fromMicros(bom.stocks[f]);
+            item.required = Quantities.fromMicros(shortfall.required[i]);
+            item.shortfall = Quantities.fromMicros(shortfall.missing[i]);
+            dto.items.add(item);
+        }
+        return dto;
+    }
+}
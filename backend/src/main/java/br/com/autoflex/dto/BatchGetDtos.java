@@ -0,0 +1,50 @@
+package br.com.autoflex.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class BatchGetDtos {
+    private BatchGetDtos() {}
+
+    public static final int MAX_IDS = 5000;
+
+    public static class Request {
+        @NotEmpty
+        @Size(max = MAX_IDS)
+        public List<@NotNull Long> ids;
+    }
+
+    public static class Item<T> {
+        public Long id;
+        public boolean found;
+        public T item;
+    }
+
+    /** One entry per requested id, in request order; ids that do not exist come back with found=false. */
+    public static class Response<T> {
+        public List<Item<T>> items;
+        public int found;
+        public int notFound;
+
+        public static <T> Response<T> of(List<Long> ids, Map<Long, T> byId) {
+            Response<T> r = new Response<>();
+            r.items = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Item<T> item = new Item<>();
+                item.id = id;
+                item.item = byId.get(id);
+                item.found = item.item != null;
+                r.items.add(item);
+
+                if (item.found) r.found++;
+                else r.notFound++;
+            }
+            return r;
+        }
+    }
+}
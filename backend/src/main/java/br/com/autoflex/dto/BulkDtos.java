@@ -0,0 +1,38 @@
+package br.com.autoflex.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BulkDtos {
+    private BulkDtos() {}
+
+    /** One CSV line of a product import; consecutive lines with the same code form one product. */
+    public static class ProductCsvRow {
+        public String productCode;
+        public String name;
+        public BigDecimal unitPrice;
+        public Long feedstockId;
+        public BigDecimal quantity;
+    }
+
+    public static class RowError {
+        public long row;
+        public String code;
+        public String message;
+
+        public RowError(long row, String code, String message) {
+            this.row = row;
+            this.code = code;
+            this.message = message;
+        }
+    }
+
+    public static class Report {
+        public long received;
+        public long imported;
+        public long failed;
+        public List<RowError> errors = new ArrayList<>();
+        public boolean errorsTruncated;
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.autoflex.dto;
+
+import java.util.List;
+
+public final class CacheDtos {
+    private CacheDtos() {}
+
+    public static class Region {
+        public String name;
+        public long hitCount;
+        public long missCount;
+        public long putCount;
+        public long elementCount;
+    }
+
+    public static class Stats {
+        public long hitCount;
+        public long missCount;
+        public long putCount;
+        public long queryHitCount;
+        public long queryMissCount;
+        public long queryPutCount;
+        public long evictions;
+        public List<Region> regions;
+    }
+}
@@ -0,0 +1,32 @@
+package br.com.autoflex.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.QueryParam;
+
+import java.util.List;
+
+public final class ChangeDtos {
+    private ChangeDtos() {}
+
+    public static class Request {
+        @QueryParam("since")
+        @Min(0)
+        public Long since;
+    }
+
+    /**
+     * Everything that changed after {@code since} up to {@code revision}, the cursor for the next
+     * call. Items carry the latest committed state, which may already include later changes;
+     * applying a batch is an idempotent upsert or delete by id.
+     */
+    public static class Batch {
+        public long since;
+        public long revision;
+        public boolean hasMore;
+
+        public List<ProductDtos.Response> products;
+        public List<FeedstockDtos.Response> feedstocks;
+        public List<Long> deletedProducts;
+        public List<Long> deletedFeedstocks;
+    }
+}
@@ -1,13 +1,17 @@
 package br.com.autoflex.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.QueryParam;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 public final class FeedstockDtos {
     private FeedstockDtos() {}
@@ -23,6 +27,29 @@ public final class FeedstockDtos {
         @QueryParam("size")
         @Min(1) @Max(100)
         public Integer size;
+
+        @QueryParam("cursor")
+        public String cursor;
+
+        @QueryParam("countMode")
+        public String countMode;
+
+        @QueryParam("fields")
+        public String fields;
+
+        @QueryParam("expand")
+        public String expand;
+    }
+
+    public static class ImpactRequest {
+        @QueryParam("stock")
+        @NotNull
+        @DecimalMin(value = "0.0", inclusive = true)
+        public BigDecimal stock;
+
+        @QueryParam("limit")
+        @Min(1) @Max(1000)
+        public Integer limit;
     }
 
     public static class CreateRequest {
@@ -46,6 +73,7 @@ public final class FeedstockDtos {
         @NotBlank
         public String name;
 
+        @NotNull
         @DecimalMin(value = "0.0", inclusive = true)
         public BigDecimal stock;
 
@@ -61,7 +89,11 @@ public final class FeedstockDtos {
         public BigDecimal quantity;
     }
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Response {
+        public static final Set<String> PROPERTIES = Set.of("id", "feedstockCode", "name", "stock", "unitOfMeasure");
+        public static final String ASSOCIATION = "products";
+
         public Long id;
         public String feedstockCode;
         public String name;
@@ -70,4 +102,32 @@ public final class FeedstockDtos {
 
         public List<ProductItem> products;
     }
+
+    public static class ImpactItem {
+        public Long productId;
+        public String productCode;
+        public String name;
+        public BigDecimal unitPrice;
+        public BigDecimal quantity;
+        public long unitsBefore;
+        public long unitsAfter;
+        public BigDecimal revenueDelta;
+        public boolean bottleneck;
+    }
+
+    public static class ImpactResponse {
+        public Long feedstockId;
+        public String feedstockCode;
+        public String name;
+        public String unitOfMeasure;
+        public BigDecimal stock;
+        public BigDecimal simulatedStock;
+
+        public int affectedProducts;
+        public BigDecimal revenueBefore;
+        public BigDecimal revenueAfter;
+        public BigDecimal revenueDelta;
+
+        public List<ImpactItem> items;
+    }
 }
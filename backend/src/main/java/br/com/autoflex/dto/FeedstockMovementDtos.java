@@ -0,0 +1,48 @@
+package br.com.autoflex.dto;
+
+import br.com.autoflex.entity.FeedstockMovement;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public final class FeedstockMovementDtos {
+    private FeedstockMovementDtos() {}
+
+    public static class Item {
+        @NotNull
+        public Long feedstockId;
+
+        /** RECEIPT (positive quantity) or ADJUSTMENT (either sign). */
+        @NotNull
+        public FeedstockMovement.Kind kind;
+
+        @NotNull
+        public BigDecimal quantity;
+    }
+
+    public static class CreateRequest {
+        @NotNull
+        @Size(min = 1, max = 1000)
+        public List<@Valid @NotNull Item> movements;
+    }
+
+    public static class Response {
+        public Long id;
+        public Long feedstockId;
+        public FeedstockMovement.Kind kind;
+        public BigDecimal quantity;
+        public Long productionOrderId;
+        public Instant createdAt;
+    }
+
+    public static class StockResponse {
+        public Long feedstockId;
+        public Instant asOf;
+        public BigDecimal stock;
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.autoflex.dto;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Which properties of a response to write, from the {@code fields} and {@code expand} query
+ * parameters. Without either, everything is written, nested list included. As soon as a client
+ * passes one of them the nested list becomes opt-in: it is written only if it is named in
+ * {@code expand} (or in {@code fields}), so {@code fields=productCode,name} or an empty
+ * {@code expand=} skip the association entirely.
+ */
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null, true);
+
+    private final Set<String> fields;
+    private final boolean expanded;
+
+    private FieldSelection(Set<String> fields, boolean expanded) {
+        this.fields = fields;
+        this.expanded = expanded;
+    }
+
+    public static FieldSelection parse(String fields, String expand, Set<String> properties, String association) {
+        Set<String> selected = fields != null ? names(fields) : null;
+        Set<String> expansions = expand != null ? names(expand) : Set.of();
+
+        if (selected != null) {
+            for (String f : selected) {
+                if (!properties.contains(f) && !f.equals(association)) {
+                    throw new BadRequestException("Unknown field: " + f);
+                }
+            }
+        }
+        for (String e : expansions) {
+            if (!e.equals(association)) throw new BadRequestException("Cannot expand: " + e);
+        }
+
+        boolean expanded = (fields == null && expand == null)
+                || expansions.contains(association)
+                || (selected != null && selected.contains(association));
+        return new FieldSelection(selected, expanded);
+    }
+
+    /** Whether a scalar property is written. */
+    public boolean includes(String property) {
+        return fields == null || fields.contains(property);
+    }
+
+    /** Whether the nested list is loaded and written. */
+    public boolean expanded() {
+        return expanded;
+    }
+
+    public boolean everything() {
+        return fields == null && expanded;
+    }
+
+    private static Set<String> names(String csv) {
+        Set<String> names = new LinkedHashSet<>();
+        Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .forEach(names::add);
+        return names;
+    }
+}
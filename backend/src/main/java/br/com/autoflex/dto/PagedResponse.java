@@ -5,14 +5,26 @@ import java.util.List;
 public class PagedResponse<T> {
 
     public List<T> items;
-    public long total;
+    public Long total;
     public int page;
     public int size;
+    public String nextCursor;
+    public Boolean hasMore;
 
-    public PagedResponse(List<T> items, long total, int page, int size) {
+    public PagedResponse(List<T> items, Long total, int page, int size) {
         this.items = items;
         this.total = total;
         this.page = page;
         this.size = size;
     }
+
+    public PagedResponse(List<T> items, Long total, int page, int size, String nextCursor) {
+        this(items, total, page, size);
+        this.nextCursor = nextCursor;
+    }
+
+    public PagedResponse(List<T> items, Long total, int page, int size, String nextCursor, Boolean hasMore) {
+        this(items, total, page, size, nextCursor);
+        this.hasMore = hasMore;
+    }
 }
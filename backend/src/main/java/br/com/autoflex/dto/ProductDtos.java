@@ -1,5 +1,7 @@
 package br.com.autoflex.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -10,6 +12,7 @@ import jakarta.ws.rs.QueryParam;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 
 public class ProductDtos {
     private ProductDtos() {}
@@ -28,6 +31,24 @@ public class ProductDtos {
         @QueryParam("size")
         @Min(1) @Max(100)
         public Integer size;
+
+        @QueryParam("cursor")
+        public String cursor;
+
+        @QueryParam("producible")
+        public Boolean producible;
+
+        @QueryParam("sort")
+        public String sort;
+
+        @QueryParam("countMode")
+        public String countMode;
+
+        @QueryParam("fields")
+        public String fields;
+
+        @QueryParam("expand")
+        public String expand;
     }
 
     public static class CreateRequest {
@@ -74,12 +95,18 @@ public class ProductDtos {
         public BigDecimal quantity;
     }
 
-
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Response {
+        public static final Set<String> PROPERTIES = Set.of(
+                "id", "productCode", "name", "unitPrice", "maxProducibleUnits", "bottleneckFeedstockId");
+        public static final String ASSOCIATION = "feedstocks";
+
         public Long id;
         public String productCode;
         public String name;
         public BigDecimal unitPrice;
+        public Long maxProducibleUnits;
+        public Long bottleneckFeedstockId;
         public List<FeedstockItem> feedstocks;
     }
 }
@@ -0,0 +1,46 @@
+package br.com.autoflex.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public final class ProductionOrderDtos {
+    private ProductionOrderDtos() {}
+
+    public static class CreateRequest {
+        @NotNull
+        public Long productId;
+
+        @NotNull
+        @Min(1) @Max(1_000_000_000)
+        public Long units;
+    }
+
+    public static class Consumption {
+        public Long feedstockId;
+        public BigDecimal quantity;
+    }
+
+    public static class Response {
+        public Long id;
+        public Long productId;
+        public Long units;
+        public Instant createdAt;
+        public List<Consumption> consumed;
+    }
+
+    public static class Shortfall {
+        public Long feedstockId;
+        public BigDecimal required;
+        public BigDecimal available;
+    }
+
+    public static class ShortfallResponse {
+        public String message;
+        public List<Shortfall> shortfalls;
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.autoflex.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import jakarta.ws.rs.QueryParam;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public final class ProductionPlanDtos {
+    private ProductionPlanDtos() {}
+
+    public static class PlanRequest {
+        /** greedy (default) or optimal. */
+        @QueryParam("mode")
+        public String mode;
+
+        /** Wall-clock budget of the optimal mode, in milliseconds. */
+        @QueryParam("timeBudgetMs")
+        @Min(10) @Max(60_000)
+        public Integer timeBudgetMs;
+    }
+
+    public static class Item {
+        public Long productId;
+        public String productCode;
+        public String name;
+        public BigDecimal unitPrice;
+        public long units;
+        public BigDecimal totalValue;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Response {
+        public List<Item> items;
+        public long totalUnits;
+        public BigDecimal totalValue;
+
+        /** Optimal mode only: whether the search finished, a proven cap on totalValue and the gap to it. */
+        public Boolean optimal;
+        public BigDecimal upperBound;
+        public BigDecimal gap;
+    }
+
+    public static final int MAX_SCENARIOS = 100;
+
+    public static class StockDelta {
+        @NotNull
+        public Long feedstockId;
+
+        /** Added to the current stock; negative to simulate a loss. */
+        @NotNull
+        public BigDecimal delta;
+    }
+
+    public static class PriceOverride {
+        @NotNull
+        public Long productId;
+
+        @NotNull
+        @DecimalMin(value = "0.0", inclusive = true)
+        public BigDecimal unitPrice;
+    }
+
+    public static class Scenario {
+        public String name;
+
+        @Size(max = 10_000)
+        public List<@Valid @NotNull StockDelta> stock;
+
+        @Size(max = 10_000)
+        public List<@Valid @NotNull PriceOverride> prices;
+    }
+
+    public static class SimulateRequest {
+        @NotEmpty
+        @Size(max = MAX_SCENARIOS)
+        public List<@Valid @NotNull Scenario> scenarios;
+    }
+
+    /** A product whose planned units differ from the current plan. */
+    public static class ScenarioItem {
+        public Long productId;
+        public String productCode;
+        public String name;
+        public BigDecimal unitPrice;
+        public long units;
+        public long baselineUnits;
+    }
+
+    public static class ScenarioResult {
+        public String name;
+        public long totalUnits;
+        public BigDecimal totalValue;
+        public BigDecimal valueDelta;
+        public List<ScenarioItem> changes;
+    }
+
+    public static class SimulateResponse {
+        public long baselineUnits;
+        public BigDecimal baselineValue;
+        public List<ScenarioResult> scenarios;
+    }
+}
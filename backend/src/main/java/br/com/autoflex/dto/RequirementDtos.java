@@ -0,0 +1,44 @@
+package br.com.autoflex.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public final class RequirementDtos {
+    private RequirementDtos() {}
+
+    public static final int MAX_LINES = 100_000;
+
+    public static class Demand {
+        @NotNull
+        public Long productId;
+
+        @NotNull
+        @Min(1)
+        public Long units;
+    }
+
+    public static class Request {
+        @NotNull
+        @Size(min = 1, max = MAX_LINES)
+        public List<@Valid @NotNull Demand> demand;
+    }
+
+    public static class Item {
+        public Long feedstockId;
+        public String feedstockCode;
+        public String name;
+        public String unitOfMeasure;
+        public BigDecimal stock;
+        public BigDecimal required;
+        public BigDecimal shortfall;
+    }
+
+    public static class Response {
+        public List<Item> items;
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.autoflex.entity;
+
+import jakarta.persistence.*;
+
+/** Marks a deleted product or feedstock so the change feed can tell clients to drop it. */
+@Entity
+@Table(name = "CATALOG_TOMBSTONE")
+public class CatalogTombstone {
+
+    public enum Kind {
+        PRODUCT,
+        FEEDSTOCK
+    }
+
+    @EmbeddedId
+    public CatalogTombstoneId id;
+
+    @Column(name = "REVISION", nullable = false)
+    public long revision;
+
+    public CatalogTombstone() {}
+
+    public CatalogTombstone(Kind kind, Long entityId, long revision) {
+        this.id = new CatalogTombstoneId(kind, entityId);
+        this.revision = revision;
+    }
+}
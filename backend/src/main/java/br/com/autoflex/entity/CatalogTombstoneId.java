@@ -0,0 +1,39 @@
+package br.com.autoflex.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class CatalogTombstoneId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "KIND", length = 10)
+    public CatalogTombstone.Kind kind;
+
+    @Column(name = "ENTITY_ID")
+    public Long entityId;
+
+    public CatalogTombstoneId() {}
+
+    public CatalogTombstoneId(CatalogTombstone.Kind kind, Long entityId) {
+        this.kind = kind;
+        this.entityId = entityId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CatalogTombstoneId that)) return false;
+        return kind == that.kind && Objects.equals(entityId, that.entityId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, entityId);
+    }
+}
@@ -2,16 +2,23 @@ package br.com.autoflex.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Formula;
+
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
 @Table(name="FEEDSTOCK")
 public class Feedstock {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feedstockSeq")
+    @SequenceGenerator(name = "feedstockSeq", sequenceName = "FEEDSTOCK_SEQ", allocationSize = 50)
     @Column(name = "ID_FEEDSTOCK")
     public Long id;
 
@@ -21,12 +28,27 @@ public class Feedstock {
     @Column(name = "NAME", nullable = false, length = 100)
     public String name;
 
-    @Column(name = "STOCK", nullable = false, precision = 18, scale = 6)
+    /**
+     * Compacted snapshot. After insert it is only moved by relative SQL updates (production orders,
+     * the compactor), never rewritten from a possibly stale entity.
+     */
+    @Column(name = "STOCK", nullable = false, updatable = false, precision = 18, scale = 6)
     public BigDecimal stock;
 
+    /** Ledger movements not yet folded into {@link #stock}; current stock is the sum of both. */
+    @Formula("(SELECT COALESCE(SUM(m.QUANTITY), 0) FROM FEEDSTOCK_MOVEMENT m"
+            + " WHERE m.ID_FEEDSTOCK = ID_FEEDSTOCK AND m.COMPACTED_AT IS NULL)")
+    public BigDecimal pendingStock = BigDecimal.ZERO;
+
     @Column(name = "UNIT_OF_MEASURE", nullable = false, length = 4)
     public String unitOfMeasure;
 
+    /** Revision of the last write to this row; stock changes carry theirs on the ledger movements. */
+    @Column(name = "REVISION", nullable = false)
+    @ColumnDefault("1")
+    public long revision;
+
     @OneToMany(mappedBy = "feedstock")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public Set<ProductFeedstock> products = new HashSet<>();
 }
@@ -0,0 +1,62 @@
+package br.com.autoflex.entity;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One signed entry of the stock ledger. Entries are only ever inserted; the compactor folds the
+ * ones with no {@code compactedAt} into {@link Feedstock#stock} and stamps them.
+ */
+@Entity
+@Table(name = "FEEDSTOCK_MOVEMENT")
+public class FeedstockMovement {
+
+    public enum Kind {
+        /** Stock on hand when the feedstock entered the ledger. */
+        OPENING,
+        RECEIPT,
+        ADJUSTMENT,
+        CONSUMPTION
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "feedstockMovementSeq")
+    @SequenceGenerator(name = "feedstockMovementSeq", sequenceName = "FEEDSTOCK_MOVEMENT_SEQ", allocationSize = 50)
+    @Column(name = "ID_MOVEMENT")
+    public Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "ID_FEEDSTOCK", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    public Feedstock feedstock;
+
+    @Column(name = "ID_FEEDSTOCK", insertable = false, updatable = false)
+    public Long feedstockId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "KIND", nullable = false, length = 12)
+    public Kind kind;
+
+    @Column(name = "QUANTITY", nullable = false, precision = 18, scale = 6)
+    public BigDecimal quantity;
+
+    @Column(name = "ID_PRODUCTION_ORDER")
+    public Long productionOrderId;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    public Instant createdAt;
+
+    @Column(name = "COMPACTED_AT")
+    public Instant compactedAt;
+
+    /** Revision of the transaction that recorded it; the feed reports the feedstock as changed. */
+    @Column(name = "REVISION", nullable = false)
+    @ColumnDefault("0")
+    public long revision;
+}
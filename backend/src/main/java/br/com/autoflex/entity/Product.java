@@ -2,16 +2,22 @@ package br.com.autoflex.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
 @Table(name="PRODUCT")
 public class Product {
     @Id
     @Column(name="ID_PRODUCT")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productSeq")
+    @SequenceGenerator(name = "productSeq", sequenceName = "PRODUCT_SEQ", allocationSize = 50)
     public Long id;
 
     @Column(name = "PRODUCT_CODE", nullable = false, unique = true, length = 30)
@@ -23,6 +29,23 @@ public class Product {
     @Column(name = "UNIT_PRICE", nullable = false, precision = 15, scale = 2)
     public BigDecimal unitPrice;
 
+    /** Revision of the transaction that last wrote this row; see {@code RevisionClock}. */
+    @Column(name = "REVISION", nullable = false)
+    @ColumnDefault("1")
+    public long revision;
+
+    /**
+     * Units the current stock covers and the feedstock that runs out first (null without BOM lines).
+     * Derived data, kept up to date by {@code ProducibleUnitsService}; never written through the entity.
+     */
+    @Column(name = "MAX_PRODUCIBLE_UNITS", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    public long maxProducibleUnits;
+
+    @Column(name = "ID_BOTTLENECK_FEEDSTOCK", insertable = false, updatable = false)
+    public Long bottleneckFeedstockId;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public Set<ProductFeedstock> feedstocks = new HashSet<>();
 }
@@ -2,9 +2,12 @@ package br.com.autoflex.entity;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
 @Table(name = "PRODUCT_FEEDSTOCK")
 public class ProductFeedstock {
 
@@ -24,4 +27,9 @@ public class ProductFeedstock {
 
     @Column(name = "QUANTITY", nullable = false, precision = 18, scale = 6)
     public BigDecimal quantity;
+
+    /** Revision of the transaction that added the line or last changed its quantity. */
+    @Column(name = "REVISION", nullable = false)
+    @ColumnDefault("1")
+    public long revision;
 }
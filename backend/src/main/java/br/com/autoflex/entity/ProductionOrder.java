@@ -0,0 +1,26 @@
+package br.com.autoflex.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/** A recorded production run. Kept after the product is deleted, hence no foreign key. */
+@Entity
+@Table(name = "PRODUCTION_ORDER")
+public class ProductionOrder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productionOrderSeq")
+    @SequenceGenerator(name = "productionOrderSeq", sequenceName = "PRODUCTION_ORDER_SEQ", allocationSize = 50)
+    @Column(name = "ID_PRODUCTION_ORDER")
+    public Long id;
+
+    @Column(name = "ID_PRODUCT", nullable = false)
+    public Long productId;
+
+    @Column(name = "UNITS", nullable = false)
+    public Long units;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    public Instant createdAt;
+}
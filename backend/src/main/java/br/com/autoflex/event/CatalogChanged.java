@@ -0,0 +1,83 @@
+package br.com.autoflex.event;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public final class CatalogChanged {
+
+    public record Line(Long feedstockId, BigDecimal quantity) {}
+
+    public record ProductChange(Long id, String productCode, String name, BigDecimal unitPrice,
+                                List<Line> lines, boolean deleted) {
+
+        public static ProductChange saved(Product p, List<Line> lines) {
+            return new ProductChange(p.id, p.productCode, p.name, p.unitPrice, lines, false);
+        }
+
+        public static ProductChange deleted(Long id) {
+            return new ProductChange(id, null, null, null, null, true);
+        }
+    }
+
+    /** A feedstock written through the catalog; its stock moves only through {@link StockChange}. */
+    public record FeedstockChange(Long id, String feedstockCode, String name, String unitOfMeasure,
+                                  boolean deleted) {
+
+        public static FeedstockChange saved(Feedstock f) {
+            return new FeedstockChange(f.id, f.feedstockCode, f.name, f.unitOfMeasure, false);
+        }
+
+        public static FeedstockChange deleted(Long id) {
+            return new FeedstockChange(id, null, null, null, true);
+        }
+    }
+
+    /**
+     * The sum of the ledger movements the transaction wrote for one feedstock, the opening stock of a
+     * new one included. Listeners add it up instead of reading a balance, so changes compose in any order.
+     */
+    public record StockChange(Long feedstockId, BigDecimal delta) {}
+
+    public final List<ProductChange> products;
+    public final List<FeedstockChange> feedstocks;
+    public final List<StockChange> stocks;
+
+    /** Catalog revision of the transaction that made the change; 0 when the firer did not say. */
+    public final long revision;
+
+    public CatalogChanged(List<ProductChange> products, List<FeedstockChange> feedstocks) {
+        this(products, feedstocks, List.of());
+    }
+
+    public CatalogChanged(List<ProductChange> products, List<FeedstockChange> feedstocks, List<StockChange> stocks) {
+        this(products, feedstocks, stocks, 0L);
+    }
+
+    public CatalogChanged(List<ProductChange> products, List<FeedstockChange> feedstocks, List<StockChange> stocks,
+                          long revision) {
+        this.products = products;
+        this.feedstocks = feedstocks;
+        this.stocks = stocks;
+        this.revision = revision;
+    }
+
+    /** The same changes, stamped with the revision they were written at. */
+    public CatalogChanged at(long revision) {
+        return new CatalogChanged(products, feedstocks, stocks, revision);
+    }
+
+    public static CatalogChanged of(ProductChange change) {
+        return new CatalogChanged(List.of(change), List.of());
+    }
+
+    public static CatalogChanged of(FeedstockChange change) {
+        return new CatalogChanged(List.of(), List.of(change));
+    }
+
+    public static CatalogChanged stocks(List<StockChange> changes) {
+        return new CatalogChanged(List.of(), List.of(), changes);
+    }
+}
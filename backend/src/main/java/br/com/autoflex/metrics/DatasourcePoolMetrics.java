@@ -0,0 +1,33 @@
+package br.com.autoflex.metrics;
+
+import io.agroal.api.AgroalDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+/**
+ * Pool saturation on top of the Agroal gauges ({@code agroal.active.count},
+ * {@code agroal.awaiting.count}, ...) that datasource metrics already export.
+ */
+@Singleton
+public class DatasourcePoolMetrics implements MeterBinder {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("autoflex.datasource.pool.saturation", dataSource, DatasourcePoolMetrics::saturation)
+                .description("Active connections as a fraction of the pool's max size")
+                .register(registry);
+    }
+
+    static double saturation(AgroalDataSource ds) {
+        int max = ds.getConfiguration().connectionPoolConfiguration().maxSize();
+        return max == 0 ? 0 : (double) ds.getMetrics().activeCount() / max;
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.autoflex.metrics;
+
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/** Counts entity instances hydrated for the current request, from the database or the L2 cache. */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class EntityLoadCounter implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestCost cost = RequestCost.current();
+        if (cost != null) cost.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package br.com.autoflex.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/** Database work done while serving the current HTTP request, summed over all its sessions. */
+@RequestScoped
+public class RequestCost {
+
+    private int statements;
+    private long jdbcNanos;
+    private int entitiesLoaded;
+
+    /** The current request's cost, or null outside a request (startup, scheduled work). */
+    static RequestCost current() {
+        ArcContainer container = Arc.container();
+        if (container == null || !container.requestContext().isActive()) return null;
+        return container.instance(RequestCost.class).get();
+    }
+
+    void statementPrepared() {
+        statements++;
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    void entityLoaded() {
+        entitiesLoaded++;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int entitiesLoaded() {
+        return entitiesLoaded;
+    }
+}
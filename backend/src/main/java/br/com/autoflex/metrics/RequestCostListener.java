@@ -0,0 +1,58 @@
+package br.com.autoflex.metrics;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Instantiated by Hibernate for every session ({@code hibernate.session.events.auto}); adds the
+ * session's prepared statements and JDBC execution time to the request it runs in.
+ */
+@RegisterForReflection
+public class RequestCostListener implements SessionEventListener {
+
+    private RequestCost cost;
+    private boolean resolved;
+
+    private long executeStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcPrepareStatementEnd() {
+        RequestCost c = cost();
+        if (c != null) c.statementPrepared();
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestCost c = cost();
+        if (c != null) c.jdbcTime(System.nanoTime() - executeStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestCost c = cost();
+        if (c != null) c.jdbcTime(System.nanoTime() - batchStart);
+    }
+
+    // A session lives inside one request, so the lookup is done once. An export's StatelessSession
+    // is opened and closed while the streamed body is written: after the controller returned but
+    // before the request ends, which is why RequestMetricsFilter records streamed requests late.
+    private RequestCost cost() {
+        if (!resolved) {
+            cost = RequestCost.current();
+            resolved = true;
+        }
+        return cost;
+    }
+}
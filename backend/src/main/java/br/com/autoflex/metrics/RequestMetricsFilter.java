@@ -0,0 +1,150 @@
+package br.com.autoflex.metrics;
+
+import br.com.autoflex.controller.ProductController;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every controller endpoint and records the request's database cost, tagged by endpoint,
+ * status, search type, page size and count mode. Query parameter tags are normalised to a
+ * fixed set of values so arbitrary input cannot create new time series.
+ *
+ * <p>A streamed body (the exports) is written after this filter runs, and does its reads then,
+ * so such a request is recorded once its body is written.
+ */
+@Provider
+public class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String STARTED = RequestMetricsFilter.class.getName() + ".started";
+
+    private static final Set<String> SEARCH_TYPES = Set.of("product", "feedstock");
+    private static final Set<String> COUNT_MODES = Set.of("exact", "cached", "estimate", "none");
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Context
+    ResourceInfo resource;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (tracked()) request.setProperty(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object started = request.getProperty(STARTED);
+        if (started == null) return;
+
+        Tags tags = tags(request, response.getStatus());
+        if (response.getEntity() instanceof StreamingOutput body) {
+            response.setEntity(recordingWhenWritten(body, (Long) started, tags),
+                    response.getEntityAnnotations(), response.getMediaType());
+        } else {
+            record((Long) started, tags);
+        }
+    }
+
+    private StreamingOutput recordingWhenWritten(StreamingOutput body, long started, Tags tags) {
+        return out -> {
+            try {
+                body.write(out);
+            } finally {
+                record(started, tags);
+            }
+        };
+    }
+
+    private void record(long started, Tags tags) {
+        long elapsed = System.nanoTime() - started;
+
+        Timer.builder("autoflex.http.request")
+                .description("Controller endpoint latency")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        RequestCost cost = RequestCost.current();
+        if (cost == null) return;
+
+        DistributionSummary.builder("autoflex.http.request.sql.statements")
+                .description("SQL statements prepared per request")
+                .tags(tags)
+                .register(registry)
+                .record(cost.statements());
+
+        Timer.builder("autoflex.http.request.jdbc")
+                .description("Time spent executing JDBC statements per request")
+                .tags(tags)
+                .register(registry)
+                .record(cost.jdbcNanos(), TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("autoflex.http.request.entities.loaded")
+                .description("Entities loaded per request")
+                .tags(tags)
+                .register(registry)
+                .record(cost.entitiesLoaded());
+    }
+
+    private boolean tracked() {
+        Class<?> type = resource.getResourceClass();
+        return type != null && type.getPackage() == ProductController.class.getPackage();
+    }
+
+    private Tags tags(ContainerRequestContext request, int status) {
+        MultivaluedMap<String, String> query = request.getUriInfo().getQueryParameters();
+
+        return Tags.of(
+                "endpoint", resource.getResourceClass().getSimpleName() + "." + resource.getResourceMethod().getName(),
+                "method", request.getMethod(),
+                "status", Integer.toString(status),
+                "searchType", searchType(query),
+                "size", size(query.getFirst("size")),
+                "countMode", oneOf(query.getFirst("countMode"), COUNT_MODES, "exact"));
+    }
+
+    private static String searchType(MultivaluedMap<String, String> query) {
+        String q = query.getFirst("q");
+        if (q == null || q.isBlank()) return "none";
+        return oneOf(query.getFirst("searchType"), SEARCH_TYPES, "product");
+    }
+
+    private static String oneOf(String value, Set<String> allowed, String fallback) {
+        if (value == null || value.isBlank()) return fallback;
+
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        return allowed.contains(v) ? v : "other";
+    }
+
+    private static String size(String value) {
+        if (value == null || value.isBlank()) return "default";
+
+        try {
+            int size = Integer.parseInt(value.trim());
+            return size >= 1 && size <= MAX_PAGE_SIZE ? Integer.toString(size) : "invalid";
+        } catch (NumberFormatException e) {
+            return "invalid";
+        }
+    }
+}
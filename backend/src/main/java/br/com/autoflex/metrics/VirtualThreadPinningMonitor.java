@@ -0,0 +1,80 @@
+package br.com.autoflex.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process: a virtual thread that blocks
+ * while pinned to its carrier (inside {@code synchronized} or a native frame) for longer than the
+ * threshold is counted in {@code autoflex.virtual-threads.pinned} and logged with the frames that
+ * pinned it.
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger LOG = Logger.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final int LOGGED_FRAMES = 8;
+
+    @ConfigProperty(name = "autoflex.virtual-threads.pinning-monitor.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "autoflex.virtual-threads.pinning-monitor.threshold", defaultValue = "20ms")
+    Duration threshold;
+
+    @Inject
+    MeterRegistry registry;
+
+    private RecordingStream stream;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) return;
+
+        Counter pinned = Counter.builder("autoflex.virtual-threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(registry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, e -> {
+            pinned.increment();
+            LOG.warnf("Virtual thread pinned for %d ms:%n%s", e.getDuration().toMillis(), frames(e));
+        });
+        stream.startAsync();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (stream != null) stream.close();
+    }
+
+    static String frames(RecordedEvent e) {
+        if (e.getStackTrace() == null) return "\t(no stack trace)";
+
+        List<RecordedFrame> frames = e.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                        + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+}
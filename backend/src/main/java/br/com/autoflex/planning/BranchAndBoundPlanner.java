@@ -0,0 +1,359 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revenue-maximising plan: the integer program max {@code sum(price[p] * x[p])} subject to
+ * {@code sum(q[p][f] * x[p]) <= stock[f]} over the snapshot's lines, solved by depth-first
+ * branch-and-bound seeded with the greedy plan.
+ * <p>
+ * Bounds come from a Lagrangian relaxation of the stock constraints: for multipliers
+ * {@code lambda >= 0}, {@code lambda . stock + sum(cap[p] * max(0, price[p] - lambda . q[p]))} caps
+ * every feasible plan, where {@code cap[p]} is what the product could make alone. The multipliers are
+ * tuned once at the root by subgradient steps; after that a node's bound is a prefix sum plus the
+ * contribution of the units already fixed, so it costs O(1). Products are branched in order of
+ * their share of the bound, each trying its largest feasible unit count first.
+ * <p>
+ * The tree is searched by fork/join tasks that split the value range of shallow levels in halves
+ * while the pool has idle workers; deeper levels run sequentially. All tasks share the incumbent.
+ * When the time budget runs out the best plan so far is returned with the root bound.
+ * <p>
+ * Revenue is exact in cents. A plan or a root bound that does not fit in a long throws
+ * {@link ArithmeticException} rather than wrapping around.
+ */
+public final class BranchAndBoundPlanner {
+    private BranchAndBoundPlanner() {}
+
+    static final int MAX_SUBGRADIENT_ITERATIONS = 100;
+    static final int SPLIT_DEPTH = 8;
+    private static final int CLOCK_CHECK_MASK = 1023;
+    private static final double EPS = 1e-6;
+
+    public static OptimalPlan plan(BomSnapshot bom, Duration budget) {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        ProductionPlan greedy = GreedyPlanner.plan(bom);
+
+        Search search = new Search(bom, greedy, start + budget.toNanos() / 4, deadline);
+        if (search.n > 0 && search.upperBound > search.incumbent.get()) {
+            ForkJoinPool.commonPool().invoke(new Branch(search, 0, search.maxUnits(0, bom.stocks), 0,
+                    bom.stocks.clone(), new long[search.n], 0L, 0.0));
+        }
+        return search.result();
+    }
+
+    static final class Search {
+        final BomSnapshot bom;
+        final long deadline;
+
+        /** Products in branching order, with their standalone caps, prices and Lagrangian reduced prices. */
+        final int n;
+        final int[] products;
+        final long[] caps;
+        final long[] prices;
+        final double[] reduced;
+
+        /** Bound terms for levels {@code k..n-1}: the Lagrangian one and plain revenue at full caps. */
+        final double[] lagrangianSuffix;
+        final double[] revenueSuffix;
+        final double base;
+        final long upperBound;
+
+        final AtomicLong incumbent = new AtomicLong();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final LongAdder nodes = new LongAdder();
+        private final long[] best;
+
+        Search(BomSnapshot bom, ProductionPlan seed, long relaxationDeadline, long deadline) {
+            this.bom = bom;
+            this.deadline = deadline;
+
+            int[] candidates = new int[bom.productCount];
+            long[] standalone = new long[bom.productCount];
+            int m = 0;
+            for (int p : bom.priceOrder) {
+                long cap = cap(bom, p);
+                if (cap <= 0) continue;
+                standalone[p] = cap;
+                candidates[m++] = p;
+            }
+            candidates = Arrays.copyOf(candidates, m);
+
+            double[] lambda = multipliers(bom, candidates, standalone, seed.totalValue(), relaxationDeadline);
+
+            double[] weights = new double[bom.productCount];
+            for (int p : candidates) weights[p] = priceOf(bom, lambda, p);
+
+            Integer[] order = new Integer[m];
+            for (int i = 0; i < m; i++) order[i] = candidates[i];
+            Arrays.sort(order, Comparator
+                    .comparingDouble((Integer p) -> -standalone[p] * Math.max(0.0, bom.unitPrices[p] - weights[p]))
+                    .thenComparingLong(p -> -bom.unitPrices[p])
+                    .thenComparingLong(p -> bom.productIds[p]));
+
+            this.n = m;
+            this.products = new int[m];
+            this.caps = new long[m];
+            this.prices = new long[m];
+            this.reduced = new double[m];
+            this.lagrangianSuffix = new double[m + 1];
+            this.revenueSuffix = new double[m + 1];
+            this.best = new long[m];
+
+            for (int k = 0; k < m; k++) {
+                int p = order[k];
+                products[k] = p;
+                caps[k] = standalone[p];
+                prices[k] = bom.unitPrices[p];
+                reduced[k] = bom.unitPrices[p] - weights[p];
+                best[k] = seed.units[p];
+            }
+            for (int k = m - 1; k >= 0; k--) {
+                lagrangianSuffix[k] = lagrangianSuffix[k + 1] + caps[k] * Math.max(0.0, reduced[k]);
+                revenueSuffix[k] = revenueSuffix[k + 1] + (double) caps[k] * prices[k];
+            }
+
+            double b = 0;
+            for (int f = 0; f < bom.feedstockCount; f++) b += lambda[f] * Math.max(0L, bom.stocks[f]);
+            this.base = b;
+
+            double bound = Math.floor(Math.min(base + lagrangianSuffix[0], revenueSuffix[0]) + EPS);
+            // A cast would clamp it to Long.MAX_VALUE, which is no longer a proven bound.
+            if (bound >= 0x1p63) throw new ArithmeticException("Plan bound overflows a long");
+
+            long seedValue = seed.totalValue();
+            this.incumbent.set(seedValue);
+            this.upperBound = Math.max(seedValue, (long) bound);
+        }
+
+        long maxUnits(int k, long[] remaining) {
+            int p = products[k];
+            long max = caps[k];
+            for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1] && max > 0; i++) {
+                max = Math.min(max, Math.max(0L, remaining[bom.lineFeedstocks[i]]) / bom.lineQuantities[i]);
+            }
+            return max;
+        }
+
+        void take(int k, long units, long[] remaining) {
+            int p = products[k];
+            for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+                remaining[bom.lineFeedstocks[i]] -= units * bom.lineQuantities[i];
+            }
+        }
+
+        /** Whether a node at level {@code k} with this much fixed can still beat the incumbent. */
+        boolean promising(int k, long revenue, double fixed) {
+            double bound = Math.min(base + fixed + lagrangianSuffix[k], revenue + revenueSuffix[k]);
+            return bound >= incumbent.get() + 1 - EPS;
+        }
+
+        synchronized void offer(long revenue, long[] units) {
+            if (revenue <= incumbent.get()) return;
+            System.arraycopy(units, 0, best, 0, n);
+            incumbent.set(revenue);
+        }
+
+        boolean stopped() {
+            return timedOut.get();
+        }
+
+        boolean outOfTime() {
+            if (System.nanoTime() < deadline) return false;
+            timedOut.set(true);
+            return true;
+        }
+
+        /** Depth-first over levels {@code k0..n-1}, trying {@code hi} down to {@code lo} at level {@code k0}. */
+        void search(int k0, long hi, long lo, long[] remaining, long[] units, long revenue, double fixed) {
+            long[] next = new long[n];
+            long[] floor = new long[n];
+            next[k0] = hi;
+            floor[k0] = lo;
+
+            long visited = 0;
+            int k = k0;
+            while (k >= k0) {
+                if ((++visited & CLOCK_CHECK_MASK) == 0 && (stopped() || outOfTime())) break;
+
+                long v = next[k];
+                if (v < floor[k]) {
+                    if (--k < k0) break;
+                    take(k, -units[k], remaining);
+                    revenue = Math.subtractExact(revenue, Math.multiplyExact(units[k], prices[k]));
+                    fixed -= units[k] * reduced[k];
+                    next[k] = units[k] - 1;
+                    continue;
+                }
+
+                units[k] = v;
+                take(k, v, remaining);
+                revenue = Math.addExact(revenue, Math.multiplyExact(v, prices[k]));
+                fixed += v * reduced[k];
+
+                boolean leaf = k + 1 == n;
+                if (leaf) offer(revenue, units);
+                if (leaf || !promising(k + 1, revenue, fixed)) {
+                    take(k, -v, remaining);
+                    revenue = Math.subtractExact(revenue, Math.multiplyExact(v, prices[k]));
+                    fixed -= v * reduced[k];
+                    // Fewer units can only lower the revenue, and with a non-negative reduced price
+                    // both bound terms too, so the rest of this level is pruned as well.
+                    next[k] = leaf || reduced[k] >= 0 ? floor[k] - 1 : v - 1;
+                    continue;
+                }
+
+                k++;
+                next[k] = maxUnits(k, remaining);
+                floor[k] = 0;
+            }
+            nodes.add(visited);
+        }
+
+        OptimalPlan result() {
+            long[] units = new long[bom.productCount];
+            long[] remaining = bom.stocks.clone();
+            synchronized (this) {
+                for (int k = 0; k < n; k++) {
+                    units[products[k]] = best[k];
+                    take(k, best[k], remaining);
+                }
+            }
+            ProductionPlan plan = new ProductionPlan(bom, bom.unitPrices, units, remaining);
+            boolean optimal = !timedOut.get();
+            return new OptimalPlan(plan, optimal ? plan.totalValue() : upperBound, optimal, nodes.sum());
+        }
+    }
+
+    /**
+     * One level's value range {@code hi..lo}, with {@code units[0..k-1]} fixed. Splits in halves,
+     * higher values first, while this is a shallow level and other workers are short of work.
+     */
+    static final class Branch extends RecursiveAction {
+        private final Search search;
+        private final int k;
+        private final long hi;
+        private final long lo;
+        private final long[] remaining;
+        private final long[] units;
+        private final long revenue;
+        private final double fixed;
+
+        Branch(Search search, int k, long hi, long lo, long[] remaining, long[] units, long revenue, double fixed) {
+            this.search = search;
+            this.k = k;
+            this.hi = hi;
+            this.lo = lo;
+            this.remaining = remaining;
+            this.units = units;
+            this.revenue = revenue;
+            this.fixed = fixed;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.stopped() || search.outOfTime()) return;
+            boolean split = k < SPLIT_DEPTH && getSurplusQueuedTaskCount() < 2;
+
+            if (split && hi > lo) {
+                long mid = lo + (hi - lo) / 2;
+                invokeAll(
+                        new Branch(search, k, hi, mid + 1, remaining.clone(), units.clone(), revenue, fixed),
+                        new Branch(search, k, mid, lo, remaining, units, revenue, fixed));
+                return;
+            }
+
+            if (split && k + 1 < search.n) {
+                units[k] = hi;
+                search.take(k, hi, remaining);
+                long r = Math.addExact(revenue, Math.multiplyExact(hi, search.prices[k]));
+                double x = fixed + hi * search.reduced[k];
+                search.nodes.increment();
+                if (!search.promising(k + 1, r, x)) return;
+                new Branch(search, k + 1, search.maxUnits(k + 1, remaining), 0, remaining, units, r, x).compute();
+                return;
+            }
+
+            search.search(k, hi, lo, remaining, units, revenue, fixed);
+        }
+    }
+
+    private static long cap(BomSnapshot bom, int p) {
+        int from = bom.lineOffsets[p];
+        int to = bom.lineOffsets[p + 1];
+        if (from == to) return 0;
+
+        long cap = Long.MAX_VALUE;
+        for (int i = from; i < to && cap > 0; i++) {
+            cap = Math.min(cap, Math.max(0L, bom.stocks[bom.lineFeedstocks[i]]) / bom.lineQuantities[i]);
+        }
+        return cap;
+    }
+
+    private static double priceOf(BomSnapshot bom, double[] lambda, int p) {
+        double w = 0;
+        for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+            w += lambda[bom.lineFeedstocks[i]] * bom.lineQuantities[i];
+        }
+        return w;
+    }
+
+    /**
+     * Subgradient descent on the Lagrangian dual with Polyak steps towards the greedy value. Returns
+     * the multipliers with the lowest bound seen; all-zero multipliers give the trivial bound.
+     */
+    static double[] multipliers(BomSnapshot bom, int[] candidates, long[] caps, long lowerBound, long deadline) {
+        int feedstocks = bom.feedstockCount;
+        double[] lambda = new double[feedstocks];
+        double[] best = lambda.clone();
+        double bestBound = Double.POSITIVE_INFINITY;
+        double[] slack = new double[feedstocks];
+        double theta = 2.0;
+        int stalled = 0;
+
+        for (int it = 0; it < MAX_SUBGRADIENT_ITERATIONS && System.nanoTime() < deadline; it++) {
+            double bound = 0;
+            for (int f = 0; f < feedstocks; f++) {
+                slack[f] = Math.max(0L, bom.stocks[f]);
+                bound += lambda[f] * slack[f];
+            }
+            for (int p : candidates) {
+                double reducedPrice = bom.unitPrices[p] - priceOf(bom, lambda, p);
+                if (reducedPrice <= 0) continue;
+                bound += caps[p] * reducedPrice;
+                for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+                    slack[bom.lineFeedstocks[i]] -= (double) caps[p] * bom.lineQuantities[i];
+                }
+            }
+
+            if (bound < bestBound - EPS) {
+                bestBound = bound;
+                best = lambda.clone();
+                stalled = 0;
+            } else if (++stalled >= 10) {
+                theta /= 2;
+                stalled = 0;
+            }
+            if (bestBound - lowerBound < 1) break;
+
+            double norm = 0;
+            for (int f = 0; f < feedstocks; f++) {
+                if (slack[f] < 0 || lambda[f] > 0) norm += slack[f] * slack[f];
+            }
+            if (norm == 0) break;
+
+            double step = theta * (bound - lowerBound) / norm;
+            for (int f = 0; f < feedstocks; f++) lambda[f] = Math.max(0.0, lambda[f] - step * slack[f]);
+        }
+        return best;
+    }
+}
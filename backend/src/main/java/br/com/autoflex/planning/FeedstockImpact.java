@@ -0,0 +1,61 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+/**
+ * What happens to every product using one feedstock if that feedstock's stock becomes
+ * {@link #stock}. Units are standalone capacities: how many units each product could make on its
+ * own from current stock. Rows are ordered by revenue lost, largest first.
+ */
+public final class FeedstockImpact {
+
+    public final BomSnapshot bom;
+    public final int feedstock;
+    public final long stock;
+
+    public final int[] products;
+    public final long[] quantities;
+    public final long[] unitsBefore;
+    public final long[] unitsAfter;
+    public final boolean[] bottleneck;
+
+    private final long revenueBefore;
+    private final long revenueAfter;
+
+    public FeedstockImpact(BomSnapshot bom, int feedstock, long stock,
+                           int[] products, long[] quantities,
+                           long[] unitsBefore, long[] unitsAfter, boolean[] bottleneck,
+                           long revenueBefore, long revenueAfter) {
+        this.bom = bom;
+        this.feedstock = feedstock;
+        this.stock = stock;
+        this.products = products;
+        this.quantities = quantities;
+        this.unitsBefore = unitsBefore;
+        this.unitsAfter = unitsAfter;
+        this.bottleneck = bottleneck;
+        this.revenueBefore = revenueBefore;
+        this.revenueAfter = revenueAfter;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Revenue change of row {@code i} in cents; negative when the product loses capacity. The
+     * analyzer sorted by it, so it is known to fit.
+     */
+    public long revenueDelta(int i) {
+        return Math.multiplyExact(unitsAfter[i] - unitsBefore[i], bom.unitPrices[products[i]]);
+    }
+
+    /** Totals in cents, summed exactly by the analyzer. */
+    public long revenueBefore() {
+        return revenueBefore;
+    }
+
+    public long revenueAfter() {
+        return revenueAfter;
+    }
+}
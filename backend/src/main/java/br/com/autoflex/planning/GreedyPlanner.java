@@ -0,0 +1,40 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+public final class GreedyPlanner {
+    private GreedyPlanner() {}
+
+    public static ProductionPlan plan(BomSnapshot bom) {
+        return plan(bom, bom.stocks, bom.unitPrices, bom.priceOrder);
+    }
+
+    /** Plans over {@code bom}'s lines with other stock and prices; {@code order} must follow {@code unitPrices}. */
+    public static ProductionPlan plan(BomSnapshot bom, long[] stocks, long[] unitPrices, int[] order) {
+        long[] remaining = stocks.clone();
+        long[] units = new long[bom.productCount];
+
+        int[] offsets = bom.lineOffsets;
+        int[] feedstocks = bom.lineFeedstocks;
+        long[] quantities = bom.lineQuantities;
+
+        for (int p : order) {
+            int from = offsets[p];
+            int to = offsets[p + 1];
+            if (from == to) continue;
+
+            long max = Long.MAX_VALUE;
+            for (int i = from; i < to && max > 0; i++) {
+                max = Math.min(max, remaining[feedstocks[i]] / quantities[i]);
+            }
+            if (max <= 0) continue;
+
+            for (int i = from; i < to; i++) {
+                remaining[feedstocks[i]] -= max * quantities[i];
+            }
+            units[p] = max;
+        }
+
+        return new ProductionPlan(bom, unitPrices, units, remaining);
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public final class ImpactAnalyzer {
+    private ImpactAnalyzer() {}
+
+    /**
+     * Recomputes capacity only for the products in the usage row of feedstock {@code f}. For each
+     * one the other lines are scanned once for their tightest ratio; capacity before and after is
+     * that bound capped by the old and the new stock of {@code f}, so a product whose bottleneck
+     * lies elsewhere only changes if the new stock undercuts it. Throws {@link ArithmeticException}
+     * when a revenue does not fit in a long of cents.
+     */
+    public static FeedstockImpact analyze(BomSnapshot bom, int f, long stock) {
+        int from = bom.usageOffsets[f];
+        int n = bom.usageOffsets[f + 1] - from;
+
+        int[] offsets = bom.lineOffsets;
+        int[] feedstocks = bom.lineFeedstocks;
+        long[] quantities = bom.lineQuantities;
+        long[] stocks = bom.stocks;
+
+        int[] products = new int[n];
+        long[] used = new long[n];
+        long[] before = new long[n];
+        long[] after = new long[n];
+        boolean[] bottleneck = new boolean[n];
+
+        for (int k = 0; k < n; k++) {
+            int p = bom.usageProducts[from + k];
+            long q = bom.usageQuantities[from + k];
+
+            long others = Long.MAX_VALUE;
+            for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+                if (feedstocks[i] == f) continue;
+                others = Math.min(others, Math.max(0L, stocks[feedstocks[i]]) / quantities[i]);
+            }
+
+            long limit = Math.max(0L, stock) / q;
+            products[k] = p;
+            used[k] = q;
+            before[k] = Math.min(others, Math.max(0L, stocks[f]) / q);
+            after[k] = Math.min(others, limit);
+            bottleneck[k] = limit <= others;
+        }
+
+        long[] delta = new long[n];
+        long revenueBefore = 0;
+        long revenueAfter = 0;
+        for (int k = 0; k < n; k++) {
+            long price = bom.unitPrices[products[k]];
+            delta[k] = Math.multiplyExact(after[k] - before[k], price);
+            revenueBefore = Math.addExact(revenueBefore, Math.multiplyExact(before[k], price));
+            revenueAfter = Math.addExact(revenueAfter, Math.multiplyExact(after[k], price));
+        }
+
+        Integer[] order = new Integer[n];
+        for (int k = 0; k < n; k++) order[k] = k;
+        Arrays.sort(order, Comparator
+                .comparingLong((Integer k) -> delta[k])
+                .thenComparingLong(k -> bom.productIds[products[k]]));
+
+        FeedstockImpact impact = new FeedstockImpact(bom, f, stock,
+                new int[n], new long[n], new long[n], new long[n], new boolean[n],
+                revenueBefore, revenueAfter);
+        for (int i = 0; i < n; i++) {
+            int k = order[i];
+            impact.products[i] = products[k];
+            impact.quantities[i] = used[k];
+            impact.unitsBefore[i] = before[k];
+            impact.unitsAfter[i] = after[k];
+            impact.bottleneck[i] = bottleneck[k];
+        }
+        return impact;
+    }
+}
@@ -0,0 +1,26 @@
+package br.com.autoflex.planning;
+
+/**
+ * The best plan a bounded search found. {@link #upperBound} is a proven cap on the revenue any
+ * plan can reach, in cents; it equals the plan's value when the search finished ({@link #optimal}).
+ */
+public final class OptimalPlan {
+
+    public final ProductionPlan plan;
+    public final long upperBound;
+    public final boolean optimal;
+    public final long nodes;
+
+    public OptimalPlan(ProductionPlan plan, long upperBound, boolean optimal, long nodes) {
+        this.plan = plan;
+        this.upperBound = upperBound;
+        this.optimal = optimal;
+        this.nodes = nodes;
+    }
+
+    /** Share of the upper bound the plan may still be missing, between 0 and 1. */
+    public double gap() {
+        if (optimal || upperBound <= 0) return 0.0;
+        return Math.max(0.0, (double) (upperBound - plan.totalValue()) / upperBound);
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+public final class ProducibleUnits {
+    private ProducibleUnits() {}
+
+    /**
+     * For each product index in {@code products}, the units its BOM lines allow on their own with the
+     * snapshot's stock, and the index of the feedstock that sets that limit (the lowest feedstock id on
+     * a tie). A product without lines gets 0 units and bottleneck -1.
+     */
+    public static void compute(BomSnapshot bom, int[] products, long[] units, int[] bottlenecks) {
+        int[] offsets = bom.lineOffsets;
+        int[] feedstocks = bom.lineFeedstocks;
+        long[] quantities = bom.lineQuantities;
+
+        for (int k = 0; k < products.length; k++) {
+            int p = products[k];
+            long min = Long.MAX_VALUE;
+            int bottleneck = -1;
+
+            for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+                int f = feedstocks[i];
+                long covered = Math.max(0L, bom.stocks[f]) / quantities[i];
+                if (covered < min || (covered == min && bom.feedstockIds[f] < bom.feedstockIds[bottleneck])) {
+                    min = covered;
+                    bottleneck = f;
+                }
+            }
+
+            units[k] = bottleneck < 0 ? 0 : min;
+            bottlenecks[k] = bottleneck;
+        }
+    }
+}
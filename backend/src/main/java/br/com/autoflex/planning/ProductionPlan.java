@@ -0,0 +1,45 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+
+import java.math.BigDecimal;
+
+public final class ProductionPlan {
+
+    public final BomSnapshot bom;
+    public final long[] unitPrices;
+    public final long[] units;
+    public final long[] remainingStocks;
+
+    public ProductionPlan(BomSnapshot bom, long[] unitPrices, long[] units, long[] remainingStocks) {
+        this.bom = bom;
+        this.unitPrices = unitPrices;
+        this.units = units;
+        this.remainingStocks = remainingStocks;
+    }
+
+    public long totalUnits() {
+        long total = 0;
+        for (long u : units) total += u;
+        return total;
+    }
+
+    /** Plan value in cents at the prices it was planned with. Throws {@link ArithmeticException} on overflow. */
+    public long totalValue() {
+        long total = 0;
+        for (int p = 0; p < units.length; p++) {
+            total = Math.addExact(total, Math.multiplyExact(units[p], unitPrices[p]));
+        }
+        return total;
+    }
+
+    /** Plan value at the prices it was planned with, exact however large it gets. */
+    public BigDecimal value() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int p = 0; p < units.length; p++) {
+            if (units[p] != 0) total = total.add(Quantities.revenue(unitPrices[p], units[p]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+import java.util.Arrays;
+
+public final class RequirementsExploder {
+    private RequirementsExploder() {}
+
+    /**
+     * Gross requirement per feedstock for {@code units[i]} of product index {@code products[i]}: the
+     * transposed BOM times the demand vector, one pass over each demanded product's lines. A product
+     * may appear more than once; its units add up. Throws {@link ArithmeticException} on overflow.
+     */
+    public static long[] explode(BomSnapshot bom, int[] products, long[] units) {
+        long[] required = new long[bom.feedstockCount];
+        int[] offsets = bom.lineOffsets;
+        int[] feedstocks = bom.lineFeedstocks;
+        long[] quantities = bom.lineQuantities;
+
+        for (int k = 0; k < products.length; k++) {
+            int p = products[k];
+            long u = units[k];
+            for (int i = offsets[p]; i < offsets[p + 1]; i++) {
+                int f = feedstocks[i];
+                required[f] = Math.addExact(required[f], Math.multiplyExact(u, quantities[i]));
+            }
+        }
+        return required;
+    }
+
+    /** The feedstocks whose requirement exceeds the snapshot's stock. */
+    public static Shortfall shortfall(BomSnapshot bom, long[] required) {
+        int n = 0;
+        int[] lacking = new int[bom.feedstockCount];
+        for (int f = 0; f < bom.feedstockCount; f++) {
+            if (bom.feedstockAlive[f] && required[f] > bom.stocks[f]) lacking[n++] = f;
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = lacking[i];
+        Arrays.sort(order, (a, b) -> {
+            int byDeficit = Long.compare(required[b] - bom.stocks[b], required[a] - bom.stocks[a]);
+            return byDeficit != 0 ? byDeficit : Long.compare(bom.feedstockIds[a], bom.feedstockIds[b]);
+        });
+
+        Shortfall result = new Shortfall(bom, new int[n], new long[n], new long[n]);
+        for (int i = 0; i < n; i++) {
+            int f = order[i];
+            result.feedstocks[i] = f;
+            result.required[i] = required[f];
+            result.missing[i] = required[f] - bom.stocks[f];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A what-if view over a snapshot: stock and prices that differ from it, with everything else
+ * shared. The stock and price arrays are copied on the first change to them, and the price order is
+ * only rebuilt when a price moved, so an empty scenario costs nothing beyond its plan.
+ */
+public final class Scenario {
+
+    public final BomSnapshot bom;
+
+    private long[] stocks;
+    private long[] unitPrices;
+    private int[] priceOrder;
+
+    private boolean stocksCopied;
+    private boolean pricesCopied;
+
+    public Scenario(BomSnapshot bom) {
+        this.bom = bom;
+        this.stocks = bom.stocks;
+        this.unitPrices = bom.unitPrices;
+        this.priceOrder = bom.priceOrder;
+    }
+
+    /** Throws {@link ArithmeticException} when the adjusted stock no longer fits in a long. */
+    public Scenario adjustStock(int f, long delta) {
+        if (!stocksCopied) {
+            stocks = stocks.clone();
+            stocksCopied = true;
+        }
+        stocks[f] = Math.addExact(stocks[f], delta);
+        return this;
+    }
+
+    public Scenario overridePrice(int p, long cents) {
+        if (!pricesCopied) {
+            unitPrices = unitPrices.clone();
+            pricesCopied = true;
+        }
+        unitPrices[p] = cents;
+        priceOrder = null;
+        return this;
+    }
+
+    public long[] stocks() {
+        return stocks;
+    }
+
+    public long[] unitPrices() {
+        return unitPrices;
+    }
+
+    /** Live products by descending scenario price, ties by id, like {@link BomSnapshot#priceOrder}. */
+    public int[] priceOrder() {
+        if (priceOrder == null) priceOrder = reorder(bom.priceOrder, unitPrices, bom.productIds);
+        return priceOrder;
+    }
+
+    public ProductionPlan plan() {
+        return GreedyPlanner.plan(bom, stocks, unitPrices, priceOrder());
+    }
+
+    // Only the overridden products move: pull them out of the base order, sort them and merge back.
+    private int[] reorder(int[] base, long[] prices, long[] ids) {
+        int[] moved = new int[base.length];
+        int[] kept = new int[base.length];
+        int m = 0, k = 0;
+        for (int p : base) {
+            if (prices[p] != bom.unitPrices[p]) moved[m++] = p;
+            else kept[k++] = p;
+        }
+        if (m == 0) return base;
+
+        Integer[] sorted = new Integer[m];
+        for (int i = 0; i < m; i++) sorted[i] = moved[i];
+        Arrays.sort(sorted, Comparator.comparingLong((Integer p) -> -prices[p]).thenComparingLong(p -> ids[p]));
+
+        int[] order = new int[base.length];
+        int i = 0, j = 0, o = 0;
+        while (i < k && j < m) {
+            order[o++] = before(sorted[j], kept[i], prices, ids) ? sorted[j++] : kept[i++];
+        }
+        while (i < k) order[o++] = kept[i++];
+        while (j < m) order[o++] = sorted[j++];
+        return order;
+    }
+
+    private static boolean before(int a, int b, long[] prices, long[] ids) {
+        if (prices[a] != prices[b]) return prices[a] > prices[b];
+        return ids[a] < ids[b];
+    }
+}
@@ -0,0 +1,45 @@
+package br.com.autoflex.planning;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Plans a batch of scenarios on the common fork/join pool. Each scenario is a full greedy pass
+ * over its own copy of stock, so they share nothing mutable; the range is split in halves down to
+ * single scenarios and idle workers steal the other halves.
+ */
+public final class ScenarioSimulator {
+    private ScenarioSimulator() {}
+
+    public static ProductionPlan[] simulate(Scenario[] scenarios) {
+        ProductionPlan[] plans = new ProductionPlan[scenarios.length];
+        ForkJoinPool.commonPool().invoke(new Slice(scenarios, plans, 0, scenarios.length));
+        return plans;
+    }
+
+    private static final class Slice extends RecursiveAction {
+        private final Scenario[] scenarios;
+        private final ProductionPlan[] plans;
+        private final int from;
+        private final int to;
+
+        Slice(Scenario[] scenarios, ProductionPlan[] plans, int from, int to) {
+            this.scenarios = scenarios;
+            this.plans = plans;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                plans[from] = scenarios[from].plan();
+                return;
+            }
+            if (to <= from) return;
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(scenarios, plans, from, mid), new Slice(scenarios, plans, mid, to));
+        }
+    }
+}
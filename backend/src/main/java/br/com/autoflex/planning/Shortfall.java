@@ -0,0 +1,26 @@
+package br.com.autoflex.planning;
+
+import br.com.autoflex.bom.BomSnapshot;
+
+/**
+ * Feedstocks a demand list needs more of than is in stock, largest deficit first (ties by
+ * feedstock id). Quantities are in micro-units, like the snapshot's.
+ */
+public final class Shortfall {
+
+    public final BomSnapshot bom;
+    public final int[] feedstocks;
+    public final long[] required;
+    public final long[] missing;
+
+    public Shortfall(BomSnapshot bom, int[] feedstocks, long[] required, long[] missing) {
+        this.bom = bom;
+        this.feedstocks = feedstocks;
+        this.required = required;
+        this.missing = missing;
+    }
+
+    public int size() {
+        return feedstocks.length;
+    }
+}
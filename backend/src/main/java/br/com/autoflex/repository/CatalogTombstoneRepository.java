@@ -0,0 +1,29 @@
+package br.com.autoflex.repository;
+
+import br.com.autoflex.entity.CatalogTombstone;
+import br.com.autoflex.entity.CatalogTombstoneId;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+@ApplicationScoped
+public class CatalogTombstoneRepository implements PanacheRepositoryBase<CatalogTombstone, CatalogTombstoneId> {
+
+    /** (revision, kind, entity id) of the tombstones in {@code (after, upTo]}, in revision order. */
+    public List<Object[]> findRevisions(long after, long upTo, int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        select t.revision, t.id.kind, t.id.entityId
+                        from CatalogTombstone t
+                        where t.revision > :after and t.revision <= :upTo
+                        order by t.revision
+                        """, Object[].class)
+                .setParameter("after", after)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
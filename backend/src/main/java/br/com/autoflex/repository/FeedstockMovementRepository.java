@@ -0,0 +1,55 @@
+package br.com.autoflex.repository;
+
+import br.com.autoflex.entity.FeedstockMovement;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@ApplicationScoped
+public class FeedstockMovementRepository implements PanacheRepository<FeedstockMovement> {
+
+    /** (movement id, feedstock id, quantity) of the oldest committed movements not yet compacted. */
+    public List<Object[]> findTail(int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        select m.id, m.feedstockId, m.quantity
+                        from FeedstockMovement m
+                        where m.compactedAt is null
+                        order by m.id
+                        """, Object[].class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Stamps the given movements as compacted and returns how many it claimed. A count short of
+     * {@code ids.size()} means another compactor got to some of them first.
+     */
+    public int markCompacted(Collection<Long> ids, Instant at) {
+        return getEntityManager()
+                .createQuery("update FeedstockMovement m set m.compactedAt = :at where m.id in :ids and m.compactedAt is null")
+                .setParameter("at", at)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    /** (revision, feedstock id) of the movements written in {@code (after, upTo]}, in revision order. */
+    public List<Object[]> findRevisions(long after, long upTo, int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        select m.revision, m.feedstockId
+                        from FeedstockMovement m
+                        where m.revision > :after and m.revision <= :upTo
+                        order by m.revision
+                        """, Object[].class)
+                .setParameter("after", after)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
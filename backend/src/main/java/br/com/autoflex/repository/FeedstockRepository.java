@@ -1,24 +1,268 @@
 package br.com.autoflex.repository;
 
 import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.repository.projection.FeedstockRow;
 
 import jakarta.enterprise.context.ApplicationScoped;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.Session;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @ApplicationScoped
 public class FeedstockRepository implements PanacheRepository<Feedstock> {
 
+    private static final String AFTER_CURSOR =
+            "stock <= :afterKey and (stock < :afterKey or id < :afterId)";
+
+    private static final String NO_ROWS = "1 = 0";
+
+    /** Query cache region of the list pages; they carry stock, which changes outside the session. */
+    public static final String PAGE_CACHE_REGION = "feedstock-pages";
+
+    /**
+     * Takes stock only if enough is left, counting the ledger tail not yet compacted; the row lock it
+     * holds until commit serializes competing orders.
+     */
+    public static final String CONSUME_STOCK = """
+            UPDATE FEEDSTOCK f SET STOCK = STOCK - ?
+            WHERE ID_FEEDSTOCK = ?
+              AND STOCK + (SELECT COALESCE(SUM(m.QUANTITY), 0) FROM FEEDSTOCK_MOVEMENT m
+                           WHERE m.ID_FEEDSTOCK = f.ID_FEEDSTOCK AND m.COMPACTED_AT IS NULL) >= ?
+            """;
+
+    static final String FOLD_STOCK = "UPDATE FEEDSTOCK SET STOCK = STOCK + ? WHERE ID_FEEDSTOCK = ?";
+
     public PanacheQuery<Feedstock> search(String q) {
-        Sort sort = Sort.by("stock").descending();
+        return search(q, null);
+    }
+
+    public PanacheQuery<Feedstock> search(String q, PageCursor after) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+
+        if (q != null && !q.isBlank()) {
+            where.add("(lower(name) like :like or lower(feedstockCode) like :like)");
+            params.and("like", "%" + q.toLowerCase() + "%");
+        }
+
+        return findPage(where, params, after);
+    }
+
+    public PanacheQuery<Feedstock> searchByIds(Collection<Long> ids, PageCursor after) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+
+        where.add(ids.isEmpty() ? NO_ROWS : "id in :ids");
+        if (!ids.isEmpty()) params.and("ids", ids);
+
+        return findPage(where, params, after);
+    }
+
+    /**
+     * Pages by the compacted {@code stock} column, not by the stock responses show ({@code stock +
+     * pendingStock}): that order walks IX_FEEDSTOCK_STOCK_ID, while the displayed sum would need the
+     * ledger tail of every matching row before the first one is returned. A feedstock with movements
+     * not yet compacted can therefore look out of place until the compactor folds them, within
+     * {@code autoflex.stock.compaction.every}. Cursors carry the compacted key for the same reason.
+     */
+    private PanacheQuery<Feedstock> findPage(List<String> where, Parameters params, PageCursor after) {
+        Sort sort = Sort.by("stock").descending().and("id", Sort.Direction.Descending);
+
+        if (after != null) {
+            where.add(AFTER_CURSOR);
+            params.and("afterKey", after.key()).and("afterId", after.id());
+        }
+
+        PanacheQuery<Feedstock> query = where.isEmpty()
+                ? findAll(sort)
+                : find(String.join(" and ", where), sort, params);
+        return query
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .withHint(HibernateHints.HINT_CACHE_REGION, PAGE_CACHE_REGION);
+    }
+
+    public Set<String> findExistingCodes(Collection<String> codes) {
+        if (codes.isEmpty()) return Set.of();
+
+        return new HashSet<>(getEntityManager()
+                .createQuery("select f.feedstockCode from Feedstock f where f.feedstockCode in :codes", String.class)
+                .setParameter("codes", codes)
+                .getResultList());
+    }
+
+    public List<Feedstock> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        List<Feedstock> found = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InList.chunks(ids)) found.addAll(list("id in ?1", chunk));
+        return found;
+    }
+
+    public List<FeedstockRow> findRowsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
 
-        if (q == null || q.isBlank()) {
-            return findAll(sort);
+        List<FeedstockRow> rows = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InList.chunks(ids)) {
+            rows.addAll(find("id in ?1", chunk).project(FeedstockRow.class).list());
         }
+        return rows;
+    }
+
+    public Set<Long> findExistingIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return Set.of();
+
+        return new HashSet<>(getEntityManager()
+                .createQuery("select f.id from Feedstock f where f.id in :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    /**
+     * Runs {@link #CONSUME_STOCK} for every line in one JDBC batch and returns the update counts:
+     * 0 means that feedstock did not have enough stock (or no longer exists). Callers pass the ids
+     * in ascending order so concurrent orders lock shared rows in the same order.
+     */
+    public int[] consumeStock(long[] feedstockIds, BigDecimal[] quantities) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(CONSUME_STOCK)) {
+                for (int i = 0; i < feedstockIds.length; i++) {
+                    ps.setBigDecimal(1, quantities[i]);
+                    ps.setLong(2, feedstockIds[i]);
+                    ps.setBigDecimal(3, quantities[i]);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Adds each delta to the compacted snapshot in one JDBC batch. Ids come in ascending order, like
+     * {@link #consumeStock}, so the compactor and production orders lock rows in the same order.
+     */
+    public void foldStock(long[] feedstockIds, BigDecimal[] deltas) {
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(FOLD_STOCK)) {
+                for (int i = 0; i < feedstockIds.length; i++) {
+                    ps.setBigDecimal(1, deltas[i]);
+                    ps.setLong(2, feedstockIds[i]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
+    public Map<Long, BigDecimal> findStocks(Collection<Long> ids) {
+        if (ids.isEmpty()) return Map.of();
+
+        return getEntityManager()
+                .createQuery("select f.id, f.stock + f.pendingStock from Feedstock f where f.id in :ids", Object[].class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(r -> (Long) r[0], r -> (BigDecimal) r[1]));
+    }
+
+    /**
+     * Stock of one feedstock at {@code at}: the current value with every later movement taken back
+     * out, read in a single statement so a concurrent compaction cannot be counted twice. Null if
+     * the feedstock does not exist.
+     */
+    public BigDecimal findStockAsOf(Long id, Instant at) {
+        return getEntityManager()
+                .createQuery("""
+                        select f.stock + f.pendingStock - coalesce(
+                            (select sum(m.quantity) from FeedstockMovement m
+                             where m.feedstockId = f.id and m.createdAt > :at), 0)
+                        from Feedstock f
+                        where f.id = :id
+                        """, BigDecimal.class)
+                .setParameter("id", id)
+                .setParameter("at", at)
+                .getResultStream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Stock as of a revision horizon: movements written after {@code last} or by a transaction in
+     * {@code inFlight} are left out, even if they committed while the statement ran.
+     */
+    public Stream<Object[]> streamPlanningRows(long last, Collection<Long> inFlight) {
+        return getEntityManager()
+                .createQuery("""
+                        select f.id, f.feedstockCode, f.name, f.unitOfMeasure,
+                               f.stock + f.pendingStock - coalesce(
+                                   (select sum(m.quantity) from FeedstockMovement m
+                                    where m.feedstockId = f.id
+                                      and (m.revision > :last or m.revision in :inFlight)), 0),
+                               f.revision
+                        from Feedstock f
+                        """, Object[].class)
+                .setParameter("last", last)
+                // Revisions are positive; -1 keeps the list non-empty without matching anything.
+                .setParameter("inFlight", inFlight.isEmpty() ? List.of(-1L) : inFlight)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, ProductFeedstockRepository.SCAN_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    public ScrollableResults<Object[]> scrollExportRows(StatelessSession session) {
+        return session.createSelectionQuery("""
+                        select f.id, f.feedstockCode, f.name, f.stock + f.pendingStock, f.unitOfMeasure,
+                               p.id, p.productCode, p.name, p.unitPrice, pf.quantity
+                        from Feedstock f
+                        left join f.products pf
+                        left join pf.product p
+                        order by f.id, p.id
+                        """, Object[].class)
+                .setFetchSize(ProductFeedstockRepository.SCAN_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /** One row per feedstock and no join: the CSV export has no column for the products using it. */
+    public ScrollableResults<Object[]> scrollCsvExportRows(StatelessSession session) {
+        return session.createSelectionQuery("""
+                        select f.feedstockCode, f.name, f.stock + f.pendingStock, f.unitOfMeasure
+                        from Feedstock f
+                        order by f.id
+                        """, Object[].class)
+                .setFetchSize(ProductFeedstockRepository.SCAN_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
 
-        String like = "%" + q.toLowerCase() + "%";
-        return find("lower(name) like ?1 or lower(feedstockCode) like ?1", sort, like);
+    /** (revision, feedstock id) of the feedstocks written in {@code (after, upTo]}, in revision order. */
+    public List<Object[]> findRevisions(long after, long upTo, int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        select f.revision, f.id
+                        from Feedstock f
+                        where f.revision > :after and f.revision <= :upTo
+                        order by f.revision
+                        """, Object[].class)
+                .setParameter("after", after)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
     }
 }
@@ -0,0 +1,23 @@
+package br.com.autoflex.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** Splits values for {@code in} predicates; Oracle rejects lists longer than {@link #MAX_SIZE} (ORA-01795). */
+public final class InList {
+    private InList() {}
+
+    public static final int MAX_SIZE = 1000;
+
+    public static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> all = values instanceof List<T> list ? list : new ArrayList<>(values);
+        if (all.size() <= MAX_SIZE) return List.of(all);
+
+        List<List<T>> chunks = new ArrayList<>((all.size() + MAX_SIZE - 1) / MAX_SIZE);
+        for (int from = 0; from < all.size(); from += MAX_SIZE) {
+            chunks.add(all.subList(from, Math.min(from + MAX_SIZE, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,27 @@
+package br.com.autoflex.repository;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public record PageCursor(BigDecimal key, long id) {
+
+    public static String encode(BigDecimal key, Long id) {
+        String raw = key.toPlainString() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf(':');
+            return new PageCursor(new BigDecimal(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
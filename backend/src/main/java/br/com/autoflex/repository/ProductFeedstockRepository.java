@@ -0,0 +1,75 @@
+package br.com.autoflex.repository;
+
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.repository.projection.BomLineRow;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+@ApplicationScoped
+public class ProductFeedstockRepository implements PanacheRepositoryBase<ProductFeedstock, ProductFeedstockId> {
+
+    static final int SCAN_FETCH_SIZE = 1000;
+
+    private static final String LINE_SELECT = """
+            select new br.com.autoflex.repository.projection.BomLineRow(
+                p.id, p.productCode, p.name, p.unitPrice,
+                f.id, f.feedstockCode, f.name, f.stock + f.pendingStock,
+                pf.quantity)
+            from ProductFeedstock pf
+            join pf.product p
+            join pf.feedstock f
+            """;
+
+    public List<BomLineRow> findByProductIds(Collection<Long> productIds) {
+        return findLines("where pf.id.idProduct in ?1 order by pf.id.idProduct, pf.id.idFeedstock", productIds);
+    }
+
+    public List<BomLineRow> findByFeedstockIds(Collection<Long> feedstockIds) {
+        return findLines("where pf.id.idFeedstock in ?1 order by pf.id.idFeedstock, pf.id.idProduct", feedstockIds);
+    }
+
+    private List<BomLineRow> findLines(String where, Collection<Long> ids) {
+        List<BomLineRow> lines = new ArrayList<>();
+        for (List<Long> chunk : InList.chunks(ids)) {
+            lines.addAll(getEntityManager()
+                    .createQuery(LINE_SELECT + where, BomLineRow.class)
+                    .setParameter(1, chunk)
+                    .getResultList());
+        }
+        return lines;
+    }
+
+    /** (feedstock id, quantity per unit) of one product's BOM, by ascending feedstock id. */
+    public List<Object[]> findRequirements(Long productId) {
+        return getEntityManager()
+                .createQuery("""
+                        select pf.id.idFeedstock, pf.quantity
+                        from ProductFeedstock pf
+                        where pf.id.idProduct = ?1
+                        order by pf.id.idFeedstock
+                        """, Object[].class)
+                .setParameter(1, productId)
+                .getResultList();
+    }
+
+    public Stream<Object[]> streamLines() {
+        return getEntityManager()
+                .createQuery("""
+                        select pf.id.idProduct, pf.id.idFeedstock, pf.quantity
+                        from ProductFeedstock pf
+                        """, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, SCAN_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -1,41 +1,224 @@
 package br.com.autoflex.repository;
 
 import br.com.autoflex.entity.Product;
+import br.com.autoflex.repository.projection.ProductRow;
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Parameters;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.BadRequestException;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.jpa.HibernateHints;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class ProductRepository implements PanacheRepository<Product> {
 
-    public PanacheQuery<Product> searchByProduct(String q) {
-        Sort sort = Sort.by("unitPrice").descending();
+    private static final String AFTER_CURSOR =
+            "unitPrice <= :afterKey and (unitPrice < :afterKey or id < :afterId)";
+
+    private static final String AFTER_UNITS_CURSOR =
+            "maxProducibleUnits <= :afterKey and (maxProducibleUnits < :afterKey or id < :afterId)";
+
+    /** Query cache region of the list pages; they carry the capacity columns, written outside the session. */
+    public static final String PAGE_CACHE_REGION = "product-pages";
+
+    /** Sets the derived capacity columns, skipping rows that already hold the same values. */
+    static final String UPDATE_PRODUCIBLE_UNITS = """
+            UPDATE PRODUCT SET MAX_PRODUCIBLE_UNITS = ?, ID_BOTTLENECK_FEEDSTOCK = ?
+            WHERE ID_PRODUCT = ?
+              AND (MAX_PRODUCIBLE_UNITS <> ? OR COALESCE(ID_BOTTLENECK_FEEDSTOCK, 0) <> ?)
+            """;
+
+    /** Which products a list returns and in what order; both orders are descending, ties by id. */
+    public record Listing(boolean producibleOnly, Order order) {
+
+        public enum Order { PRICE, MAX_UNITS }
 
-        if (q == null || q.isBlank()) {
-            return findAll(sort);
+        public static final Listing DEFAULT = new Listing(false, Order.PRICE);
+
+        public static Listing parse(Boolean producible, String sort) {
+            Order order;
+            if (sort == null || sort.isBlank() || sort.trim().equals("price")) {
+                order = Order.PRICE;
+            } else if (sort.trim().equals("maxUnits")) {
+                order = Order.MAX_UNITS;
+            } else {
+                throw new BadRequestException("Unknown sort: " + sort);
+            }
+            return new Listing(Boolean.TRUE.equals(producible), order);
         }
+    }
+
+    private static final String NO_ROWS = "1 = 0";
 
-        String like = "%" + q.toLowerCase() + "%";
-        return find("lower(name) like ?1 or lower(productCode) like ?1", sort, like);
+    public PanacheQuery<Product> searchByProduct(String q, PageCursor after, Listing listing) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+
+        if (q != null && !q.isBlank()) {
+            where.add("(lower(name) like :like or lower(productCode) like :like)");
+            params.and("like", "%" + q.toLowerCase() + "%");
+        }
+
+        return findPage(where, params, after, listing);
     }
 
-    public PanacheQuery<Product> searchByFeedstockName(String q) {
-        if (q == null || q.isBlank()) {
-            return findAll(Sort.by("unitPrice").descending());
+    public PanacheQuery<Product> searchByFeedstockName(String q, PageCursor after, Listing listing) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+
+        if (q != null && !q.isBlank()) {
+            where.add("""
+                    id in (
+                        select pf.product.id
+                        from ProductFeedstock pf
+                        where lower(pf.feedstock.name) like :like
+                    )""");
+            params.and("like", "%" + q.toLowerCase() + "%");
         }
 
-        String like = "%" + q.toLowerCase() + "%";
+        return findPage(where, params, after, listing);
+    }
 
+    public PanacheQuery<Product> searchByIds(Collection<Long> ids, PageCursor after, Listing listing) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
 
-        return find("""
-                select distinct p
-                from Product p
-                join p.feedstocks pf
-                join pf.feedstock f
-                where lower(f.name) like ?1
-                order by p.unitPrice desc
-                """, like);
+        where.add(ids.isEmpty() ? NO_ROWS : "id in :ids");
+        if (!ids.isEmpty()) params.and("ids", ids);
+
+        return findPage(where, params, after, listing);
+    }
+
+    public PanacheQuery<Product> searchByFeedstockIds(Collection<Long> feedstockIds, PageCursor after,
+                                                      Listing listing) {
+        List<String> where = new ArrayList<>();
+        Parameters params = new Parameters();
+
+        if (feedstockIds.isEmpty()) {
+            where.add(NO_ROWS);
+        } else {
+            where.add("""
+                    id in (
+                        select pf.product.id
+                        from ProductFeedstock pf
+                        where pf.feedstock.id in :ids
+                    )""");
+            params.and("ids", feedstockIds);
+        }
+
+        return findPage(where, params, after, listing);
     }
-}
 
+    private PanacheQuery<Product> findPage(List<String> where, Parameters params, PageCursor after, Listing listing) {
+        boolean byUnits = listing.order() == Listing.Order.MAX_UNITS;
+        Sort sort = Sort.by(byUnits ? "maxProducibleUnits" : "unitPrice").descending()
+                .and("id", Sort.Direction.Descending);
+
+        if (listing.producibleOnly()) where.add("maxProducibleUnits > 0");
+        if (after != null) {
+            where.add(byUnits ? AFTER_UNITS_CURSOR : AFTER_CURSOR);
+            params.and("afterKey", byUnits ? after.key().longValue() : after.key()).and("afterId", after.id());
+        }
+
+        PanacheQuery<Product> query = where.isEmpty()
+                ? findAll(sort)
+                : find(String.join(" and ", where), sort, params);
+        return query
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .withHint(HibernateHints.HINT_CACHE_REGION, PAGE_CACHE_REGION);
+    }
+
+    public List<ProductRow> findRowsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        List<ProductRow> rows = new ArrayList<>(ids.size());
+        for (List<Long> chunk : InList.chunks(ids)) {
+            rows.addAll(find("id in ?1", chunk).project(ProductRow.class).list());
+        }
+        return rows;
+    }
+
+    public Set<String> findExistingCodes(Collection<String> codes) {
+        if (codes.isEmpty()) return Set.of();
+
+        return new HashSet<>(getEntityManager()
+                .createQuery("select p.productCode from Product p where p.productCode in :codes", String.class)
+                .setParameter("codes", codes)
+                .getResultList());
+    }
+
+    public Stream<Object[]> streamPlanningRows() {
+        return getEntityManager()
+                .createQuery("""
+                        select p.id, p.productCode, p.name, p.unitPrice, p.revision
+                        from Product p
+                        """, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, ProductFeedstockRepository.SCAN_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    public ScrollableResults<Object[]> scrollExportRows(StatelessSession session) {
+        return session.createSelectionQuery("""
+                        select p.id, p.productCode, p.name, p.unitPrice,
+                               f.id, f.feedstockCode, f.name, f.stock + f.pendingStock, pf.quantity
+                        from Product p
+                        left join p.feedstocks pf
+                        left join pf.feedstock f
+                        order by p.id, f.id
+                        """, Object[].class)
+                .setFetchSize(ProductFeedstockRepository.SCAN_FETCH_SIZE)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /** (revision, product id) of the products written in {@code (after, upTo]}, in revision order. */
+    public List<Object[]> findRevisions(long after, long upTo, int limit) {
+        return getEntityManager()
+                .createQuery("""
+                        select p.revision, p.id
+                        from Product p
+                        where p.revision > :after and p.revision <= :upTo
+                        order by p.revision
+                        """, Object[].class)
+                .setParameter("after", after)
+                .setParameter("upTo", upTo)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Writes {@link #UPDATE_PRODUCIBLE_UNITS} for every product in one JDBC batch and returns the
+     * update counts, 1 where the stored value changed. Callers pass ids in ascending order so that
+     * row locks are always taken in the same order.
+     */
+    public int[] updateProducibleUnits(long[] productIds, long[] units, Long[] bottleneckIds) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE_PRODUCIBLE_UNITS)) {
+                for (int i = 0; i < productIds.length; i++) {
+                    ps.setLong(1, units[i]);
+                    if (bottleneckIds[i] != null) ps.setLong(2, bottleneckIds[i]);
+                    else ps.setNull(2, Types.NUMERIC);
+                    ps.setLong(3, productIds[i]);
+                    ps.setLong(4, units[i]);
+                    ps.setLong(5, bottleneckIds[i] != null ? bottleneckIds[i] : 0L);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+    }
+}
@@ -0,0 +1,11 @@
+package br.com.autoflex.repository;
+
+import br.com.autoflex.entity.ProductionOrder;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class ProductionOrderRepository implements PanacheRepository<ProductionOrder> {
+}
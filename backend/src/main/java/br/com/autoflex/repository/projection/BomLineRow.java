@@ -0,0 +1,32 @@
+package br.com.autoflex.repository.projection;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.math.BigDecimal;
+
+@RegisterForReflection
+public class BomLineRow {
+    public final Long productId;
+    public final String productCode;
+    public final String productName;
+    public final BigDecimal unitPrice;
+    public final Long feedstockId;
+    public final String feedstockCode;
+    public final String feedstockName;
+    public final BigDecimal stock;
+    public final BigDecimal quantity;
+
+    public BomLineRow(Long productId, String productCode, String productName, BigDecimal unitPrice,
+                      Long feedstockId, String feedstockCode, String feedstockName, BigDecimal stock,
+                      BigDecimal quantity) {
+        this.productId = productId;
+        this.productCode = productCode;
+        this.productName = productName;
+        this.unitPrice = unitPrice;
+        this.feedstockId = feedstockId;
+        this.feedstockCode = feedstockCode;
+        this.feedstockName = feedstockName;
+        this.stock = stock;
+        this.quantity = quantity;
+    }
+}
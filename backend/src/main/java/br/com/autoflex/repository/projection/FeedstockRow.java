@@ -0,0 +1,26 @@
+package br.com.autoflex.repository.projection;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.math.BigDecimal;
+
+@RegisterForReflection
+public class FeedstockRow {
+    public final Long id;
+    public final String feedstockCode;
+    public final String name;
+    /** Compacted snapshot; it is also the keyset sort key. */
+    public final BigDecimal stock;
+    public final BigDecimal pendingStock;
+    public final String unitOfMeasure;
+
+    public FeedstockRow(Long id, String feedstockCode, String name, BigDecimal stock, BigDecimal pendingStock,
+                        String unitOfMeasure) {
+        this.id = id;
+        this.feedstockCode = feedstockCode;
+        this.name = name;
+        this.stock = stock;
+        this.pendingStock = pendingStock;
+        this.unitOfMeasure = unitOfMeasure;
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.autoflex.repository.projection;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+import java.math.BigDecimal;
+
+@RegisterForReflection
+public class ProductRow {
+    public final Long id;
+    public final String productCode;
+    public final String name;
+    public final BigDecimal unitPrice;
+    public final long maxProducibleUnits;
+    public final Long bottleneckFeedstockId;
+
+    public ProductRow(Long id, String productCode, String name, BigDecimal unitPrice,
+                      long maxProducibleUnits, Long bottleneckFeedstockId) {
+        this.id = id;
+        this.productCode = productCode;
+        this.name = name;
+        this.unitPrice = unitPrice;
+        this.maxProducibleUnits = maxProducibleUnits;
+        this.bottleneckFeedstockId = bottleneckFeedstockId;
+    }
+}
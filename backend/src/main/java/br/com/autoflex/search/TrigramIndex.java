@@ -0,0 +1,204 @@
+package br.com.autoflex.search;
+
+import br.com.autoflex.bom.LongIntMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Substring index over the name and code of catalog rows. Every row gets a dense slot and each
+ * trigram of its lower-cased name and code maps to the sorted list of slots containing it; a
+ * query intersects the posting lists of its own trigrams and verifies the survivors with
+ * {@link String#contains}, so results match {@code lower(x) like '%q%'} exactly.
+ *
+ * <p>Slots are append-only: an update takes a new slot and leaves the old one as a tombstone,
+ * which keeps every posting list sorted without inserts. Tombstones are dropped by rebuilding
+ * once they outnumber the live rows. Not thread-safe.
+ */
+public final class TrigramIndex {
+
+    public static final int NAME = 1;
+    public static final int CODE = 2;
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int MIN_COMPACT_SLOTS = 1024;
+
+    private LongIntMap slotById;
+    private Map<Long, Postings> postings;
+
+    private long[] ids;
+    private String[] names;
+    private String[] codes;
+    private int slots;
+    private int live;
+
+    public TrigramIndex(int expected) {
+        reset(expected);
+    }
+
+    private void reset(int expected) {
+        int capacity = Math.max(16, expected);
+        slotById = new LongIntMap(capacity);
+        postings = new HashMap<>();
+        ids = new long[capacity];
+        names = new String[capacity];
+        codes = new String[capacity];
+        slots = 0;
+        live = 0;
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public void put(long id, String name, String code) {
+        remove(id);
+
+        if (slots == ids.length) {
+            int capacity = slots * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        int slot = slots++;
+        ids[slot] = id;
+        names[slot] = normalize(name);
+        codes[slot] = normalize(code);
+        slotById.put(id, slot);
+        live++;
+
+        addTrigrams(names[slot], slot);
+        addTrigrams(codes[slot], slot);
+    }
+
+    public void remove(long id) {
+        int slot = slotById.get(id);
+        if (slot < 0) return;
+
+        slotById.put(id, -1);
+        names[slot] = null;
+        codes[slot] = null;
+        live--;
+
+        if (slots - live > live && slots > MIN_COMPACT_SLOTS) compact();
+    }
+
+    /**
+     * Ids of the rows whose selected fields ({@link #NAME}, {@link #CODE} or both) contain
+     * {@code q}, ignoring case. Returns {@code null} when the index cannot answer: the query is
+     * shorter than {@link #MIN_QUERY_LENGTH}, holds a LIKE wildcard, or more than {@code limit}
+     * rows match.
+     */
+    public long[] search(String q, int fields, int limit) {
+        String term = normalize(q);
+        if (term == null || term.length() < MIN_QUERY_LENGTH) return null;
+        if (term.indexOf('%') >= 0 || term.indexOf('_') >= 0) return null;
+
+        int grams = term.length() - 2;
+        Postings[] lists = new Postings[grams];
+        for (int i = 0; i < grams; i++) {
+            Postings p = postings.get(trigram(term, i));
+            if (p == null) return new long[0];
+            lists[i] = p;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        // Walk the shortest list and probe the others with forward-only cursors, so broad queries
+        // stop as soon as they overflow the limit instead of intersecting every list in full.
+        int[] cursors = new int[lists.length];
+        long[] hits = new long[Math.min(lists[0].size, limit)];
+        int found = 0;
+
+        candidates:
+        for (int c = 0; c < lists[0].size; c++) {
+            int slot = lists[0].slots[c];
+            for (int i = 1; i < lists.length; i++) {
+                int at = seek(lists[i], cursors[i], slot);
+                cursors[i] = at;
+                if (at == lists[i].size) break candidates;
+                if (lists[i].slots[at] != slot) continue candidates;
+            }
+            if (matches(slot, term, fields)) {
+                if (found == limit) return null;
+                hits[found++] = ids[slot];
+            }
+        }
+        return found == hits.length ? hits : Arrays.copyOf(hits, found);
+    }
+
+    private boolean matches(int slot, String term, int fields) {
+        String name = names[slot];
+        String code = codes[slot];
+        return ((fields & NAME) != 0 && name != null && name.contains(term))
+                || ((fields & CODE) != 0 && code != null && code.contains(term));
+    }
+
+    private void addTrigrams(String text, int slot) {
+        if (text == null) return;
+
+        for (int i = 0; i + 2 < text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new Postings()).add(slot);
+        }
+    }
+
+    private void compact() {
+        LongIntMap oldSlots = slotById;
+        long[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldCodes = codes;
+        int count = slots;
+
+        reset(live);
+        for (int s = 0; s < count; s++) {
+            if (oldSlots.get(oldIds[s]) != s) continue;
+            put(oldIds[s], oldNames[s], oldCodes[s]);
+        }
+    }
+
+    /** First position at or after {@code from} whose slot is {@code >= slot}, by galloping. */
+    private static int seek(Postings p, int from, int slot) {
+        int[] a = p.slots;
+        int n = p.size;
+        if (from >= n || a[from] >= slot) return from;
+
+        int step = 1;
+        int lo = from;
+        int hi = from + 1;
+        while (hi < n && a[hi] < slot) {
+            lo = hi;
+            step <<= 1;
+            hi = from + step;
+        }
+        if (hi > n) hi = n;
+
+        while (lo + 1 < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < slot) lo = mid;
+            else hi = mid;
+        }
+        return hi;
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    static String normalize(String s) {
+        return s == null ? null : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Postings {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) return;
+            if (size == slots.length) slots = Arrays.copyOf(slots, size * 2);
+            slots[size++] = slot;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomDelta;
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Holds the current {@link BomSnapshot}: read once from the database, then kept up to date by
+ * applying each committed change. Change events reach this class in no particular order, so each
+ * part of one is applied in a way that does not depend on it:
+ * <ul>
+ * <li>stock only moves by deltas. The read takes a {@link RevisionClock.Horizon} first and leaves
+ *     out of each stock the movements outside it; an event adds its deltas unless the horizon
+ *     contains its revision, so every movement is counted exactly once;</li>
+ * <li>a product or feedstock is overwritten only by a change newer than the last one it took, and
+ *     a product's lines apart from its other fields, since an update may leave the lines out;</li>
+ * <li>deltas and lines naming a feedstock whose creation has not been applied yet wait for it.</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class BomSnapshotService {
+
+    // Recorded for a deleted row, so that no late change brings it back; a delete is a row's last write.
+    private static final long DELETED = Long.MAX_VALUE;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    ProductFeedstockRepository lineRepo;
+
+    @Inject
+    RevisionClock clock;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile BomSnapshot current;
+
+    // Everything below is guarded by writeLock.
+    private RevisionClock.Horizon horizon;
+
+    // Revision of the last change applied to each row, or of the read when it may be newer than an
+    // event still to come, i.e. above the horizon's floor.
+    private final Map<Long, Long> productRevisions = new HashMap<>();
+    private final Map<Long, Long> lineRevisions = new HashMap<>();
+    private final Map<Long, Long> feedstockRevisions = new HashMap<>();
+
+    private final Map<Long, Long> waitingStock = new HashMap<>();
+    private final Map<Long, List<CatalogChanged.Line>> waitingLines = new HashMap<>();
+
+    // Revisions of events dropped while there was no snapshot: they committed, so the next read sees them.
+    private final Set<Long> seenBeforeLoad = new HashSet<>();
+
+    public BomSnapshot current() {
+        BomSnapshot s = current;
+        return s != null ? s : load();
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged event) {
+        writeLock.lock();
+        try {
+            BomSnapshot s = current;
+            if (s == null) {
+                long stable = clock.stable();
+                seenBeforeLoad.removeIf(r -> r <= stable);
+                if (event.revision > stable) seenBeforeLoad.add(event.revision);
+                return;
+            }
+            s = s.apply(toDelta(s, event));
+            if (!waitingLines.isEmpty()) s = s.apply(resolvedLines(s));
+            current = s;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void clear() {
+        writeLock.lock();
+        try {
+            current = null;
+            horizon = null;
+            forget();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // The lock stays held so concurrent callers wait for this read instead of starting their own.
+    private BomSnapshot load() {
+        writeLock.lock();
+        try {
+            if (current != null) return current;
+
+            RevisionClock.Horizon h = clock.horizon().including(seenBeforeLoad);
+            forget();
+            BomSnapshot s = QuarkusTransaction.joiningExisting().call(() -> read(h));
+            horizon = h;
+            current = s;
+            return s;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void forget() {
+        productRevisions.clear();
+        lineRevisions.clear();
+        feedstockRevisions.clear();
+        waitingStock.clear();
+        waitingLines.clear();
+        seenBeforeLoad.clear();
+    }
+
+    /**
+     * Feedstocks are read last: a line read before them names a feedstock that is still there, unless
+     * a later change to its product, which the snapshot then applies, removed the line first.
+     */
+    private BomSnapshot read(RevisionClock.Horizon h) {
+        BomSnapshot.Builder builder = BomSnapshot.builder(1024, 1024, 4096);
+        long floor = h.floor();
+
+        try (Stream<Object[]> rows = productRepo.streamPlanningRows()) {
+            rows.forEach(r -> {
+                builder.addProduct((Long) r[0], (String) r[1], (String) r[2], Quantities.toCents((BigDecimal) r[3]));
+                long revision = (Long) r[4];
+                if (revision > floor) {
+                    productRevisions.put((Long) r[0], revision);
+                    lineRevisions.put((Long) r[0], revision);
+                }
+            });
+        }
+
+        try (Stream<Object[]> rows = lineRepo.streamLines()) {
+            rows.forEach(r -> builder.addLine(
+                    (Long) r[0], (Long) r[1],
+                    Quantities.toMicros((BigDecimal) r[2])));
+        }
+
+        try (Stream<Object[]> rows = feedstockRepo.streamPlanningRows(h.last(), h.inFlight())) {
+            rows.forEach(r -> {
+                builder.addFeedstock((Long) r[0], (String) r[1], (String) r[2], (String) r[3],
+                        Quantities.toMicros((BigDecimal) r[4]));
+                long revision = (Long) r[5];
+                if (revision > floor) feedstockRevisions.put((Long) r[0], revision);
+            });
+        }
+
+        return builder.build();
+    }
+
+    private BomDelta toDelta(BomSnapshot s, CatalogChanged event) {
+        long revision = event.revision;
+        BomDelta delta = new BomDelta();
+        Set<Long> created = new HashSet<>();
+
+        for (CatalogChanged.FeedstockChange c : event.feedstocks) {
+            if (c.id() == null) continue;
+            if (c.deleted()) {
+                feedstockRevisions.put(c.id(), DELETED);
+                waitingStock.remove(c.id());
+                delta.deleteFeedstock(c.id());
+                continue;
+            }
+            if (!takes(feedstockRevisions, c.id(), revision)) continue;
+
+            delta.upsertFeedstock(new BomDelta.FeedstockUpsert(
+                    c.id(), c.feedstockCode(), c.name(), c.unitOfMeasure(), null));
+            created.add(c.id());
+            Long waiting = waitingStock.remove(c.id());
+            if (waiting != null) delta.adjustStock(c.id(), waiting);
+        }
+
+        if (!horizon.contains(revision)) {
+            for (CatalogChanged.StockChange c : event.stocks) {
+                long micros = Quantities.toMicros(c.delta());
+                if (s.feedstockIndexOf(c.feedstockId()) >= 0 || created.contains(c.feedstockId())) {
+                    delta.adjustStock(c.feedstockId(), micros);
+                } else if (!feedstockRevisions.containsKey(c.feedstockId())) {
+                    waitingStock.merge(c.feedstockId(), micros, Long::sum);
+                }
+            }
+        }
+
+        for (CatalogChanged.ProductChange c : event.products) {
+            if (c.id() == null) continue;
+            if (c.deleted()) {
+                productRevisions.put(c.id(), DELETED);
+                lineRevisions.put(c.id(), DELETED);
+                waitingLines.remove(c.id());
+                delta.deleteProduct(c.id());
+                continue;
+            }
+
+            boolean fields = takes(productRevisions, c.id(), revision);
+            List<CatalogChanged.Line> lines = c.lines() != null && takes(lineRevisions, c.id(), revision)
+                    ? c.lines() : null;
+            if (lines != null) {
+                waitingLines.remove(c.id());
+                if (!known(s, created, lines)) {
+                    waitingLines.put(c.id(), lines);
+                    lines = null;
+                }
+            }
+
+            if (fields) {
+                delta.upsertProduct(upsert(c.id(), c.productCode(), c.name(), Quantities.toCents(c.unitPrice()),
+                        lines));
+            } else if (lines != null) {
+                int p = s.productIndexOf(c.id());
+                if (p >= 0) {
+                    delta.upsertProduct(upsert(c.id(), s.productCodes[p], s.productNames[p], s.unitPrices[p], lines));
+                } else {
+                    waitingLines.put(c.id(), lines);
+                }
+            }
+        }
+
+        return delta;
+    }
+
+    // Waiting lines go in once their product and every feedstock they name are in the snapshot.
+    private BomDelta resolvedLines(BomSnapshot s) {
+        BomDelta delta = new BomDelta();
+        for (Iterator<Map.Entry<Long, List<CatalogChanged.Line>>> it = waitingLines.entrySet().iterator();
+             it.hasNext(); ) {
+            Map.Entry<Long, List<CatalogChanged.Line>> e = it.next();
+            int p = s.productIndexOf(e.getKey());
+            if (p < 0 || !known(s, Set.of(), e.getValue())) continue;
+
+            delta.upsertProduct(upsert(e.getKey(), s.productCodes[p], s.productNames[p], s.unitPrices[p],
+                    e.getValue()));
+            it.remove();
+        }
+        return delta;
+    }
+
+    /** Whether a change at {@code revision} is newer than what the row holds, recording it if so. */
+    private static boolean takes(Map<Long, Long> revisions, long id, long revision) {
+        Long held = revisions.get(id);
+        if (held != null && (held == DELETED || revision != 0 && revision <= held)) return false;
+        if (revision != 0) revisions.put(id, revision);
+        return true;
+    }
+
+    private static boolean known(BomSnapshot s, Set<Long> created, List<CatalogChanged.Line> lines) {
+        for (CatalogChanged.Line line : lines) {
+            if (s.feedstockIndexOf(line.feedstockId()) < 0 && !created.contains(line.feedstockId())) return false;
+        }
+        return true;
+    }
+
+    private static BomDelta.ProductUpsert upsert(long id, String code, String name, long unitPrice,
+                                                 List<CatalogChanged.Line> lines) {
+        long[] feedstockIds = null;
+        long[] quantities = null;
+        if (lines != null) {
+            feedstockIds = new long[lines.size()];
+            quantities = new long[lines.size()];
+            for (int i = 0; i < feedstockIds.length; i++) {
+                CatalogChanged.Line line = lines.get(i);
+                feedstockIds[i] = line.feedstockId();
+                quantities[i] = Quantities.toMicros(line.quantity());
+            }
+        }
+        return new BomDelta.ProductUpsert(id, code, name, unitPrice, feedstockIds, quantities);
+    }
+}
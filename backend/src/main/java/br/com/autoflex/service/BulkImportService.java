@@ -0,0 +1,383 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.BulkDtos;
+import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.MediaType;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports catalog rows streamed as NDJSON or CSV. Rows are parsed one at a time and written in
+ * chunks of {@link #CHUNK_SIZE}, each in its own transaction, so a bad chunk never undoes the
+ * chunks before it and memory stays flat whatever the size of the upload.
+ */
+@ApplicationScoped
+public class BulkImportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    static final int CHUNK_SIZE = 500;
+    static final int FLUSH_INTERVAL = 50;
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    ProductFeedstockRepository lineRepo;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    Event<CatalogChanged> events;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    record Row<T>(long row, T value) {}
+
+    private record ChunkResult(long imported, List<BulkDtos.RowError> errors) {}
+
+    public BulkDtos.Report importFeedstocks(InputStream body, MediaType type) {
+        try (MappingIterator<FeedstockDtos.CreateRequest> rows =
+                     reader(FeedstockDtos.CreateRequest.class, type).readValues(body)) {
+            return importRows(numbered(rows), r -> r.feedstockCode, this::writeFeedstocks);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public BulkDtos.Report importProducts(InputStream body, MediaType type) {
+        try {
+            if (isCsv(type)) {
+                try (MappingIterator<BulkDtos.ProductCsvRow> rows =
+                             reader(BulkDtos.ProductCsvRow.class, type).readValues(body)) {
+                    return importRows(groupedByProduct(rows), r -> r.productCode, this::writeProducts);
+                }
+            }
+
+            try (MappingIterator<ProductDtos.CreateRequest> rows =
+                         reader(ProductDtos.CreateRequest.class, type).readValues(body)) {
+                return importRows(numbered(rows), r -> r.productCode, this::writeProducts);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ObjectReader reader(Class<?> rowType, MediaType type) {
+        if (isCsv(type)) {
+            CsvSchema schema = CsvSchema.emptySchema().withHeader();
+            return csvMapper.readerFor(rowType).with(schema);
+        }
+        if (type == null || type.isCompatible(MediaType.valueOf(NDJSON))) {
+            return mapper.readerFor(rowType);
+        }
+        throw new BadRequestException("Unsupported import format: " + type);
+    }
+
+    private static boolean isCsv(MediaType type) {
+        return type != null && type.isCompatible(MediaType.valueOf(CSV));
+    }
+
+    private <T> BulkDtos.Report importRows(Iterator<Row<T>> rows, Function<T, String> code,
+                                           Function<List<Row<T>>, ChunkResult> writer) {
+        BulkDtos.Report report = new BulkDtos.Report();
+        List<Row<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        long lastRow = 0;
+
+        try {
+            while (rows.hasNext()) {
+                Row<T> r = rows.next();
+                lastRow = r.row();
+                chunk.add(r);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, code, writer, report);
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            // The parser cannot resynchronise after a broken record; keep what was read so far.
+            writeChunk(chunk, code, writer, report);
+            chunk.clear();
+            error(report, new BulkDtos.RowError(lastRow + 1, null, "Malformed input: " + e.getMessage()));
+            return report;
+        }
+
+        writeChunk(chunk, code, writer, report);
+        return report;
+    }
+
+    private <T> void writeChunk(List<Row<T>> chunk, Function<T, String> code,
+                                Function<List<Row<T>>, ChunkResult> writer, BulkDtos.Report report) {
+        if (chunk.isEmpty()) return;
+        report.received += chunk.size();
+
+        List<Row<T>> valid = new ArrayList<>(chunk.size());
+        for (Row<T> r : chunk) {
+            Set<ConstraintViolation<T>> violations = validator.validate(r.value());
+            if (violations.isEmpty()) {
+                valid.add(r);
+            } else {
+                error(report, new BulkDtos.RowError(r.row(), code.apply(r.value()), violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+            }
+        }
+        if (valid.isEmpty()) return;
+
+        ChunkResult result;
+        try {
+            result = QuarkusTransaction.requiringNew().call(() -> writer.apply(valid));
+        } catch (RuntimeException e) {
+            String message = "Chunk rolled back: " + rootMessage(e);
+            for (Row<T> r : valid) error(report, new BulkDtos.RowError(r.row(), code.apply(r.value()), message));
+            return;
+        }
+
+        report.imported += result.imported();
+        result.errors().forEach(e -> error(report, e));
+    }
+
+    private ChunkResult writeFeedstocks(List<Row<FeedstockDtos.CreateRequest>> rows) {
+        EntityManager em = feedstockRepo.getEntityManager();
+        Set<String> existing = feedstockRepo.findExistingCodes(
+                rows.stream().map(r -> r.value().feedstockCode).toList());
+
+        Set<String> seen = new HashSet<>();
+        List<BulkDtos.RowError> errors = new ArrayList<>();
+        List<CatalogChanged.FeedstockChange> changes = new ArrayList<>(rows.size());
+        List<CatalogChanged.StockChange> openings = new ArrayList<>(rows.size());
+        Instant now = Instant.now();
+        long revision = clock.current();
+
+        for (Row<FeedstockDtos.CreateRequest> r : rows) {
+            FeedstockDtos.CreateRequest req = r.value();
+            if (existing.contains(req.feedstockCode) || !seen.add(req.feedstockCode)) {
+                errors.add(new BulkDtos.RowError(r.row(), req.feedstockCode, "Feedstock code already exists"));
+                continue;
+            }
+
+            Feedstock f = new Feedstock();
+            f.feedstockCode = req.feedstockCode;
+            f.name = req.name;
+            f.stock = req.stock;
+            f.unitOfMeasure = req.unitOfMeasure;
+            f.revision = revision;
+            feedstockRepo.persist(f);
+            em.persist(FeedstockMovementService.opening(f, now));
+            changes.add(CatalogChanged.FeedstockChange.saved(f));
+            openings.add(new CatalogChanged.StockChange(f.id, f.stock));
+
+            if (changes.size() % FLUSH_INTERVAL == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+
+        em.flush();
+        em.clear();
+        events.fire(new CatalogChanged(List.of(), changes, openings, revision));
+        return new ChunkResult(changes.size(), errors);
+    }
+
+    private ChunkResult writeProducts(List<Row<ProductDtos.CreateRequest>> rows) {
+        EntityManager em = productRepo.getEntityManager();
+        Set<String> existing = productRepo.findExistingCodes(
+                rows.stream().map(r -> r.value().productCode).toList());
+        Set<Long> knownFeedstocks = feedstockRepo.findExistingIds(
+                rows.stream()
+                        .flatMap(r -> r.value().feedstocks.stream())
+                        .map(i -> i.feedstockId)
+                        .collect(Collectors.toSet()));
+
+        Set<String> seen = new HashSet<>();
+        List<BulkDtos.RowError> errors = new ArrayList<>();
+        List<CatalogChanged.ProductChange> changes = new ArrayList<>(rows.size());
+        long revision = clock.current();
+
+        for (Row<ProductDtos.CreateRequest> r : rows) {
+            ProductDtos.CreateRequest req = r.value();
+            String problem = bomProblem(req, knownFeedstocks);
+            if (problem == null && (existing.contains(req.productCode) || !seen.add(req.productCode))) {
+                problem = "Product code already exists";
+            }
+            if (problem != null) {
+                errors.add(new BulkDtos.RowError(r.row(), req.productCode, problem));
+                continue;
+            }
+
+            Product p = new Product();
+            p.productCode = req.productCode;
+            p.name = req.name;
+            p.unitPrice = req.unitPrice;
+            p.revision = revision;
+            productRepo.persist(p);
+
+            for (ProductDtos.FeedstockQuantity item : req.feedstocks) {
+                ProductFeedstock pf = new ProductFeedstock();
+                pf.product = p;
+                pf.feedstock = em.getReference(Feedstock.class, item.feedstockId);
+                pf.quantity = item.quantity;
+                pf.revision = revision;
+                pf.id = new ProductFeedstockId(p.id, item.feedstockId);
+                lineRepo.persist(pf);
+            }
+            changes.add(CatalogChanged.ProductChange.saved(p, ProductService.lines(req.feedstocks)));
+
+            if (changes.size() % FLUSH_INTERVAL == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+
+        em.flush();
+        em.clear();
+        events.fire(new CatalogChanged(changes, List.of(), List.of(), revision));
+        return new ChunkResult(changes.size(), errors);
+    }
+
+    private static String bomProblem(ProductDtos.CreateRequest req, Set<Long> knownFeedstocks) {
+        Set<Long> ids = new HashSet<>();
+        for (ProductDtos.FeedstockQuantity item : req.feedstocks) {
+            if (!knownFeedstocks.contains(item.feedstockId)) return "Feedstock not found: " + item.feedstockId;
+            if (!ids.add(item.feedstockId)) return "Feedstock listed twice: " + item.feedstockId;
+            if (item.quantity == null || item.quantity.signum() <= 0) {
+                return "Quantity must be greater than 0 for feedstock: " + item.feedstockId;
+            }
+        }
+        return null;
+    }
+
+    private static void error(BulkDtos.Report report, BulkDtos.RowError error) {
+        report.failed++;
+        if (report.errors.size() < MAX_REPORTED_ERRORS) {
+            report.errors.add(error);
+        } else {
+            report.errorsTruncated = true;
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) root = root.getCause();
+        return root.getMessage();
+    }
+
+    private static <T> Iterator<Row<T>> numbered(Iterator<T> rows) {
+        return new Iterator<>() {
+            long row;
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Row<T> next() {
+                return new Row<>(++row, rows.next());
+            }
+        };
+    }
+
+    /** Folds consecutive CSV lines sharing a product code into one create request. */
+    static Iterator<Row<ProductDtos.CreateRequest>> groupedByProduct(Iterator<BulkDtos.ProductCsvRow> lines) {
+        return new Iterator<>() {
+            long line;
+            BulkDtos.ProductCsvRow pending;
+
+            @Override
+            public boolean hasNext() {
+                return pending != null || lines.hasNext();
+            }
+
+            @Override
+            public Row<ProductDtos.CreateRequest> next() {
+                if (!hasNext()) throw new NoSuchElementException();
+
+                BulkDtos.ProductCsvRow first = pending;
+                if (first == null) {
+                    first = lines.next();
+                    line++;
+                }
+                pending = null;
+                long row = line;
+
+                ProductDtos.CreateRequest req = new ProductDtos.CreateRequest();
+                req.productCode = first.productCode;
+                req.name = first.name;
+                req.unitPrice = first.unitPrice;
+                req.feedstocks = new ArrayList<>();
+                addLine(req, first);
+
+                while (lines.hasNext()) {
+                    BulkDtos.ProductCsvRow next = lines.next();
+                    line++;
+                    if (!Objects.equals(next.productCode, first.productCode)) {
+                        pending = next;
+                        break;
+                    }
+                    addLine(req, next);
+                }
+                return new Row<>(row, req);
+            }
+
+            private void addLine(ProductDtos.CreateRequest req, BulkDtos.ProductCsvRow csv) {
+                if (csv.feedstockId == null && csv.quantity == null) return;
+
+                ProductDtos.FeedstockQuantity item = new ProductDtos.FeedstockQuantity();
+                item.feedstockId = csv.feedstockId;
+                item.quantity = csv.quantity;
+                req.feedstocks.add(item);
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drops second-level cache entries touched by a committed catalog write. Hibernate already keeps
+ * the owning side current for writes made through the session; this also covers the inverse
+ * {@code Feedstock.products} collection and writes that bypass the session.
+ */
+@ApplicationScoped
+public class CacheEvictor {
+
+    static final String PRODUCT_FEEDSTOCKS = Product.class.getName() + ".feedstocks";
+    static final String FEEDSTOCK_PRODUCTS = Feedstock.class.getName() + ".products";
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged event) {
+        evictions.addAndGet(evict(sessionFactory.getCache(), event));
+    }
+
+    static long evict(Cache cache, CatalogChanged event) {
+        long evicted = 0;
+        boolean linesChanged = false;
+
+        for (CatalogChanged.ProductChange c : event.products) {
+            if (c.id() == null) continue;
+            cache.evictEntityData(Product.class, c.id());
+            cache.evictCollectionData(PRODUCT_FEEDSTOCKS, c.id());
+            evicted += 2;
+            linesChanged |= c.deleted() || c.lines() != null;
+        }
+
+        for (CatalogChanged.FeedstockChange c : event.feedstocks) {
+            if (c.id() == null) continue;
+            cache.evictEntityData(Feedstock.class, c.id());
+            cache.evictCollectionData(FEEDSTOCK_PRODUCTS, c.id());
+            evicted += 2;
+        }
+
+        // Stock movements are plain JDBC updates: neither the entity nor the cached pages know about them.
+        for (CatalogChanged.StockChange c : event.stocks) {
+            cache.evictEntityData(Feedstock.class, c.feedstockId());
+            evicted++;
+        }
+        if (!event.stocks.isEmpty()) {
+            cache.evictQueryRegion(FeedstockRepository.PAGE_CACHE_REGION);
+            evicted++;
+        }
+
+        // The lines a product lost are not part of the event, so every feedstock's usage list is suspect.
+        if (linesChanged) {
+            cache.evictCollectionData(FEEDSTOCK_PRODUCTS);
+            evicted++;
+        }
+        return evicted;
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.CacheDtos;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+
+@ApplicationScoped
+public class CacheStatsService {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    CacheEvictor evictor;
+
+    public CacheDtos.Stats stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+
+        CacheDtos.Stats dto = new CacheDtos.Stats();
+        dto.hitCount = statistics.getSecondLevelCacheHitCount();
+        dto.missCount = statistics.getSecondLevelCacheMissCount();
+        dto.putCount = statistics.getSecondLevelCachePutCount();
+        dto.queryHitCount = statistics.getQueryCacheHitCount();
+        dto.queryMissCount = statistics.getQueryCacheMissCount();
+        dto.queryPutCount = statistics.getQueryCachePutCount();
+        dto.evictions = evictor.evictions();
+
+        dto.regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(name -> region(name, statistics.getCacheRegionStatistics(name)))
+                .toList();
+
+        return dto;
+    }
+
+    private static CacheDtos.Region region(String name, CacheRegionStatistics stats) {
+        CacheDtos.Region dto = new CacheDtos.Region();
+        dto.name = name;
+        if (stats != null) {
+            dto.hitCount = stats.getHitCount();
+            dto.missCount = stats.getMissCount();
+            dto.putCount = stats.getPutCount();
+            dto.elementCount = stats.getElementCountInMemory();
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.entity.CatalogTombstone;
+import br.com.autoflex.repository.CatalogTombstoneRepository;
+import br.com.autoflex.repository.FeedstockMovementRepository;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.FeedstockRow;
+import br.com.autoflex.repository.projection.ProductRow;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads what changed in the catalog after a revision. Products are found by their own revision,
+ * which every product write (BOM edits included) moves; feedstocks by theirs or by the revision
+ * of a stock movement; deletions by their tombstones. A call never reads past
+ * {@link RevisionClock#stable()}, so nothing committing late can fall behind the returned cursor,
+ * and it stops at a revision boundary once any kind has more than {@link #PAGE_SIZE} rows.
+ */
+@ApplicationScoped
+public class ChangeFeedService {
+
+    public static final int PAGE_SIZE = 1000;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    FeedstockMovementRepository movementRepo;
+
+    @Inject
+    CatalogTombstoneRepository tombstoneRepo;
+
+    @Inject
+    ProductService products;
+
+    @Inject
+    FeedstockService feedstocks;
+
+    public record Batch(long since, long revision, boolean hasMore,
+                        Map<Long, ProductRow> products, Map<Long, List<BomLineRow>> lines,
+                        Map<Long, FeedstockRow> feedstocks,
+                        List<Long> deletedProducts, List<Long> deletedFeedstocks) {
+
+        public boolean isEmpty() {
+            return products.isEmpty() && feedstocks.isEmpty()
+                    && deletedProducts.isEmpty() && deletedFeedstocks.isEmpty();
+        }
+    }
+
+    /** (revision, ...) pairs in {@code (after, upTo]}, at most {@code limit}, in revision order. */
+    @FunctionalInterface
+    interface RevisionQuery {
+        List<Object[]> find(long after, long upTo, int limit);
+    }
+
+    @Transactional
+    public Batch changes(long since) {
+        long stable = clock.stable();
+        if (stable <= since) {
+            return new Batch(since, since, false, Map.of(), Map.of(), Map.of(), List.of(), List.of());
+        }
+
+        List<RevisionQuery> queries = List.of(
+                productRepo::findRevisions,
+                feedstockRepo::findRevisions,
+                movementRepo::findRevisions,
+                tombstoneRepo::findRevisions);
+        List<List<Object[]>> probes = new ArrayList<>(queries.size());
+        for (RevisionQuery q : queries) probes.add(q.find(since, stable, PAGE_SIZE + 1));
+
+        long upTo = upTo(probes, stable);
+        for (int i = 0; i < probes.size(); i++) {
+            List<Object[]> probe = probes.get(i);
+            if (probe.size() > PAGE_SIZE && revision(probe.get(PAGE_SIZE)) <= upTo) {
+                // Only when a single transaction wrote more than a page: take that revision whole.
+                probes.set(i, queries.get(i).find(since, upTo, Integer.MAX_VALUE));
+            }
+        }
+
+        Set<Long> productIds = ids(probes.get(0), upTo);
+        Set<Long> feedstockIds = ids(probes.get(1), upTo);
+        feedstockIds.addAll(ids(probes.get(2), upTo));
+
+        List<Long> deletedProducts = new ArrayList<>();
+        List<Long> deletedFeedstocks = new ArrayList<>();
+        for (Object[] t : probes.get(3)) {
+            if (revision(t) > upTo) break;
+            (t[1] == CatalogTombstone.Kind.PRODUCT ? deletedProducts : deletedFeedstocks).add((Long) t[2]);
+        }
+
+        Map<Long, ProductRow> productRows = products.rowsByIds(productIds);
+        Map<Long, List<BomLineRow>> lines = products.linesByProduct(List.copyOf(productRows.keySet()));
+        Map<Long, FeedstockRow> feedstockRows = feedstocks.rowsByIds(feedstockIds);
+
+        return new Batch(since, upTo, upTo < stable, productRows, lines, feedstockRows,
+                deletedProducts, deletedFeedstocks);
+    }
+
+    /**
+     * The highest revision every probe has seen completely: one below the first revision a full
+     * probe cut off. If that leaves nothing to return, the first pending revision, taken whole.
+     */
+    static long upTo(List<List<Object[]>> probes, long stable) {
+        long upTo = stable;
+        long first = Long.MAX_VALUE;
+        for (List<Object[]> probe : probes) {
+            if (probe.isEmpty()) continue;
+            first = Math.min(first, revision(probe.get(0)));
+            if (probe.size() > PAGE_SIZE) upTo = Math.min(upTo, revision(probe.get(PAGE_SIZE)) - 1);
+        }
+        return upTo < first && first != Long.MAX_VALUE ? first : upTo;
+    }
+
+    private static Set<Long> ids(List<Object[]> rows, long upTo) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Object[] r : rows) {
+            if (revision(r) > upTo) break;
+            ids.add((Long) r[1]);
+        }
+        return ids;
+    }
+
+    private static long revision(Object[] row) {
+        return (Long) row[0];
+    }
+}
@@ -0,0 +1,174 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.event.CatalogChanged;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@ApplicationScoped
+public class CountService {
+
+    public enum Mode {
+        EXACT, CACHED, ESTIMATE, NONE;
+
+        public static Mode parse(String value) {
+            if (value == null || value.isBlank()) return EXACT;
+
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "cached" -> CACHED;
+                case "estimate" -> ESTIMATE;
+                case "exact" -> EXACT;
+                case "none" -> NONE;
+                default -> throw new BadRequestException("Unknown count mode: " + value);
+            };
+        }
+    }
+
+    public enum Scope { PRODUCTS, FEEDSTOCKS }
+
+    static final int MAX_CACHED_COUNTS = 10_000;
+    static final int ESTIMATE_SAMPLE = 1_000;
+
+    @Inject
+    BomSnapshotService snapshots;
+
+    private final Map<String, Long> productCounts = new ConcurrentHashMap<>();
+    private final Map<String, Long> feedstockCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong productGeneration = new AtomicLong();
+    private final AtomicLong feedstockGeneration = new AtomicLong();
+
+    public Long count(Scope scope, Mode mode, String q, String searchType, LongSupplier exact) {
+        return switch (mode) {
+            case NONE -> null;
+            case EXACT -> exact.getAsLong();
+            case CACHED -> cached(scope, q, searchType, exact);
+            case ESTIMATE -> (q == null || q.isBlank())
+                    ? estimate(scope)
+                    : hasWildcard(q)
+                            ? cached(scope, q, searchType, exact)
+                            : sampled(scope, q, searchType);
+        };
+    }
+
+    private long estimate(Scope scope) {
+        return scope == Scope.PRODUCTS
+                ? snapshots.current().liveProductCount()
+                : snapshots.current().liveFeedstockCount();
+    }
+
+    /**
+     * Matches the search against {@link #ESTIMATE_SAMPLE} rows of the snapshot drawn at random, so
+     * runs of similar rows (a bulk import, say) cannot line up with the draws, and scales the share
+     * of live rows that matched to the live count. A catalog no larger than the sample is scanned
+     * whole, so its estimate is the snapshot's count.
+     */
+    private long sampled(Scope scope, String q, String searchType) {
+        BomSnapshot bom = snapshots.current();
+        String term = q.toLowerCase(Locale.ROOT);
+        boolean products = scope == Scope.PRODUCTS;
+        boolean byFeedstock = products && "feedstock".equals(type(searchType));
+
+        int rows = products ? bom.productCount : bom.feedstockCount;
+        int live = products ? bom.liveProductCount() : bom.liveFeedstockCount();
+        boolean whole = rows <= ESTIMATE_SAMPLE;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        int seen = 0;
+        int matched = 0;
+        for (int d = 0; d < (whole ? rows : ESTIMATE_SAMPLE); d++) {
+            int i = whole ? d : random.nextInt(rows);
+            if (!(products ? bom.productAlive[i] : bom.feedstockAlive[i])) continue;
+            seen++;
+            boolean match = byFeedstock ? usesFeedstockNamed(bom, i, term)
+                    : products ? contains(bom.productNames[i], bom.productCodes[i], term)
+                    : contains(bom.feedstockNames[i], bom.feedstockCodes[i], term);
+            if (match) matched++;
+        }
+        return seen == 0 ? 0 : Math.round((double) matched * live / seen);
+    }
+
+    private static boolean usesFeedstockNamed(BomSnapshot bom, int p, String term) {
+        for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+            if (contains(bom.feedstockNames[bom.lineFeedstocks[i]], null, term)) return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(String name, String code, String term) {
+        return name != null && name.toLowerCase(Locale.ROOT).contains(term)
+                || code != null && code.toLowerCase(Locale.ROOT).contains(term);
+    }
+
+    // LIKE wildcards in the term have no in-memory equivalent.
+    private static boolean hasWildcard(String q) {
+        return q.indexOf('%') >= 0 || q.indexOf('_') >= 0;
+    }
+
+    private long cached(Scope scope, String q, String searchType, LongSupplier exact) {
+        Map<String, Long> counts = scope == Scope.PRODUCTS ? productCounts : feedstockCounts;
+        AtomicLong generation = scope == Scope.PRODUCTS ? productGeneration : feedstockGeneration;
+
+        String key = key(q, searchType);
+        Long hit = counts.get(key);
+        if (hit != null) return hit;
+
+        long before = generation.get();
+        long value = exact.getAsLong();
+
+        if (generation.get() == before) {
+            if (counts.size() >= MAX_CACHED_COUNTS) counts.clear();
+            counts.put(key, value);
+        }
+        return value;
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged event) {
+        if (!event.products.isEmpty() || !event.feedstocks.isEmpty()) {
+            productGeneration.incrementAndGet();
+            productCounts.clear();
+        }
+        if (!event.feedstocks.isEmpty()) {
+            feedstockGeneration.incrementAndGet();
+            feedstockCounts.clear();
+        }
+    }
+
+    void clear() {
+        productGeneration.incrementAndGet();
+        feedstockGeneration.incrementAndGet();
+        productCounts.clear();
+        feedstockCounts.clear();
+    }
+
+    /**
+     * The search term as lists should run it: trimmed, null when blank. Callers pass the same value
+     * to the query and to {@link #count}, so a cached count always belongs to the rows it counts.
+     */
+    public static String normalize(String q) {
+        if (q == null || q.isBlank()) return null;
+        return q.trim();
+    }
+
+    static String key(String q, String searchType) {
+        String term = normalize(q);
+        return type(searchType) + '|' + (term == null ? "" : term.toLowerCase(Locale.ROOT));
+    }
+
+    private static String type(String searchType) {
+        return (searchType == null || searchType.isBlank())
+                ? "product"
+                : searchType.trim().toLowerCase(Locale.ROOT);
+    }
+}
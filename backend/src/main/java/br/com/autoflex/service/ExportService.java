@@ -0,0 +1,230 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.BulkDtos;
+import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Streams the whole catalog straight from a forward-only cursor to the response. Rows are read
+ * through a stateless session, so nothing accumulates in a persistence context, and written one
+ * record at a time; memory use does not depend on the catalog size.
+ */
+@ApplicationScoped
+public class ExportService {
+
+    static final int EXPORT_TIMEOUT_SECONDS = 3600;
+
+    private static final CsvSchema PRODUCT_CSV = CsvSchema.builder()
+            .addColumn("productCode")
+            .addColumn("name")
+            .addColumn("unitPrice")
+            .addColumn("feedstockId")
+            .addColumn("quantity")
+            .build()
+            .withHeader();
+
+    private static final CsvSchema FEEDSTOCK_CSV = CsvSchema.builder()
+            .addColumn("feedstockCode")
+            .addColumn("name")
+            .addColumn("stock")
+            .addColumn("unitOfMeasure")
+            .build()
+            .withHeader();
+
+    public enum Format {
+        NDJSON(BulkImportService.NDJSON, "ndjson"),
+        CSV(BulkImportService.CSV, "csv");
+
+        public final String mediaType;
+        public final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) return NDJSON;
+
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "ndjson" -> NDJSON;
+                case "csv" -> CSV;
+                default -> throw new BadRequestException("Unsupported export format: " + value);
+            };
+        }
+    }
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Inject
+    StatelessSession session;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    public StreamingOutput exportProducts(Format format) {
+        return out -> QuarkusTransaction.requiringNew().timeout(EXPORT_TIMEOUT_SECONDS).run(() -> {
+            try (ScrollableResults<Object[]> rows = productRepo.scrollExportRows(session);
+                 SequenceWriter writer = writer(format, ProductDtos.Response.class,
+                         BulkDtos.ProductCsvRow.class, PRODUCT_CSV).writeValues(out)) {
+                if (format == Format.CSV) {
+                    writeProductCsv(rows, writer);
+                } else {
+                    writeProducts(rows, writer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public StreamingOutput exportFeedstocks(Format format) {
+        return out -> QuarkusTransaction.requiringNew().timeout(EXPORT_TIMEOUT_SECONDS).run(() -> {
+            try (ScrollableResults<Object[]> rows = format == Format.CSV
+                         ? feedstockRepo.scrollCsvExportRows(session)
+                         : feedstockRepo.scrollExportRows(session);
+                 SequenceWriter writer = writer(format, FeedstockDtos.Response.class,
+                         FeedstockDtos.CreateRequest.class, FEEDSTOCK_CSV).writeValues(out)) {
+                if (format == Format.CSV) {
+                    writeFeedstockCsv(rows, writer);
+                } else {
+                    writeFeedstocks(rows, writer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private ObjectWriter writer(Format format, Class<?> jsonType, Class<?> csvType, CsvSchema schema) {
+        ObjectWriter writer = format == Format.CSV
+                ? csvMapper.writerFor(csvType).with(schema).with(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN)
+                : mapper.writerFor(jsonType).withRootValueSeparator("\n");
+        return writer.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static void writeProducts(ScrollableResults<Object[]> rows, SequenceWriter writer) throws IOException {
+        ProductDtos.Response current = null;
+
+        while (rows.next()) {
+            Object[] r = rows.get();
+            Long id = (Long) r[0];
+
+            if (current == null || !current.id.equals(id)) {
+                if (current != null) writer.write(current);
+
+                current = new ProductDtos.Response();
+                current.id = id;
+                current.productCode = (String) r[1];
+                current.name = (String) r[2];
+                current.unitPrice = (BigDecimal) r[3];
+                current.feedstocks = new ArrayList<>();
+            }
+
+            if (r[4] != null) {
+                ProductDtos.FeedstockItem item = new ProductDtos.FeedstockItem();
+                item.id = (Long) r[4];
+                item.feedstockCode = (String) r[5];
+                item.name = (String) r[6];
+                item.stock = (BigDecimal) r[7];
+                item.quantity = (BigDecimal) r[8];
+                current.feedstocks.add(item);
+            }
+        }
+
+        if (current != null) writer.write(current);
+    }
+
+    private static void writeProductCsv(ScrollableResults<Object[]> rows, SequenceWriter writer) throws IOException {
+        BulkDtos.ProductCsvRow line = new BulkDtos.ProductCsvRow();
+
+        while (rows.next()) {
+            Object[] r = rows.get();
+            line.productCode = (String) r[1];
+            line.name = (String) r[2];
+            line.unitPrice = (BigDecimal) r[3];
+            line.feedstockId = (Long) r[4];
+            line.quantity = (BigDecimal) r[8];
+            writer.write(line);
+        }
+    }
+
+    private static void writeFeedstocks(ScrollableResults<Object[]> rows, SequenceWriter writer) throws IOException {
+        FeedstockDtos.Response current = null;
+
+        while (rows.next()) {
+            Object[] r = rows.get();
+            Long id = (Long) r[0];
+
+            if (current == null || !current.id.equals(id)) {
+                if (current != null) writer.write(current);
+
+                current = new FeedstockDtos.Response();
+                current.id = id;
+                current.feedstockCode = (String) r[1];
+                current.name = (String) r[2];
+                current.stock = (BigDecimal) r[3];
+                current.unitOfMeasure = (String) r[4];
+                current.products = new ArrayList<>();
+            }
+
+            if (r[5] != null) {
+                FeedstockDtos.ProductItem item = new FeedstockDtos.ProductItem();
+                item.id = (Long) r[5];
+                item.productCode = (String) r[6];
+                item.name = (String) r[7];
+                item.unitPrice = (BigDecimal) r[8];
+                item.quantity = (BigDecimal) r[9];
+                current.products.add(item);
+            }
+        }
+
+        if (current != null) writer.write(current);
+    }
+
+    private static void writeFeedstockCsv(ScrollableResults<Object[]> rows, SequenceWriter writer) throws IOException {
+        FeedstockDtos.CreateRequest line = new FeedstockDtos.CreateRequest();
+
+        while (rows.next()) {
+            Object[] r = rows.get();
+            line.feedstockCode = (String) r[0];
+            line.name = (String) r[1];
+            line.stock = (BigDecimal) r[2];
+            line.unitOfMeasure = (String) r[3];
+            writer.write(line);
+        }
+    }
+}
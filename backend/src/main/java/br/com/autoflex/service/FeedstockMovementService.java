@@ -0,0 +1,133 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.FeedstockMovementDtos;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockMovementRepository;
+import br.com.autoflex.repository.FeedstockRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes to the append-only stock ledger. Receipts and adjustments are plain inserts, batched by
+ * Hibernate, so they never wait on the feedstock row; {@link StockCompactor} later folds them into
+ * {@code FEEDSTOCK.STOCK}.
+ */
+@ApplicationScoped
+public class FeedstockMovementService {
+
+    @Inject
+    FeedstockMovementRepository repo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    Event<CatalogChanged> events;
+
+    @Transactional
+    public List<FeedstockMovementDtos.Response> record(FeedstockMovementDtos.CreateRequest req) {
+        for (FeedstockMovementDtos.Item item : req.movements) {
+            check(item);
+        }
+
+        Set<Long> known = feedstockRepo.findExistingIds(
+                req.movements.stream().map(i -> i.feedstockId).distinct().toList());
+        for (FeedstockMovementDtos.Item item : req.movements) {
+            if (!known.contains(item.feedstockId)) {
+                throw new NotFoundException("Feedstock not found: " + item.feedstockId);
+            }
+        }
+
+        EntityManager em = repo.getEntityManager();
+        Instant now = Instant.now();
+        long revision = clock.current();
+        List<FeedstockMovement> movements = new ArrayList<>(req.movements.size());
+        Map<Long, BigDecimal> deltas = new LinkedHashMap<>();
+
+        for (FeedstockMovementDtos.Item item : req.movements) {
+            FeedstockMovement m = movement(em.getReference(Feedstock.class, item.feedstockId), item.feedstockId,
+                    item.kind, item.quantity, now, revision);
+            repo.persist(m);
+            movements.add(m);
+            deltas.merge(item.feedstockId, item.quantity, BigDecimal::add);
+        }
+
+        List<CatalogChanged.StockChange> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> changes.add(new CatalogChanged.StockChange(id, delta)));
+        events.fire(CatalogChanged.stocks(changes).at(revision));
+
+        return movements.stream().map(FeedstockMovementService::toDto).toList();
+    }
+
+    public BigDecimal stockAsOf(Long feedstockId, Instant at) {
+        return feedstockRepo.findStockAsOf(feedstockId, at);
+    }
+
+    private static void check(FeedstockMovementDtos.Item item) {
+        switch (item.kind) {
+            case RECEIPT -> {
+                if (item.quantity.signum() <= 0) {
+                    throw new BadRequestException("Receipt quantity must be greater than 0 for feedstock: "
+                            + item.feedstockId);
+                }
+            }
+            case ADJUSTMENT -> {
+                if (item.quantity.signum() == 0) {
+                    throw new BadRequestException("Adjustment quantity must not be 0 for feedstock: "
+                            + item.feedstockId);
+                }
+            }
+            default -> throw new BadRequestException("Movements of kind " + item.kind + " are recorded by the system");
+        }
+    }
+
+    /** {@code feedstockId} is passed separately because {@code f} may be an uninitialized reference. */
+    static FeedstockMovement movement(Feedstock f, Long feedstockId, FeedstockMovement.Kind kind,
+                                      BigDecimal quantity, Instant at, long revision) {
+        FeedstockMovement m = new FeedstockMovement();
+        m.feedstock = f;
+        m.feedstockId = feedstockId;
+        m.kind = kind;
+        m.quantity = quantity;
+        m.createdAt = at;
+        m.revision = revision;
+        return m;
+    }
+
+    /** Stock a new feedstock starts with; it is already in the snapshot, so it is born compacted. */
+    static FeedstockMovement opening(Feedstock f, Instant at) {
+        FeedstockMovement m = movement(f, f.id, FeedstockMovement.Kind.OPENING, f.stock, at, f.revision);
+        m.compactedAt = at;
+        return m;
+    }
+
+    static FeedstockMovementDtos.Response toDto(FeedstockMovement m) {
+        FeedstockMovementDtos.Response dto = new FeedstockMovementDtos.Response();
+        dto.id = m.id;
+        dto.feedstockId = m.feedstockId;
+        dto.kind = m.kind;
+        dto.quantity = m.quantity;
+        dto.productionOrderId = m.productionOrderId;
+        dto.createdAt = m.createdAt;
+        return dto;
+    }
+}
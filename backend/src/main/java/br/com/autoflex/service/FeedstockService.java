@@ -1,31 +1,109 @@
 package br.com.autoflex.service;
 
 import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.entity.CatalogTombstone;
 import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.CatalogTombstoneRepository;
+import br.com.autoflex.repository.FeedstockMovementRepository;
 import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.InList;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.FeedstockRow;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @ApplicationScoped
 public class FeedstockService {
 
     @Inject
     FeedstockRepository repo;
 
+    @Inject
+    ProductFeedstockRepository lineRepo;
+
+    @Inject
+    FeedstockMovementRepository movementRepo;
+
+    @Inject
+    CatalogTombstoneRepository tombstoneRepo;
+
+    @Inject
+    SearchIndexService searchIndex;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    Event<CatalogChanged> events;
+
     public PanacheQuery<Feedstock> list(String q, Integer page, Integer size) {
         int p = (page == null || page < 0) ? 0 : page;
         int s = (size == null || size <= 0) ? 20 : Math.min(size, 100);
 
-        PanacheQuery<Feedstock> query = repo.search(q);
+        long[] ids = searchIndex.feedstockIds(q);
+        PanacheQuery<Feedstock> query = ids != null
+                ? repo.searchByIds(SearchIndexService.boxed(ids), null)
+                : repo.search(q);
         query.page(Page.of(p, s));
         return query;
     }
 
+    public PanacheQuery<Feedstock> listAfter(String q, String cursor, Integer size) {
+        int s = (size == null || size <= 0) ? 20 : Math.min(size, 100);
+
+        PageCursor after = PageCursor.decode(cursor);
+
+        long[] ids = searchIndex.feedstockIds(q);
+        PanacheQuery<Feedstock> query = ids != null
+                ? repo.searchByIds(SearchIndexService.boxed(ids), after)
+                : repo.search(q, after);
+        query.page(Page.ofSize(s));
+        return query;
+    }
+
+    public List<FeedstockRow> rows(PanacheQuery<Feedstock> query) {
+        return query.project(FeedstockRow.class).list();
+    }
+
+    public List<FeedstockRow> rowsWithLookahead(PanacheQuery<Feedstock> query) {
+        Page page = query.page();
+        int first = page.index * page.size;
+        return query.project(FeedstockRow.class).range(first, first + page.size).list();
+    }
+
+    public Map<Long, List<BomLineRow>> linesByFeedstock(List<Long> feedstockIds) {
+        if (feedstockIds.isEmpty()) return Map.of();
+
+        return lineRepo.findByFeedstockIds(feedstockIds).stream()
+                .collect(Collectors.groupingBy(l -> l.feedstockId));
+    }
+
+    /** Distinct ids are looked up in chunks of {@link InList#MAX_SIZE}, one query per chunk. */
+    public Map<Long, FeedstockRow> rowsByIds(Collection<Long> ids) {
+        return repo.findRowsByIds(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(r -> r.id, Function.identity()));
+    }
+
     public Feedstock getById(Long id) {
         return repo.findById(id);
     }
@@ -37,26 +115,51 @@ public class FeedstockService {
         f.name = req.name;
         f.stock = req.stock;
         f.unitOfMeasure = req.unitOfMeasure;
+        f.revision = clock.current();
 
         repo.persist(f);
+        movementRepo.persist(FeedstockMovementService.opening(f, Instant.now()));
+        events.fire(new CatalogChanged(List.of(), List.of(CatalogChanged.FeedstockChange.saved(f)),
+                List.of(new CatalogChanged.StockChange(f.id, f.stock)), f.revision));
         return f;
     }
 
     @Transactional
     public Feedstock update(Long id, FeedstockDtos.UpdateRequest req) {
-        Feedstock f = repo.findById(id);
+        // The row lock holds off other updates and production orders until commit, so the balance the
+        // adjustment is computed from cannot move underneath it, and the row's revisions follow commit order.
+        Feedstock f = repo.findById(id, LockModeType.PESSIMISTIC_WRITE);
         if (f == null) return null;
 
         f.feedstockCode = req.feedstockCode;
         f.name = req.name;
-        f.stock = req.stock;
         f.unitOfMeasure = req.unitOfMeasure;
+        f.revision = clock.current();
+
+        // Setting stock goes through the ledger like any other movement; the snapshot is the compactor's.
+        // Listeners get the adjustment, not the balance: a receipt committing meanwhile does not take
+        // the row lock, and an absolute value would overwrite its delta wherever it landed first.
+        BigDecimal adjustment = req.stock.subtract(f.stock.add(f.pendingStock));
+        List<CatalogChanged.StockChange> stocks = List.of();
+        if (adjustment.signum() != 0) {
+            movementRepo.persist(FeedstockMovementService.movement(
+                    f, f.id, FeedstockMovement.Kind.ADJUSTMENT, adjustment, Instant.now(), f.revision));
+            f.pendingStock = f.pendingStock.add(adjustment);
+            stocks = List.of(new CatalogChanged.StockChange(f.id, adjustment));
+        }
 
+        events.fire(new CatalogChanged(List.of(), List.of(CatalogChanged.FeedstockChange.saved(f)), stocks,
+                f.revision));
         return f;
     }
 
     @Transactional
     public boolean delete(Long id) {
-        return repo.deleteById(id);
+        boolean deleted = repo.deleteById(id);
+        if (deleted) {
+            tombstoneRepo.persist(new CatalogTombstone(CatalogTombstone.Kind.FEEDSTOCK, id, clock.current()));
+            events.fire(CatalogChanged.of(CatalogChanged.FeedstockChange.deleted(id)).at(clock.current()));
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,27 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.ProductionOrderDtos;
+
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+
+/** 409 listing every feedstock an order could not take its quantity from. */
+public class InsufficientStockException extends ClientErrorException {
+
+    public InsufficientStockException(List<ProductionOrderDtos.Shortfall> shortfalls) {
+        super(Response.status(Response.Status.CONFLICT)
+                .type(MediaType.APPLICATION_JSON)
+                .entity(body(shortfalls))
+                .build());
+    }
+
+    private static ProductionOrderDtos.ShortfallResponse body(List<ProductionOrderDtos.Shortfall> shortfalls) {
+        ProductionOrderDtos.ShortfallResponse body = new ProductionOrderDtos.ShortfallResponse();
+        body.message = "Insufficient stock";
+        body.shortfalls = shortfalls;
+        return body;
+    }
+}
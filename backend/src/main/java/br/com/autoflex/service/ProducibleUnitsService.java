@@ -0,0 +1,163 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.planning.ProducibleUnits;
+import br.com.autoflex.repository.ProductRepository;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+
+import org.hibernate.SessionFactory;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@code PRODUCT.MAX_PRODUCIBLE_UNITS} and {@code ID_BOTTLENECK_FEEDSTOCK} in line with stock
+ * and BOMs. Committed writes only mark what they touched; the refresh job recomputes the marked
+ * products plus every product that uses a marked feedstock (the snapshot's usage index) and writes
+ * back the rows whose value actually moved. The columns therefore trail the catalog by up to one
+ * refresh period, and the first run after startup recomputes everything.
+ */
+@ApplicationScoped
+public class ProducibleUnitsService {
+
+    static final int BATCH_SIZE = 1000;
+
+    @Inject
+    BomSnapshotService snapshots;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyFeedstocks = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+
+    // Runs after BomSnapshotService's observer, so the snapshot the next refresh reads has this change.
+    void onCatalogChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            @Priority(Interceptor.Priority.APPLICATION + 700) CatalogChanged event) {
+        for (CatalogChanged.ProductChange c : event.products) {
+            if (c.id() != null && !c.deleted() && c.lines() != null) dirtyProducts.add(c.id());
+        }
+        for (CatalogChanged.FeedstockChange c : event.feedstocks) {
+            if (c.id() != null && !c.deleted()) dirtyFeedstocks.add(c.id());
+        }
+        for (CatalogChanged.StockChange c : event.stocks) {
+            dirtyFeedstocks.add(c.feedstockId());
+        }
+    }
+
+    @Scheduled(every = "${autoflex.producible.refresh.every:1s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduled() {
+        refresh();
+    }
+
+    /** Recomputes every product affected since the last call and returns how many rows changed. */
+    public int refresh() {
+        boolean all = stale.getAndSet(false);
+        long[] products = drain(dirtyProducts);
+        long[] feedstocks = drain(dirtyFeedstocks);
+        if (!all && products.length == 0 && feedstocks.length == 0) return 0;
+
+        try {
+            return write(snapshots.current(), all, products, feedstocks);
+        } catch (RuntimeException e) {
+            if (all) stale.set(true);
+            for (long id : products) dirtyProducts.add(id);
+            for (long id : feedstocks) dirtyFeedstocks.add(id);
+            throw e;
+        }
+    }
+
+    private int write(BomSnapshot bom, boolean all, long[] products, long[] feedstocks) {
+        int[] targets = targets(bom, all, products, feedstocks);
+        long[] units = new long[targets.length];
+        int[] bottlenecks = new int[targets.length];
+        ProducibleUnits.compute(bom, targets, units, bottlenecks);
+
+        int changed = 0;
+        for (int from = 0; from < targets.length; from += BATCH_SIZE) {
+            int to = Math.min(targets.length, from + BATCH_SIZE);
+            long[] ids = new long[to - from];
+            long[] values = new long[ids.length];
+            Long[] bottleneckIds = new Long[ids.length];
+            for (int k = from; k < to; k++) {
+                ids[k - from] = bom.productIds[targets[k]];
+                values[k - from] = units[k];
+                bottleneckIds[k - from] = bottlenecks[k] < 0 ? null : bom.feedstockIds[bottlenecks[k]];
+            }
+
+            int[] counts = QuarkusTransaction.requiringNew()
+                    .call(() -> productRepo.updateProducibleUnits(ids, values, bottleneckIds));
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    sessionFactory.getCache().evictEntityData(Product.class, ids[i]);
+                    changed++;
+                }
+            }
+        }
+        // The update bypasses the session, so cached list pages filtered or sorted on it are stale.
+        if (changed > 0) sessionFactory.getCache().evictQueryRegion(ProductRepository.PAGE_CACHE_REGION);
+        return changed;
+    }
+
+    /** Live product indexes to recompute, ordered by product id. */
+    static int[] targets(BomSnapshot bom, boolean all, long[] products, long[] feedstocks) {
+        boolean[] selected = new boolean[bom.productCount];
+        if (all) {
+            System.arraycopy(bom.productAlive, 0, selected, 0, bom.productCount);
+        } else {
+            for (long id : products) {
+                int p = bom.productIndexOf(id);
+                if (p >= 0) selected[p] = true;
+            }
+            for (long id : feedstocks) {
+                int f = bom.feedstockIndexOf(id);
+                if (f < 0) continue;
+                for (int i = bom.usageOffsets[f]; i < bom.usageOffsets[f + 1]; i++) {
+                    int p = bom.usageProducts[i];
+                    if (bom.productAlive[p]) selected[p] = true;
+                }
+            }
+        }
+
+        int n = 0;
+        int[] targets = new int[bom.productCount];
+        for (int p = 0; p < bom.productCount; p++) {
+            if (selected[p]) targets[n++] = p;
+        }
+        targets = Arrays.copyOf(targets, n);
+
+        Integer[] boxed = Arrays.stream(targets).boxed().toArray(Integer[]::new);
+        Arrays.sort(boxed, (a, b) -> Long.compare(bom.productIds[a], bom.productIds[b]));
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static long[] drain(Set<Long> ids) {
+        long[] drained = new long[ids.size()];
+        int n = 0;
+        for (var it = ids.iterator(); it.hasNext(); ) {
+            Long id = it.next();
+            it.remove();
+            if (n == drained.length) drained = Arrays.copyOf(drained, n * 2 + 1);
+            drained[n++] = id;
+        }
+        return Arrays.copyOf(drained, n);
+    }
+}
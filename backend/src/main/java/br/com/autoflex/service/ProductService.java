@@ -1,21 +1,43 @@
 package br.com.autoflex.service;
 
 import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.entity.CatalogTombstone;
 import br.com.autoflex.entity.Feedstock;
 import br.com.autoflex.entity.Product;
 import br.com.autoflex.entity.ProductFeedstock;
 import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.CatalogTombstoneRepository;
 import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.InList;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.ProductFeedstockRepository;
 import br.com.autoflex.repository.ProductRepository;
+import br.com.autoflex.repository.ProductRepository.Listing;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.ProductRow;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @ApplicationScoped
 public class ProductService {
 
@@ -25,22 +47,83 @@ public class ProductService {
     @Inject
     FeedstockRepository feedstockRepo;
 
-    public PanacheQuery<Product> list(String q, String searchType, Integer page, Integer size) {
+    @Inject
+    ProductFeedstockRepository lineRepo;
+
+    @Inject
+    CatalogTombstoneRepository tombstoneRepo;
+
+    @Inject
+    SearchIndexService searchIndex;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    Event<CatalogChanged> events;
+
+    public PanacheQuery<Product> list(String q, String searchType, Integer page, Integer size, Listing listing) {
         int p = (page == null || page < 0) ? 0 : page;
         int s = (size == null || size <= 0) ? 20 : Math.min(size, 100);
 
-        String type = (searchType == null || searchType.isBlank())
+        PanacheQuery<Product> query = search(q, searchType, null, listing);
+
+        query.page(Page.of(p, s));
+        return query;
+    }
+
+    public PanacheQuery<Product> listAfter(String q, String searchType, String cursor, Integer size,
+                                           Listing listing) {
+        int s = (size == null || size <= 0) ? 20 : Math.min(size, 100);
+        PageCursor after = PageCursor.decode(cursor);
+
+        PanacheQuery<Product> query = search(q, searchType, after, listing);
+
+        query.page(Page.ofSize(s));
+        return query;
+    }
+
+    private PanacheQuery<Product> search(String q, String searchType, PageCursor after, Listing listing) {
+        if ("feedstock".equals(searchType(searchType))) {
+            long[] feedstockIds = searchIndex.feedstockIdsByName(q);
+            if (feedstockIds != null) {
+                return repo.searchByFeedstockIds(SearchIndexService.boxed(feedstockIds), after, listing);
+            }
+            return repo.searchByFeedstockName(q, after, listing);
+        }
+
+        long[] ids = searchIndex.productIds(q);
+        if (ids != null) return repo.searchByIds(SearchIndexService.boxed(ids), after, listing);
+        return repo.searchByProduct(q, after, listing);
+    }
+
+    private static String searchType(String searchType) {
+        return (searchType == null || searchType.isBlank())
                 ? "product"
                 : searchType.trim().toLowerCase();
+    }
 
-        PanacheQuery<Product> query = switch (type) {
-            case "feedstock" -> repo.searchByFeedstockName(q);
-            case "product" -> repo.searchByProduct(q);
-            default -> repo.searchByProduct(q); 
-        };
+    public List<ProductRow> rows(PanacheQuery<Product> query) {
+        return query.project(ProductRow.class).list();
+    }
 
-        query.page(Page.of(p, s));
-        return query;
+    public List<ProductRow> rowsWithLookahead(PanacheQuery<Product> query) {
+        Page page = query.page();
+        int first = page.index * page.size;
+        return query.project(ProductRow.class).range(first, first + page.size).list();
+    }
+
+    public Map<Long, List<BomLineRow>> linesByProduct(List<Long> productIds) {
+        if (productIds.isEmpty()) return Map.of();
+
+        return lineRepo.findByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(l -> l.productId));
+    }
+
+    /** Distinct ids are looked up in chunks of {@link InList#MAX_SIZE}, one query per chunk. */
+    public Map<Long, ProductRow> rowsByIds(Collection<Long> ids) {
+        return repo.findRowsByIds(new LinkedHashSet<>(ids)).stream()
+                .collect(Collectors.toMap(r -> r.id, Function.identity()));
     }
 
     public Product getById(Long id) {
@@ -53,42 +136,112 @@ public class ProductService {
         p.productCode = req.productCode;
         p.name = req.name;
         p.unitPrice = req.unitPrice;
+        p.revision = clock.current();
+
+        Map<Long, BigDecimal> requested = requestedLines(req.feedstocks);
+        Map<Long, Feedstock> feedstocks = findFeedstocks(requested.keySet());
 
         repo.persist(p);
         repo.flush();
 
-        for (ProductDtos.FeedstockQuantity item : req.feedstocks) {
-            Feedstock f = feedstockRepo.findById(item.feedstockId);
-            if (f == null) {
-                throw new NotFoundException("Feedstock not found: " + item.feedstockId);
-            }
-
-            ProductFeedstock pf = new ProductFeedstock();
-            pf.product = p;
-            pf.feedstock = f;
-            pf.quantity = item.quantity;
-            pf.id = new ProductFeedstockId(p.id, f.id);
-
-            p.feedstocks.add(pf);
-        }
+        requested.forEach((feedstockId, quantity) -> addLine(p, feedstocks.get(feedstockId), quantity));
 
+        events.fire(CatalogChanged.of(CatalogChanged.ProductChange.saved(p, lines(req.feedstocks))).at(p.revision));
         return p;
     }
 
     @Transactional
     public Product update(Long id, ProductDtos.UpdateRequest req) {
-        Product p = repo.findById(id);
+        // Locked before the revision is taken, so a later revision of the row is also a later commit.
+        Product p = repo.findById(id, LockModeType.PESSIMISTIC_WRITE);
         if (p == null) return null;
 
         p.productCode = req.productCode;
         p.name = req.name;
         p.unitPrice = req.unitPrice;
+        p.revision = clock.current();
 
+        boolean linesChanged = req.feedstocks != null && updateLines(p, requestedLines(req.feedstocks));
+
+        events.fire(CatalogChanged.of(CatalogChanged.ProductChange.saved(p,
+                linesChanged ? lines(req.feedstocks) : null)).at(p.revision));
         return p;
     }
 
+    /**
+     * Turns the product's BOM into {@code requested} by touching only the lines that differ: removed
+     * lines are orphan-deleted, changed quantities become dirty-checked updates and new lines are
+     * cascaded inserts, each kind sent as one JDBC batch at flush. Every requested feedstock is
+     * loaded with one IN query, which validates the new lines and leaves all of them in the
+     * persistence context for the response. Returns whether anything changed.
+     */
+    private boolean updateLines(Product p, Map<Long, BigDecimal> requested) {
+        Map<Long, Feedstock> feedstocks = findFeedstocks(requested.keySet());
+        Map<Long, BigDecimal> added = new LinkedHashMap<>(requested);
+        boolean changed = false;
+
+        for (Iterator<ProductFeedstock> it = p.feedstocks.iterator(); it.hasNext(); ) {
+            ProductFeedstock pf = it.next();
+            BigDecimal quantity = added.remove(pf.id.idFeedstock);
+
+            if (quantity == null) {
+                it.remove();
+                changed = true;
+            } else if (quantity.compareTo(pf.quantity) != 0) {
+                pf.quantity = quantity;
+                pf.revision = p.revision;
+                changed = true;
+            }
+        }
+
+        added.forEach((feedstockId, quantity) -> addLine(p, feedstocks.get(feedstockId), quantity));
+        return changed || !added.isEmpty();
+    }
+
+    private static void addLine(Product p, Feedstock f, BigDecimal quantity) {
+        ProductFeedstock pf = new ProductFeedstock();
+        pf.product = p;
+        pf.feedstock = f;
+        pf.quantity = quantity;
+        pf.revision = p.revision;
+        pf.id = new ProductFeedstockId(p.id, f.id);
+
+        p.feedstocks.add(pf);
+    }
+
+    private Map<Long, Feedstock> findFeedstocks(Collection<Long> ids) {
+        Map<Long, Feedstock> found = feedstockRepo.findByIds(ids).stream()
+                .collect(Collectors.toMap(f -> f.id, Function.identity()));
+
+        for (Long id : ids) {
+            if (!found.containsKey(id)) throw new NotFoundException("Feedstock not found: " + id);
+        }
+        return found;
+    }
+
+    private static Map<Long, BigDecimal> requestedLines(List<ProductDtos.FeedstockQuantity> items) {
+        Map<Long, BigDecimal> lines = new LinkedHashMap<>();
+        for (ProductDtos.FeedstockQuantity item : items) {
+            if (lines.put(item.feedstockId, item.quantity) != null) {
+                throw new BadRequestException("Feedstock listed twice: " + item.feedstockId);
+            }
+        }
+        return lines;
+    }
+
     @Transactional
     public boolean delete(Long id) {
-        return repo.deleteById(id);
+        boolean deleted = repo.deleteById(id);
+        if (deleted) {
+            tombstoneRepo.persist(new CatalogTombstone(CatalogTombstone.Kind.PRODUCT, id, clock.current()));
+            events.fire(CatalogChanged.of(CatalogChanged.ProductChange.deleted(id)).at(clock.current()));
+        }
+        return deleted;
+    }
+
+    static List<CatalogChanged.Line> lines(List<ProductDtos.FeedstockQuantity> items) {
+        return items.stream()
+                .map(i -> new CatalogChanged.Line(i.feedstockId, i.quantity))
+                .toList();
     }
 }
@@ -0,0 +1,136 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.ProductionOrderDtos;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.entity.ProductionOrder;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockMovementRepository;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+import br.com.autoflex.repository.ProductionOrderRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.NotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records production and takes the feedstock it consumed. Every BOM line becomes one conditional
+ * {@code UPDATE ... WHERE STOCK >= ?} sent in a single batch, so concurrent orders never lose an
+ * update and never drive stock negative; if any line comes up short the whole order rolls back.
+ * The guard counts the ledger tail not yet compacted, and since the update already moved the
+ * snapshot, the consumption lands in the ledger as history that is compacted from the start.
+ */
+@ApplicationScoped
+public class ProductionOrderService {
+
+    @Inject
+    ProductionOrderRepository repo;
+
+    @Inject
+    ProductRepository productRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    ProductFeedstockRepository lineRepo;
+
+    @Inject
+    FeedstockMovementRepository movementRepo;
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    Event<CatalogChanged> events;
+
+    @Transactional
+    public ProductionOrderDtos.Response create(ProductionOrderDtos.CreateRequest req) {
+        List<Object[]> bom = lineRepo.findRequirements(req.productId);
+        if (bom.isEmpty() && productRepo.count("id", req.productId) == 0) {
+            throw new NotFoundException("Product not found: " + req.productId);
+        }
+
+        BigDecimal units = BigDecimal.valueOf(req.units);
+        long[] feedstockIds = new long[bom.size()];
+        BigDecimal[] required = new BigDecimal[bom.size()];
+        for (int i = 0; i < bom.size(); i++) {
+            feedstockIds[i] = (Long) bom.get(i)[0];
+            required[i] = ((BigDecimal) bom.get(i)[1]).multiply(units);
+        }
+
+        if (feedstockIds.length > 0) {
+            int[] updated = feedstockRepo.consumeStock(feedstockIds, required);
+            List<Long> missing = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) missing.add(feedstockIds[i]);
+            }
+            if (!missing.isEmpty()) throw shortfall(missing, feedstockIds, required);
+        }
+
+        ProductionOrder order = new ProductionOrder();
+        order.productId = req.productId;
+        order.units = req.units;
+        order.createdAt = Instant.now();
+        repo.persist(order);
+
+        EntityManager em = movementRepo.getEntityManager();
+        long revision = clock.current();
+        List<CatalogChanged.StockChange> changes = new ArrayList<>(feedstockIds.length);
+        for (int i = 0; i < feedstockIds.length; i++) {
+            FeedstockMovement m = FeedstockMovementService.movement(
+                    em.getReference(Feedstock.class, feedstockIds[i]), feedstockIds[i],
+                    FeedstockMovement.Kind.CONSUMPTION, required[i].negate(), order.createdAt, revision);
+            m.productionOrderId = order.id;
+            m.compactedAt = order.createdAt;
+            movementRepo.persist(m);
+            changes.add(new CatalogChanged.StockChange(feedstockIds[i], required[i].negate()));
+        }
+        events.fire(CatalogChanged.stocks(changes).at(revision));
+
+        return toDto(order, feedstockIds, required);
+    }
+
+    private InsufficientStockException shortfall(List<Long> shortIds, long[] feedstockIds, BigDecimal[] required) {
+        Map<Long, BigDecimal> available = feedstockRepo.findStocks(shortIds);
+
+        List<ProductionOrderDtos.Shortfall> shortfalls = new ArrayList<>();
+        for (int i = 0; i < feedstockIds.length; i++) {
+            if (!shortIds.contains(feedstockIds[i])) continue;
+
+            ProductionOrderDtos.Shortfall s = new ProductionOrderDtos.Shortfall();
+            s.feedstockId = feedstockIds[i];
+            s.required = required[i];
+            s.available = available.getOrDefault(feedstockIds[i], BigDecimal.ZERO);
+            shortfalls.add(s);
+        }
+        return new InsufficientStockException(shortfalls);
+    }
+
+    private static ProductionOrderDtos.Response toDto(ProductionOrder order, long[] feedstockIds, BigDecimal[] required) {
+        ProductionOrderDtos.Response dto = new ProductionOrderDtos.Response();
+        dto.id = order.id;
+        dto.productId = order.productId;
+        dto.units = order.units;
+        dto.createdAt = order.createdAt;
+        dto.consumed = new ArrayList<>(feedstockIds.length);
+        for (int i = 0; i < feedstockIds.length; i++) {
+            ProductionOrderDtos.Consumption c = new ProductionOrderDtos.Consumption();
+            c.feedstockId = feedstockIds[i];
+            c.quantity = required[i];
+            dto.consumed.add(c);
+        }
+        return dto;
+    }
+}
@@ -0,0 +1,137 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.dto.ProductionPlanDtos;
+import br.com.autoflex.dto.RequirementDtos;
+import br.com.autoflex.planning.BranchAndBoundPlanner;
+import br.com.autoflex.planning.FeedstockImpact;
+import br.com.autoflex.planning.GreedyPlanner;
+import br.com.autoflex.planning.ImpactAnalyzer;
+import br.com.autoflex.planning.OptimalPlan;
+import br.com.autoflex.planning.ProductionPlan;
+import br.com.autoflex.planning.RequirementsExploder;
+import br.com.autoflex.planning.Scenario;
+import br.com.autoflex.planning.ScenarioSimulator;
+import br.com.autoflex.planning.Shortfall;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+@ApplicationScoped
+public class ProductionPlanService {
+
+    public enum Mode {
+        GREEDY, OPTIMAL;
+
+        public static Mode parse(String value) {
+            if (value == null || value.isBlank()) return GREEDY;
+
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "greedy" -> GREEDY;
+                case "optimal" -> OPTIMAL;
+                default -> throw new BadRequestException("Unknown planning mode: " + value);
+            };
+        }
+    }
+
+    @Inject
+    BomSnapshotService snapshots;
+
+    public ProductionPlan plan() {
+        return GreedyPlanner.plan(snapshots.current());
+    }
+
+    /** Searches for the revenue-maximising plan for at most {@code budget}; see {@link BranchAndBoundPlanner}. */
+    public OptimalPlan optimize(Duration budget) {
+        try {
+            return BranchAndBoundPlanner.plan(snapshots.current(), budget);
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Plan value too large to compute; use mode=greedy");
+        }
+    }
+
+    /** The plan for the current stock and one plan per scenario, all over the same snapshot. */
+    public record Simulation(ProductionPlan baseline, ProductionPlan[] plans) {}
+
+    /**
+     * Plans every scenario against the current snapshot without writing anything. Deltas for the
+     * same feedstock add up and the last price given for a product wins.
+     */
+    public Simulation simulate(List<ProductionPlanDtos.Scenario> requests) {
+        BomSnapshot bom = snapshots.current();
+
+        Scenario[] scenarios = new Scenario[requests.size() + 1];
+        scenarios[0] = new Scenario(bom);
+        try {
+            for (int i = 0; i < requests.size(); i++) {
+                scenarios[i + 1] = scenario(bom, requests.get(i));
+            }
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Scenario stock or price too large to compute");
+        }
+
+        ProductionPlan[] plans = ScenarioSimulator.simulate(scenarios);
+        return new Simulation(plans[0], Arrays.copyOfRange(plans, 1, plans.length));
+    }
+
+    private static Scenario scenario(BomSnapshot bom, ProductionPlanDtos.Scenario req) {
+        Scenario scenario = new Scenario(bom);
+        if (req.stock != null) {
+            for (ProductionPlanDtos.StockDelta d : req.stock) {
+                int f = bom.feedstockIndexOf(d.feedstockId);
+                if (f < 0) throw new NotFoundException("Feedstock not found: " + d.feedstockId);
+                scenario.adjustStock(f, Quantities.toMicros(d.delta));
+            }
+        }
+        if (req.prices != null) {
+            for (ProductionPlanDtos.PriceOverride o : req.prices) {
+                int p = bom.productIndexOf(o.productId);
+                if (p < 0) throw new NotFoundException("Product not found: " + o.productId);
+                scenario.overridePrice(p, Quantities.toCents(o.unitPrice));
+            }
+        }
+        return scenario;
+    }
+
+    /** Returns null when the feedstock does not exist; a null {@code stock} means it runs out. */
+    public FeedstockImpact impact(long feedstockId, BigDecimal stock) {
+        BomSnapshot bom = snapshots.current();
+        int f = bom.feedstockIndexOf(feedstockId);
+        if (f < 0) return null;
+
+        try {
+            return ImpactAnalyzer.analyze(bom, f, Quantities.toMicros(stock));
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Stock too large to compute");
+        }
+    }
+
+    /** What the demand needs beyond current stock. Lines for the same product add up. */
+    public Shortfall requirements(List<RequirementDtos.Demand> demand) {
+        BomSnapshot bom = snapshots.current();
+
+        int[] products = new int[demand.size()];
+        long[] units = new long[demand.size()];
+        for (int i = 0; i < products.length; i++) {
+            RequirementDtos.Demand d = demand.get(i);
+            products[i] = bom.productIndexOf(d.productId);
+            if (products[i] < 0) throw new NotFoundException("Product not found: " + d.productId);
+            units[i] = d.units;
+        }
+
+        try {
+            return RequirementsExploder.shortfall(bom, RequirementsExploder.explode(bom, products, units));
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Demand too large to compute");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package br.com.autoflex.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Hands out catalog revisions: one per transaction, strictly increasing, in microseconds of wall
+ * clock so they keep increasing across restarts. Allocation is in memory and costs no SQL; like the
+ * BOM snapshot and the search index this assumes a single application instance.
+ * <p>
+ * Revisions are allocated when a transaction first writes, not when it commits, so a later revision
+ * can become visible before an earlier one. {@link #stable()} is the highest revision below every
+ * transaction still in flight: readers that never go past it cannot skip a row that commits late.
+ * A {@link Horizon} says which revisions a full read sees, so that a cache loaded by that read can
+ * tell the change events it already contains from the ones it still has to apply.
+ */
+@ApplicationScoped
+public class RevisionClock {
+
+    private static final Object KEY = RevisionClock.class;
+
+    @Inject
+    TransactionSynchronizationRegistry registry;
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    private long last = System.currentTimeMillis() * 1000;
+
+    /**
+     * The revisions committed when the horizon was taken: everything up to {@code last} except what
+     * was still in flight. A read started after it sees all of those and maybe some of the others, so
+     * it has to leave out, by revision, whatever it must not count twice.
+     */
+    public record Horizon(long last, Set<Long> inFlight) {
+
+        public boolean contains(long revision) {
+            return revision > 0 && revision <= last && !inFlight.contains(revision);
+        }
+
+        /** Every revision up to this one is contained. */
+        public long floor() {
+            return inFlight.stream().mapToLong(Long::longValue).min().orElse(last + 1) - 1;
+        }
+
+        /** The same horizon, also containing {@code committed}. */
+        public Horizon including(Set<Long> committed) {
+            if (committed.isEmpty()) return this;
+            Set<Long> open = new HashSet<>(inFlight);
+            open.removeAll(committed);
+            return new Horizon(last, Set.copyOf(open));
+        }
+    }
+
+    /** The revision of the current transaction, allocated on first use. */
+    public long current() {
+        Long revision = (Long) registry.getResource(KEY);
+        if (revision != null) return revision;
+
+        long allocated = allocate();
+        try {
+            registry.putResource(KEY, allocated);
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    release(allocated);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(allocated);
+            throw e;
+        }
+        return allocated;
+    }
+
+    /** Every revision up to this one is committed or rolled back. */
+    public synchronized long stable() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+
+    public synchronized Horizon horizon() {
+        return new Horizon(last, Set.copyOf(inFlight));
+    }
+
+    synchronized long allocate() {
+        last = Math.max(last + 1, System.currentTimeMillis() * 1000);
+        inFlight.add(last);
+        return last;
+    }
+
+    synchronized void release(long revision) {
+        inFlight.remove(revision);
+    }
+}
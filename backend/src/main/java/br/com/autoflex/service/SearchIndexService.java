@@ -0,0 +1,124 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.search.TrigramIndex;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@ApplicationScoped
+public class SearchIndexService {
+
+    static final int MAX_CANDIDATES = 1000;
+
+    @Inject
+    BomSnapshotService snapshots;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TrigramIndex products;
+    private TrigramIndex feedstocks;
+
+    public long[] productIds(String q) {
+        return search(q, true, TrigramIndex.NAME | TrigramIndex.CODE);
+    }
+
+    public long[] feedstockIds(String q) {
+        return search(q, false, TrigramIndex.NAME | TrigramIndex.CODE);
+    }
+
+    public long[] feedstockIdsByName(String q) {
+        return search(q, false, TrigramIndex.NAME);
+    }
+
+    static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    private long[] search(String q, boolean product, int fields) {
+        if (q == null || q.isBlank() || q.length() < TrigramIndex.MIN_QUERY_LENGTH) return null;
+
+        load();
+        lock.readLock().lock();
+        try {
+            TrigramIndex index = product ? products : feedstocks;
+            return index == null ? null : index.search(q, fields, MAX_CANDIDATES);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs after BomSnapshotService's observer, so an index loaded from the snapshot in between
+    // already contains this change and re-applying it is a no-op.
+    void onCatalogChanged(
+            @Observes(during = TransactionPhase.AFTER_SUCCESS)
+            @Priority(Interceptor.Priority.APPLICATION + 600) CatalogChanged event) {
+        lock.writeLock().lock();
+        try {
+            if (products == null) return;
+
+            for (CatalogChanged.FeedstockChange c : event.feedstocks) {
+                if (c.id() == null) continue;
+                if (c.deleted()) feedstocks.remove(c.id());
+                else feedstocks.put(c.id(), c.name(), c.feedstockCode());
+            }
+            for (CatalogChanged.ProductChange c : event.products) {
+                if (c.id() == null) continue;
+                if (c.deleted()) products.remove(c.id());
+                else products.put(c.id(), c.name(), c.productCode());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            products = null;
+            feedstocks = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() {
+        lock.readLock().lock();
+        try {
+            if (products != null) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (products != null) return;
+
+            BomSnapshot bom = snapshots.current();
+
+            TrigramIndex p = new TrigramIndex(bom.liveProductCount());
+            for (int i = 0; i < bom.productCount; i++) {
+                if (bom.productAlive[i]) p.put(bom.productIds[i], bom.productNames[i], bom.productCodes[i]);
+            }
+
+            TrigramIndex f = new TrigramIndex(bom.liveFeedstockCount());
+            for (int i = 0; i < bom.feedstockCount; i++) {
+                if (bom.feedstockAlive[i]) f.put(bom.feedstockIds[i], bom.feedstockNames[i], bom.feedstockCodes[i]);
+            }
+
+            feedstocks = f;
+            products = p;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.repository.FeedstockMovementRepository;
+import br.com.autoflex.repository.FeedstockRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+
+import org.hibernate.SessionFactory;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Folds the ledger tail into {@code FEEDSTOCK.STOCK}. Each batch claims its movements first and
+ * only then moves the snapshot, in one transaction: readers see stock and tail change together,
+ * and a second compactor that lost the claim rolls back instead of folding the same rows twice.
+ * Movements committed while a batch runs are simply left for the next one.
+ */
+@ApplicationScoped
+public class StockCompactor {
+
+    static final int BATCH_SIZE = 1000;
+
+    @Inject
+    FeedstockMovementRepository movementRepo;
+
+    @Inject
+    FeedstockRepository feedstockRepo;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Scheduled(every = "${autoflex.stock.compaction.every:5s}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduled() {
+        compactAll();
+    }
+
+    /** Runs batches until the tail is drained and returns how many movements were folded. */
+    public long compactAll() {
+        long total = 0;
+        int folded;
+        do {
+            folded = QuarkusTransaction.requiringNew().call(this::compactBatch);
+            total += folded;
+        } while (folded == BATCH_SIZE);
+
+        // Compaction keeps every total but moves the snapshot the list pages are sorted by.
+        if (total > 0) sessionFactory.getCache().evictQueryRegion(FeedstockRepository.PAGE_CACHE_REGION);
+        return total;
+    }
+
+    int compactBatch() {
+        List<Object[]> tail = movementRepo.findTail(BATCH_SIZE);
+        if (tail.isEmpty()) return 0;
+
+        List<Long> ids = new ArrayList<>(tail.size());
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (Object[] r : tail) {
+            ids.add((Long) r[0]);
+            deltas.merge((Long) r[1], (BigDecimal) r[2], BigDecimal::add);
+        }
+
+        if (movementRepo.markCompacted(ids, Instant.now()) != ids.size()) {
+            throw new IllegalStateException("Ledger tail claimed by another compactor");
+        }
+
+        long[] feedstockIds = new long[deltas.size()];
+        BigDecimal[] amounts = new BigDecimal[deltas.size()];
+        int i = 0;
+        for (Map.Entry<Long, BigDecimal> e : deltas.entrySet()) {
+            feedstockIds[i] = e.getKey();
+            amounts[i++] = e.getValue();
+        }
+        feedstockRepo.foldStock(feedstockIds, amounts);
+        return tail.size();
+    }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX IX_PRODUCT_UNIT_PRICE_ID ON PRODUCT (UNIT_PRICE, ID_PRODUCT);
+
+CREATE INDEX IX_FEEDSTOCK_STOCK_ID ON FEEDSTOCK (STOCK, ID_FEEDSTOCK);
@@ -0,0 +1,15 @@
+-- Ids come from sequences so Hibernate can batch inserts; INCREMENT BY matches allocationSize
+-- (pooled-lo: each NEXTVAL reserves the block [value, value + 49]).
+DECLARE
+    v_start NUMBER;
+BEGIN
+    SELECT NVL(MAX(ID_PRODUCT), 0) + 1 INTO v_start FROM PRODUCT;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE PRODUCT_SEQ START WITH ' || v_start || ' INCREMENT BY 50 CACHE 20';
+
+    SELECT NVL(MAX(ID_FEEDSTOCK), 0) + 1 INTO v_start FROM FEEDSTOCK;
+    EXECUTE IMMEDIATE 'CREATE SEQUENCE FEEDSTOCK_SEQ START WITH ' || v_start || ' INCREMENT BY 50 CACHE 20';
+END;
+/
+
+ALTER TABLE PRODUCT MODIFY ID_PRODUCT DROP IDENTITY;
+ALTER TABLE FEEDSTOCK MODIFY ID_FEEDSTOCK DROP IDENTITY;
@@ -0,0 +1,11 @@
+CREATE SEQUENCE PRODUCTION_ORDER_SEQ START WITH 1 INCREMENT BY 50 CACHE 20;
+
+-- No foreign key to PRODUCT: the history of what was produced outlives the product.
+CREATE TABLE PRODUCTION_ORDER (
+                                  ID_PRODUCTION_ORDER  NUMBER PRIMARY KEY,
+                                  ID_PRODUCT           NUMBER NOT NULL,
+                                  UNITS                NUMBER(12) NOT NULL,
+                                  CREATED_AT           TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IX_PO_ID_PRODUCT ON PRODUCTION_ORDER (ID_PRODUCT);
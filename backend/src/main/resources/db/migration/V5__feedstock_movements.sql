@@ -0,0 +1,29 @@
+CREATE SEQUENCE FEEDSTOCK_MOVEMENT_SEQ START WITH 1 INCREMENT BY 50 CACHE 20;
+
+-- Append-only stock ledger. Rows with COMPACTED_AT still null are the tail not yet folded into
+-- FEEDSTOCK.STOCK; current stock is STOCK plus that tail.
+CREATE TABLE FEEDSTOCK_MOVEMENT (
+                                    ID_MOVEMENT          NUMBER PRIMARY KEY,
+                                    ID_FEEDSTOCK         NUMBER NOT NULL,
+                                    KIND                 VARCHAR2(12) NOT NULL,
+                                    QUANTITY             NUMBER(18,6) NOT NULL,
+                                    ID_PRODUCTION_ORDER  NUMBER,
+                                    CREATED_AT           TIMESTAMP NOT NULL,
+                                    COMPACTED_AT         TIMESTAMP,
+
+                                    CONSTRAINT FK_FM_FEEDSTOCK
+                                        FOREIGN KEY (ID_FEEDSTOCK)
+                                            REFERENCES FEEDSTOCK(ID_FEEDSTOCK)
+                                            ON DELETE CASCADE
+);
+
+-- The tail of one feedstock (reads) and the whole tail in ledger order (compactor).
+CREATE INDEX IX_FM_FEEDSTOCK_TAIL ON FEEDSTOCK_MOVEMENT (ID_FEEDSTOCK, COMPACTED_AT);
+CREATE INDEX IX_FM_TAIL ON FEEDSTOCK_MOVEMENT (COMPACTED_AT, ID_MOVEMENT);
+-- Stock as of a point in time walks back from the current value.
+CREATE INDEX IX_FM_FEEDSTOCK_TIME ON FEEDSTOCK_MOVEMENT (ID_FEEDSTOCK, CREATED_AT);
+
+-- Opening balances, already reflected in STOCK, so history has a starting point.
+INSERT INTO FEEDSTOCK_MOVEMENT (ID_MOVEMENT, ID_FEEDSTOCK, KIND, QUANTITY, CREATED_AT, COMPACTED_AT)
+SELECT FEEDSTOCK_MOVEMENT_SEQ.NEXTVAL, ID_FEEDSTOCK, 'OPENING', STOCK, SYSTIMESTAMP, SYSTIMESTAMP
+FROM FEEDSTOCK;
@@ -0,0 +1,28 @@
+-- Catalog revision of the transaction that last wrote each row, for incremental client sync
+-- (GET /changes). New writes take microsecond wall-clock values; existing rows are backfilled with
+-- their own ids, which are distinct and far below those, so a first sync from 0 still pages.
+ALTER TABLE PRODUCT ADD (REVISION NUMBER(19) DEFAULT 1 NOT NULL);
+ALTER TABLE FEEDSTOCK ADD (REVISION NUMBER(19) DEFAULT 1 NOT NULL);
+ALTER TABLE PRODUCT_FEEDSTOCK ADD (REVISION NUMBER(19) DEFAULT 1 NOT NULL);
+-- Stock moves through the insert-only ledger, so a feedstock's stock revision lives on its movements.
+ALTER TABLE FEEDSTOCK_MOVEMENT ADD (REVISION NUMBER(19) DEFAULT 0 NOT NULL);
+
+UPDATE PRODUCT SET REVISION = ID_PRODUCT;
+UPDATE FEEDSTOCK SET REVISION = ID_FEEDSTOCK;
+UPDATE PRODUCT_FEEDSTOCK SET REVISION = ID_PRODUCT;
+
+CREATE INDEX IX_PRODUCT_REVISION ON PRODUCT (REVISION, ID_PRODUCT);
+CREATE INDEX IX_FEEDSTOCK_REVISION ON FEEDSTOCK (REVISION, ID_FEEDSTOCK);
+CREATE INDEX IX_PF_REVISION ON PRODUCT_FEEDSTOCK (REVISION);
+CREATE INDEX IX_FM_REVISION ON FEEDSTOCK_MOVEMENT (REVISION, ID_FEEDSTOCK);
+
+-- Deleted rows leave no revision behind; a tombstone per deleted product or feedstock does.
+CREATE TABLE CATALOG_TOMBSTONE (
+                                   KIND       VARCHAR2(10) NOT NULL,
+                                   ENTITY_ID  NUMBER NOT NULL,
+                                   REVISION   NUMBER(19) NOT NULL,
+
+                                   CONSTRAINT PK_CATALOG_TOMBSTONE PRIMARY KEY (KIND, ENTITY_ID)
+);
+
+CREATE INDEX IX_TOMBSTONE_REVISION ON CATALOG_TOMBSTONE (REVISION, KIND, ENTITY_ID);
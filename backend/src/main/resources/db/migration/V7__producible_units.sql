@@ -0,0 +1,9 @@
+-- Units of each product the current stock covers and the feedstock that limits it, maintained by
+-- ProducibleUnitsService. The first refresh after start fills them in.
+ALTER TABLE PRODUCT ADD (
+    MAX_PRODUCIBLE_UNITS     NUMBER(19) DEFAULT 0 NOT NULL,
+    ID_BOTTLENECK_FEEDSTOCK  NUMBER
+);
+
+-- GET /products?producible=true&sort=maxUnits walks this index backwards from the top.
+CREATE INDEX IX_PRODUCT_MAX_UNITS_ID ON PRODUCT (MAX_PRODUCIBLE_UNITS, ID_PRODUCT);
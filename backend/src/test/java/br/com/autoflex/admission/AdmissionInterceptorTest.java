@@ -0,0 +1,102 @@
+package br.com.autoflex.admission;
+
+import jakarta.interceptor.InvocationContext;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AdmissionInterceptorTest {
+
+    @Test
+    void admit_runsTheCallAndGivesThePermitBack() throws Exception {
+        AdmissionInterceptor interceptor = interceptor(control(true, 1));
+        InvocationContext ctx = mock(InvocationContext.class);
+        when(ctx.proceed()).thenReturn("ok");
+
+        assertEquals("ok", interceptor.admit(ctx));
+        assertEquals("ok", interceptor.admit(ctx));
+        assertEquals(0, interceptor.admission.rejected());
+    }
+
+    @Test
+    void admit_rejectsWith503_whenNoPermitFreesUpInTime() throws Exception {
+        AdmissionControl control = control(true, 1);
+        AdmissionInterceptor interceptor = interceptor(control);
+        assertTrue(control.tryAcquire());
+
+        InvocationContext ctx = mock(InvocationContext.class);
+        ServiceUnavailableException e = assertThrows(ServiceUnavailableException.class, () -> interceptor.admit(ctx));
+
+        assertEquals(503, e.getResponse().getStatus());
+        assertEquals("1", e.getResponse().getHeaderString("Retry-After"));
+        assertEquals(1, control.rejected());
+        verify(ctx, never()).proceed();
+    }
+
+    @Test
+    void admit_releasesThePermit_whenTheCallFails() throws Exception {
+        AdmissionControl control = control(true, 1);
+        AdmissionInterceptor interceptor = interceptor(control);
+        InvocationContext ctx = mock(InvocationContext.class);
+        when(ctx.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> interceptor.admit(ctx));
+
+        assertTrue(control.tryAcquire());
+    }
+
+    @Test
+    void admit_holdsThePermitUntilAStreamedBodyIsWritten() throws Exception {
+        AdmissionControl control = control(true, 1);
+        AdmissionInterceptor interceptor = interceptor(control);
+        InvocationContext ctx = mock(InvocationContext.class);
+        StreamingOutput body = out -> out.write('x');
+        when(ctx.proceed()).thenReturn(Response.ok(body).header("Content-Disposition", "attachment").build());
+
+        Response response = (Response) interceptor.admit(ctx);
+        assertEquals("attachment", response.getHeaderString("Content-Disposition"));
+        assertFalse(control.tryAcquire());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+
+        assertEquals("x", out.toString());
+        assertTrue(control.tryAcquire());
+    }
+
+    @Test
+    void admit_passesStraightThrough_whenDisabled() throws Exception {
+        AdmissionControl control = control(false, 1);
+        AdmissionInterceptor interceptor = interceptor(control);
+        assertTrue(control.tryAcquire());
+
+        InvocationContext ctx = mock(InvocationContext.class);
+        when(ctx.proceed()).thenReturn("ok");
+
+        assertEquals("ok", interceptor.admit(ctx));
+    }
+
+    private static AdmissionControl control(boolean enabled, int permits) {
+        AdmissionControl control = new AdmissionControl();
+        control.enabled = enabled;
+        control.permits = Optional.of(permits);
+        control.timeout = Duration.ofMillis(20);
+        control.init();
+        return control;
+    }
+
+    private static AdmissionInterceptor interceptor(AdmissionControl control) {
+        AdmissionInterceptor interceptor = new AdmissionInterceptor();
+        interceptor.admission = control;
+        return interceptor;
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.autoflex.bom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BomSnapshotTest {
+
+    private BomSnapshot sample() {
+        BomSnapshot.Builder b = BomSnapshot.builder(2, 2, 3)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 5_000_000L)
+                .addProduct(1L, "P001", "Barato", 500L)
+                .addProduct(2L, "P002", "Caro", 1_000L);
+        b.addLine(1L, 10L, 1_000_000L);
+        b.addLine(1L, 11L, 2_000_000L);
+        b.addLine(2L, 10L, 3_000_000L);
+        return b.build();
+    }
+
+    @Test
+    void build_indexesLinesInBothDirections() {
+        BomSnapshot s = sample();
+
+        int steel = s.feedstockIndexOf(10L);
+        assertEquals(2, s.usageOffsets[steel + 1] - s.usageOffsets[steel]);
+        assertEquals(3, s.lineCount());
+        assertArrayEquals(new int[]{s.productIndexOf(2L), s.productIndexOf(1L)}, s.priceOrder);
+    }
+
+    @Test
+    void apply_replacesLinesAndLeavesReceiverUntouched() {
+        BomSnapshot s = sample();
+
+        BomSnapshot next = s.apply(new BomDelta().upsertProduct(new BomDelta.ProductUpsert(
+                1L, "P001", "Barato", 500L, new long[]{11L}, new long[]{4_000_000L})));
+
+        int p = next.productIndexOf(1L);
+        assertEquals(1, next.lineOffsets[p + 1] - next.lineOffsets[p]);
+        assertEquals(4_000_000L, next.lineQuantities[next.lineOffsets[p]]);
+        assertEquals(2, next.lineCount());
+        assertSame(s.priceOrder, next.priceOrder);
+
+        assertEquals(3, s.lineCount());
+    }
+
+    @Test
+    void apply_keepsDeletedRowsAsTombstones() {
+        BomSnapshot s = sample();
+        int dense = s.productIndexOf(2L);
+
+        BomSnapshot next = s.apply(new BomDelta().deleteProduct(2L));
+
+        assertEquals(-1, next.productIndexOf(2L));
+        assertFalse(next.productAlive[dense]);
+        assertEquals(1, next.liveProductCount());
+        assertEquals(2, next.lineCount());
+
+        int steel = next.feedstockIndexOf(10L);
+        assertEquals(1, next.usageOffsets[steel + 1] - next.usageOffsets[steel]);
+    }
+
+    @Test
+    void apply_appendsNewFeedstocksAndProducts() {
+        BomSnapshot s = sample();
+
+        BomSnapshot next = s.apply(new BomDelta()
+                .upsertFeedstock(new BomDelta.FeedstockUpsert(12L, "F012", "Cola", "L", 1_000_000L))
+                .upsertProduct(new BomDelta.ProductUpsert(3L, "P003", "Novo", 2_000L,
+                        new long[]{12L}, new long[]{500_000L})));
+
+        assertEquals(3, next.productCount);
+        assertEquals(3, next.feedstockCount);
+        assertEquals(3L, next.productIds[next.priceOrder[0]]);
+        assertEquals(-1, s.productIndexOf(3L));
+    }
+
+    @Test
+    void apply_stockAdjustmentsShareEverythingButStock() {
+        BomSnapshot s = sample();
+
+        BomSnapshot next = s.apply(new BomDelta()
+                .adjustStock(10L, -3_000_000L)
+                .adjustStock(10L, -1_000_000L)
+                .adjustStock(99L, -1L));
+
+        assertEquals(6_000_000L, next.stocks[next.feedstockIndexOf(10L)]);
+        assertEquals(5_000_000L, next.stocks[next.feedstockIndexOf(11L)]);
+        assertEquals(10_000_000L, s.stocks[s.feedstockIndexOf(10L)]);
+        assertEquals(s.version + 1, next.version);
+        assertSame(s.lineFeedstocks, next.lineFeedstocks);
+        assertSame(s.usageProducts, next.usageProducts);
+        assertSame(s.priceOrder, next.priceOrder);
+    }
+
+    @Test
+    void apply_stockAdjustmentsFollowUpsertsInTheSameDelta() {
+        BomSnapshot next = sample().apply(new BomDelta()
+                .upsertFeedstock(new BomDelta.FeedstockUpsert(11L, "F011", "Tinta", "L", 8_000_000L))
+                .adjustStock(11L, -500_000L));
+
+        assertEquals(7_500_000L, next.stocks[next.feedstockIndexOf(11L)]);
+    }
+
+    @Test
+    void apply_upsertWithoutStockKeepsTheCurrentStock() {
+        BomSnapshot s = sample();
+        int f = s.feedstockIndexOf(11L);
+
+        BomSnapshot next = s.apply(new BomDelta()
+                .upsertFeedstock(new BomDelta.FeedstockUpsert(11L, "F011", "Tinta azul", "L", null))
+                .adjustStock(11L, 1_000_000L));
+
+        assertEquals("Tinta azul", next.feedstockNames[next.feedstockIndexOf(11L)]);
+        assertEquals(s.stocks[f] + 1_000_000L, next.stocks[next.feedstockIndexOf(11L)]);
+    }
+}
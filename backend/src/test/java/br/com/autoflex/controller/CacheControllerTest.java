@@ -0,0 +1,44 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.dto.CacheDtos;
+import br.com.autoflex.service.CacheStatsService;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class CacheControllerTest {
+
+    @InjectMock
+    CacheStatsService service;
+
+    @Test
+    void stats_returnsCounters() {
+        CacheDtos.Region region = new CacheDtos.Region();
+        region.name = "br.com.autoflex.entity.Product";
+        region.hitCount = 7;
+
+        CacheDtos.Stats stats = new CacheDtos.Stats();
+        stats.hitCount = 7;
+        stats.missCount = 1;
+        stats.evictions = 2;
+        stats.regions = List.of(region);
+        when(service.stats()).thenReturn(stats);
+
+        given()
+          .when().get("/cache/stats")
+          .then()
+            .statusCode(200)
+            .body("hitCount", is(7))
+            .body("evictions", is(2))
+            .body("regions[0].name", is("br.com.autoflex.entity.Product"));
+    }
+}
@@ -0,0 +1,152 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.dto.ChangeDtos;
+import br.com.autoflex.service.RevisionClock;
+import br.com.autoflex.testing.H2TestProfile;
+import br.com.autoflex.testing.SqlBudget;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.JsonPath;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Revisions, tombstones and the change feed against a real database. */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class ChangeFeedTest {
+
+    @Inject
+    RevisionClock clock;
+
+    @Inject
+    ChangeController changes;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+    }
+
+    @Test
+    void changes_followCreatesStockMovementsAndDeletes() {
+        long start = clock.stable();
+
+        Integer feedstockId = createFeedstock("FEED-1", 10);
+        Integer productId = createProduct("FEED-1", feedstockId);
+
+        JsonPath created = pull(start);
+        long afterCreate = created.getLong("revision");
+        assertTrue(afterCreate > start);
+        assertFalse(created.getBoolean("hasMore"));
+        assertEquals(List.of(productId), created.getList("products.id"));
+        assertEquals(List.of(feedstockId), created.getList("products[0].feedstocks.id"));
+        assertEquals(List.of(feedstockId), created.getList("feedstocks.id"));
+        assertNull(created.get("feedstocks[0].products"));
+
+        given()
+          .contentType("application/json")
+          .body("{\"movements\":[{\"feedstockId\":" + feedstockId + ",\"kind\":\"RECEIPT\",\"quantity\":5}]}")
+          .when().post("/feedstock-movements")
+          .then().statusCode(201);
+
+        JsonPath received = pull(afterCreate);
+        assertEquals(List.of(), received.getList("products"));
+        assertEquals(List.of(feedstockId), received.getList("feedstocks.id"));
+        assertEquals(15.0, received.getDouble("feedstocks[0].stock"));
+
+        given().when().delete("/products/" + productId).then().statusCode(204);
+
+        JsonPath deleted = pull(received.getLong("revision"));
+        assertEquals(List.of(productId), deleted.getList("deletedProducts"));
+        assertEquals(List.of(), deleted.getList("products"));
+
+        JsonPath idle = pull(deleted.getLong("revision"));
+        assertEquals(deleted.getLong("revision"), idle.getLong("revision"));
+        assertEquals(List.of(), idle.getList("products"));
+        assertEquals(List.of(), idle.getList("deletedProducts"));
+    }
+
+    @Test
+    void changes_reportBomEditsOnTheProduct() {
+        Integer first = createFeedstock("FEED-2A", 1);
+        Integer second = createFeedstock("FEED-2B", 1);
+        Integer productId = createProduct("FEED-2", first);
+        long before = clock.stable();
+
+        given()
+          .contentType("application/json")
+          .body("{\"productCode\":\"FEED-2-P\",\"name\":\"Produto\",\"unitPrice\":0.01,"
+                  + "\"feedstocks\":[{\"feedstockId\":" + second + ",\"quantity\":3}]}")
+          .when().put("/products/" + productId)
+          .then().statusCode(200);
+
+        JsonPath edited = pull(before);
+        assertEquals(List.of(productId), edited.getList("products.id"));
+        assertEquals(List.of(second), edited.getList("products[0].feedstocks.id"));
+        assertEquals(List.of(), edited.getList("feedstocks"));
+    }
+
+    @Test
+    void poll_coalescesPendingChanges_andIsFreeWhenIdle() {
+        AtomicLong cursor = new AtomicLong(clock.stable());
+        createFeedstock("FEED-3A", 1);
+        createFeedstock("FEED-3B", 1);
+
+        List<ChangeDtos.Batch> batches = changes.poll(cursor);
+
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).feedstocks.size());
+        assertEquals(batches.get(0).revision, cursor.get());
+
+        SqlBudget.assertAtMost(0, "idle poll", () -> assertEquals(List.of(), changes.poll(cursor)));
+    }
+
+    @Test
+    void invalidSince_isRejected() {
+        given().queryParam("since", -1).when().get("/changes").then().statusCode(400);
+    }
+
+    private static JsonPath pull(long since) {
+        return given()
+          .queryParam("since", since)
+          .when().get("/changes")
+          .then().statusCode(200).body("since", notNullValue())
+          .extract().jsonPath();
+    }
+
+    private static Integer createFeedstock(String code, int stock) {
+        return given()
+          .contentType("application/json")
+          .body("{\"feedstockCode\":\"" + code + "\",\"name\":\"Insumo\",\"stock\":" + stock + ",\"unitOfMeasure\":\"UN\"}")
+          .when().post("/feedstocks")
+          .then().statusCode(201)
+          .extract().jsonPath().getInt("id");
+    }
+
+    // Priced low so it sorts last in product lists shared with other tests.
+    private static Integer createProduct(String code, Integer feedstockId) {
+        return given()
+          .contentType("application/json")
+          .body("{\"productCode\":\"" + code + "-P\",\"name\":\"Produto\",\"unitPrice\":0.01,"
+                  + "\"feedstocks\":[{\"feedstockId\":" + feedstockId + ",\"quantity\":2}]}")
+          .when().post("/products")
+          .then().statusCode(201)
+          .extract().jsonPath().getInt("id");
+    }
+}
@@ -1,10 +1,15 @@
 package br.com.autoflex.controller;
 
+import br.com.autoflex.bom.BomSnapshot;
 import br.com.autoflex.dto.FeedstockDtos;
 import br.com.autoflex.entity.Feedstock;
 import br.com.autoflex.entity.Product;
 import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.planning.ImpactAnalyzer;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.FeedstockRow;
 import br.com.autoflex.service.FeedstockService;
+import br.com.autoflex.service.ProductionPlanService;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
@@ -20,6 +25,7 @@ import org.mockito.ArgumentMatchers;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static io.restassured.RestAssured.given;
@@ -35,6 +41,9 @@ class FeedstockControllerTest {
     @InjectMock
     FeedstockService service;
 
+    @InjectMock
+    ProductionPlanService planning;
+
     @BeforeEach
     void setup() {
         RestAssured.config = RestAssuredConfig.config()
@@ -76,11 +85,9 @@ class FeedstockControllerTest {
         @SuppressWarnings("unchecked")
         PanacheQuery<Feedstock> query = mock(PanacheQuery.class);
 
-        Feedstock f1 = feedstockWithOneProduct(1L);
-        Feedstock f2 = feedstockWithOneProduct(2L);
-
         when(service.list(eq("a"), eq(0), eq(20))).thenReturn(query);
-        when(query.list()).thenReturn(List.of(f1, f2));
+        when(service.rows(query)).thenReturn(List.of(feedstockRow(1L), feedstockRow(2L)));
+        when(service.linesByFeedstock(List.of(1L, 2L))).thenReturn(Map.of(1L, List.of(lineRow(1L))));
         when(query.count()).thenReturn(2L);
         when(query.page()).thenReturn(Page.of(0, 20));
 
@@ -94,9 +101,40 @@ class FeedstockControllerTest {
             .body("page", is(0))
             .body("size", is(20))
             .body("total", is(2))
-            .body("items", hasSize(2));
+            .body("items", hasSize(2))
+            .body("items[0].products", hasSize(1))
+            .body("items[0].products[0].productCode", is("P001"))
+            .body("items[1].products", hasSize(0));
 
         verify(service).list("a", 0, 20);
+        verify(service).linesByFeedstock(List.of(1L, 2L));
+    }
+
+    @Test
+    void list_countModeNone_skipsCountAndReportsHasMore() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Feedstock> query = mock(PanacheQuery.class);
+
+        when(service.list(eq("a"), eq(0), eq(2))).thenReturn(query);
+        when(service.rowsWithLookahead(query))
+                .thenReturn(List.of(feedstockRow(1L), feedstockRow(2L), feedstockRow(3L)));
+        when(service.linesByFeedstock(List.of(1L, 2L))).thenReturn(Map.of());
+        when(query.page()).thenReturn(Page.of(0, 2));
+
+        given()
+          .queryParam("q", "a")
+          .queryParam("size", 2)
+          .queryParam("countMode", "none")
+          .when().get("/feedstocks")
+          .then()
+            .statusCode(200)
+            .body("total", nullValue())
+            .body("hasMore", is(true))
+            .body("items", hasSize(2))
+            .body("nextCursor", notNullValue());
+
+        verify(query, never()).count();
+        verify(service, never()).rows(query);
     }
 
     @Test
@@ -142,6 +180,18 @@ class FeedstockControllerTest {
         verify(service).update(eq(77L), ArgumentMatchers.any(FeedstockDtos.UpdateRequest.class));
     }
 
+    @Test
+    void update_rejectsMissingStock() {
+        given()
+          .contentType("application/json")
+          .body("{ \"feedstockCode\":\"F077\", \"name\":\"X\", \"unitOfMeasure\":\"KG\" }")
+          .when().put("/feedstocks/77")
+          .then()
+            .statusCode(400);
+
+        verify(service, never()).update(anyLong(), ArgumentMatchers.any());
+    }
+
     @Test
     void delete_returns204_whenDeleted() {
         when(service.delete(5L)).thenReturn(true);
@@ -154,6 +204,81 @@ class FeedstockControllerTest {
         verify(service).delete(5L);
     }
 
+    private FeedstockRow feedstockRow(Long id) {
+        return new FeedstockRow(id, "F010", "Aço", new BigDecimal("250.5"), BigDecimal.ZERO, "KG");
+    }
+
+    @Test
+    void impact_returnsAffectedProductsSortedByRevenueLost() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(2, 1, 2)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addProduct(1L, "P001", "Barato", 500L)
+                .addProduct(2L, "P002", "Caro", 1_000L);
+        builder.addLine(1L, 10L, 1_000_000L);
+        builder.addLine(2L, 10L, 2_000_000L);
+        BomSnapshot bom = builder.build();
+
+        when(planning.impact(eq(10L), ArgumentMatchers.any()))
+                .thenReturn(ImpactAnalyzer.analyze(bom, bom.feedstockIndexOf(10L), 2_000_000L));
+
+        given()
+          .queryParam("stock", 2)
+          .queryParam("limit", 1)
+          .when().get("/feedstocks/10/impact")
+          .then()
+            .statusCode(200)
+            .body("feedstockCode", is("F010"))
+            .body("stock", is(10.0))
+            .body("simulatedStock", is(2.0))
+            .body("affectedProducts", is(2.0))
+            .body("revenueDelta", is(-80.0))
+            .body("items", hasSize(1))
+            .body("items[0].productCode", is("P001"))
+            .body("items[0].unitsBefore", is(10.0))
+            .body("items[0].unitsAfter", is(2.0))
+            .body("items[0].revenueDelta", is(-40.0))
+            .body("items[0].bottleneck", is(true));
+
+        verify(planning).impact(10L, new BigDecimal("2"));
+    }
+
+    @Test
+    void impact_returns404_whenFeedstockUnknown() {
+        when(planning.impact(anyLong(), ArgumentMatchers.any())).thenReturn(null);
+
+        given()
+          .queryParam("stock", 1)
+          .when().get("/feedstocks/999/impact")
+          .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void impact_rejectsNegativeStock() {
+        given()
+          .queryParam("stock", -1)
+          .when().get("/feedstocks/10/impact")
+          .then()
+            .statusCode(400);
+
+        verifyNoInteractions(planning);
+    }
+
+    @Test
+    void impact_rejectsMissingStock() {
+        given()
+          .when().get("/feedstocks/10/impact")
+          .then()
+            .statusCode(400);
+
+        verifyNoInteractions(planning);
+    }
+
+    private BomLineRow lineRow(Long feedstockId) {
+        return new BomLineRow(1L, "P001", "Produto", new BigDecimal("10.00"),
+                feedstockId, "F010", "Aço", new BigDecimal("250.5"), new BigDecimal("0.250"));
+    }
+
     private Feedstock feedstockWithOneProduct(Long id) {
         Feedstock f = new Feedstock();
         f.id = id;
@@ -0,0 +1,232 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.service.BomSnapshotService;
+import br.com.autoflex.service.StockCompactor;
+import br.com.autoflex.testing.H2TestProfile;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Stock ledger, compaction and stock-as-of against a real database. */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class FeedstockLedgerTest {
+
+    @Inject
+    EntityManager em;
+
+    @Inject
+    StockCompactor compactor;
+
+    @Inject
+    BomSnapshotService bom;
+
+    @TestHTTPResource("/")
+    URI root;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+    }
+
+    @Test
+    void movements_countBeforeCompaction_andCompactionKeepsTheTotal() throws Exception {
+        Long id = createFeedstock("LEDGER-1", 10);
+        Instant beforeMovements = Instant.now();
+        Thread.sleep(5);
+
+        record(id, "RECEIPT", "5").then().statusCode(201).body("[0].kind", is("RECEIPT"));
+        record(id, "ADJUSTMENT", "-2").then().statusCode(201);
+
+        given().when().get("/feedstocks/" + id).then().statusCode(200).body("stock", is(13.0));
+        assertEquals(0, new BigDecimal("10").compareTo(snapshot(id)));
+
+        given().queryParam("asOf", beforeMovements.toString())
+          .when().get("/feedstocks/" + id + "/stock")
+          .then().statusCode(200).body("stock", is(10.0));
+
+        assertTrue(compactor.compactAll() >= 2);
+
+        assertEquals(0, new BigDecimal("13").compareTo(snapshot(id)));
+        given().when().get("/feedstocks/" + id).then().statusCode(200).body("stock", is(13.0));
+        given().queryParam("asOf", beforeMovements.toString())
+          .when().get("/feedstocks/" + id + "/stock")
+          .then().statusCode(200).body("stock", is(10.0));
+        assertEquals(0, compactor.compactAll());
+    }
+
+    @Test
+    void update_turnsStockIntoAnAdjustment() {
+        Long id = createFeedstock("LEDGER-2", 10);
+
+        given()
+          .contentType("application/json")
+          .body("{\"feedstockCode\":\"LEDGER-2\",\"name\":\"Insumo\",\"stock\":4,\"unitOfMeasure\":\"UN\"}")
+          .when().put("/feedstocks/" + id)
+          .then().statusCode(200).body("stock", is(4.0));
+
+        assertEquals(0, new BigDecimal("10").compareTo(snapshot(id)));
+        given().when().get("/feedstocks/" + id).then().body("stock", is(4.0));
+
+        compactor.compactAll();
+        assertEquals(0, new BigDecimal("4").compareTo(snapshot(id)));
+    }
+
+    @Test
+    void concurrentUpdatesAndReceipts_keepTheSnapshotEqualToTheDatabase() throws Exception {
+        Long id = createFeedstock("LEDGER-5", 10);
+        bom.current();
+
+        HttpClient http = HttpClient.newHttpClient();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < 40; i++) {
+                HttpRequest request = i % 2 == 0
+                        ? HttpRequest.newBuilder(root.resolve("feedstocks/" + id))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString("{\"feedstockCode\":\"LEDGER-5\","
+                                    + "\"name\":\"Insumo\",\"stock\":" + (100 + i) + ",\"unitOfMeasure\":\"UN\"}"))
+                            .build()
+                        : HttpRequest.newBuilder(root.resolve("feedstock-movements"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"movements\":[{\"feedstockId\":" + id
+                                    + ",\"kind\":\"RECEIPT\",\"quantity\":1}]}"))
+                            .build();
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> f : statuses) {
+                assertTrue(f.get() < 300);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BigDecimal stored = QuarkusTransaction.requiringNew().call(() -> {
+            Feedstock f = em.find(Feedstock.class, id);
+            return f.stock.add(f.pendingStock);
+        });
+        BomSnapshot snapshot = bom.current();
+        assertEquals(0, stored.compareTo(Quantities.fromMicros(snapshot.stocks[snapshot.feedstockIndexOf(id)])));
+    }
+
+    @Test
+    void productionOrder_canConsumeStockThatIsStillInTheTail() {
+        Long feedstockId = createFeedstock("LEDGER-3", 10);
+        Long productId = createProduct("LEDGER-3", feedstockId, new BigDecimal("12"));
+
+        order(productId).then().statusCode(409).body("shortfalls[0].available", is(10.0));
+
+        record(feedstockId, "RECEIPT", "5").then().statusCode(201);
+        order(productId).then().statusCode(201);
+
+        given().when().get("/feedstocks/" + feedstockId).then().body("stock", is(3.0));
+        compactor.compactAll();
+        given().when().get("/feedstocks/" + feedstockId).then().body("stock", is(3.0));
+    }
+
+    @Test
+    void invalidMovements_areRejected() {
+        Long id = createFeedstock("LEDGER-4", 1);
+
+        record(id, "RECEIPT", "-1").then().statusCode(400);
+        record(id, "ADJUSTMENT", "0").then().statusCode(400);
+        record(id, "CONSUMPTION", "-1").then().statusCode(400);
+        record(999_999L, "RECEIPT", "1").then().statusCode(404);
+        given().queryParam("asOf", "yesterday").when().get("/feedstocks/" + id + "/stock").then().statusCode(400);
+        given().when().get("/feedstocks/999999/stock").then().statusCode(404);
+    }
+
+    private Long createFeedstock(String code, int stock) {
+        return given()
+          .contentType("application/json")
+          .body("{\"feedstockCode\":\"" + code + "\",\"name\":\"Insumo\",\"stock\":" + stock + ",\"unitOfMeasure\":\"UN\"}")
+          .when().post("/feedstocks")
+          .then().statusCode(201)
+          .extract().jsonPath().getLong("id");
+    }
+
+    // Priced low so it sorts last in product lists shared with other tests.
+    private Long createProduct(String code, Long feedstockId, BigDecimal quantity) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Product p = new Product();
+            p.productCode = code + "-P";
+            p.name = "Produto " + code;
+            p.unitPrice = new BigDecimal("0.01");
+            em.persist(p);
+
+            ProductFeedstock pf = new ProductFeedstock();
+            pf.id = new ProductFeedstockId(p.id, feedstockId);
+            pf.product = p;
+            pf.feedstock = em.getReference(Feedstock.class, feedstockId);
+            pf.quantity = quantity;
+            em.persist(pf);
+            return p.id;
+        });
+    }
+
+    private static io.restassured.response.Response record(Long feedstockId, String kind, String quantity) {
+        return given()
+          .contentType("application/json")
+          .body("{\"movements\":[{\"feedstockId\":" + feedstockId + ",\"kind\":\"" + kind
+                + "\",\"quantity\":" + quantity + "}]}")
+          .when().post("/feedstock-movements");
+    }
+
+    private static io.restassured.response.Response order(Long productId) {
+        return given()
+          .contentType("application/json")
+          .body("{\"productId\":" + productId + ",\"units\":1}")
+          .when().post("/production-orders");
+    }
+
+    private BigDecimal snapshot(Long id) {
+        return QuarkusTransaction.requiringNew().call(() -> em
+                .createQuery("select f.stock from Feedstock f where f.id = :id", BigDecimal.class)
+                .setParameter("id", id)
+                .getSingleResult());
+    }
+}
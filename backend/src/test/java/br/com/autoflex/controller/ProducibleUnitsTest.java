@@ -0,0 +1,139 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.service.ProducibleUnitsService;
+import br.com.autoflex.testing.H2TestProfile;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import io.restassured.path.json.JsonPath;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The persisted producible units, refreshed by hand, and the list that sorts and filters on them. */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class ProducibleUnitsTest {
+
+    @Inject
+    ProducibleUnitsService producible;
+
+    @Test
+    void refresh_followsStockAndBomChanges() {
+        Integer steel = createFeedstock("UNITS-1A", 10);
+        Integer screw = createFeedstock("UNITS-1B", 30);
+        Integer productId = createProduct("UNITS-1", "[{\"feedstockId\":" + steel + ",\"quantity\":2},"
+                + "{\"feedstockId\":" + screw + ",\"quantity\":5}]");
+        producible.refresh();
+
+        JsonPath product = get(productId);
+        assertEquals(5, product.getLong("maxProducibleUnits"));
+        assertEquals(steel.longValue(), product.getLong("bottleneckFeedstockId"));
+
+        receive(steel, 10);
+        assertTrue(producible.refresh() >= 1);
+
+        product = get(productId);
+        assertEquals(6, product.getLong("maxProducibleUnits"));
+        assertEquals(screw.longValue(), product.getLong("bottleneckFeedstockId"));
+
+        given()
+          .contentType("application/json")
+          .body("{\"productCode\":\"UNITS-1-P\",\"name\":\"Produto\",\"unitPrice\":0.01,"
+                  + "\"feedstocks\":[{\"feedstockId\":" + steel + ",\"quantity\":40}]}")
+          .when().put("/products/" + productId)
+          .then().statusCode(200);
+        producible.refresh();
+
+        product = get(productId);
+        assertEquals(0, product.getLong("maxProducibleUnits"));
+        assertEquals(steel.longValue(), product.getLong("bottleneckFeedstockId"));
+        assertEquals(0, producible.refresh());
+    }
+
+    @Test
+    void list_producibleOnly_sortsByUnitsAndPagesByCursor() {
+        Integer feedstockId = createFeedstock("UNITS-2", 12);
+        Integer many = createProduct("UNITS-2A", "[{\"feedstockId\":" + feedstockId + ",\"quantity\":1}]");
+        Integer few = createProduct("UNITS-2B", "[{\"feedstockId\":" + feedstockId + ",\"quantity\":4}]");
+        Integer none = createProduct("UNITS-2C", "[{\"feedstockId\":" + feedstockId + ",\"quantity\":13}]");
+        producible.refresh();
+
+        JsonPath page = given()
+          .queryParam("producible", true)
+          .queryParam("sort", "maxUnits")
+          .queryParam("size", 100)
+          .when().get("/products")
+          .then().statusCode(200)
+          .extract().jsonPath();
+
+        List<Integer> ids = page.getList("items.id", Integer.class);
+        List<Long> units = page.getList("items.maxProducibleUnits", Long.class);
+        assertTrue(ids.indexOf(many) < ids.indexOf(few));
+        assertFalse(ids.contains(none));
+        assertTrue(units.stream().allMatch(u -> u > 0));
+        for (int i = 1; i < units.size(); i++) assertTrue(units.get(i - 1) >= units.get(i));
+        assertEquals(ids.size(), page.getInt("total"));
+
+        JsonPath first = given()
+          .queryParam("producible", true)
+          .queryParam("sort", "maxUnits")
+          .queryParam("size", 1)
+          .queryParam("cursor", "")
+          .when().get("/products")
+          .then().statusCode(200)
+          .extract().jsonPath();
+        JsonPath second = given()
+          .queryParam("producible", true)
+          .queryParam("sort", "maxUnits")
+          .queryParam("size", 1)
+          .queryParam("cursor", first.getString("nextCursor"))
+          .when().get("/products")
+          .then().statusCode(200)
+          .extract().jsonPath();
+        assertEquals(ids.subList(0, 2), List.of(first.getInt("items[0].id"), second.getInt("items[0].id")));
+    }
+
+    @Test
+    void list_rejectsUnknownSort() {
+        given().queryParam("sort", "stock").when().get("/products").then().statusCode(400);
+    }
+
+    private static JsonPath get(Integer productId) {
+        return given().when().get("/products/" + productId).then().statusCode(200).extract().jsonPath();
+    }
+
+    private static void receive(Integer feedstockId, int quantity) {
+        given()
+          .contentType("application/json")
+          .body("{\"movements\":[{\"feedstockId\":" + feedstockId + ",\"kind\":\"RECEIPT\",\"quantity\":" + quantity + "}]}")
+          .when().post("/feedstock-movements")
+          .then().statusCode(201);
+    }
+
+    private static Integer createFeedstock(String code, int stock) {
+        return given()
+          .contentType("application/json")
+          .body("{\"feedstockCode\":\"" + code + "\",\"name\":\"Insumo\",\"stock\":" + stock + ",\"unitOfMeasure\":\"UN\"}")
+          .when().post("/feedstocks")
+          .then().statusCode(201)
+          .extract().jsonPath().getInt("id");
+    }
+
+    private static Integer createProduct(String code, String feedstocks) {
+        return given()
+          .contentType("application/json")
+          .body("{\"productCode\":\"" + code + "-P\",\"name\":\"Produto\",\"unitPrice\":0.01,"
+                  + "\"feedstocks\":" + feedstocks + "}")
+          .when().post("/products")
+          .then().statusCode(201)
+          .extract().jsonPath().getInt("id");
+    }
+}
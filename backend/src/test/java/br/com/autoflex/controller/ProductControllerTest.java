@@ -4,6 +4,11 @@ import br.com.autoflex.dto.ProductDtos;
 import br.com.autoflex.entity.Feedstock;
 import br.com.autoflex.entity.Product;
 import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.ProductRepository.Listing;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.ProductRow;
+import br.com.autoflex.service.ExportService;
 import br.com.autoflex.service.ProductService;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
@@ -19,8 +24,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 
+import jakarta.ws.rs.core.StreamingOutput;
+
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static io.restassured.RestAssured.given;
@@ -35,6 +44,9 @@ class ProductControllerTest {
     @InjectMock
     ProductService service;
 
+    @InjectMock
+    ExportService exporter;
+
     @BeforeEach
     void setup() {
         RestAssured.config = RestAssuredConfig.config()
@@ -51,6 +63,32 @@ class ProductControllerTest {
             .statusCode(404);
     }
 
+    @Test
+    void export_streamsCsvAsAttachment() {
+        StreamingOutput body = out -> out.write("productCode,name\nP001,A\n".getBytes(StandardCharsets.UTF_8));
+        when(exporter.exportProducts(ExportService.Format.CSV)).thenReturn(body);
+
+        given()
+          .queryParam("format", "csv")
+          .when().get("/products/export")
+          .then()
+            .statusCode(200)
+            .contentType(startsWith("text/csv"))
+            .header("Content-Disposition", containsString("products.csv"))
+            .body(is("productCode,name\nP001,A\n"));
+    }
+
+    @Test
+    void export_rejectsUnknownFormat() {
+        given()
+          .queryParam("format", "xml")
+          .when().get("/products/export")
+          .then()
+            .statusCode(400);
+
+        verifyNoInteractions(exporter);
+    }
+
     @Test
     void getOne_returnsProductWithFeedstocks_whenFound() {
         Product p = productWithOneFeedstock(1L);
@@ -69,10 +107,10 @@ class ProductControllerTest {
     void list_returnsPagedResponse_defaultSearchTypeProduct() {
         @SuppressWarnings("unchecked")
         PanacheQuery<Product> query = mock(PanacheQuery.class);
-        Product p1 = productWithOneFeedstock(1L);
 
-        when(service.list(any(), any(), any(), any())).thenReturn(query);
-        when(query.list()).thenReturn(List.of(p1));
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of(productRow(1L)));
+        when(service.linesByProduct(List.of(1L))).thenReturn(Map.of(1L, List.of(lineRow(1L))));
         when(query.count()).thenReturn(1L);
         when(query.page()).thenReturn(Page.of(0, 20));
 
@@ -83,19 +121,127 @@ class ProductControllerTest {
           .when().get("/products")
           .then()
             .statusCode(200)
-            .body("total", is(1));
+            .body("total", is(1))
+            .body("items", hasSize(1))
+            .body("items[0].productCode", is("P001"))
+            .body("items[0].feedstocks[0].feedstockCode", is("F010"))
+            .body("items[0].feedstocks[0].quantity", is(0.250));
+
+        verify(service).list(eq("a"), isNull(), eq(0), eq(20), eq(Listing.DEFAULT));
+        verify(service).linesByProduct(List.of(1L));
+    }
+
+    @Test
+    void list_trimsSearchTermForQueryAndCount() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of());
+        when(query.count()).thenReturn(0L);
+        when(query.page()).thenReturn(Page.of(0, 20));
+
+        given()
+          .queryParam("q", "  a ")
+          .queryParam("page", 0)
+          .queryParam("size", 20)
+          .when().get("/products")
+          .then()
+            .statusCode(200)
+            .body("total", is(0));
+
+        verify(service).list(eq("a"), isNull(), eq(0), eq(20), eq(Listing.DEFAULT));
+    }
+
+    @Test
+    void list_rejectsUnknownCountMode() {
+        given()
+          .queryParam("countMode", "approximate")
+          .when().get("/products")
+          .then()
+            .statusCode(400);
+
+        verify(service, never()).list(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void list_withFields_writesOnlySelectedPropertiesAndSkipsLines() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of(productRow(1L)));
+        when(query.count()).thenReturn(1L);
+        when(query.page()).thenReturn(Page.of(0, 20));
+
+        given()
+          .queryParam("fields", "productCode,name")
+          .when().get("/products")
+          .then()
+            .statusCode(200)
+            .body("items[0].productCode", is("P001"))
+            .body("items[0].name", is("Produto"))
+            .body("items[0]", not(hasKey("id")))
+            .body("items[0]", not(hasKey("unitPrice")))
+            .body("items[0]", not(hasKey("feedstocks")));
+
+        verify(service, never()).linesByProduct(anyList());
+    }
+
+    @Test
+    void list_withFieldsAndExpand_includesLines() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of(productRow(1L)));
+        when(service.linesByProduct(List.of(1L))).thenReturn(Map.of(1L, List.of(lineRow(1L))));
+        when(query.count()).thenReturn(1L);
+        when(query.page()).thenReturn(Page.of(0, 20));
+
+        given()
+          .queryParam("fields", "id")
+          .queryParam("expand", "feedstocks")
+          .when().get("/products")
+          .then()
+            .statusCode(200)
+            .body("items[0].id", is(1.0))
+            .body("items[0]", not(hasKey("productCode")))
+            .body("items[0].feedstocks[0].feedstockCode", is("F010"));
+    }
+
+    @Test
+    void list_rejectsUnknownField() {
+        given()
+          .queryParam("fields", "productCode,secret")
+          .when().get("/products")
+          .then()
+            .statusCode(400);
 
-        verify(service).list(eq("a"), isNull(), eq(0), eq(20));
+        verify(service, never()).list(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getOne_withEmptyExpand_omitsFeedstocks() {
+        when(service.getById(1L)).thenReturn(productWithOneFeedstock(1L));
+
+        given()
+          .queryParam("expand", "")
+          .when().get("/products/1")
+          .then()
+            .statusCode(200)
+            .body("productCode", is("P001"))
+            .body("unitPrice", is(10.0))
+            .body("$", not(hasKey("feedstocks")));
     }
 
     @Test
     void list_returnsPagedResponse_searchTypeFeedstock() {
         @SuppressWarnings("unchecked")
         PanacheQuery<Product> query = mock(PanacheQuery.class);
-        Product p1 = productWithOneFeedstock(1L);
 
-        when(service.list(any(), any(), any(), any())).thenReturn(query);
-        when(query.list()).thenReturn(List.of(p1));
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of(productRow(1L)));
+        when(service.linesByProduct(List.of(1L))).thenReturn(Map.of(1L, List.of(lineRow(1L))));
         when(query.count()).thenReturn(1L);
         when(query.page()).thenReturn(Page.of(0, 20));
 
@@ -109,7 +255,7 @@ class ProductControllerTest {
             .statusCode(200)
             .body("total", is(1));
 
-        verify(service).list(eq("aco"), eq("feedstock"), eq(0), eq(20));
+        verify(service).list(eq("aco"), eq("feedstock"), eq(0), eq(20), eq(Listing.DEFAULT));
     }
 
     @Test
@@ -177,6 +323,101 @@ class ProductControllerTest {
             .statusCode(404);
     }
 
+    @Test
+    void list_usesKeysetPagingWhenCursorIsGiven() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> page = mock(PanacheQuery.class);
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> counted = mock(PanacheQuery.class);
+        String cursor = PageCursor.encode(new BigDecimal("20.00"), 3L);
+
+        when(service.listAfter(any(), any(), any(), any(), any())).thenReturn(page);
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(counted);
+        when(service.rows(page)).thenReturn(List.of(productRow(1L)));
+        when(service.linesByProduct(List.of(1L))).thenReturn(Map.of());
+        when(page.page()).thenReturn(Page.ofSize(1));
+        when(counted.count()).thenReturn(40L);
+
+        given()
+          .queryParam("cursor", cursor)
+          .queryParam("size", 1)
+          .when().get("/products")
+          .then()
+            .statusCode(200)
+            .body("total", is(40))
+            .body("items", hasSize(1))
+            .body("nextCursor", is(PageCursor.encode(new BigDecimal("10.00"), 1L)));
+
+        verify(service).listAfter(isNull(), isNull(), eq(cursor), eq(1), eq(Listing.DEFAULT));
+        verify(page, never()).count();
+    }
+
+    @Test
+    void list_skipsLinesForEmptyPage() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rows(query)).thenReturn(List.of());
+        when(service.linesByProduct(List.of())).thenReturn(Map.of());
+        when(query.count()).thenReturn(0L);
+        when(query.page()).thenReturn(Page.of(3, 20));
+
+        given()
+          .queryParam("page", 3)
+          .when().get("/products")
+          .then()
+            .statusCode(200)
+            .body("total", is(0))
+            .body("items", hasSize(0));
+
+        verify(query, never()).list();
+    }
+
+    @Test
+    void batchGet_returnsItemsInRequestOrderWithNotFoundMarkers() {
+        when(service.rowsByIds(List.of(3L, 99L, 1L))).thenReturn(Map.of(1L, productRow(1L), 3L, productRow(3L)));
+        when(service.linesByProduct(anyList())).thenReturn(Map.of(1L, List.of(lineRow(1L))));
+
+        given()
+          .contentType("application/json")
+          .body("{\"ids\":[3,99,1]}")
+          .when().post("/products/batch-get")
+          .then()
+            .statusCode(200)
+            .body("found", is(2.0))
+            .body("notFound", is(1.0))
+            .body("items.id", contains(3.0, 99.0, 1.0))
+            .body("items.found", contains(true, false, true))
+            .body("items[1].item", nullValue())
+            .body("items[0].item.feedstocks", hasSize(0))
+            .body("items[2].item.feedstocks[0].quantity", is(0.250));
+
+        verify(service, times(1)).rowsByIds(anyList());
+        verify(service, times(1)).linesByProduct(anyList());
+    }
+
+    @Test
+    void batchGet_rejectsEmptyIdList() {
+        given()
+          .contentType("application/json")
+          .body("{\"ids\":[]}")
+          .when().post("/products/batch-get")
+          .then()
+            .statusCode(400);
+
+        verify(service, never()).rowsByIds(anyList());
+    }
+
+    private ProductRow productRow(Long id) {
+        return new ProductRow(id, "P001", "Produto", new BigDecimal("10.00"), 0L, null);
+    }
+
+    private BomLineRow lineRow(Long productId) {
+        return new BomLineRow(productId, "P001", "Produto", new BigDecimal("10.00"),
+                12L, "F010", "Insumo Teste", new BigDecimal("250.5"), new BigDecimal("0.250"));
+    }
+
     private Product productWithOneFeedstock(Long id) {
         Product p = new Product();
         p.id = id;
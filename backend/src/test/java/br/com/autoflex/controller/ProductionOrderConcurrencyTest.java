@@ -0,0 +1,145 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.testing.H2TestProfile;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Production orders racing for the same feedstock against a real database. */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class ProductionOrderConcurrencyTest {
+
+    private static final int STOCK = 10;
+    private static final int ORDERS = 40;
+
+    @Inject
+    EntityManager em;
+
+    @TestHTTPResource("/production-orders")
+    URI endpoint;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+    }
+
+    @Test
+    void concurrentOrders_neverOversellAndNeverLoseUpdates() throws Exception {
+        Long[] ids = seed("RACE");
+
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":" + ids[0] + ",\"units\":1}"))
+                .build();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try {
+            for (int i = 0; i < ORDERS; i++) {
+                statuses.add(pool.submit(() -> {
+                    start.await();
+                    return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<Integer> f : statuses) {
+                int status = f.get();
+                if (status == 201) created++;
+                else if (status == 409) conflicts++;
+            }
+
+            assertEquals(STOCK, created);
+            assertEquals(ORDERS - STOCK, conflicts);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        BigDecimal left = QuarkusTransaction.requiringNew().call(() -> em.find(Feedstock.class, ids[1]).stock);
+        assertEquals(0, left.signum());
+    }
+
+    @Test
+    void shortOrder_returns409WithShortfall_andLeavesStockUntouched() {
+        Long[] ids = seed("SHORT");
+
+        given()
+          .contentType("application/json")
+          .body("{\"productId\":" + ids[0] + ",\"units\":11}")
+          .when().post("/production-orders")
+          .then()
+            .statusCode(409)
+            .body("shortfalls[0].feedstockId", is(ids[1].intValue()))
+            .body("shortfalls[0].required", is(11.0))
+            .body("shortfalls[0].available", is(10.0));
+
+        BigDecimal left = QuarkusTransaction.requiringNew().call(() -> em.find(Feedstock.class, ids[1]).stock);
+        assertEquals(0, new BigDecimal(STOCK).compareTo(left));
+    }
+
+    // A product using one unit of a feedstock that holds STOCK units; priced low so it sorts last in lists.
+    private Long[] seed(String code) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            Feedstock f = new Feedstock();
+            f.feedstockCode = code + "-F";
+            f.name = "Insumo " + code;
+            f.stock = new BigDecimal(STOCK);
+            f.unitOfMeasure = "UN";
+            em.persist(f);
+
+            Product p = new Product();
+            p.productCode = code + "-P";
+            p.name = "Produto " + code;
+            p.unitPrice = new BigDecimal("0.01");
+            em.persist(p);
+
+            ProductFeedstock pf = new ProductFeedstock();
+            pf.id = new ProductFeedstockId(p.id, f.id);
+            pf.product = p;
+            pf.feedstock = f;
+            pf.quantity = BigDecimal.ONE;
+            p.feedstocks.add(pf);
+
+            return new Long[]{p.id, f.id};
+        });
+    }
+}
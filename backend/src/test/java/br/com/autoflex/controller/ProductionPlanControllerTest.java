@@ -0,0 +1,171 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.planning.GreedyPlanner;
+import br.com.autoflex.planning.OptimalPlan;
+import br.com.autoflex.planning.ProductionPlan;
+import br.com.autoflex.planning.Scenario;
+import br.com.autoflex.service.ProductionPlanService;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class ProductionPlanControllerTest {
+
+    @InjectMock
+    ProductionPlanService service;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+    }
+
+    @Test
+    void plan_returnsProducibleItemsOrderedByPrice() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(3, 1, 3)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addProduct(1L, "P001", "Barato", 500L)
+                .addProduct(2L, "P002", "Caro", 1_000L)
+                .addProduct(3L, "P003", "Sem estoque", 100L);
+        bom.addLine(2L, 10L, 3_000_000L);
+        bom.addLine(1L, 10L, 1_000_000L);
+        bom.addLine(3L, 10L, 50_000_000L);
+
+        when(service.plan()).thenReturn(GreedyPlanner.plan(bom.build()));
+
+        given()
+          .when().get("/production-plan")
+          .then()
+            .statusCode(200)
+            .body("items", hasSize(2))
+            .body("items[0].productCode", is("P002"))
+            .body("items[0].units", is(3.0))
+            .body("items[0].totalValue", is(30.0))
+            .body("items[1].productCode", is("P001"))
+            .body("items[1].units", is(1.0))
+            .body("totalUnits", is(4.0))
+            .body("totalValue", is(35.0));
+
+        verify(service).plan();
+    }
+
+    @Test
+    void plan_optimalMode_reportsBoundAndGap() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(1, 1, 1)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addProduct(1L, "P001", "Parafuso", 1_000L);
+        bom.addLine(1L, 10L, 3_000_000L);
+
+        ProductionPlan plan = GreedyPlanner.plan(bom.build());
+        when(service.optimize(Duration.ofMillis(500))).thenReturn(new OptimalPlan(plan, 4_000L, false, 10L));
+
+        given()
+          .queryParam("mode", "optimal")
+          .queryParam("timeBudgetMs", 500)
+          .when().get("/production-plan")
+          .then()
+            .statusCode(200)
+            .body("totalValue", is(30.0))
+            .body("optimal", is(false))
+            .body("upperBound", is(40.0))
+            .body("gap", is(0.25));
+
+        verify(service, never()).plan();
+    }
+
+    @Test
+    void plan_rejectsUnknownModeAndOversizedBudget() {
+        given().queryParam("mode", "fastest").when().get("/production-plan").then().statusCode(400);
+        given().queryParam("mode", "optimal").queryParam("timeBudgetMs", 600_000)
+          .when().get("/production-plan").then().statusCode(400);
+
+        verify(service, never()).optimize(any());
+    }
+
+    @Test
+    void simulate_reportsScenarioTotalsAndChangedProducts() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(2, 1, 2)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addProduct(1L, "P001", "Barato", 500L)
+                .addProduct(2L, "P002", "Caro", 1_000L);
+        builder.addLine(2L, 10L, 3_000_000L);
+        builder.addLine(1L, 10L, 1_000_000L);
+        BomSnapshot bom = builder.build();
+
+        ProductionPlan baseline = GreedyPlanner.plan(bom);
+        ProductionPlan more = new Scenario(bom).adjustStock(bom.feedstockIndexOf(10L), 2_000_000L).plan();
+        when(service.simulate(any())).thenReturn(new ProductionPlanService.Simulation(
+                baseline, new ProductionPlan[] {more}));
+
+        given()
+          .contentType("application/json")
+          .body("{\"scenarios\":[{\"name\":\"+2kg\",\"stock\":[{\"feedstockId\":10,\"delta\":2}]}]}")
+          .when().post("/production-plan/simulate")
+          .then()
+            .statusCode(200)
+            .body("baselineValue", is(35.0))
+            .body("scenarios", hasSize(1))
+            .body("scenarios[0].name", is("+2kg"))
+            .body("scenarios[0].totalValue", is(40.0))
+            .body("scenarios[0].valueDelta", is(5.0))
+            .body("scenarios[0].changes", hasSize(2))
+            .body("scenarios[0].changes[0].productCode", is("P002"))
+            .body("scenarios[0].changes[0].units", is(4.0))
+            .body("scenarios[0].changes[0].baselineUnits", is(3.0))
+            .body("scenarios[0].changes[1].productCode", is("P001"))
+            .body("scenarios[0].changes[1].units", is(0.0));
+    }
+
+    @Test
+    void simulate_reportsValuesBeyondTheRangeOfCents() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(1, 1, 1)
+                .addFeedstock(10L, "F010", "Aço", "KG", 20_000_000L)
+                .addProduct(1L, "P001", "Caro", 900_000_000_000_000_000L);
+        builder.addLine(1L, 10L, 1_000_000L);
+        BomSnapshot bom = builder.build();
+
+        // 20 units already come to 1.8e19 cents, past Long.MAX_VALUE.
+        ProductionPlan baseline = GreedyPlanner.plan(bom);
+        ProductionPlan more = new Scenario(bom).adjustStock(bom.feedstockIndexOf(10L), 2_000_000L).plan();
+        when(service.simulate(any())).thenReturn(new ProductionPlanService.Simulation(
+                baseline, new ProductionPlan[] {more}));
+
+        given()
+          .contentType("application/json")
+          .body("{\"scenarios\":[{\"name\":\"+2kg\",\"stock\":[{\"feedstockId\":10,\"delta\":2}]}]}")
+          .when().post("/production-plan/simulate")
+          .then()
+            .statusCode(200)
+            .body("baselineValue", is(1.8e17))
+            .body("scenarios[0].totalValue", is(1.98e17))
+            .body("scenarios[0].valueDelta", is(1.8e16));
+    }
+
+    @Test
+    void simulate_rejectsEmptyBatch() {
+        given()
+          .contentType("application/json")
+          .body("{\"scenarios\":[]}")
+          .when().post("/production-plan/simulate")
+          .then().statusCode(400);
+
+        verify(service, never()).simulate(any());
+    }
+}
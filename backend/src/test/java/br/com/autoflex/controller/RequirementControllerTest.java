@@ -0,0 +1,78 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.planning.RequirementsExploder;
+import br.com.autoflex.service.ProductionPlanService;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class RequirementControllerTest {
+
+    @InjectMock
+    ProductionPlanService service;
+
+    @BeforeEach
+    void setup() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+    }
+
+    @Test
+    void explode_returnsShortfallItems() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(1, 2, 2)
+                .addFeedstock(10L, "F010", "Aço", "KG", 2_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 9_000_000L)
+                .addProduct(1L, "P001", "Mesa", 5_000L);
+        builder.addLine(1L, 10L, 1_500_000L);
+        builder.addLine(1L, 11L, 1_000_000L);
+        BomSnapshot bom = builder.build();
+
+        when(service.requirements(any())).thenReturn(RequirementsExploder.shortfall(bom,
+                RequirementsExploder.explode(bom, new int[] {bom.productIndexOf(1L)}, new long[] {4L})));
+
+        given()
+          .contentType("application/json")
+          .body("{\"demand\":[{\"productId\":1,\"units\":4}]}")
+          .when().post("/requirements")
+          .then()
+            .statusCode(200)
+            .body("items", hasSize(1))
+            .body("items[0].feedstockCode", is("F010"))
+            .body("items[0].unitOfMeasure", is("KG"))
+            .body("items[0].stock", is(2.0))
+            .body("items[0].required", is(6.0))
+            .body("items[0].shortfall", is(4.0));
+    }
+
+    @Test
+    void explode_rejectsEmptyDemandAndNonPositiveUnits() {
+        given()
+          .contentType("application/json")
+          .body("{\"demand\":[]}")
+          .when().post("/requirements")
+          .then().statusCode(400);
+
+        given()
+          .contentType("application/json")
+          .body("{\"demand\":[{\"productId\":1,\"units\":0}]}")
+          .when().post("/requirements")
+          .then().statusCode(400);
+
+        verify(service, never()).requirements(any());
+    }
+}
@@ -0,0 +1,245 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.testing.H2TestProfile;
+import br.com.autoflex.testing.SqlBudget;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import io.restassured.RestAssured;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.path.json.config.JsonPathConfig;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.config.JsonConfig.jsonConfig;
+import static org.hamcrest.Matchers.*;
+
+/** Statement budgets for the main endpoints against a real H2 database; see {@link SqlBudget}. */
+@QuarkusTest
+@TestProfile(H2TestProfile.class)
+class SqlBudgetTest {
+
+    private static final int FEEDSTOCKS = 200;
+    private static final int PRODUCTS = 150;
+    private static final int LINES_PER_PRODUCT = 5;
+
+    private static List<Long> feedstockIds;
+    private static List<Long> productIds;
+    private static Long largeBomProductId;
+
+    @Inject
+    EntityManager em;
+
+    @BeforeEach
+    void seed() {
+        RestAssured.config = RestAssuredConfig.config()
+            .jsonConfig(jsonConfig().numberReturnType(JsonPathConfig.NumberReturnType.DOUBLE));
+
+        if (feedstockIds != null) return;
+
+        productIds = new ArrayList<>();
+        feedstockIds = QuarkusTransaction.requiringNew().call(() -> {
+            List<Feedstock> feedstocks = new ArrayList<>();
+            for (int f = 0; f < FEEDSTOCKS; f++) {
+                Feedstock e = new Feedstock();
+                e.feedstockCode = "F" + f;
+                e.name = "Insumo " + f;
+                e.stock = new BigDecimal("1000");
+                e.unitOfMeasure = "KG";
+                em.persist(e);
+                feedstocks.add(e);
+            }
+
+            for (int p = 0; p < PRODUCTS; p++) {
+                Product e = new Product();
+                e.productCode = "P" + p;
+                e.name = "Produto " + p;
+                e.unitPrice = BigDecimal.valueOf(p + 1);
+                em.persist(e);
+                productIds.add(e.id);
+
+                for (int i = 0; i < LINES_PER_PRODUCT; i++) {
+                    Feedstock f = feedstocks.get((p + i) % FEEDSTOCKS);
+
+                    ProductFeedstock pf = new ProductFeedstock();
+                    pf.id = new ProductFeedstockId(e.id, f.id);
+                    pf.product = e;
+                    pf.feedstock = f;
+                    pf.quantity = BigDecimal.ONE;
+                    e.feedstocks.add(pf);
+                }
+            }
+
+            Product large = new Product();
+            large.productCode = "LARGE";
+            large.name = "Produto grande";
+            large.unitPrice = new BigDecimal("100000");
+            em.persist(large);
+            for (Feedstock f : feedstocks) {
+                ProductFeedstock pf = new ProductFeedstock();
+                pf.id = new ProductFeedstockId(large.id, f.id);
+                pf.product = large;
+                pf.feedstock = f;
+                pf.quantity = BigDecimal.ONE;
+                large.feedstocks.add(pf);
+            }
+            largeBomProductId = large.id;
+
+            return feedstocks.stream().map(f -> f.id).toList();
+        });
+    }
+
+    @Test
+    void listProducts_fullPage_staysWithinThreeStatements() {
+        SqlBudget.assertAtMost(3, "GET /products?size=100", () ->
+                given()
+                  .queryParam("size", 100)
+                  .when().get("/products")
+                  .then()
+                    .statusCode(200)
+                    .body("items", hasSize(100))
+                    .body("items[0].feedstocks", hasSize(LINES_PER_PRODUCT)));
+    }
+
+    @Test
+    void listProducts_withoutCount_staysWithinTwoStatements() {
+        SqlBudget.assertAtMost(2, "GET /products?size=100&countMode=none", () ->
+                given()
+                  .queryParam("size", 100)
+                  .queryParam("countMode", "none")
+                  .when().get("/products")
+                  .then()
+                    .statusCode(200)
+                    .body("hasMore", is(true)));
+    }
+
+    @Test
+    void listProducts_gridFields_skipLineQuery() {
+        SqlBudget.assertAtMost(2, "GET /products?size=100&fields=productCode,name,unitPrice", () ->
+                given()
+                  .queryParam("size", 100)
+                  .queryParam("fields", "productCode,name,unitPrice")
+                  .when().get("/products")
+                  .then()
+                    .statusCode(200)
+                    .body("items", hasSize(100))
+                    .body("items[0]", not(hasKey("feedstocks"))));
+    }
+
+    @Test
+    void listFeedstocks_fullPage_staysWithinThreeStatements() {
+        SqlBudget.assertAtMost(3, "GET /feedstocks?size=50", () ->
+                given()
+                  .queryParam("size", 50)
+                  .when().get("/feedstocks")
+                  .then()
+                    .statusCode(200)
+                    .body("items", hasSize(50))
+                    .body("items[0].products", not(empty())));
+    }
+
+    @Test
+    void createProduct_withFiftyFeedstocks_staysWithinBudget() {
+        String lines = feedstockIds.subList(0, 50).stream()
+                .map(id -> "{\"feedstockId\":" + id + ",\"quantity\":1.5}")
+                .collect(Collectors.joining(","));
+
+        // One IN lookup for all BOM lines, the id sequence, the product insert and one batched line insert.
+        SqlBudget.assertAtMost(4, "POST /products with 50 feedstocks", () ->
+                given()
+                  .contentType("application/json")
+                  .body("{\"productCode\":\"BUDGET\",\"name\":\"Orçamento\",\"unitPrice\":10.00,"
+                          + "\"feedstocks\":[" + lines + "]}")
+                  .when().post("/products")
+                  .then()
+                    .statusCode(201)
+                    .body("feedstocks", hasSize(50)));
+    }
+
+    @Test
+    void updateProduct_oneLineOfLargeBom_staysWithinBudget() {
+        String lines = feedstockIds.stream()
+                .map(id -> "{\"feedstockId\":" + id + ",\"quantity\":"
+                        + (id.equals(feedstockIds.get(0)) ? "2.5" : "1") + "}")
+                .collect(Collectors.joining(","));
+
+        // The product, its BOM lines, one IN lookup for the requested feedstocks, the single changed line
+        // and the product row, whose revision moves with its BOM.
+        SqlBudget.assertAtMost(5, "PUT /products/{id} changing 1 of " + FEEDSTOCKS + " lines", () ->
+                given()
+                  .contentType("application/json")
+                  .body("{\"productCode\":\"LARGE\",\"name\":\"Produto grande\",\"unitPrice\":100000,"
+                          + "\"feedstocks\":[" + lines + "]}")
+                  .when().put("/products/" + largeBomProductId)
+                  .then()
+                    .statusCode(200)
+                    .body("feedstocks", hasSize(FEEDSTOCKS))
+                    .body("feedstocks.find { it.id == " + feedstockIds.get(0) + " }.quantity", is(2.5)));
+    }
+
+    @Test
+    void batchGetProducts_staysWithinTwoStatements() {
+        String ids = productIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        // The product rows and their BOM lines, one IN query each.
+        SqlBudget.assertAtMost(2, "POST /products/batch-get with " + PRODUCTS + " ids", () ->
+                given()
+                  .contentType("application/json")
+                  .body("{\"ids\":[" + ids + ",-1]}")
+                  .when().post("/products/batch-get")
+                  .then()
+                    .statusCode(200)
+                    .body("found", is((double) PRODUCTS))
+                    .body("notFound", is(1.0))
+                    .body("items[0].item.feedstocks", hasSize(LINES_PER_PRODUCT)));
+    }
+
+    @Test
+    void batchGetProducts_chunksLongIdLists() {
+        List<Long> ids = new ArrayList<>(productIds);
+        for (long missing = -1; ids.size() < 2500; missing--) ids.add(missing);
+        String body = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        // 2500 ids are three IN lists of at most 1000; lines are only looked up for the products found.
+        SqlBudget.assertAtMost(3 + 1, "POST /products/batch-get with 2500 ids", () ->
+                given()
+                  .contentType("application/json")
+                  .body("{\"ids\":[" + body + "]}")
+                  .when().post("/products/batch-get")
+                  .then()
+                    .statusCode(200)
+                    .body("items", hasSize(2500))
+                    .body("found", is((double) PRODUCTS)));
+    }
+
+    @Test
+    void batchGetFeedstocks_staysWithinTwoStatements() {
+        String ids = feedstockIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        SqlBudget.assertAtMost(2, "POST /feedstocks/batch-get with " + FEEDSTOCKS + " ids", () ->
+                given()
+                  .contentType("application/json")
+                  .body("{\"ids\":[" + ids + "]}")
+                  .when().post("/feedstocks/batch-get")
+                  .then()
+                    .statusCode(200)
+                    .body("found", is((double) FEEDSTOCKS))
+                    .body("items[0].item.products", not(empty())));
+    }
+}
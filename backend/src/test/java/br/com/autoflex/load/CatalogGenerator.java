@@ -0,0 +1,203 @@
+package br.com.autoflex.load;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+
+/**
+ * Writes a synthetic catalog straight into the PRODUCT, FEEDSTOCK and PRODUCT_FEEDSTOCK tables
+ * of V1__init.sql with JDBC batches. The same seed and shape always produce the same rows, so a
+ * latency number can be compared across builds. Ids are 1..N and the id sequences are created
+ * (or restarted) past them, mirroring V3__sequence_ids.sql. The stock ledger of
+ * V5__feedstock_movements.sql is created empty: generated stock is all snapshot, no tail. The
+ * REVISION columns and tombstone table of V6__catalog_revisions.sql are added with every row at
+ * revision 1.
+ */
+public final class CatalogGenerator {
+
+    static final String[] WORDS = {
+            "chapa", "aco", "parafuso", "porca", "tinta", "azul", "sextavado", "inox", "cabo", "fio",
+            "motor", "bomba", "rolamento", "eixo", "verniz", "madeira", "pino", "mola", "vedacao", "tubo"
+    };
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] UNITS = {"KG", "UN", "M", "L"};
+
+    /** Number of BOM lines for each product. */
+    public interface FanOut {
+
+        int next(Random random);
+
+        static FanOut fixed(int lines) {
+            return random -> lines;
+        }
+
+        static FanOut uniform(int min, int max) {
+            return random -> min + random.nextInt(max - min + 1);
+        }
+
+        /** Most products near {@code min}, a long tail up to {@code max}; higher skew, thinner tail. */
+        static FanOut skewed(int min, int max, double skew) {
+            return random -> min + (int) ((max - min + 1) * Math.pow(random.nextDouble(), skew));
+        }
+
+        /** {@code fixed:10}, {@code uniform:1-19} or {@code skewed:1-200:3}. */
+        static FanOut parse(String spec) {
+            String[] parts = spec.trim().split(":");
+            return switch (parts[0]) {
+                case "fixed" -> fixed(Integer.parseInt(parts[1]));
+                case "uniform" -> uniform(lower(parts[1]), upper(parts[1]));
+                case "skewed" -> skewed(lower(parts[1]), upper(parts[1]), Double.parseDouble(parts[2]));
+                default -> throw new IllegalArgumentException("Unknown fan-out: " + spec);
+            };
+        }
+
+        private static int lower(String range) {
+            return Integer.parseInt(range.substring(0, range.indexOf('-')));
+        }
+
+        private static int upper(String range) {
+            return Integer.parseInt(range.substring(range.indexOf('-') + 1));
+        }
+    }
+
+    public record Shape(int products, int feedstocks, FanOut fanOut) {
+    }
+
+    public record Stats(int products, int feedstocks, long lines) {
+    }
+
+    private final long seed;
+
+    public CatalogGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public Stats generate(Connection connection, Shape shape) throws SQLException {
+        Random random = new Random(seed);
+
+        insertFeedstocks(connection, shape, random);
+        insertProducts(connection, shape, random);
+        long lines = insertLines(connection, shape, random);
+
+        restartSequence(connection, "FEEDSTOCK_SEQ", shape.feedstocks() + 1L);
+        restartSequence(connection, "PRODUCT_SEQ", shape.products() + 1L);
+        createLedger(connection);
+        createRevisions(connection);
+        createProducibleUnits(connection);
+
+        return new Stats(shape.products(), shape.feedstocks(), lines);
+    }
+
+    private static void insertFeedstocks(Connection connection, Shape shape, Random random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO FEEDSTOCK (ID_FEEDSTOCK, FEEDSTOCK_CODE, NAME, STOCK, UNIT_OF_MEASURE)
+                VALUES (?, ?, ?, ?, ?)""")) {
+            for (int f = 1; f <= shape.feedstocks(); f++) {
+                ps.setLong(1, f);
+                ps.setString(2, String.format("F%08d", f));
+                ps.setString(3, name(random, f));
+                ps.setBigDecimal(4, BigDecimal.valueOf(random.nextInt(100_000_000), 3));
+                ps.setString(5, UNITS[random.nextInt(UNITS.length)]);
+                addBatch(ps, f);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertProducts(Connection connection, Shape shape, Random random) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("""
+                INSERT INTO PRODUCT (ID_PRODUCT, PRODUCT_CODE, NAME, UNIT_PRICE)
+                VALUES (?, ?, ?, ?)""")) {
+            for (int p = 1; p <= shape.products(); p++) {
+                ps.setLong(1, p);
+                ps.setString(2, String.format("P%08d", p));
+                ps.setString(3, name(random, p));
+                ps.setBigDecimal(4, BigDecimal.valueOf(100 + random.nextInt(10_000_000), 2));
+                addBatch(ps, p);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static long insertLines(Connection connection, Shape shape, Random random) throws SQLException {
+        long lines = 0;
+
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO PRODUCT_FEEDSTOCK (ID_PRODUCT, ID_FEEDSTOCK, QUANTITY) VALUES (?, ?, ?)")) {
+            for (int p = 1; p <= shape.products(); p++) {
+                int fanOut = Math.min(shape.fanOut().next(random), shape.feedstocks());
+
+                // Consecutive ids from a random start are distinct, so no line repeats a feedstock.
+                int start = random.nextInt(shape.feedstocks());
+                for (int i = 0; i < fanOut; i++) {
+                    ps.setLong(1, p);
+                    ps.setLong(2, (start + i) % shape.feedstocks() + 1);
+                    ps.setBigDecimal(3, BigDecimal.valueOf(1 + random.nextInt(5_000_000), 6));
+                    addBatch(ps, ++lines);
+                }
+            }
+            ps.executeBatch();
+        }
+        return lines;
+    }
+
+    private static String name(Random random, int n) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n;
+    }
+
+    private static void addBatch(PreparedStatement ps, long n) throws SQLException {
+        ps.addBatch();
+        if (n % BATCH_SIZE == 0) ps.executeBatch();
+    }
+
+    private static void createLedger(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS FEEDSTOCK_MOVEMENT (
+                        ID_MOVEMENT NUMBER PRIMARY KEY,
+                        ID_FEEDSTOCK NUMBER NOT NULL REFERENCES FEEDSTOCK(ID_FEEDSTOCK) ON DELETE CASCADE,
+                        KIND VARCHAR2(12) NOT NULL,
+                        QUANTITY NUMBER(18,6) NOT NULL,
+                        ID_PRODUCTION_ORDER NUMBER,
+                        CREATED_AT TIMESTAMP NOT NULL,
+                        COMPACTED_AT TIMESTAMP,
+                        REVISION NUMBER(19) DEFAULT 0 NOT NULL)""");
+            st.execute("CREATE INDEX IF NOT EXISTS IX_FM_FEEDSTOCK_TAIL ON FEEDSTOCK_MOVEMENT (ID_FEEDSTOCK, COMPACTED_AT)");
+            st.execute("CREATE SEQUENCE IF NOT EXISTS FEEDSTOCK_MOVEMENT_SEQ START WITH 1 INCREMENT BY 50");
+        }
+    }
+
+    private static void createRevisions(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            for (String table : new String[] {"PRODUCT", "FEEDSTOCK", "PRODUCT_FEEDSTOCK"}) {
+                st.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS REVISION NUMBER(19) DEFAULT 1 NOT NULL");
+            }
+            st.execute("""
+                    CREATE TABLE IF NOT EXISTS CATALOG_TOMBSTONE (
+                        KIND VARCHAR2(10) NOT NULL,
+                        ENTITY_ID NUMBER NOT NULL,
+                        REVISION NUMBER(19) NOT NULL,
+                        PRIMARY KEY (KIND, ENTITY_ID))""");
+        }
+    }
+
+    private static void createProducibleUnits(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("ALTER TABLE PRODUCT ADD COLUMN IF NOT EXISTS MAX_PRODUCIBLE_UNITS NUMBER(19) DEFAULT 0 NOT NULL");
+            st.execute("ALTER TABLE PRODUCT ADD COLUMN IF NOT EXISTS ID_BOTTLENECK_FEEDSTOCK NUMBER");
+            st.execute("CREATE INDEX IF NOT EXISTS IX_PRODUCT_MAX_UNITS_ID ON PRODUCT (MAX_PRODUCIBLE_UNITS, ID_PRODUCT)");
+        }
+    }
+
+    private static void restartSequence(Connection connection, String sequence, long next) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP SEQUENCE IF EXISTS " + sequence);
+            st.execute("CREATE SEQUENCE " + sequence + " START WITH " + next + " INCREMENT BY 50");
+        }
+    }
+}
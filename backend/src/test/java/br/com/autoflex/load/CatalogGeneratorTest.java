@@ -0,0 +1,88 @@
+package br.com.autoflex.load;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogGeneratorTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final CatalogGenerator.Shape SHAPE =
+            new CatalogGenerator.Shape(200, 50, CatalogGenerator.FanOut.uniform(1, 9));
+
+    @Test
+    void generate_sameSeed_producesSameCatalog() throws Exception {
+        String first = fingerprint(42, SHAPE);
+        String second = fingerprint(42, SHAPE);
+        String other = fingerprint(7, SHAPE);
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+    }
+
+    @Test
+    void generate_writesShapeIntoV1Schema() throws Exception {
+        try (Connection c = database()) {
+            CatalogGenerator.Stats stats = new CatalogGenerator(42).generate(c, SHAPE);
+
+            assertEquals(200, count(c, "SELECT COUNT(*) FROM PRODUCT"));
+            assertEquals(50, count(c, "SELECT COUNT(*) FROM FEEDSTOCK"));
+            assertEquals(stats.lines(), count(c, "SELECT COUNT(*) FROM PRODUCT_FEEDSTOCK"));
+            assertTrue(stats.lines() >= 200 && stats.lines() <= 200 * 9);
+            assertEquals(201, count(c, "SELECT NEXT VALUE FOR PRODUCT_SEQ"));
+        }
+    }
+
+    @Test
+    void fanOut_parse_respectsBounds() {
+        Random random = new Random(1);
+        CatalogGenerator.FanOut skewed = CatalogGenerator.FanOut.parse("skewed:1-200:3");
+        CatalogGenerator.FanOut uniform = CatalogGenerator.FanOut.parse("uniform:5-6");
+
+        for (int i = 0; i < 10_000; i++) {
+            int s = skewed.next(random);
+            int u = uniform.next(random);
+            assertTrue(s >= 1 && s <= 200);
+            assertTrue(u == 5 || u == 6);
+        }
+        assertEquals(10, CatalogGenerator.FanOut.parse("fixed:10").next(random));
+        assertThrows(IllegalArgumentException.class, () -> CatalogGenerator.FanOut.parse("normal:3"));
+    }
+
+    private static String fingerprint(long seed, CatalogGenerator.Shape shape) throws Exception {
+        try (Connection c = database()) {
+            new CatalogGenerator(seed).generate(c, shape);
+            try (Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("""
+                         SELECT (SELECT LISTAGG(NAME || UNIT_PRICE, ',') WITHIN GROUP (ORDER BY ID_PRODUCT) FROM PRODUCT)
+                             || (SELECT LISTAGG(ID_PRODUCT || '-' || ID_FEEDSTOCK || '-' || QUANTITY, ',')
+                                 WITHIN GROUP (ORDER BY ID_PRODUCT, ID_FEEDSTOCK) FROM PRODUCT_FEEDSTOCK)
+                         FROM DUAL""")) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    private static long count(Connection c, String sql) throws Exception {
+        try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static Connection database() throws Exception {
+        String url = "jdbc:h2:mem:generator" + DATABASES.incrementAndGet() + ";MODE=Oracle;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").target("2").load().migrate();
+        return DriverManager.getConnection(url, "sa", "");
+    }
+}
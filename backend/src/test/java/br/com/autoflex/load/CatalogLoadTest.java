@@ -0,0 +1,110 @@
+package br.com.autoflex.load;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds a production-sized catalog (1M BOM lines by default) and drives the list and search
+ * endpoints with concurrent clients. Latencies and throughput go to
+ * {@code target/load-test/report.json}; the test fails when a scenario errors or exceeds its
+ * p95/p99 budget. Only runs with {@code -Pload-test}.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("load")
+class CatalogLoadTest {
+
+    private static final List<LoadDriver.Scenario> SCENARIOS = List.of(
+            new LoadDriver.Scenario("products-list", "products?size=20"),
+            new LoadDriver.Scenario("products-list-no-count", "products?size=20&countMode=none"),
+            new LoadDriver.Scenario("products-search-product", "products?q=sextavado&searchType=product&size=20"),
+            new LoadDriver.Scenario("products-search-feedstock", "products?q=vedacao&searchType=feedstock&size=20"),
+            new LoadDriver.Scenario("products-search-code", "products?q=P0000123&size=20"),
+            new LoadDriver.Scenario("feedstocks-list", "feedstocks?size=20"),
+            new LoadDriver.Scenario("feedstocks-search", "feedstocks?q=rolamento&size=20"));
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @TestHTTPResource("/")
+    URL base;
+
+    @Test
+    void listAndSearch_stayWithinLatencyBudgets() throws Exception {
+        CatalogGenerator.Shape shape = new CatalogGenerator.Shape(
+                Integer.getInteger("load.products", 100_000),
+                Integer.getInteger("load.feedstocks", 10_000),
+                CatalogGenerator.FanOut.parse(System.getProperty("load.fanout", "uniform:1-19")));
+
+        CatalogGenerator.Stats stats;
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            stats = new CatalogGenerator(Long.getLong("load.seed", 42L)).generate(c, shape);
+            c.commit();
+        }
+
+        LoadDriver driver = new LoadDriver(base.toURI(),
+                Integer.getInteger("load.clients", 16),
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10L)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 30L)));
+        List<LoadDriver.Result> results = driver.run(SCENARIOS);
+
+        writeReport(stats, results);
+
+        List<String> violations = new ArrayList<>();
+        for (LoadDriver.Result r : results) {
+            double p95 = budget(r.scenario(), "p95", 150);
+            double p99 = budget(r.scenario(), "p99", 300);
+
+            if (r.errors() > 0) violations.add(r.scenario() + ": " + r.errors() + " failed requests");
+            if (r.p95Millis() > p95) violations.add(r.scenario() + ": p95 " + r.p95Millis() + " ms > " + p95 + " ms");
+            if (r.p99Millis() > p99) violations.add(r.scenario() + ": p99 " + r.p99Millis() + " ms > " + p99 + " ms");
+        }
+        assertTrue(violations.isEmpty(), "Latency budget exceeded:\n" + String.join("\n", violations));
+    }
+
+    // load.budget.<scenario>.p99 overrides load.budget.p99, which overrides the default.
+    private static double budget(String scenario, String percentile, double fallback) {
+        String value = System.getProperty("load.budget." + scenario + "." + percentile,
+                System.getProperty("load.budget." + percentile));
+        return value != null ? Double.parseDouble(value) : fallback;
+    }
+
+    private static void writeReport(CatalogGenerator.Stats stats, List<LoadDriver.Result> results) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("catalog", stats);
+        report.put("results", results);
+
+        Path file = Path.of("target", "load-test", "report.json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+
+        for (LoadDriver.Result r : results) {
+            System.out.printf("%-28s %8d req %8.1f req/s  p50 %7.2f  p95 %7.2f  p99 %7.2f  max %7.2f ms%n",
+                    r.scenario(), r.requests(), r.throughput(),
+                    r.p50Millis(), r.p95Millis(), r.p99Millis(), r.maxMillis());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package br.com.autoflex.load;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.test.common.http.TestHTTPResource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Same catalog, same scenarios, 1000 concurrent clients by default: once with the catalog
+ * endpoints on virtual threads ({@link VirtualThreadLoadTest}) and once on the worker pool
+ * ({@link WorkerPoolLoadTest}). Each run writes {@code target/load-test/execution-<mode>.json}
+ * for a side-by-side comparison of throughput and tail latency. Only runs with {@code -Pload-test}.
+ */
+abstract class ExecutionModelLoadTest {
+
+    private static final List<LoadDriver.Scenario> SCENARIOS = List.of(
+            new LoadDriver.Scenario("products-list", "products?size=20&countMode=none"),
+            new LoadDriver.Scenario("product-by-id", "products/1"),
+            new LoadDriver.Scenario("feedstocks-list", "feedstocks?size=20&countMode=none"));
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @TestHTTPResource("/")
+    URL base;
+
+    abstract String mode();
+
+    @Test
+    void catalogEndpoints_underThousandsOfConcurrentClients() throws Exception {
+        CatalogGenerator.Shape shape = new CatalogGenerator.Shape(
+                Integer.getInteger("load.products", 20_000),
+                Integer.getInteger("load.feedstocks", 2_000),
+                CatalogGenerator.FanOut.parse(System.getProperty("load.fanout", "uniform:1-19")));
+
+        CatalogGenerator.Stats stats;
+        try (Connection c = dataSource.getConnection()) {
+            c.setAutoCommit(false);
+            stats = new CatalogGenerator(Long.getLong("load.seed", 42L)).generate(c, shape);
+            c.commit();
+        }
+
+        int clients = Integer.getInteger("load.execution.clients", 1000);
+        LoadDriver driver = new LoadDriver(base.toURI(), clients,
+                Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10L)),
+                Duration.ofSeconds(Long.getLong("load.duration-seconds", 30L)));
+        List<LoadDriver.Result> results = driver.run(SCENARIOS);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode());
+        report.put("clients", clients);
+        report.put("catalog", stats);
+        report.put("results", results);
+
+        Path file = Path.of("target", "load-test", "execution-" + mode() + ".json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+
+        for (LoadDriver.Result r : results) {
+            System.out.printf("%-16s %-16s %8d req %8.1f req/s  p50 %7.2f  p95 %7.2f  p99 %7.2f  max %7.2f ms  %d errors%n",
+                    mode(), r.scenario(), r.requests(), r.throughput(),
+                    r.p50Millis(), r.p95Millis(), r.p99Millis(), r.maxMillis(), r.errors());
+        }
+
+        // Rejections (503) count as errors: at the default admission timeout they mean the model fell behind.
+        for (LoadDriver.Result r : results) {
+            assertEquals(0, r.errors(), mode() + " " + r.scenario() + ": failed requests");
+        }
+    }
+
+    /** Each mode gets its own in-memory database, so both runs can seed the same ids. */
+    static Map<String, String> overrides(String mode, boolean virtualThreads) {
+        Map<String, String> config = new HashMap<>(new LoadTestProfile().getConfigOverrides());
+        config.put("quarkus.datasource.jdbc.url", "jdbc:h2:mem:load-" + mode + ";MODE=Oracle;DB_CLOSE_DELAY=-1");
+        config.put("quarkus.virtual-threads.enabled", String.valueOf(virtualThreads));
+        return config;
+    }
+}
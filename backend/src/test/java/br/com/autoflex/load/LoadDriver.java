@@ -0,0 +1,132 @@
+package br.com.autoflex.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load: {@code clients} virtual threads each send the scenario's request back
+ * to back, first for the warm-up period (discarded) and then for the measured period. Every
+ * response latency is kept, so percentiles are exact rather than bucketed. Virtual threads keep
+ * a thousand clients cheap on the driver side.
+ */
+public final class LoadDriver {
+
+    public record Scenario(String name, String path) {
+    }
+
+    public record Result(String scenario, long requests, long errors, double throughput,
+                         double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+    }
+
+    private final URI base;
+    private final int clients;
+    private final Duration warmUp;
+    private final Duration measured;
+    private final HttpClient http;
+
+    public LoadDriver(URI base, int clients, Duration warmUp, Duration measured) {
+        this.base = base;
+        this.clients = clients;
+        this.warmUp = warmUp;
+        this.measured = measured;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public List<Result> run(List<Scenario> scenarios) throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (Scenario s : scenarios) results.add(run(s));
+        return results;
+    }
+
+    private Result run(Scenario scenario) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(scenario.path()))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        drive(request, warmUp);
+
+        long started = System.nanoTime();
+        List<Samples> perClient = drive(request, measured);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int total = perClient.stream().mapToInt(s -> s.size).sum();
+        long[] latencies = new long[total];
+        long errors = 0;
+        int at = 0;
+        for (Samples s : perClient) {
+            System.arraycopy(s.nanos, 0, latencies, at, s.size);
+            at += s.size;
+            errors += s.errors;
+        }
+        Arrays.sort(latencies);
+
+        return new Result(scenario.name(), total, errors, total / seconds,
+                millis(percentile(latencies, 0.50)),
+                millis(percentile(latencies, 0.95)),
+                millis(percentile(latencies, 0.99)),
+                millis(total == 0 ? 0 : latencies[total - 1]));
+    }
+
+    private List<Samples> drive(HttpRequest request, Duration period) throws Exception {
+        long deadline = System.nanoTime() + period.toNanos();
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Samples>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> {
+                    Samples samples = new Samples();
+                    while (System.nanoTime() < deadline) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        samples.add(System.nanoTime() - t0, response.statusCode() != 200);
+                    }
+                    return samples;
+                }));
+            }
+
+            List<Samples> out = new ArrayList<>();
+            for (Future<Samples> f : futures) out.add(f.get());
+            return out;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Nearest-rank percentile over sorted values.
+    static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static final class Samples {
+        long[] nanos = new long[1024];
+        int size;
+        long errors;
+
+        void add(long latency, boolean error) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = latency;
+            if (error) errors++;
+        }
+    }
+}
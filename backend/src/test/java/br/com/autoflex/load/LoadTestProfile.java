@@ -0,0 +1,26 @@
+package br.com.autoflex.load;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+/**
+ * Runs the application against an in-memory H2 database in Oracle mode. Flyway stops after
+ * V2: V3 is an Oracle PL/SQL block, and CatalogGenerator creates the id sequences and the
+ * stock ledger table itself.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.ofEntries(
+                Map.entry("quarkus.datasource.db-kind", "h2"),
+                Map.entry("quarkus.datasource.jdbc.url", "jdbc:h2:mem:load;MODE=Oracle;DB_CLOSE_DELAY=-1"),
+                Map.entry("quarkus.datasource.username", "sa"),
+                Map.entry("quarkus.datasource.password", ""),
+                Map.entry("quarkus.datasource.jdbc.max-size", "64"),
+                Map.entry("quarkus.flyway.target", "2"),
+                Map.entry("quarkus.hibernate-orm.database.generation", "none"),
+                Map.entry("quarkus.hibernate-orm.log.sql", "false"));
+    }
+}
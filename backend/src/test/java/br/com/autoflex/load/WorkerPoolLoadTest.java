@@ -0,0 +1,27 @@
+package br.com.autoflex.load;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+import org.junit.jupiter.api.Tag;
+
+import java.util.Map;
+
+@QuarkusTest
+@TestProfile(WorkerPoolLoadTest.Profile.class)
+@Tag("load")
+class WorkerPoolLoadTest extends ExecutionModelLoadTest {
+
+    public static class Profile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return overrides("worker-pool", false);
+        }
+    }
+
+    @Override
+    String mode() {
+        return "worker-pool";
+    }
+}
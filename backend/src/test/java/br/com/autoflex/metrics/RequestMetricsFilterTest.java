@@ -0,0 +1,113 @@
+package br.com.autoflex.metrics;
+
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.service.ExportService;
+import br.com.autoflex.service.ProductService;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Page;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class RequestMetricsFilterTest {
+
+    @InjectMock
+    ProductService service;
+
+    @InjectMock
+    ExportService exporter;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Test
+    void list_recordsLatencyAndDatabaseCost_taggedBySearchTypeAndSize() {
+        @SuppressWarnings("unchecked")
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(service.list(any(), any(), any(), any(), any())).thenReturn(query);
+        when(service.rowsWithLookahead(query)).thenReturn(List.of());
+        when(service.linesByProduct(List.of())).thenReturn(Map.of());
+        when(query.page()).thenReturn(Page.of(0, 20));
+
+        given()
+          .queryParam("q", "aco")
+          .queryParam("searchType", "feedstock")
+          .queryParam("size", 20)
+          .queryParam("countMode", "none")
+          .when().get("/products")
+          .then()
+            .statusCode(200);
+
+        given()
+          .when().get("/q/metrics")
+          .then()
+            .statusCode(200)
+            .body(allOf(
+                containsString("autoflex_http_request_seconds_count{countMode=\"none\",endpoint=\"ProductController.list\",method=\"GET\",searchType=\"feedstock\",size=\"20\",status=\"200\"}"),
+                containsString("autoflex_http_request_sql_statements_count{countMode=\"none\",endpoint=\"ProductController.list\""),
+                containsString("autoflex_http_request_jdbc_seconds_count{countMode=\"none\",endpoint=\"ProductController.list\""),
+                containsString("autoflex_http_request_entities_loaded_count{countMode=\"none\",endpoint=\"ProductController.list\"")));
+    }
+
+    @Test
+    void export_isRecordedOnceTheBodyIsWritten() {
+        StreamingOutput body = out -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            out.write("{}\n".getBytes(StandardCharsets.UTF_8));
+        };
+        when(exporter.exportProducts(ExportService.Format.NDJSON)).thenReturn(body);
+
+        given()
+          .when().get("/products/export")
+          .then()
+            .statusCode(200);
+
+        Timer timer = registry.find("autoflex.http.request").tag("endpoint", "ProductController.export").timer();
+        assertNotNull(timer);
+        assertTrue(timer.max(TimeUnit.MILLISECONDS) >= 300);
+    }
+
+    @Test
+    void unknownParameterValues_areCollapsedIntoFixedTags() {
+        when(service.getById(anyLong())).thenReturn(null);
+
+        given()
+          .queryParam("q", "aco")
+          .queryParam("searchType", "anything")
+          .queryParam("size", 5000)
+          .when().get("/products/999")
+          .then()
+            .statusCode(404);
+
+        given()
+          .when().get("/q/metrics")
+          .then()
+            .statusCode(200)
+            .body(containsString("endpoint=\"ProductController.getOne\",method=\"GET\",searchType=\"other\",size=\"invalid\",status=\"404\""));
+    }
+}
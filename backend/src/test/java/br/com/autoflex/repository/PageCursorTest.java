@@ -0,0 +1,35 @@
+package br.com.autoflex.repository;
+
+import jakarta.ws.rs.BadRequestException;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void encode_roundTripsKeyAndId() {
+        String token = PageCursor.encode(new BigDecimal("1250.50"), 42L);
+
+        PageCursor cursor = PageCursor.decode(token);
+
+        assertEquals(new BigDecimal("1250.50"), cursor.key());
+        assertEquals(42L, cursor.id());
+        assertFalse(token.contains(":"));
+    }
+
+    @Test
+    void decode_returnsNullForFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+    }
+
+    @Test
+    void decode_rejectsGarbage() {
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("Zm9v"));
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.autoflex.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static long[] sorted(long[] ids) {
+        long[] copy = ids.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static TrigramIndex sample() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.put(1L, "Chapa de Aço", "F001");
+        index.put(2L, "Parafuso Sextavado", "F002");
+        index.put(3L, "Tinta Azul", "AÇO-3");
+        return index;
+    }
+
+    @Test
+    void search_matchesSubstringsIgnoringCase() {
+        TrigramIndex index = sample();
+
+        assertArrayEquals(new long[]{1L, 3L}, sorted(index.search("aÇo", TrigramIndex.NAME | TrigramIndex.CODE, 10)));
+        assertArrayEquals(new long[]{2L}, index.search("fuso sex", TrigramIndex.NAME, 10));
+        assertArrayEquals(new long[]{2L}, index.search("F002", TrigramIndex.CODE, 10));
+    }
+
+    @Test
+    void search_respectsSelectedFields() {
+        TrigramIndex index = sample();
+
+        assertArrayEquals(new long[]{1L}, index.search("aço", TrigramIndex.NAME, 10));
+        assertArrayEquals(new long[]{3L}, index.search("aço", TrigramIndex.CODE, 10));
+    }
+
+    @Test
+    void search_verifiesCandidatesSharingAllTrigrams() {
+        TrigramIndex index = new TrigramIndex(4);
+        index.put(1L, "abcd bcde", "X");
+
+        assertEquals(0, index.search("abcde", TrigramIndex.NAME, 10).length);
+    }
+
+    @Test
+    void search_returnsNullWhenItCannotAnswer() {
+        TrigramIndex index = sample();
+
+        assertNull(index.search("aç", TrigramIndex.NAME, 10));
+        assertNull(index.search("a%o", TrigramIndex.NAME, 10));
+        assertNull(index.search("f00", TrigramIndex.CODE, 1));
+        assertEquals(0, index.search("zzz", TrigramIndex.NAME, 10).length);
+    }
+
+    @Test
+    void putAndRemove_keepIndexCurrent() {
+        TrigramIndex index = sample();
+
+        index.put(2L, "Porca", "F002");
+        index.remove(3L);
+
+        assertEquals(0, index.search("parafuso", TrigramIndex.NAME, 10).length);
+        assertArrayEquals(new long[]{2L}, index.search("porca", TrigramIndex.NAME, 10));
+        assertArrayEquals(new long[]{1L}, index.search("aço", TrigramIndex.NAME | TrigramIndex.CODE, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void compaction_keepsLiveRows() {
+        TrigramIndex index = new TrigramIndex(16);
+        for (long id = 0; id < 3000; id++) index.put(id, "item " + id, "C" + id);
+        for (long id = 0; id < 2900; id++) index.remove(id);
+        for (long id = 2950; id < 3000; id++) index.put(id, "renamed " + id, "C" + id);
+
+        assertEquals(100, index.size());
+        assertArrayEquals(new long[]{2949L}, index.search("item 2949", TrigramIndex.NAME, 10));
+        assertEquals(50, index.search("renamed", TrigramIndex.NAME, 100).length);
+        assertEquals(0, index.search("item 2950", TrigramIndex.NAME, 10).length);
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class BomSnapshotServiceTest {
+
+    @Inject
+    BomSnapshotService service;
+
+    @Inject
+    RevisionClock clock;
+
+    @InjectMock
+    ProductRepository productRepo;
+
+    @InjectMock
+    FeedstockRepository feedstockRepo;
+
+    @InjectMock
+    ProductFeedstockRepository lineRepo;
+
+    @BeforeEach
+    void setup() {
+        when(feedstockRepo.streamPlanningRows(anyLong(), anyCollection())).thenReturn(Stream.of(
+                new Object[]{10L, "F010", "Aço", "KG", new BigDecimal("10.000000"), 1L},
+                new Object[]{11L, "F011", "Tinta", "L", new BigDecimal("5.000000"), 1L}
+        ));
+        when(productRepo.streamPlanningRows()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, "P001", "Produto", new BigDecimal("10.00"), 1L}
+        ));
+        when(lineRepo.streamLines()).thenReturn(Stream.<Object[]>of(
+                new Object[]{1L, 10L, new BigDecimal("0.250000")}
+        ));
+    }
+
+    @AfterEach
+    void cleanup() {
+        service.clear();
+    }
+
+    @Test
+    void current_loadsOnceAndReusesSnapshot() {
+        BomSnapshot first = service.current();
+        BomSnapshot second = service.current();
+
+        assertSame(first, second);
+        assertEquals(1, first.liveProductCount());
+        assertEquals(1, first.lineCount());
+        verify(lineRepo, times(1)).streamLines();
+    }
+
+    @Test
+    void onCatalogChanged_appliesDeltaWithoutReloading() {
+        BomSnapshot before = service.current();
+
+        service.onCatalogChanged(CatalogChanged.of(new CatalogChanged.ProductChange(
+                2L, "P002", "Novo", new BigDecimal("20.00"),
+                List.of(new CatalogChanged.Line(10L, new BigDecimal("1.0")),
+                        new CatalogChanged.Line(11L, new BigDecimal("2.0"))),
+                false)));
+
+        BomSnapshot after = service.current();
+
+        assertNotSame(before, after);
+        assertEquals(before.version + 1, after.version);
+        assertEquals(2, after.liveProductCount());
+        assertEquals(3, after.lineCount());
+        assertEquals(2L, after.productIds[after.priceOrder[0]]);
+
+        int f = after.feedstockIndexOf(10L);
+        assertEquals(2, after.usageOffsets[f + 1] - after.usageOffsets[f]);
+
+        verify(lineRepo, times(1)).streamLines();
+    }
+
+    @Test
+    void onCatalogChanged_isIgnoredBeforeFirstLoad() {
+        service.onCatalogChanged(CatalogChanged.of(CatalogChanged.ProductChange.deleted(1L)));
+
+        BomSnapshot loaded = service.current();
+
+        assertEquals(1, loaded.liveProductCount());
+        assertEquals(0L, loaded.version);
+    }
+
+    @Test
+    void onCatalogChanged_dropsChangesTheLoadAlreadyRead() {
+        long read = clock.horizon().last();
+        BomSnapshot loaded = service.current();
+        int f = loaded.feedstockIndexOf(10L);
+
+        // Committed before the load read the stock: applying it again would count it twice.
+        service.onCatalogChanged(CatalogChanged.stocks(List.of(
+                new CatalogChanged.StockChange(10L, new BigDecimal("-4")))).at(read));
+        assertSame(loaded, service.current());
+
+        service.onCatalogChanged(CatalogChanged.stocks(List.of(
+                new CatalogChanged.StockChange(10L, new BigDecimal("-4")))).at(read + 1));
+        assertEquals(6_000_000L, service.current().stocks[f]);
+    }
+
+    @Test
+    void onCatalogChanged_keepsTheNewestChangeWhateverTheArrivalOrder() {
+        service.current();
+        long next = clock.horizon().last() + 1;
+
+        service.onCatalogChanged(CatalogChanged.of(new CatalogChanged.ProductChange(
+                1L, "P001", "Segunda", new BigDecimal("10.00"), null, false)).at(next + 1));
+        service.onCatalogChanged(CatalogChanged.of(new CatalogChanged.ProductChange(
+                1L, "P001", "Primeira", new BigDecimal("10.00"),
+                List.of(new CatalogChanged.Line(11L, new BigDecimal("1.0"))), false)).at(next));
+
+        // The older change still brings the lines the newer one left out.
+        BomSnapshot s = service.current();
+        int p = s.productIndexOf(1L);
+        assertEquals("Segunda", s.productNames[p]);
+        assertEquals(1, s.lineOffsets[p + 1] - s.lineOffsets[p]);
+        assertEquals(s.feedstockIndexOf(11L), s.lineFeedstocks[s.lineOffsets[p]]);
+    }
+
+    @Test
+    void onCatalogChanged_holdsWhatNamesAFeedstockUntilItIsCreated() {
+        service.current();
+        long next = clock.horizon().last() + 1;
+
+        service.onCatalogChanged(CatalogChanged.stocks(List.of(
+                new CatalogChanged.StockChange(12L, new BigDecimal("3")))).at(next + 1));
+        service.onCatalogChanged(CatalogChanged.of(new CatalogChanged.ProductChange(
+                2L, "P002", "Novo", new BigDecimal("20.00"),
+                List.of(new CatalogChanged.Line(12L, new BigDecimal("1.0"))), false)).at(next + 2));
+        assertEquals(-1, service.current().feedstockIndexOf(12L));
+        assertEquals(1, service.current().lineCount());
+
+        service.onCatalogChanged(new CatalogChanged(List.of(),
+                List.of(new CatalogChanged.FeedstockChange(12L, "F012", "Cola", "L", false)),
+                List.of(new CatalogChanged.StockChange(12L, new BigDecimal("2"))), next));
+
+        BomSnapshot s = service.current();
+        int f = s.feedstockIndexOf(12L);
+        assertEquals(5_000_000L, s.stocks[f]);
+        assertEquals(1, s.usageOffsets[f + 1] - s.usageOffsets[f]);
+    }
+}
@@ -0,0 +1,175 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.BulkDtos;
+import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.core.MediaType;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class BulkImportServiceTest {
+
+    private static final MediaType NDJSON = MediaType.valueOf(BulkImportService.NDJSON);
+    private static final MediaType CSV = MediaType.valueOf(BulkImportService.CSV);
+
+    @Inject
+    BulkImportService service;
+
+    @InjectMock
+    ProductRepository productRepo;
+
+    @InjectMock
+    FeedstockRepository feedstockRepo;
+
+    @InjectMock
+    ProductFeedstockRepository lineRepo;
+
+    EntityManager em;
+
+    @BeforeEach
+    void setup() {
+        em = mock(EntityManager.class);
+        when(productRepo.getEntityManager()).thenReturn(em);
+        when(feedstockRepo.getEntityManager()).thenReturn(em);
+        when(em.getReference(eq(Feedstock.class), any())).thenAnswer(inv -> {
+            Feedstock f = new Feedstock();
+            f.id = inv.getArgument(1);
+            return f;
+        });
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importFeedstocks_persistsValidRowsAndReportsTheRest() {
+        when(feedstockRepo.findExistingCodes(anyCollection())).thenReturn(Set.of("F001"));
+
+        BulkDtos.Report report = service.importFeedstocks(body("""
+                {"feedstockCode":"F001","name":"Aço","stock":1,"unitOfMeasure":"KG"}
+                {"feedstockCode":"F002","name":"Tinta","stock":2,"unitOfMeasure":"L"}
+                {"feedstockCode":"F002","name":"Tinta","stock":2,"unitOfMeasure":"L"}
+                {"feedstockCode":"F003","name":"","stock":2,"unitOfMeasure":"L"}
+                """), NDJSON);
+
+        assertEquals(4, report.received);
+        assertEquals(1, report.imported);
+        assertEquals(3, report.failed);
+        assertEquals(List.of(4L, 1L, 3L), report.errors.stream().map(e -> e.row).toList());
+        verify(feedstockRepo, times(1)).persist(any(Feedstock.class));
+        verify(em, times(1)).persist(argThat(m -> m instanceof FeedstockMovement fm
+                && fm.kind == FeedstockMovement.Kind.OPENING && fm.compactedAt != null));
+        verify(feedstockRepo, times(1)).findExistingCodes(anyCollection());
+    }
+
+    @Test
+    void importProducts_checksFeedstocksWithOneQueryPerChunk() {
+        when(productRepo.findExistingCodes(anyCollection())).thenReturn(Set.of());
+        when(feedstockRepo.findExistingIds(anyCollection())).thenReturn(Set.of(10L, 11L));
+
+        BulkDtos.Report report = service.importProducts(body("""
+                {"productCode":"P001","name":"A","unitPrice":1.5,"feedstocks":[{"feedstockId":10,"quantity":1},{"feedstockId":11,"quantity":2}]}
+                {"productCode":"P002","name":"B","unitPrice":2,"feedstocks":[{"feedstockId":99,"quantity":1}]}
+                {"productCode":"P003","name":"C","unitPrice":2,"feedstocks":[{"feedstockId":10,"quantity":0}]}
+                """), NDJSON);
+
+        assertEquals(1, report.imported);
+        assertEquals(2, report.failed);
+        assertEquals("Feedstock not found: 99", report.errors.get(0).message);
+        assertEquals("P003", report.errors.get(1).code);
+        verify(productRepo, times(1)).persist(any(Product.class));
+        verify(lineRepo, times(2)).persist(any(ProductFeedstock.class));
+        verify(feedstockRepo, times(1)).findExistingIds(anyCollection());
+        verify(feedstockRepo, never()).findById(any());
+    }
+
+    @Test
+    void importProducts_readsCsvLinesGroupedByProductCode() {
+        when(productRepo.findExistingCodes(anyCollection())).thenReturn(Set.of());
+        when(feedstockRepo.findExistingIds(anyCollection())).thenReturn(Set.of(10L, 11L));
+
+        BulkDtos.Report report = service.importProducts(body("""
+                productCode,name,unitPrice,feedstockId,quantity
+                P001,A,1.50,10,1
+                P001,A,1.50,11,2
+                P002,B,3.00,10,0.5
+                """), CSV);
+
+        assertEquals(2, report.received);
+        assertEquals(2, report.imported);
+        verify(productRepo, times(2)).persist(any(Product.class));
+        verify(lineRepo, times(3)).persist(any(ProductFeedstock.class));
+    }
+
+    @Test
+    void importRows_stopsAtMalformedRecordAndKeepsEarlierRows() {
+        when(feedstockRepo.findExistingCodes(anyCollection())).thenReturn(Set.of());
+
+        BulkDtos.Report report = service.importFeedstocks(body("""
+                {"feedstockCode":"F001","name":"Aço","stock":1,"unitOfMeasure":"KG"}
+                {"feedstockCode":"F002",
+                """), NDJSON);
+
+        assertEquals(1, report.imported);
+        assertEquals(1, report.failed);
+        assertEquals(2L, report.errors.get(0).row);
+        assertTrue(report.errors.get(0).message.startsWith("Malformed input"));
+    }
+
+    @Test
+    void groupedByProduct_numbersEachProductByItsFirstLine() {
+        BulkDtos.ProductCsvRow a1 = csvRow("P001", 10L);
+        BulkDtos.ProductCsvRow a2 = csvRow("P001", 11L);
+        BulkDtos.ProductCsvRow b1 = csvRow("P002", 10L);
+
+        Iterator<BulkImportService.Row<ProductDtos.CreateRequest>> it =
+                BulkImportService.groupedByProduct(List.of(a1, a2, b1).iterator());
+
+        BulkImportService.Row<ProductDtos.CreateRequest> first = it.next();
+        BulkImportService.Row<ProductDtos.CreateRequest> second = it.next();
+
+        assertEquals(1L, first.row());
+        assertEquals(2, first.value().feedstocks.size());
+        assertEquals(3L, second.row());
+        assertEquals("P002", second.value().productCode);
+        assertFalse(it.hasNext());
+    }
+
+    private static BulkDtos.ProductCsvRow csvRow(String code, Long feedstockId) {
+        BulkDtos.ProductCsvRow row = new BulkDtos.ProductCsvRow();
+        row.productCode = code;
+        row.name = "N";
+        row.unitPrice = BigDecimal.ONE;
+        row.feedstockId = feedstockId;
+        row.quantity = BigDecimal.ONE;
+        return row;
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.event.CatalogChanged;
+import br.com.autoflex.repository.FeedstockRepository;
+
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheEvictorTest {
+
+    @Test
+    void scalarProductUpdate_keepsFeedstockUsageLists() {
+        Cache cache = mock(Cache.class);
+        CatalogChanged event = CatalogChanged.of(new CatalogChanged.ProductChange(
+                1L, "P001", "A", BigDecimal.ONE, null, false));
+
+        assertEquals(2, CacheEvictor.evict(cache, event));
+        verify(cache).evictEntityData(Product.class, 1L);
+        verify(cache).evictCollectionData(CacheEvictor.PRODUCT_FEEDSTOCKS, 1L);
+        verify(cache, never()).evictCollectionData(CacheEvictor.FEEDSTOCK_PRODUCTS);
+    }
+
+    @Test
+    void bomChangeOrDelete_evictsEveryFeedstockUsageListOnce() {
+        Cache cache = mock(Cache.class);
+        CatalogChanged event = new CatalogChanged(List.of(
+                new CatalogChanged.ProductChange(1L, "P001", "A", BigDecimal.ONE,
+                        List.of(new CatalogChanged.Line(10L, BigDecimal.ONE)), false),
+                CatalogChanged.ProductChange.deleted(2L)
+        ), List.of());
+
+        CacheEvictor.evict(cache, event);
+
+        verify(cache).evictCollectionData(CacheEvictor.FEEDSTOCK_PRODUCTS);
+        verify(cache).evictEntityData(Product.class, 2L);
+    }
+
+    @Test
+    void feedstockChange_evictsEntityAndUsageList() {
+        Cache cache = mock(Cache.class);
+
+        CacheEvictor.evict(cache, CatalogChanged.of(CatalogChanged.FeedstockChange.deleted(10L)));
+
+        verify(cache).evictEntityData(Feedstock.class, 10L);
+        verify(cache).evictCollectionData(CacheEvictor.FEEDSTOCK_PRODUCTS, 10L);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    void stockChanges_evictFeedstocksAndCachedFeedstockPages() {
+        Cache cache = mock(Cache.class);
+
+        long evicted = CacheEvictor.evict(cache, CatalogChanged.stocks(List.of(
+                new CatalogChanged.StockChange(10L, new BigDecimal("-1.5")),
+                new CatalogChanged.StockChange(11L, new BigDecimal("-2")))));
+
+        assertEquals(3, evicted);
+        verify(cache).evictEntityData(Feedstock.class, 10L);
+        verify(cache).evictEntityData(Feedstock.class, 11L);
+        verify(cache).evictQueryRegion(FeedstockRepository.PAGE_CACHE_REGION);
+        verifyNoMoreInteractions(cache);
+    }
+}
@@ -0,0 +1,146 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.event.CatalogChanged;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class CountServiceTest {
+
+    @Inject
+    CountService service;
+
+    @InjectMock
+    BomSnapshotService snapshots;
+
+    @AfterEach
+    void cleanup() {
+        service.clear();
+    }
+
+    @Test
+    void parse_defaultsToExact() {
+        assertEquals(CountService.Mode.EXACT, CountService.Mode.parse(null));
+        assertEquals(CountService.Mode.EXACT, CountService.Mode.parse("exact"));
+        assertEquals(CountService.Mode.CACHED, CountService.Mode.parse(" Cached "));
+        assertEquals(CountService.Mode.ESTIMATE, CountService.Mode.parse("estimate"));
+        assertEquals(CountService.Mode.NONE, CountService.Mode.parse("NONE"));
+    }
+
+    @Test
+    void parse_rejectsUnknownMode() {
+        assertThrows(BadRequestException.class, () -> CountService.Mode.parse("whatever"));
+    }
+
+    @Test
+    void normalize_trimsAndDropsBlankTerms() {
+        assertEquals("aço", CountService.normalize(" aço "));
+        assertNull(CountService.normalize("   "));
+        assertNull(CountService.normalize(null));
+        assertEquals(CountService.key(" Aço ", null), CountService.key(CountService.normalize(" Aço "), null));
+    }
+
+    @Test
+    void exact_alwaysRunsTheCount() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.count(CountService.Scope.PRODUCTS, CountService.Mode.EXACT, "a", null, () -> calls.incrementAndGet());
+        service.count(CountService.Scope.PRODUCTS, CountService.Mode.EXACT, "a", null, () -> calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void none_returnsNullWithoutCounting() {
+        assertNull(service.count(CountService.Scope.PRODUCTS, CountService.Mode.NONE, "a", null,
+                () -> { throw new AssertionError("count should not run"); }));
+    }
+
+    @Test
+    void cached_reusesCountForNormalizedKeyUntilCatalogChanges() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(7L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.CACHED, "Aço ", "product",
+                () -> { calls.incrementAndGet(); return 7L; }));
+        assertEquals(7L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.CACHED, "aço", null,
+                () -> { calls.incrementAndGet(); return 8L; }));
+        assertEquals(1, calls.get());
+
+        Feedstock f = new Feedstock();
+        f.id = 10L;
+        f.feedstockCode = "F010";
+        f.name = "Aço";
+        f.stock = BigDecimal.ONE;
+        f.unitOfMeasure = "KG";
+        service.onCatalogChanged(CatalogChanged.of(CatalogChanged.FeedstockChange.saved(f)));
+
+        assertEquals(9L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.CACHED, "aço", null,
+                () -> { calls.incrementAndGet(); return 9L; }));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void productChange_keepsFeedstockCounts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        service.count(CountService.Scope.FEEDSTOCKS, CountService.Mode.CACHED, "a", null,
+                () -> { calls.incrementAndGet(); return 3L; });
+        service.onCatalogChanged(CatalogChanged.of(CatalogChanged.ProductChange.deleted(1L)));
+        service.count(CountService.Scope.FEEDSTOCKS, CountService.Mode.CACHED, "a", null,
+                () -> { calls.incrementAndGet(); return 3L; });
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void estimate_usesSnapshotForUnfilteredLists() {
+        BomSnapshot bom = BomSnapshot.builder(2, 1, 0)
+                .addProduct(1L, "P001", "A", 100)
+                .addProduct(2L, "P002", "B", 200)
+                .addFeedstock(10L, "F010", "Aço", "KG", 1_000_000)
+                .build();
+        when(snapshots.current()).thenReturn(bom);
+
+        assertEquals(2L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.ESTIMATE, " ", null,
+                () -> { throw new AssertionError("count should not run"); }));
+        assertEquals(1L, service.count(CountService.Scope.FEEDSTOCKS, CountService.Mode.ESTIMATE, null, null,
+                () -> { throw new AssertionError("count should not run"); }));
+        assertEquals(5L, service.count(CountService.Scope.FEEDSTOCKS, CountService.Mode.ESTIMATE, "a%", null,
+                () -> 5L));
+    }
+
+    @Test
+    void estimate_matchesFilteredListsAgainstTheSnapshot() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(3, 2, 2)
+                .addProduct(1L, "P001", "Mesa", 100)
+                .addProduct(2L, "P002", "Cadeira", 200)
+                .addProduct(3L, "X003", "Banco", 300)
+                .addFeedstock(10L, "F010", "Aço", "KG", 1_000_000)
+                .addFeedstock(11L, "F011", "Madeira", "KG", 1_000_000);
+        builder.addLine(1L, 11L, 1_000_000);
+        builder.addLine(2L, 10L, 1_000_000);
+        when(snapshots.current()).thenReturn(builder.build());
+        LongSupplier noCount = () -> { throw new AssertionError("count should not run"); };
+
+        assertEquals(2L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.ESTIMATE, "p00", null, noCount));
+        assertEquals(1L, service.count(CountService.Scope.PRODUCTS, CountService.Mode.ESTIMATE, "MAD", "feedstock",
+                noCount));
+        assertEquals(1L, service.count(CountService.Scope.FEEDSTOCKS, CountService.Mode.ESTIMATE, "aço", null, noCount));
+    }
+}
@@ -1,8 +1,14 @@
 package br.com.autoflex.service;
 
 import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.entity.CatalogTombstone;
 import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.repository.CatalogTombstoneRepository;
+import br.com.autoflex.repository.FeedstockMovementRepository;
 import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.projection.BomLineRow;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
@@ -10,10 +16,13 @@ import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.InjectMock;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,6 +38,18 @@ class FeedstockServiceTest {
     @InjectMock
     FeedstockRepository repo;
 
+    @InjectMock
+    ProductFeedstockRepository lineRepo;
+
+    @InjectMock
+    SearchIndexService searchIndex;
+
+    @InjectMock
+    FeedstockMovementRepository movementRepo;
+
+    @InjectMock
+    CatalogTombstoneRepository tombstoneRepo;
+
     @Test
     void list_appliesDefaultsAndPagesQuery() {
         @SuppressWarnings("unchecked")
@@ -47,6 +68,18 @@ class FeedstockServiceTest {
         ));
     }
 
+    @Test
+    void linesByFeedstock_loadsAllLinesInOneQueryAndGroupsThem() {
+        when(lineRepo.findByFeedstockIds(List.of(10L, 11L))).thenReturn(List.of(
+                line(1L, 10L), line(2L, 10L), line(2L, 11L)));
+
+        Map<Long, List<BomLineRow>> lines = service.linesByFeedstock(List.of(10L, 11L));
+
+        assertEquals(2, lines.get(10L).size());
+        assertEquals(1, lines.get(11L).size());
+        verify(lineRepo, times(1)).findByFeedstockIds(List.of(10L, 11L));
+    }
+
     @Test
     void create_persistsEntity() {
         FeedstockDtos.CreateRequest req = new FeedstockDtos.CreateRequest();
@@ -60,11 +93,37 @@ class FeedstockServiceTest {
         assertNotNull(created);
         assertEquals("F001", created.feedstockCode);
         verify(repo).persist(any(Feedstock.class));
+        verify(movementRepo).persist(argThat((FeedstockMovement m) ->
+                m.kind == FeedstockMovement.Kind.OPENING && m.quantity.compareTo(req.stock) == 0
+                        && m.compactedAt != null));
+    }
+
+    @Test
+    void update_recordsStockChangeAsPendingAdjustment() {
+        Feedstock f = new Feedstock();
+        f.id = 4L;
+        f.stock = new BigDecimal("10");
+        f.pendingStock = new BigDecimal("2");
+        when(repo.findById(4L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(f);
+
+        FeedstockDtos.UpdateRequest req = new FeedstockDtos.UpdateRequest();
+        req.feedstockCode = "F004";
+        req.name = "Mat";
+        req.stock = new BigDecimal("15");
+        req.unitOfMeasure = "KG";
+
+        Feedstock updated = service.update(4L, req);
+
+        assertEquals(0, new BigDecimal("10").compareTo(updated.stock));
+        assertEquals(0, new BigDecimal("5").compareTo(updated.pendingStock));
+        verify(movementRepo).persist(argThat((FeedstockMovement m) ->
+                m.kind == FeedstockMovement.Kind.ADJUSTMENT && m.quantity.compareTo(new BigDecimal("3")) == 0
+                        && m.compactedAt == null));
     }
 
     @Test
     void update_returnsNullWhenNotFound() {
-        when(repo.findById(9L)).thenReturn(null);
+        when(repo.findById(9L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(null);
 
         FeedstockDtos.UpdateRequest req = new FeedstockDtos.UpdateRequest();
         req.feedstockCode = "F009";
@@ -75,7 +134,7 @@ class FeedstockServiceTest {
         Feedstock updated = service.update(9L, req);
 
         assertNull(updated);
-        verify(repo).findById(9L);
+        verify(repo).findById(9L, LockModeType.PESSIMISTIC_WRITE);
     }
 
     @Test
@@ -86,5 +145,12 @@ class FeedstockServiceTest {
 
         assertTrue(ok);
         verify(repo).deleteById(3L);
+        verify(tombstoneRepo).persist(argThat((CatalogTombstone t) ->
+                t.id.kind == CatalogTombstone.Kind.FEEDSTOCK && t.id.entityId == 3L));
+    }
+
+    private BomLineRow line(Long productId, Long feedstockId) {
+        return new BomLineRow(productId, "P" + productId, "Produto", new BigDecimal("10.00"),
+                feedstockId, "F" + feedstockId, "Insumo", new BigDecimal("100"), new BigDecimal("1.0"));
     }
-}
\ No newline at end of file
+}
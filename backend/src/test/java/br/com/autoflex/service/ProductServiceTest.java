@@ -1,10 +1,18 @@
 package br.com.autoflex.service;
 
 import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.entity.CatalogTombstone;
 import br.com.autoflex.entity.Feedstock;
 import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.repository.CatalogTombstoneRepository;
 import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.PageCursor;
+import br.com.autoflex.repository.ProductFeedstockRepository;
 import br.com.autoflex.repository.ProductRepository;
+import br.com.autoflex.repository.ProductRepository.Listing;
+import br.com.autoflex.repository.projection.BomLineRow;
 
 import io.quarkus.hibernate.orm.panache.PanacheQuery;
 import io.quarkus.panache.common.Page;
@@ -12,6 +20,8 @@ import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.InjectMock;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
 import org.junit.jupiter.api.Test;
@@ -20,6 +30,7 @@ import org.mockito.ArgumentMatchers;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,18 +47,27 @@ class ProductServiceTest {
     @InjectMock
     FeedstockRepository feedstockRepo;
 
+    @InjectMock
+    ProductFeedstockRepository lineRepo;
+
+    @InjectMock
+    SearchIndexService searchIndex;
+
+    @InjectMock
+    CatalogTombstoneRepository tombstoneRepo;
+
     @Test
     @SuppressWarnings("unchecked")
     void list_appliesDefaultsAndPagesQuery() {
         PanacheQuery<Product> query = mock(PanacheQuery.class);
 
-        when(productRepo.searchByProduct("abc")).thenReturn(query);
+        when(productRepo.searchByProduct("abc", null, Listing.DEFAULT)).thenReturn(query);
         when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
 
-        PanacheQuery<Product> result = service.list("abc", null, null, null);
+        PanacheQuery<Product> result = service.list("abc", null, null, null, Listing.DEFAULT);
 
         assertSame(query, result);
-        verify(productRepo).searchByProduct("abc");
+        verify(productRepo).searchByProduct("abc", null, Listing.DEFAULT);
         verify(query).page(argThat(p -> p.index == 0 && p.size == 20));
     }
 
@@ -56,10 +76,10 @@ class ProductServiceTest {
     void list_capsSizeTo100() {
         PanacheQuery<Product> query = mock(PanacheQuery.class);
 
-        when(productRepo.searchByProduct(null)).thenReturn(query);
+        when(productRepo.searchByProduct(null, null, Listing.DEFAULT)).thenReturn(query);
         when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
 
-        service.list(null, null, 2, 999);
+        service.list(null, null, 2, 999, Listing.DEFAULT);
 
         verify(query).page(argThat(p -> p.index == 2 && p.size == 100));
     }
@@ -69,16 +89,95 @@ class ProductServiceTest {
     void list_usesFeedstockSearch_whenSearchTypeIsFeedstock() {
         PanacheQuery<Product> query = mock(PanacheQuery.class);
 
-        when(productRepo.searchByFeedstockName("aco")).thenReturn(query);
+        when(productRepo.searchByFeedstockName("aco", null, Listing.DEFAULT)).thenReturn(query);
         when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
 
-        PanacheQuery<Product> result = service.list("aco", "feedstock", 0, 20);
+        PanacheQuery<Product> result = service.list("aco", "feedstock", 0, 20, Listing.DEFAULT);
 
         assertSame(query, result);
-        verify(productRepo).searchByFeedstockName("aco");
+        verify(productRepo).searchByFeedstockName("aco", null, Listing.DEFAULT);
         verify(query).page(argThat(p -> p.index == 0 && p.size == 20));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_filtersByIndexedIds_whenIndexCanAnswer() {
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(searchIndex.productIds("parafuso")).thenReturn(new long[]{3L, 9L});
+        when(productRepo.searchByIds(List.of(3L, 9L), null, Listing.DEFAULT)).thenReturn(query);
+        when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
+
+        assertSame(query, service.list("parafuso", "product", 0, 20, Listing.DEFAULT));
+        verify(productRepo, never()).searchByProduct(anyString(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void list_filtersByIndexedFeedstockIds_whenSearchTypeIsFeedstock() {
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(searchIndex.feedstockIdsByName("aço")).thenReturn(new long[]{10L});
+        when(productRepo.searchByFeedstockIds(List.of(10L), null, Listing.DEFAULT)).thenReturn(query);
+        when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
+
+        assertSame(query, service.list("aço", "feedstock", 0, 20, Listing.DEFAULT));
+        verify(productRepo, never()).searchByFeedstockName(anyString(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listAfter_seeksPastCursorOnFirstPageOnly() {
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+        String cursor = PageCursor.encode(new BigDecimal("10.00"), 7L);
+
+        when(productRepo.searchByFeedstockName(eq("aco"), any(PageCursor.class), eq(Listing.DEFAULT))).thenReturn(query);
+        when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
+
+        PanacheQuery<Product> result = service.listAfter("aco", "feedstock", cursor, 50, Listing.DEFAULT);
+
+        assertSame(query, result);
+        verify(productRepo).searchByFeedstockName("aco", new PageCursor(new BigDecimal("10.00"), 7L), Listing.DEFAULT);
+        verify(query).page(argThat(p -> p.index == 0 && p.size == 50));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listAfter_startsFromTheTopWithEmptyCursor() {
+        PanacheQuery<Product> query = mock(PanacheQuery.class);
+
+        when(productRepo.searchByProduct(null, null, Listing.DEFAULT)).thenReturn(query);
+        when(query.page(ArgumentMatchers.any(Page.class))).thenReturn(query);
+
+        service.listAfter(null, null, "", null, Listing.DEFAULT);
+
+        verify(productRepo).searchByProduct(null, null, Listing.DEFAULT);
+        verify(query).page(argThat(p -> p.index == 0 && p.size == 20));
+    }
+
+    @Test
+    void listAfter_rejectsInvalidCursor() {
+        assertThrows(BadRequestException.class, () -> service.listAfter(null, null, "%%%", 20, Listing.DEFAULT));
+    }
+
+    @Test
+    void linesByProduct_loadsAllLinesInOneQueryAndGroupsThem() {
+        when(lineRepo.findByProductIds(List.of(1L, 2L))).thenReturn(List.of(
+                line(1L, 10L), line(1L, 11L), line(2L, 10L)));
+
+        Map<Long, List<BomLineRow>> lines = service.linesByProduct(List.of(1L, 2L));
+
+        assertEquals(2, lines.get(1L).size());
+        assertEquals(1, lines.get(2L).size());
+        verify(lineRepo, times(1)).findByProductIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void linesByProduct_skipsQueryForEmptyPage() {
+        assertTrue(service.linesByProduct(List.of()).isEmpty());
+        verifyNoInteractions(lineRepo);
+    }
+
     @Test
     void getById_returnsEntityOrNull() {
         Product p = new Product();
@@ -101,11 +200,21 @@ class ProductServiceTest {
 
         assertTrue(ok);
         verify(productRepo).deleteById(5L);
+        verify(tombstoneRepo).persist(argThat((CatalogTombstone t) ->
+                t.id.kind == CatalogTombstone.Kind.PRODUCT && t.id.entityId == 5L && t.revision > 0));
+    }
+
+    @Test
+    void delete_leavesNoTombstoneWhenNotFound() {
+        when(productRepo.deleteById(6L)).thenReturn(false);
+
+        assertFalse(service.delete(6L));
+        verify(tombstoneRepo, never()).persist(any(CatalogTombstone.class));
     }
 
     @Test
     void update_returnsNullWhenNotFound() {
-        when(productRepo.findById(1L)).thenReturn(null);
+        when(productRepo.findById(1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(null);
 
         ProductDtos.UpdateRequest req = new ProductDtos.UpdateRequest();
         req.productCode = "P1";
@@ -115,7 +224,7 @@ class ProductServiceTest {
         Product updated = service.update(1L, req);
 
         assertNull(updated);
-        verify(productRepo).findById(1L);
+        verify(productRepo).findById(1L, LockModeType.PESSIMISTIC_WRITE);
     }
 
     @Test
@@ -126,7 +235,7 @@ class ProductServiceTest {
         p.name = "OLD";
         p.unitPrice = new BigDecimal("1.00");
 
-        when(productRepo.findById(1L)).thenReturn(p);
+        when(productRepo.findById(1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(p);
 
         ProductDtos.UpdateRequest req = new ProductDtos.UpdateRequest();
         req.productCode = "NEW";
@@ -154,10 +263,10 @@ class ProductServiceTest {
 
         req.feedstocks = List.of(fq);
 
-        when(feedstockRepo.findById(999L)).thenReturn(null);
+        when(feedstockRepo.findByIds(ArgumentMatchers.anyCollection())).thenReturn(List.of());
 
         assertThrows(NotFoundException.class, () -> service.create(req));
-        verify(feedstockRepo).findById(999L);
+        verify(productRepo, never()).persist(ArgumentMatchers.any(Product.class));
     }
 
     @Test
@@ -185,8 +294,7 @@ class ProductServiceTest {
         f2.id = 11L;
         f2.name = "Mat 11";
 
-        when(feedstockRepo.findById(10L)).thenReturn(f1);
-        when(feedstockRepo.findById(11L)).thenReturn(f2);
+        when(feedstockRepo.findByIds(ArgumentMatchers.anyCollection())).thenReturn(List.of(f1, f2));
 
         doAnswer(inv -> {
             Product p = inv.getArgument(0);
@@ -204,7 +312,104 @@ class ProductServiceTest {
 
         verify(productRepo).persist(ArgumentMatchers.any(Product.class));
         verify(productRepo).flush();
-        verify(feedstockRepo).findById(10L);
-        verify(feedstockRepo).findById(11L);
+        verify(feedstockRepo, times(1)).findByIds(ArgumentMatchers.anyCollection());
+        verify(feedstockRepo, never()).findById(ArgumentMatchers.any());
+    }
+
+    @Test
+    void update_appliesBomDiff() {
+        Product p = productWithLines(1L, Map.of(10L, "1.000", 11L, "2.000", 12L, "3.000"));
+        ProductFeedstock unchanged = line(p, 10L);
+        ProductFeedstock changed = line(p, 11L);
+
+        when(productRepo.findById(1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(p);
+        when(feedstockRepo.findByIds(ArgumentMatchers.anyCollection()))
+                .thenReturn(List.of(feedstock(10L), feedstock(11L), feedstock(13L)));
+
+        ProductDtos.UpdateRequest req = updateRequest(
+                quantity(10L, "1.0"), quantity(11L, "2.500"), quantity(13L, "4.000"));
+
+        Product updated = service.update(1L, req);
+
+        assertEquals(3, updated.feedstocks.size());
+        assertSame(unchanged, line(updated, 10L));
+        assertEquals(new BigDecimal("1.000"), unchanged.quantity);
+        assertSame(changed, line(updated, 11L));
+        assertEquals(new BigDecimal("2.500"), changed.quantity);
+        assertNull(line(updated, 12L));
+        assertEquals(new BigDecimal("4.000"), line(updated, 13L).quantity);
+        assertTrue(updated.revision > 0);
+        assertEquals(0, unchanged.revision);
+        assertEquals(updated.revision, changed.revision);
+        assertEquals(updated.revision, line(updated, 13L).revision);
+        verify(feedstockRepo, times(1)).findByIds(ArgumentMatchers.anyCollection());
+    }
+
+    @Test
+    void update_throwsNotFoundWhenNewFeedstockDoesNotExist() {
+        Product p = productWithLines(1L, Map.of(10L, "1.000"));
+
+        when(productRepo.findById(1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(p);
+        when(feedstockRepo.findByIds(ArgumentMatchers.anyCollection())).thenReturn(List.of(feedstock(10L)));
+
+        ProductDtos.UpdateRequest req = updateRequest(quantity(10L, "1.000"), quantity(999L, "1.000"));
+
+        NotFoundException e = assertThrows(NotFoundException.class, () -> service.update(1L, req));
+        assertEquals("Feedstock not found: 999", e.getMessage());
+    }
+
+    @Test
+    void update_rejectsFeedstockListedTwice() {
+        when(productRepo.findById(1L, LockModeType.PESSIMISTIC_WRITE)).thenReturn(productWithLines(1L, Map.of()));
+
+        ProductDtos.UpdateRequest req = updateRequest(quantity(10L, "1.000"), quantity(10L, "2.000"));
+
+        assertThrows(BadRequestException.class, () -> service.update(1L, req));
+        verify(feedstockRepo, never()).findByIds(ArgumentMatchers.anyCollection());
+    }
+
+    private static Product productWithLines(Long id, Map<Long, String> quantities) {
+        Product p = new Product();
+        p.id = id;
+        quantities.forEach((feedstockId, quantity) -> {
+            ProductFeedstock pf = new ProductFeedstock();
+            pf.id = new ProductFeedstockId(id, feedstockId);
+            pf.product = p;
+            pf.feedstock = feedstock(feedstockId);
+            pf.quantity = new BigDecimal(quantity);
+            p.feedstocks.add(pf);
+        });
+        return p;
+    }
+
+    private static ProductFeedstock line(Product p, Long feedstockId) {
+        return p.feedstocks.stream().filter(pf -> pf.id.idFeedstock.equals(feedstockId)).findFirst().orElse(null);
+    }
+
+    private static Feedstock feedstock(Long id) {
+        Feedstock f = new Feedstock();
+        f.id = id;
+        return f;
+    }
+
+    private static ProductDtos.FeedstockQuantity quantity(Long feedstockId, String quantity) {
+        ProductDtos.FeedstockQuantity fq = new ProductDtos.FeedstockQuantity();
+        fq.feedstockId = feedstockId;
+        fq.quantity = new BigDecimal(quantity);
+        return fq;
+    }
+
+    private static ProductDtos.UpdateRequest updateRequest(ProductDtos.FeedstockQuantity... lines) {
+        ProductDtos.UpdateRequest req = new ProductDtos.UpdateRequest();
+        req.productCode = "P1";
+        req.name = "Produto";
+        req.unitPrice = new BigDecimal("10.00");
+        req.feedstocks = List.of(lines);
+        return req;
+    }
+
+    private BomLineRow line(Long productId, Long feedstockId) {
+        return new BomLineRow(productId, "P" + productId, "Produto", new BigDecimal("10.00"),
+                feedstockId, "F" + feedstockId, "Insumo", new BigDecimal("100"), new BigDecimal("1.0"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.dto.ProductionOrderDtos;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.entity.ProductionOrder;
+import br.com.autoflex.repository.FeedstockMovementRepository;
+import br.com.autoflex.repository.FeedstockRepository;
+import br.com.autoflex.repository.ProductFeedstockRepository;
+import br.com.autoflex.repository.ProductRepository;
+import br.com.autoflex.repository.ProductionOrderRepository;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.ws.rs.NotFoundException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class ProductionOrderServiceTest {
+
+    @Inject
+    ProductionOrderService service;
+
+    @InjectMock
+    ProductionOrderRepository repo;
+
+    @InjectMock
+    ProductRepository productRepo;
+
+    @InjectMock
+    FeedstockRepository feedstockRepo;
+
+    @InjectMock
+    ProductFeedstockRepository lineRepo;
+
+    @InjectMock
+    FeedstockMovementRepository movementRepo;
+
+    @BeforeEach
+    void setUp() {
+        when(movementRepo.getEntityManager()).thenReturn(mock(EntityManager.class));
+    }
+
+    @Test
+    void create_consumesEveryLineTimesUnitsInOneBatch() {
+        when(lineRepo.findRequirements(1L)).thenReturn(List.of(
+                new Object[]{10L, new BigDecimal("0.250000")},
+                new Object[]{11L, new BigDecimal("2.000000")}));
+        when(feedstockRepo.consumeStock(any(), any())).thenReturn(new int[]{1, 1});
+
+        ProductionOrderDtos.Response order = service.create(request(1L, 4L));
+
+        verify(feedstockRepo).consumeStock(
+                aryEq(new long[]{10L, 11L}),
+                aryEq(new BigDecimal[]{new BigDecimal("1.000000"), new BigDecimal("8.000000")}));
+        verify(repo).persist(argThat((ProductionOrder o) -> o.productId == 1L && o.units == 4L && o.createdAt != null));
+
+        verify(movementRepo, times(2)).persist(argThat((FeedstockMovement m) ->
+                m.kind == FeedstockMovement.Kind.CONSUMPTION && m.quantity.signum() < 0 && m.compactedAt != null));
+
+        assertEquals(2, order.consumed.size());
+        assertEquals(0, new BigDecimal("8").compareTo(order.consumed.get(1).quantity));
+    }
+
+    @Test
+    void create_reportsEveryShortLine_andPersistsNothing() {
+        when(lineRepo.findRequirements(1L)).thenReturn(List.of(
+                new Object[]{10L, new BigDecimal("1.000000")},
+                new Object[]{11L, new BigDecimal("1.000000")},
+                new Object[]{12L, new BigDecimal("1.000000")}));
+        when(feedstockRepo.consumeStock(any(), any())).thenReturn(new int[]{1, 0, 0});
+        when(feedstockRepo.findStocks(List.of(11L, 12L)))
+                .thenReturn(Map.of(11L, new BigDecimal("3"), 12L, BigDecimal.ZERO));
+
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> service.create(request(1L, 5L)));
+
+        assertEquals(409, e.getResponse().getStatus());
+        ProductionOrderDtos.ShortfallResponse body = (ProductionOrderDtos.ShortfallResponse) e.getResponse().getEntity();
+        assertEquals(List.of(11L, 12L), body.shortfalls.stream().map(s -> s.feedstockId).toList());
+        assertEquals(0, new BigDecimal("3").compareTo(body.shortfalls.get(0).available));
+        verify(repo, never()).persist(any(ProductionOrder.class));
+    }
+
+    @Test
+    void create_returns404_forUnknownProduct() {
+        when(lineRepo.findRequirements(99L)).thenReturn(List.of());
+        when(productRepo.count("id", 99L)).thenReturn(0L);
+
+        assertThrows(NotFoundException.class, () -> service.create(request(99L, 1L)));
+        verify(feedstockRepo, never()).consumeStock(any(), any());
+    }
+
+    private static ProductionOrderDtos.CreateRequest request(Long productId, Long units) {
+        ProductionOrderDtos.CreateRequest req = new ProductionOrderDtos.CreateRequest();
+        req.productId = productId;
+        req.units = units;
+        return req;
+    }
+}
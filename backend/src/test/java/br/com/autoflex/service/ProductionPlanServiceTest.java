@@ -0,0 +1,378 @@
+package br.com.autoflex.service;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.dto.ProductionPlanDtos;
+import br.com.autoflex.dto.RequirementDtos;
+import br.com.autoflex.planning.FeedstockImpact;
+import br.com.autoflex.planning.GreedyPlanner;
+import br.com.autoflex.planning.OptimalPlan;
+import br.com.autoflex.planning.ProductionPlan;
+import br.com.autoflex.planning.Shortfall;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.InjectMock;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@QuarkusTest
+class ProductionPlanServiceTest {
+
+    @Inject
+    ProductionPlanService service;
+
+    @InjectMock
+    BomSnapshotService snapshots;
+
+    @Test
+    void plan_allocatesStockToHigherPricedProductsFirst() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(2, 2, 3)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 5_000_000L)
+                .addProduct(1L, "P001", "Barato", 5_000L)
+                .addProduct(2L, "P002", "Caro", 10_000L);
+        bom.addLine(2L, 10L, 3_000_000L);
+        bom.addLine(1L, 10L, 1_000_000L);
+        bom.addLine(1L, 11L, 2_000_000L);
+
+        when(snapshots.current()).thenReturn(bom.build());
+
+        ProductionPlan plan = service.plan();
+
+        int expensive = plan.bom.productIndexOf(2L);
+        int cheap = plan.bom.productIndexOf(1L);
+
+        assertEquals(expensive, plan.bom.priceOrder[0]);
+        assertEquals(3L, plan.units[expensive]);
+        assertEquals(1L, plan.units[cheap]);
+        assertEquals(0L, plan.remainingStocks[plan.bom.feedstockIndexOf(10L)]);
+        assertEquals(3_000_000L, plan.remainingStocks[plan.bom.feedstockIndexOf(11L)]);
+    }
+
+    @Test
+    void plan_handlesFractionalQuantitiesExactly() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(1, 1, 1)
+                .addFeedstock(10L, "F010", "Aço", "KG", 300_000L)
+                .addProduct(1L, "P001", "Parafuso", 150L);
+        bom.addLine(1L, 10L, 100_000L);
+
+        when(snapshots.current()).thenReturn(bom.build());
+
+        ProductionPlan plan = service.plan();
+
+        assertEquals(3L, plan.units[0]);
+        assertEquals(3L, plan.totalUnits());
+    }
+
+    @Test
+    void impact_recomputesOnlyProductsUsingTheFeedstock_sortedByRevenueLost() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(4, 3, 5)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 4_000_000L)
+                .addFeedstock(12L, "F012", "Cola", "L", 1_000_000L)
+                .addProduct(1L, "P001", "Limitado pela tinta", 5_000L)
+                .addProduct(2L, "P002", "Caro", 10_000L)
+                .addProduct(3L, "P003", "Barato", 1_000L)
+                .addProduct(4L, "P004", "Sem aço", 99_900L);
+        bom.addLine(1L, 10L, 1_000_000L);
+        bom.addLine(1L, 11L, 2_000_000L);
+        bom.addLine(2L, 10L, 2_000_000L);
+        bom.addLine(3L, 10L, 1_000_000L);
+        bom.addLine(4L, 12L, 1_000_000L);
+
+        when(snapshots.current()).thenReturn(bom.build());
+
+        FeedstockImpact impact = service.impact(10L, new BigDecimal("3"));
+
+        assertEquals(3, impact.size());
+        assertEquals(2L, impact.bom.productIds[impact.products[0]]);
+        assertEquals(5L, impact.unitsBefore[0]);
+        assertEquals(1L, impact.unitsAfter[0]);
+        assertEquals(-40_000L, impact.revenueDelta(0));
+        assertTrue(impact.bottleneck[0]);
+
+        assertEquals(3L, impact.bom.productIds[impact.products[1]]);
+        assertEquals(-7_000L, impact.revenueDelta(1));
+
+        assertEquals(1L, impact.bom.productIds[impact.products[2]]);
+        assertEquals(2L, impact.unitsBefore[2]);
+        assertEquals(2L, impact.unitsAfter[2]);
+        assertFalse(impact.bottleneck[2]);
+
+        assertEquals(10_000L + 50_000L + 10_000L, impact.revenueBefore());
+        assertEquals(10_000L + 10_000L + 3_000L, impact.revenueAfter());
+    }
+
+    @Test
+    void impact_returnsNullForUnknownFeedstock() {
+        when(snapshots.current()).thenReturn(BomSnapshot.builder(0, 0, 0).build());
+
+        assertNull(service.impact(99L, BigDecimal.ZERO));
+    }
+
+    @Test
+    void impact_rejectsStocksAndRevenuesBeyondALong() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(2, 1, 2)
+                .addFeedstock(10L, "F010", "Aço", "KG", 20_000_000L)
+                .addProduct(1L, "P001", "Caro", 900_000_000_000_000_000L)
+                .addProduct(2L, "P002", "Caro também", 900_000_000_000_000_000L);
+        bom.addLine(1L, 10L, 1_000_000L);
+        bom.addLine(2L, 10L, 1_000_000L);
+        when(snapshots.current()).thenReturn(bom.build());
+
+        assertThrows(BadRequestException.class, () -> service.impact(10L, new BigDecimal("1e20")));
+        assertThrows(BadRequestException.class, () -> service.impact(10L, BigDecimal.ONE));
+    }
+
+    @Test
+    void optimize_findsTheMixGreedyMisses() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(2, 1, 2)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addProduct(1L, "P001", "Leve", 6_000L)
+                .addProduct(2L, "P002", "Pesado", 10_000L);
+        bom.addLine(1L, 10L, 5_000_000L);
+        bom.addLine(2L, 10L, 6_000_000L);
+
+        when(snapshots.current()).thenReturn(bom.build());
+
+        assertEquals(10_000L, service.plan().totalValue());
+
+        OptimalPlan optimal = service.optimize(Duration.ofSeconds(5));
+
+        assertTrue(optimal.optimal);
+        assertEquals(12_000L, optimal.plan.totalValue());
+        assertEquals(2L, optimal.plan.units[optimal.plan.bom.productIndexOf(1L)]);
+        assertEquals(0L, optimal.plan.units[optimal.plan.bom.productIndexOf(2L)]);
+        assertEquals(12_000L, optimal.upperBound);
+        assertEquals(0.0, optimal.gap());
+    }
+
+    @Test
+    void optimize_matchesExhaustiveSearchOnSmallCatalogs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            BomSnapshot bom = randomCatalog(random, 5, 3, 12);
+            when(snapshots.current()).thenReturn(bom);
+
+            OptimalPlan optimal = service.optimize(Duration.ofSeconds(5));
+
+            assertTrue(optimal.optimal);
+            assertEquals(exhaustive(bom, 0, bom.stocks.clone()), optimal.plan.totalValue(), "round " + round);
+            for (long remaining : optimal.plan.remainingStocks) assertTrue(remaining >= 0);
+        }
+    }
+
+    @Test
+    void optimize_stopsAtTheBudgetWithAFeasiblePlanAndABound() {
+        BomSnapshot bom = randomCatalog(new Random(7), 400, 40, 1_000);
+        when(snapshots.current()).thenReturn(bom);
+        long greedy = GreedyPlanner.plan(bom).totalValue();
+
+        long start = System.nanoTime();
+        OptimalPlan optimal = service.optimize(Duration.ofMillis(100));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMs < 2_000, "took " + elapsedMs + " ms");
+        assertTrue(optimal.plan.totalValue() >= greedy);
+        assertTrue(optimal.upperBound >= optimal.plan.totalValue());
+        assertTrue(optimal.gap() >= 0.0 && optimal.gap() <= 1.0);
+        for (long remaining : optimal.plan.remainingStocks) assertTrue(remaining >= 0);
+    }
+
+    @Test
+    void optimize_rejectsPlansWorthMoreThanALongOfCents() {
+        BomSnapshot.Builder bom = BomSnapshot.builder(1, 1, 1)
+                .addFeedstock(10L, "F010", "Aço", "KG", 20_000_000L)
+                .addProduct(1L, "P001", "Caro", 900_000_000_000_000_000L);
+        bom.addLine(1L, 10L, 1_000_000L);
+        when(snapshots.current()).thenReturn(bom.build());
+
+        assertThrows(BadRequestException.class, () -> service.optimize(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void simulate_plansEachScenarioOnItsOwnCopy() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(2, 2, 3)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 5_000_000L)
+                .addProduct(1L, "P001", "Barato", 5_000L)
+                .addProduct(2L, "P002", "Caro", 10_000L);
+        builder.addLine(2L, 10L, 3_000_000L);
+        builder.addLine(1L, 10L, 1_000_000L);
+        builder.addLine(1L, 11L, 2_000_000L);
+        BomSnapshot bom = builder.build();
+        long[] stocks = bom.stocks.clone();
+        int[] priceOrder = bom.priceOrder.clone();
+
+        when(snapshots.current()).thenReturn(bom);
+
+        ProductionPlanService.Simulation simulation = service.simulate(List.of(
+                scenario(List.of(stockDelta(10L, "2")), List.of()),
+                scenario(List.of(), List.of(price(1L, "200.00"))),
+                scenario(null, null)));
+
+        int cheap = bom.productIndexOf(1L);
+        int expensive = bom.productIndexOf(2L);
+        assertEquals(35_000L, simulation.baseline().totalValue());
+
+        ProductionPlan moreSteel = simulation.plans()[0];
+        assertEquals(4L, moreSteel.units[expensive]);
+        assertEquals(0L, moreSteel.units[cheap]);
+        assertEquals(40_000L, moreSteel.totalValue());
+
+        ProductionPlan repriced = simulation.plans()[1];
+        assertEquals(2L, repriced.units[cheap]);
+        assertEquals(2L, repriced.units[expensive]);
+        assertEquals(60_000L, repriced.totalValue());
+
+        assertArrayEquals(simulation.baseline().units, simulation.plans()[2].units);
+        assertArrayEquals(stocks, bom.stocks);
+        assertArrayEquals(priceOrder, bom.priceOrder);
+    }
+
+    @Test
+    void simulate_rejectsUnknownFeedstock() {
+        when(snapshots.current()).thenReturn(BomSnapshot.builder(0, 0, 0).build());
+
+        assertThrows(NotFoundException.class,
+                () -> service.simulate(List.of(scenario(List.of(stockDelta(99L, "1")), null))));
+    }
+
+    @Test
+    void simulate_rejectsStockDeltasThatOverflow() {
+        BomSnapshot bom = BomSnapshot.builder(0, 1, 0)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .build();
+        when(snapshots.current()).thenReturn(bom);
+
+        // Each delta fits on its own; their sum on top of the stock does not.
+        String half = Long.toString(Long.MAX_VALUE / 2_000_000);
+        assertThrows(BadRequestException.class, () -> service.simulate(List.of(
+                scenario(List.of(stockDelta(10L, half), stockDelta(10L, half), stockDelta(10L, half)), null))));
+        assertThrows(BadRequestException.class, () -> service.simulate(List.of(
+                scenario(List.of(stockDelta(10L, "1e40")), null))));
+    }
+
+    @Test
+    void requirements_explodeDemandAndReturnOnlyShortfalls_largestFirst() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(2, 3, 4)
+                .addFeedstock(10L, "F010", "Aço", "KG", 10_000_000L)
+                .addFeedstock(11L, "F011", "Tinta", "L", 5_000_000L)
+                .addFeedstock(12L, "F012", "Cola", "L", 100_000_000L)
+                .addProduct(1L, "P001", "Mesa", 5_000L)
+                .addProduct(2L, "P002", "Cadeira", 2_000L);
+        builder.addLine(1L, 10L, 3_000_000L);
+        builder.addLine(1L, 11L, 500_000L);
+        builder.addLine(2L, 10L, 1_500_000L);
+        builder.addLine(2L, 12L, 250_000L);
+        BomSnapshot bom = builder.build();
+
+        when(snapshots.current()).thenReturn(bom);
+
+        Shortfall shortfall = service.requirements(List.of(
+                demand(1L, 4), demand(2L, 6), demand(1L, 8)));
+
+        assertEquals(2, shortfall.size());
+        assertEquals(10L, bom.feedstockIds[shortfall.feedstocks[0]]);
+        assertEquals(45_000_000L, shortfall.required[0]);
+        assertEquals(35_000_000L, shortfall.missing[0]);
+        assertEquals(11L, bom.feedstockIds[shortfall.feedstocks[1]]);
+        assertEquals(6_000_000L, shortfall.required[1]);
+        assertEquals(1_000_000L, shortfall.missing[1]);
+    }
+
+    @Test
+    void requirements_rejectUnknownProductsAndOverflow() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(1, 1, 1)
+                .addFeedstock(10L, "F010", "Aço", "KG", 0L)
+                .addProduct(1L, "P001", "Mesa", 5_000L);
+        builder.addLine(1L, 10L, 1_000_000_000L);
+        when(snapshots.current()).thenReturn(builder.build());
+
+        assertThrows(NotFoundException.class, () -> service.requirements(List.of(demand(9L, 1))));
+        assertThrows(BadRequestException.class,
+                () -> service.requirements(List.of(demand(1L, Long.MAX_VALUE / 1_000))));
+    }
+
+    private static RequirementDtos.Demand demand(Long productId, long units) {
+        RequirementDtos.Demand d = new RequirementDtos.Demand();
+        d.productId = productId;
+        d.units = units;
+        return d;
+    }
+
+    private static ProductionPlanDtos.Scenario scenario(List<ProductionPlanDtos.StockDelta> stock,
+                                                        List<ProductionPlanDtos.PriceOverride> prices) {
+        ProductionPlanDtos.Scenario scenario = new ProductionPlanDtos.Scenario();
+        scenario.stock = stock;
+        scenario.prices = prices;
+        return scenario;
+    }
+
+    private static ProductionPlanDtos.StockDelta stockDelta(Long feedstockId, String delta) {
+        ProductionPlanDtos.StockDelta d = new ProductionPlanDtos.StockDelta();
+        d.feedstockId = feedstockId;
+        d.delta = new BigDecimal(delta);
+        return d;
+    }
+
+    private static ProductionPlanDtos.PriceOverride price(Long productId, String unitPrice) {
+        ProductionPlanDtos.PriceOverride o = new ProductionPlanDtos.PriceOverride();
+        o.productId = productId;
+        o.unitPrice = new BigDecimal(unitPrice);
+        return o;
+    }
+
+    /** Each product uses 1-3 consecutive feedstocks; stock and quantities are whole units. */
+    private static BomSnapshot randomCatalog(Random random, int products, int feedstocks, int maxStock) {
+        BomSnapshot.Builder bom = BomSnapshot.builder(products, feedstocks, products * 3);
+        for (int f = 0; f < feedstocks; f++) {
+            bom.addFeedstock(100L + f, "F" + f, "Insumo", "UN", (1 + random.nextInt(maxStock)) * 1_000_000L);
+        }
+        for (int p = 0; p < products; p++) {
+            bom.addProduct(1L + p, "P" + p, "Produto", 100L + random.nextInt(10_000));
+        }
+        for (int p = 0; p < products; p++) {
+            int first = random.nextInt(feedstocks);
+            int lines = 1 + random.nextInt(Math.min(3, feedstocks));
+            for (int i = 0; i < lines; i++) {
+                long feedstockId = 100L + (first + i) % feedstocks;
+                bom.addLine(1L + p, feedstockId, (1 + random.nextInt(5)) * 1_000_000L);
+            }
+        }
+        return bom.build();
+    }
+
+    private static long exhaustive(BomSnapshot bom, int p, long[] remaining) {
+        if (p == bom.productCount) return 0;
+
+        long best = 0;
+        for (long units = 0; ; units++) {
+            boolean fits = true;
+            for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+                fits &= remaining[bom.lineFeedstocks[i]] >= units * bom.lineQuantities[i];
+            }
+            if (!fits) break;
+
+            for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+                remaining[bom.lineFeedstocks[i]] -= units * bom.lineQuantities[i];
+            }
+            best = Math.max(best, units * bom.unitPrices[p] + exhaustive(bom, p + 1, remaining));
+            for (int i = bom.lineOffsets[p]; i < bom.lineOffsets[p + 1]; i++) {
+                remaining[bom.lineFeedstocks[i]] += units * bom.lineQuantities[i];
+            }
+        }
+        return best;
+    }
+}
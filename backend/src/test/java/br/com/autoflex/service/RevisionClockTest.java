@@ -0,0 +1,93 @@
+package br.com.autoflex.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevisionClockTest {
+
+    @Test
+    void allocate_isStrictlyIncreasingAndAheadOfTheWallClock() {
+        RevisionClock clock = new RevisionClock();
+        long before = System.currentTimeMillis() * 1000;
+
+        long a = clock.allocate();
+        long b = clock.allocate();
+        long c = clock.allocate();
+
+        assertTrue(a >= before);
+        assertTrue(b > a);
+        assertTrue(c > b);
+    }
+
+    @Test
+    void stable_staysBelowTheOldestTransactionInFlight() {
+        RevisionClock clock = new RevisionClock();
+
+        long first = clock.allocate();
+        long second = clock.allocate();
+        assertEquals(first - 1, clock.stable());
+
+        // The later transaction commits first: its rows must not be read yet.
+        clock.release(second);
+        assertEquals(first - 1, clock.stable());
+
+        clock.release(first);
+        assertEquals(second, clock.stable());
+    }
+
+    @Test
+    void stable_neverGoesBackwards() {
+        RevisionClock clock = new RevisionClock();
+        List<Long> open = new ArrayList<>();
+        long last = clock.stable();
+
+        for (int i = 0; i < 100; i++) {
+            open.add(clock.allocate());
+            if (i % 3 == 0) clock.release(open.remove(0));
+            long stable = clock.stable();
+            assertTrue(stable >= last);
+            last = stable;
+        }
+    }
+
+    @Test
+    void horizon_containsWhatCommittedBeforeIt() {
+        RevisionClock clock = new RevisionClock();
+        long early = clock.allocate();
+        long late = clock.allocate();
+        clock.release(late);
+
+        RevisionClock.Horizon horizon = clock.horizon();
+        long next = clock.allocate();
+
+        assertTrue(horizon.contains(late));
+        assertFalse(horizon.contains(early));
+        assertFalse(horizon.contains(next));
+        assertFalse(horizon.contains(0));
+    }
+
+    @Test
+    void horizon_floorStopsBelowTheOldestTransactionInFlight() {
+        RevisionClock clock = new RevisionClock();
+        long early = clock.allocate();
+        long late = clock.allocate();
+
+        RevisionClock.Horizon horizon = clock.horizon();
+        assertEquals(early - 1, horizon.floor());
+
+        // An event seen for the early transaction proves it committed before the read.
+        RevisionClock.Horizon seen = horizon.including(Set.of(early));
+        assertTrue(seen.contains(early));
+        assertFalse(seen.contains(late));
+        assertEquals(late - 1, seen.floor());
+
+        clock.release(early);
+        clock.release(late);
+        assertEquals(late, clock.horizon().floor());
+    }
+}
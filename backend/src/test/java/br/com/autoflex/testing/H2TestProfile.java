@@ -0,0 +1,27 @@
+package br.com.autoflex.testing;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import java.util.Map;
+
+/**
+ * Runs the application against a real in-memory H2 database with the schema generated from the
+ * entity mappings and every statement passed through {@link SqlRecorder}. The second-level cache
+ * is off so statement counts reflect the access pattern, not what happened to be cached.
+ */
+public class H2TestProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.ofEntries(
+                Map.entry("quarkus.datasource.db-kind", "h2"),
+                Map.entry("quarkus.datasource.jdbc.url", "jdbc:h2:mem:app;MODE=Oracle;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"),
+                Map.entry("quarkus.datasource.username", "sa"),
+                Map.entry("quarkus.datasource.password", ""),
+                Map.entry("quarkus.flyway.migrate-at-start", "false"),
+                Map.entry("quarkus.hibernate-orm.database.generation", "drop-and-create"),
+                Map.entry("quarkus.hibernate-orm.second-level-caching-enabled", "false"),
+                Map.entry("quarkus.hibernate-orm.unsupported-properties.\"hibernate.session_factory.statement_inspector\"",
+                        SqlRecorder.class.getName()));
+    }
+}
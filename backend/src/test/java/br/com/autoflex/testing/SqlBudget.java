@@ -0,0 +1,53 @@
+package br.com.autoflex.testing;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Asserts how many SQL statements one call may issue. On failure the message lists every distinct
+ * statement with how often it ran, so a lookup repeated per row (an N+1) stands out:
+ *
+ * <pre>
+ * GET /products/1 issued 12 SQL statements, budget is 3:
+ *      1x  select p1_0.ID_PRODUCT,... from PRODUCT p1_0 where p1_0.ID_PRODUCT=?
+ *     10x  select f1_0.ID_FEEDSTOCK,... from FEEDSTOCK f1_0 where f1_0.ID_FEEDSTOCK=?   &lt;-- repeated
+ * </pre>
+ */
+public final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    /** Runs {@code call}, fails if it issued more than {@code budget} statements, and returns them. */
+    public static List<String> assertAtMost(int budget, String description, Runnable call) {
+        SqlRecorder.start();
+        List<String> statements;
+        try {
+            call.run();
+        } finally {
+            statements = SqlRecorder.stop();
+        }
+
+        if (statements.size() > budget) {
+            fail(description + " issued " + statements.size() + " SQL statements, budget is " + budget + ":\n"
+                    + describe(statements));
+        }
+        return statements;
+    }
+
+    static String describe(List<String> statements) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String sql : statements) counts.merge(sql.replaceAll("\\s+", " ").trim(), 1, Integer::sum);
+
+        StringBuilder out = new StringBuilder();
+        counts.forEach((sql, n) -> out
+                .append(String.format("%6dx  ", n))
+                .append(sql)
+                .append(n > 1 ? "   <-- repeated" : "")
+                .append('\n'));
+        return out.toString();
+    }
+}
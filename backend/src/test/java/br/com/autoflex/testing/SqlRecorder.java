@@ -0,0 +1,42 @@
+package br.com.autoflex.testing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sees every SQL statement Hibernate prepares (registered through {@link H2TestProfile}) and keeps
+ * the ones issued between {@link #start()} and {@link #stop()}. Recording is global: the tests
+ * using it drive one request at a time.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new ArrayList<>();
+
+    private static volatile boolean recording;
+
+    @Override
+    public String inspect(String sql) {
+        if (recording) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+        }
+        return sql;
+    }
+
+    static void start() {
+        synchronized (STATEMENTS) {
+            STATEMENTS.clear();
+        }
+        recording = true;
+    }
+
+    static List<String> stop() {
+        recording = false;
+        synchronized (STATEMENTS) {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+}
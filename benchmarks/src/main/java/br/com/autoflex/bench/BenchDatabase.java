@@ -0,0 +1,130 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductionOrder;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Standalone Hibernate over an in-memory H2 database (Oracle mode) using the backend's entity
+ * mappings and the batching settings from its application.properties. Quarkus is not started;
+ * the schema comes from the mappings plus the indexes the Flyway migrations add.
+ */
+public final class BenchDatabase implements AutoCloseable {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private static final int SEED_BATCH = 1000;
+
+    public final SessionFactory sessionFactory;
+
+    public BenchDatabase() {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:bench" + DATABASES.incrementAndGet() + ";MODE=Oracle;DB_CLOSE_DELAY=-1")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, 50)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .applySetting(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .applySetting(AvailableSettings.SHOW_SQL, false)
+                .build();
+
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(Product.class, Feedstock.class, FeedstockMovement.class, ProductFeedstock.class,
+                        ProductionOrder.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE INDEX IX_PF_ID_FEEDSTOCK ON PRODUCT_FEEDSTOCK (ID_FEEDSTOCK)");
+                st.execute("CREATE INDEX IX_PRODUCT_UNIT_PRICE_ID ON PRODUCT (UNIT_PRICE, ID_PRODUCT)");
+                st.execute("CREATE INDEX IX_FEEDSTOCK_STOCK_ID ON FEEDSTOCK (STOCK, ID_FEEDSTOCK)");
+            }
+        }));
+    }
+
+    /** Loads the catalog with plain JDBC batches; product and feedstock ids are index + 1. */
+    public void seed(SyntheticCatalog catalog) {
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            insertFeedstocks(connection, catalog);
+            insertProducts(connection, catalog);
+            insertLines(connection, catalog);
+            restartSequence(connection, "FEEDSTOCK_SEQ", catalog.feedstocks + 1);
+            restartSequence(connection, "PRODUCT_SEQ", catalog.products + 1);
+        }));
+    }
+
+    private static void insertFeedstocks(Connection connection, SyntheticCatalog c) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into FEEDSTOCK (ID_FEEDSTOCK, FEEDSTOCK_CODE, NAME, STOCK, UNIT_OF_MEASURE) values (?, ?, ?, ?, 'KG')")) {
+            for (int f = 0; f < c.feedstocks; f++) {
+                ps.setLong(1, f + 1);
+                ps.setString(2, c.feedstockCodes[f]);
+                ps.setString(3, c.feedstockNames[f]);
+                ps.setBigDecimal(4, c.stocks[f]);
+                addBatch(ps, f);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertProducts(Connection connection, SyntheticCatalog c) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into PRODUCT (ID_PRODUCT, PRODUCT_CODE, NAME, UNIT_PRICE) values (?, ?, ?, ?)")) {
+            for (int p = 0; p < c.products; p++) {
+                ps.setLong(1, p + 1);
+                ps.setString(2, c.productCodes[p]);
+                ps.setString(3, c.productNames[p]);
+                ps.setBigDecimal(4, c.unitPrices[p]);
+                addBatch(ps, p);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertLines(Connection connection, SyntheticCatalog c) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into PRODUCT_FEEDSTOCK (ID_PRODUCT, ID_FEEDSTOCK, QUANTITY) values (?, ?, ?)")) {
+            for (int at = 0; at < c.lineFeedstocks.length; at++) {
+                ps.setLong(1, at / c.linesPerProduct + 1);
+                ps.setLong(2, c.lineFeedstocks[at] + 1);
+                ps.setBigDecimal(3, c.lineQuantities[at]);
+                addBatch(ps, at);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void addBatch(PreparedStatement ps, int n) throws SQLException {
+        ps.addBatch();
+        if ((n + 1) % SEED_BATCH == 0) ps.executeBatch();
+    }
+
+    private static void restartSequence(Connection connection, String sequence, long next) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+        }
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+    }
+}
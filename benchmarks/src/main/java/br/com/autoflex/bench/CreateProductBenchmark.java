@@ -0,0 +1,85 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persisting one product with a large BOM the way ProductService.create does it: persist and
+ * flush the product, look every feedstock up by id, then cascade the lines on commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateProductBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int lines;
+
+    private BenchDatabase db;
+    private SyntheticCatalog catalog;
+    private final AtomicLong codes = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = new BenchDatabase();
+        catalog = new SyntheticCatalog(42, 1_000, Math.max(2_000, lines), 5);
+        db.seed(catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public Long create() {
+        long n = codes.incrementAndGet();
+
+        return db.sessionFactory.fromTransaction(session -> {
+            Product p = new Product();
+            p.productCode = "BENCH-" + n;
+            p.name = "bench " + n;
+            p.unitPrice = new BigDecimal("10.00");
+
+            session.persist(p);
+            session.flush();
+
+            int start = (int) (n % catalog.feedstocks);
+            for (int i = 0; i < lines; i++) {
+                Feedstock f = session.find(Feedstock.class, (long) ((start + i) % catalog.feedstocks) + 1);
+
+                ProductFeedstock pf = new ProductFeedstock();
+                pf.product = p;
+                pf.feedstock = f;
+                pf.quantity = BigDecimal.ONE;
+                pf.id = new ProductFeedstockId(p.id, f.id);
+
+                p.feedstocks.add(pf);
+            }
+            return p.id;
+        });
+    }
+}
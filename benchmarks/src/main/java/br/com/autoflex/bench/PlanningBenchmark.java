@@ -0,0 +1,76 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.planning.FeedstockImpact;
+import br.com.autoflex.planning.GreedyPlanner;
+import br.com.autoflex.planning.ImpactAnalyzer;
+import br.com.autoflex.planning.ProductionPlan;
+import br.com.autoflex.search.TrigramIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory paths: greedy production planning over the snapshot, impact analysis for the most
+ * used feedstock and trigram lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanningBenchmark {
+
+    @Param({"10000", "100000"})
+    int products;
+
+    @Param({"sextavado inox", "P00012"})
+    String q;
+
+    private BomSnapshot snapshot;
+    private TrigramIndex index;
+    private int busiestFeedstock;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticCatalog c = new SyntheticCatalog(42, products, Math.max(100, products / 10), 5);
+        snapshot = c.snapshot();
+
+        for (int f = 0; f < snapshot.feedstockCount; f++) {
+            int uses = snapshot.usageOffsets[f + 1] - snapshot.usageOffsets[f];
+            int best = snapshot.usageOffsets[busiestFeedstock + 1] - snapshot.usageOffsets[busiestFeedstock];
+            if (uses > best) busiestFeedstock = f;
+        }
+
+        index = new TrigramIndex(products);
+        for (int p = 0; p < products; p++) index.put(p + 1, c.productNames[p], c.productCodes[p]);
+    }
+
+    @Benchmark
+    public ProductionPlan plan() {
+        return GreedyPlanner.plan(snapshot);
+    }
+
+    @Benchmark
+    public FeedstockImpact impact() {
+        return ImpactAnalyzer.analyze(snapshot, busiestFeedstock, 0L);
+    }
+
+    @Benchmark
+    public long[] trigramSearch() {
+        return index.search(q, TrigramIndex.NAME | TrigramIndex.CODE, 1000);
+    }
+}
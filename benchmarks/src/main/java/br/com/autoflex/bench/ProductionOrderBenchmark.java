@@ -0,0 +1,129 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+import br.com.autoflex.entity.ProductionOrder;
+import br.com.autoflex.repository.FeedstockRepository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent production orders: each operation is the ProductionOrderService transaction (one
+ * batch of conditional stock updates in feedstock-id order, the order insert and its ledger rows)
+ * for a random product. Fewer feedstocks means more orders fight over the same rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class ProductionOrderBenchmark {
+
+    @Param({"20", "2000"})
+    int feedstocks;
+
+    @Param({"10"})
+    int linesPerProduct;
+
+    private static final int PRODUCTS = 1_000;
+
+    private BenchDatabase db;
+    private long[][] lineFeedstocks;
+    private BigDecimal[][] lineQuantities;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticCatalog c = new SyntheticCatalog(42, PRODUCTS, feedstocks, linesPerProduct);
+        db = new BenchDatabase();
+        db.seed(c);
+
+        // Enough stock that the measurement is contention, not shortfalls.
+        db.sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (Statement st = connection.createStatement()) {
+                st.execute("UPDATE FEEDSTOCK SET STOCK = 1000000000000");
+            }
+        }));
+
+        lineFeedstocks = new long[PRODUCTS][];
+        lineQuantities = new BigDecimal[PRODUCTS][];
+        for (int p = 0; p < PRODUCTS; p++) {
+            Integer[] order = new Integer[linesPerProduct];
+            for (int i = 0; i < linesPerProduct; i++) order[i] = p * linesPerProduct + i;
+            Arrays.sort(order, (a, b) -> Integer.compare(c.lineFeedstocks[a], c.lineFeedstocks[b]));
+
+            lineFeedstocks[p] = new long[linesPerProduct];
+            lineQuantities[p] = new BigDecimal[linesPerProduct];
+            for (int i = 0; i < linesPerProduct; i++) {
+                lineFeedstocks[p][i] = c.lineFeedstocks[order[i]] + 1L;
+                lineQuantities[p][i] = c.lineQuantities[order[i]];
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public int[] order() {
+        int p = ThreadLocalRandom.current().nextInt(PRODUCTS);
+        long[] ids = lineFeedstocks[p];
+        BigDecimal[] quantities = lineQuantities[p];
+
+        return db.sessionFactory.fromTransaction(session -> {
+            int[] updated = session.doReturningWork(connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(FeedstockRepository.CONSUME_STOCK)) {
+                    for (int i = 0; i < ids.length; i++) {
+                        ps.setBigDecimal(1, quantities[i]);
+                        ps.setLong(2, ids[i]);
+                        ps.setBigDecimal(3, quantities[i]);
+                        ps.addBatch();
+                    }
+                    return ps.executeBatch();
+                }
+            });
+
+            ProductionOrder order = new ProductionOrder();
+            order.productId = p + 1L;
+            order.units = 1L;
+            order.createdAt = Instant.now();
+            session.persist(order);
+
+            for (int i = 0; i < ids.length; i++) {
+                FeedstockMovement m = new FeedstockMovement();
+                m.feedstock = session.getReference(Feedstock.class, ids[i]);
+                m.kind = FeedstockMovement.Kind.CONSUMPTION;
+                m.quantity = quantities[i].negate();
+                m.productionOrderId = order.id;
+                m.createdAt = order.createdAt;
+                m.compactedAt = order.createdAt;
+                session.persist(m);
+            }
+            return updated;
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+
+import org.hibernate.Session;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The three LIKE searches behind {@code GET /products} and {@code GET /feedstocks}, first page
+ * plus count, with the same HQL and ordering as ProductRepository and FeedstockRepository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryBenchmark {
+
+    private static final String PRODUCT_LIKE = """
+            from Product
+            where (lower(name) like :like or lower(productCode) like :like)
+            order by unitPrice desc, id desc""";
+
+    private static final String PRODUCT_BY_FEEDSTOCK_NAME = """
+            from Product
+            where id in (
+                select pf.product.id
+                from ProductFeedstock pf
+                where lower(pf.feedstock.name) like :like
+            )
+            order by unitPrice desc, id desc""";
+
+    private static final String FEEDSTOCK_LIKE = """
+            from Feedstock
+            where (lower(name) like :like or lower(feedstockCode) like :like)
+            order by stock desc, id desc""";
+
+    @Param({"10000", "100000"})
+    int products;
+
+    @Param({"motor", "sextavado inox"})
+    String q;
+
+    @Param({"20"})
+    int pageSize;
+
+    private BenchDatabase db;
+    private String like;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = new BenchDatabase();
+        db.seed(new SyntheticCatalog(42, products, Math.max(100, products / 10), 5));
+        like = "%" + q.toLowerCase() + "%";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public List<Product> productByName() {
+        return page(Product.class, PRODUCT_LIKE);
+    }
+
+    @Benchmark
+    public List<Product> productByFeedstockName() {
+        return page(Product.class, PRODUCT_BY_FEEDSTOCK_NAME);
+    }
+
+    @Benchmark
+    public List<Feedstock> feedstockByName() {
+        return page(Feedstock.class, FEEDSTOCK_LIKE);
+    }
+
+    private <T> List<T> page(Class<T> type, String hql) {
+        return db.sessionFactory.fromSession(session -> {
+            List<T> rows = session.createSelectionQuery(hql, type)
+                    .setParameter("like", like)
+                    .setFirstResult(0)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+            count(session, hql);
+            return rows;
+        });
+    }
+
+    private void count(Session session, String hql) {
+        session.createSelectionQuery("select count(*) " + hql.substring(0, hql.lastIndexOf("order by")), Long.class)
+                .setParameter("like", like)
+                .getSingleResult();
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.dto.PagedResponse;
+import br.com.autoflex.dto.ProductDtos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Jackson serialization of one {@code GET /products} page, as the REST layer writes it. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    @Param({"1", "10", "100"})
+    int linesPerProduct;
+
+    private ObjectWriter writer;
+    private PagedResponse<ProductDtos.Response> page;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        writer = new ObjectMapper().writerFor(PagedResponse.class);
+
+        SyntheticCatalog c = new SyntheticCatalog(42, pageSize, Math.max(linesPerProduct, pageSize), linesPerProduct);
+
+        List<ProductDtos.Response> items = new ArrayList<>();
+        for (int p = 0; p < c.products; p++) {
+            ProductDtos.Response dto = new ProductDtos.Response();
+            dto.id = p + 1L;
+            dto.productCode = c.productCodes[p];
+            dto.name = c.productNames[p];
+            dto.unitPrice = c.unitPrices[p];
+            dto.feedstocks = new ArrayList<>();
+
+            for (int i = 0; i < linesPerProduct; i++) {
+                int at = p * linesPerProduct + i;
+                int f = c.lineFeedstocks[at];
+
+                ProductDtos.FeedstockItem item = new ProductDtos.FeedstockItem();
+                item.id = f + 1L;
+                item.feedstockCode = c.feedstockCodes[f];
+                item.name = c.feedstockNames[f];
+                item.stock = c.stocks[f];
+                item.quantity = c.lineQuantities[at];
+                dto.feedstocks.add(item);
+            }
+            items.add(dto);
+        }
+
+        page = new PagedResponse<>(items, 1_000_000L, 0, pageSize, "eyJrIjoiMTAuMDAiLCJpZCI6MX0", true);
+    }
+
+    @Benchmark
+    public byte[] productPage() throws Exception {
+        return writer.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.FeedstockMovement;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent stock receipts of {@code batch} movements each, written the old way (one relative
+ * update of the feedstock row per movement, holding its lock until commit) against the ledger
+ * way (one batched insert per movement, no shared row). Fewer feedstocks means hotter rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class StockReceiptBenchmark {
+
+    @Param({"20", "2000"})
+    int feedstocks;
+
+    @Param({"10"})
+    int batch;
+
+    private BenchDatabase db;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        db = new BenchDatabase();
+        db.seed(new SyntheticCatalog(42, 1, feedstocks, 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    @Benchmark
+    public int[] rowUpdate() {
+        long[] ids = pick();
+
+        return db.sessionFactory.fromTransaction(session -> session.doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "UPDATE FEEDSTOCK SET STOCK = STOCK + ? WHERE ID_FEEDSTOCK = ?")) {
+                for (long id : ids) {
+                    ps.setBigDecimal(1, BigDecimal.ONE);
+                    ps.setLong(2, id);
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        }));
+    }
+
+    @Benchmark
+    public long ledgerInsert() {
+        long[] ids = pick();
+
+        return db.sessionFactory.fromTransaction(session -> {
+            Instant now = Instant.now();
+            long last = 0;
+            for (long id : ids) {
+                FeedstockMovement m = new FeedstockMovement();
+                m.feedstock = session.getReference(Feedstock.class, id);
+                m.kind = FeedstockMovement.Kind.RECEIPT;
+                m.quantity = BigDecimal.ONE;
+                m.createdAt = now;
+                session.persist(m);
+                last = m.id;
+            }
+            return last;
+        });
+    }
+
+    // Ascending, like the services, so the row-update variant measures contention rather than deadlocks.
+    private long[] pick() {
+        long[] ids = new long[batch];
+        for (int i = 0; i < batch; i++) ids[i] = ThreadLocalRandom.current().nextInt(feedstocks) + 1L;
+        Arrays.sort(ids);
+        return ids;
+    }
+}
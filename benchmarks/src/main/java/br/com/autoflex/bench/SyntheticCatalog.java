@@ -0,0 +1,117 @@
+package br.com.autoflex.bench;
+
+import br.com.autoflex.bom.BomSnapshot;
+import br.com.autoflex.bom.Quantities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * Deterministic catalog of {@code products} products over {@code feedstocks} feedstocks, each
+ * product using {@code linesPerProduct} distinct feedstocks. The same seed always yields the same
+ * names, prices, stock and BOM, so runs on different builds measure the same data.
+ */
+public final class SyntheticCatalog {
+
+    private static final String[] WORDS = {
+            "chapa", "aço", "parafuso", "porca", "tinta", "azul", "sextavado", "inox", "cabo", "fio",
+            "motor", "bomba", "rolamento", "eixo", "verniz", "madeira", "pino", "mola", "vedação", "tubo"
+    };
+
+    public final int products;
+    public final int feedstocks;
+    public final int linesPerProduct;
+
+    public final String[] productCodes;
+    public final String[] productNames;
+    public final BigDecimal[] unitPrices;
+
+    public final String[] feedstockCodes;
+    public final String[] feedstockNames;
+    public final BigDecimal[] stocks;
+
+    /** {@code lineFeedstocks[p * linesPerProduct + i]} is the feedstock index of line i of product p. */
+    public final int[] lineFeedstocks;
+    public final BigDecimal[] lineQuantities;
+
+    public SyntheticCatalog(long seed, int products, int feedstocks, int linesPerProduct) {
+        if (linesPerProduct > feedstocks) throw new IllegalArgumentException("linesPerProduct > feedstocks");
+
+        this.products = products;
+        this.feedstocks = feedstocks;
+        this.linesPerProduct = linesPerProduct;
+
+        Random random = new Random(seed);
+
+        feedstockCodes = new String[feedstocks];
+        feedstockNames = new String[feedstocks];
+        stocks = new BigDecimal[feedstocks];
+        for (int f = 0; f < feedstocks; f++) {
+            feedstockCodes[f] = String.format("F%07d", f + 1);
+            feedstockNames[f] = name(random, f);
+            stocks[f] = BigDecimal.valueOf(random.nextInt(1_000_000), 3);
+        }
+
+        productCodes = new String[products];
+        productNames = new String[products];
+        unitPrices = new BigDecimal[products];
+        lineFeedstocks = new int[products * linesPerProduct];
+        lineQuantities = new BigDecimal[products * linesPerProduct];
+
+        for (int p = 0; p < products; p++) {
+            productCodes[p] = String.format("P%07d", p + 1);
+            productNames[p] = name(random, p);
+            unitPrices[p] = BigDecimal.valueOf(100 + random.nextInt(1_000_000), 2);
+
+            int start = random.nextInt(feedstocks);
+            int stride = 1 + random.nextInt(Math.max(1, feedstocks / Math.max(1, linesPerProduct)));
+            for (int i = 0; i < linesPerProduct; i++) {
+                int at = p * linesPerProduct + i;
+                lineFeedstocks[at] = (int) ((start + (long) i * stride) % feedstocks);
+                lineQuantities[at] = BigDecimal.valueOf(1 + random.nextInt(5_000), 3)
+                        .setScale(6, RoundingMode.UNNECESSARY);
+            }
+            dedupe(p);
+        }
+    }
+
+    // A stride that divides the feedstock count can wrap onto an earlier line; walk forward instead.
+    private void dedupe(int p) {
+        int from = p * linesPerProduct;
+        for (int i = from + 1; i < from + linesPerProduct; i++) {
+            boolean clash = true;
+            while (clash) {
+                clash = false;
+                for (int j = from; j < i; j++) {
+                    if (lineFeedstocks[j] == lineFeedstocks[i]) {
+                        lineFeedstocks[i] = (lineFeedstocks[i] + 1) % feedstocks;
+                        clash = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static String name(Random random, int n) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + n;
+    }
+
+    public BomSnapshot snapshot() {
+        BomSnapshot.Builder builder = BomSnapshot.builder(products, feedstocks, products * linesPerProduct);
+        for (int f = 0; f < feedstocks; f++) {
+            builder.addFeedstock(f + 1, feedstockCodes[f], feedstockNames[f], "KG",
+                    Quantities.toMicros(stocks[f]));
+        }
+        for (int p = 0; p < products; p++) {
+            builder.addProduct(p + 1, productCodes[p], productNames[p],
+                    Quantities.toCents(unitPrices[p]));
+        }
+        for (int at = 0; at < lineFeedstocks.length; at++) {
+            builder.addLine(at / linesPerProduct + 1, lineFeedstocks[at] + 1,
+                    Quantities.toMicros(lineQuantities[at]));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.autoflex.controller;
+
+import br.com.autoflex.bench.SyntheticCatalog;
+import br.com.autoflex.dto.FeedstockDtos;
+import br.com.autoflex.dto.ProductDtos;
+import br.com.autoflex.entity.Feedstock;
+import br.com.autoflex.entity.Product;
+import br.com.autoflex.entity.ProductFeedstock;
+import br.com.autoflex.entity.ProductFeedstockId;
+import br.com.autoflex.repository.projection.BomLineRow;
+import br.com.autoflex.repository.projection.FeedstockRow;
+import br.com.autoflex.repository.projection.ProductRow;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Entity and projection to DTO mapping done by the controllers for one list page. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"20", "100"})
+    int pageSize;
+
+    @Param({"1", "10", "100"})
+    int linesPerProduct;
+
+    private final ProductController products = new ProductController();
+    private final FeedstockController feedstocks = new FeedstockController();
+
+    private List<Product> productEntities;
+    private List<ProductRow> productRows;
+    private List<List<BomLineRow>> productLines;
+
+    private List<Feedstock> feedstockEntities;
+    private List<FeedstockRow> feedstockRows;
+    private List<List<BomLineRow>> feedstockLines;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SyntheticCatalog c = new SyntheticCatalog(42, pageSize, Math.max(linesPerProduct, pageSize), linesPerProduct);
+
+        List<Feedstock> allFeedstocks = new ArrayList<>();
+        for (int f = 0; f < c.feedstocks; f++) {
+            Feedstock e = new Feedstock();
+            e.id = f + 1L;
+            e.feedstockCode = c.feedstockCodes[f];
+            e.name = c.feedstockNames[f];
+            e.stock = c.stocks[f];
+            e.unitOfMeasure = "KG";
+            allFeedstocks.add(e);
+        }
+
+        productEntities = new ArrayList<>();
+        productRows = new ArrayList<>();
+        productLines = new ArrayList<>();
+        for (int p = 0; p < c.products; p++) {
+            Product e = new Product();
+            e.id = p + 1L;
+            e.productCode = c.productCodes[p];
+            e.name = c.productNames[p];
+            e.unitPrice = c.unitPrices[p];
+
+            List<BomLineRow> lines = new ArrayList<>();
+            for (int i = 0; i < linesPerProduct; i++) {
+                int at = p * linesPerProduct + i;
+                Feedstock f = allFeedstocks.get(c.lineFeedstocks[at]);
+
+                ProductFeedstock pf = new ProductFeedstock();
+                pf.id = new ProductFeedstockId(e.id, f.id);
+                pf.product = e;
+                pf.feedstock = f;
+                pf.quantity = c.lineQuantities[at];
+                e.feedstocks.add(pf);
+                f.products.add(pf);
+
+                lines.add(new BomLineRow(e.id, e.productCode, e.name, e.unitPrice,
+                        f.id, f.feedstockCode, f.name, f.stock, pf.quantity));
+            }
+
+            productEntities.add(e);
+            productRows.add(new ProductRow(e.id, e.productCode, e.name, e.unitPrice,
+                    e.maxProducibleUnits, e.bottleneckFeedstockId));
+            productLines.add(lines);
+        }
+
+        feedstockEntities = allFeedstocks.subList(0, pageSize);
+        feedstockRows = new ArrayList<>();
+        feedstockLines = new ArrayList<>();
+        for (Feedstock f : feedstockEntities) {
+            feedstockRows.add(new FeedstockRow(f.id, f.feedstockCode, f.name, f.stock, f.pendingStock, f.unitOfMeasure));
+            feedstockLines.add(f.products.stream()
+                    .map(pf -> new BomLineRow(pf.product.id, pf.product.productCode, pf.product.name,
+                            pf.product.unitPrice, f.id, f.feedstockCode, f.name, f.stock, pf.quantity))
+                    .toList());
+        }
+    }
+
+    @Benchmark
+    public List<ProductDtos.Response> productFromEntities() {
+        return productEntities.stream().map(products::toDto).toList();
+    }
+
+    @Benchmark
+    public List<ProductDtos.Response> productFromRows() {
+        List<ProductDtos.Response> out = new ArrayList<>(productRows.size());
+        for (int i = 0; i < productRows.size(); i++) out.add(products.toDto(productRows.get(i), productLines.get(i)));
+        return out;
+    }
+
+    @Benchmark
+    public List<FeedstockDtos.Response> feedstockFromEntities() {
+        return feedstockEntities.stream().map(feedstocks::toDto).toList();
+    }
+
+    @Benchmark
+    public List<FeedstockDtos.Response> feedstockFromRows() {
+        List<FeedstockDtos.Response> out = new ArrayList<>(feedstockRows.size());
+        for (int i = 0; i < feedstockRows.size(); i++) out.add(feedstocks.toDto(feedstockRows.get(i), feedstockLines.get(i)));
+        return out;
+    }
+}